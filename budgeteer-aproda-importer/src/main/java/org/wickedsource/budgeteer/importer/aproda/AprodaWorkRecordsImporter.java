@@ -1,6 +1,6 @@
 package org.wickedsource.budgeteer.importer.aproda;
 
-import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.xssf.usermodel.*;
 import org.wickedsource.budgeteer.imports.api.*;
 
@@ -116,22 +116,23 @@ public class AprodaWorkRecordsImporter implements WorkRecordsImporter {
             skippedRecords.add(fileName);
 
             List<ImportedWorkRecord> resultList = new ArrayList<>();
-            Workbook workbook = new XSSFWorkbook(file.getInputStream());
-            if (!checkValidity(workbook)) {
-                throw new InvalidFileFormatException("Invalid file", file.getFilename());
-            }
-            Sheet sheet = workbook.getSheetAt(SHEET_INDEX);
-            int i = 3;
-            Row row = sheet.getRow(i);
-            while (row != null && row.getCell(0).getStringCellValue() != null) {
-                if (isImportable(row)) {
-                    ImportedWorkRecord record = parseRow(row, file);
-                    resultList.add(record);
-                } else {
-                    skippedRecords.add(getRowAsStrings(row, i));
+            try (StreamingWorkbook workbook = StreamingWorkbook.open(file.getInputStream())) {
+                if (!checkValidity(workbook)) {
+                    throw new InvalidFileFormatException("Invalid file", file.getFilename());
+                }
+                StreamingSheet sheet = workbook.getSheetAt(SHEET_INDEX);
+                int i = 3;
+                StreamingRow row = sheet.getRow(i);
+                while (row != null && row.getCell(0).getStringCellValue() != null) {
+                    if (isImportable(row)) {
+                        ImportedWorkRecord record = parseRow(row, file);
+                        resultList.add(record);
+                    } else {
+                        skippedRecords.add(getRowAsStrings(row, i));
+                    }
+                    i++;
+                    row = sheet.getRow(i);
                 }
-                i++;
-                row = sheet.getRow(i);
             }
             return resultList;
         } catch (IOException e) {
@@ -139,14 +140,14 @@ public class AprodaWorkRecordsImporter implements WorkRecordsImporter {
         }
     }
 
-    private boolean checkValidity(Workbook workbook) {
-        boolean isValid = workbook.getNumberOfSheets() >= SHEET_INDEX;
+    private boolean checkValidity(StreamingWorkbook workbook) throws IOException {
+        boolean isValid = workbook.getNumberOfSheets() > SHEET_INDEX;
         if (isValid) {
-            Sheet sheet = workbook.getSheetAt(SHEET_INDEX);
-            if (sheet.getRow(2) == null) {
+            StreamingSheet sheet = workbook.getSheetAt(SHEET_INDEX);
+            StreamingRow r = sheet.getRow(2);
+            if (r == null) {
                 isValid = false;
             } else {
-                Row r = sheet.getRow(2);
                 try {
                     isValid = r.getCell(COLUMN_PERSON).getStringCellValue().equals("Name") &&
                             r.getCell(COLUMN_DATE).getStringCellValue().equals("Tag") &&
@@ -160,10 +161,10 @@ public class AprodaWorkRecordsImporter implements WorkRecordsImporter {
         return isValid;
     }
 
-    private List<String> getRowAsStrings(Row row, int index) {
+    private List<String> getRowAsStrings(StreamingRow row, int index) {
         List<String> result = new LinkedList<>();
-        for (short i = row.getFirstCellNum(); i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
+        for (int i = row.getFirstCellNum(); i < row.getLastCellNum(); i++) {
+            StreamingCell cell = row.getCell(i);
             if (cell == null) {
                 result.add("");
                 continue;
@@ -176,7 +177,7 @@ public class AprodaWorkRecordsImporter implements WorkRecordsImporter {
         return result;
     }
 
-    private ImportedWorkRecord parseRow(Row row, ImportFile file) throws ImportException {
+    private ImportedWorkRecord parseRow(StreamingRow row, ImportFile file) throws ImportException {
         try {
             String personName = row.getCell(COLUMN_PERSON).getStringCellValue();
             Date date = row.getCell(COLUMN_DATE).getDateCellValue();
@@ -201,7 +202,7 @@ public class AprodaWorkRecordsImporter implements WorkRecordsImporter {
         }
     }
 
-    private boolean isImportable(Row row) {
+    private boolean isImportable(StreamingRow row) {
         return row != null && ("ja".equalsIgnoreCase(row.getCell(COLUMN_INVOICABLE).getStringCellValue()))
                 && (row.getCell(COLUMN_BUDGET).getStringCellValue() != null)
                 && (!"".equals(row.getCell(COLUMN_BUDGET).getStringCellValue().trim()))
@@ -0,0 +1,105 @@
+package org.wickedsource.budgeteer.imports.api;
+
+import org.apache.poi.ss.util.CellReference;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A formula that is shared by a range of cells. The sheet's XML contains the formula only in the first cell of the
+ * range, all other cells refer to it and use it with their relative cell references moved by their distance to the
+ * first cell.
+ * <p>
+ * Only references to single cells and ranges of cells are moved, whole-column and whole-row references like
+ * {@code A:A} or {@code 1:1} are kept as they are.
+ */
+class SharedFormula {
+
+    /**
+     * A cell reference, which must not be part of a name, a function call or a sheet name.
+     */
+    private static final Pattern CELL_REFERENCE = Pattern.compile("(?<![\\w.$])(\\$?)([A-Z]{1,3})(\\$?)(\\d+)(?![\\w(!])");
+
+    private final int rowIndex;
+
+    private final int columnIndex;
+
+    private final String formula;
+
+    SharedFormula(int rowIndex, int columnIndex, String formula) {
+        this.rowIndex = rowIndex;
+        this.columnIndex = columnIndex;
+        this.formula = formula;
+    }
+
+    /**
+     * @return the formula as it is used by the cell with the given position.
+     */
+    String translate(int targetRowIndex, int targetColumnIndex) {
+        int rowOffset = targetRowIndex - rowIndex;
+        int columnOffset = targetColumnIndex - columnIndex;
+        if (rowOffset == 0 && columnOffset == 0) {
+            return formula;
+        }
+        StringBuilder result = new StringBuilder(formula.length());
+        int start = 0;
+        while (start < formula.length()) {
+            // string literals and quoted sheet names are copied unchanged
+            char c = formula.charAt(start);
+            if (c == '"' || c == '\'') {
+                int end = endOfQuoted(start, c);
+                result.append(formula, start, end);
+                start = end;
+                continue;
+            }
+            int end = start;
+            while (end < formula.length() && formula.charAt(end) != '"' && formula.charAt(end) != '\'') {
+                end++;
+            }
+            result.append(moveReferences(formula.substring(start, end), rowOffset, columnOffset));
+            start = end;
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return the index after the closing quote, quotes are escaped by doubling them.
+     */
+    private int endOfQuoted(int start, char quote) {
+        int i = start + 1;
+        while (i < formula.length()) {
+            if (formula.charAt(i) == quote) {
+                if (i + 1 < formula.length() && formula.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return formula.length();
+    }
+
+    private static String moveReferences(String part, int rowOffset, int columnOffset) {
+        Matcher matcher = CELL_REFERENCE.matcher(part);
+        StringBuffer result = new StringBuffer(part.length());
+        while (matcher.find()) {
+            boolean absoluteColumn = !matcher.group(1).isEmpty();
+            boolean absoluteRow = !matcher.group(3).isEmpty();
+            int column = CellReference.convertColStringToIndex(matcher.group(2));
+            int row = Integer.parseInt(matcher.group(4)) - 1;
+            if (!absoluteColumn) {
+                column += columnOffset;
+            }
+            if (!absoluteRow) {
+                row += rowOffset;
+            }
+            String reference = column < 0 || row < 0
+                    ? "#REF!"
+                    : matcher.group(1) + CellReference.convertNumToColString(column) + matcher.group(3) + (row + 1);
+            matcher.appendReplacement(result, Matcher.quoteReplacement(reference));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+}
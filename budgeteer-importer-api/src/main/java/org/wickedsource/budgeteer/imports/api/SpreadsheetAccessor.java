@@ -21,4 +21,22 @@ public class SpreadsheetAccessor {
         }
         return true;
     }
+
+    public static boolean cellContentIsValid(StreamingRow row, int cellNumber, CellContentValidator validator) {
+        if (!cellIsNull(row, cellNumber)) {
+            return validator.isValid(row.getCell(cellNumber).getStringCellValue());
+        }
+        return false;
+    }
+
+    public static boolean cellIsNull(StreamingRow row, int cellNumber) {
+        if (row != null) {
+            StreamingCell cell = row.getCell(cellNumber);
+            if (cell != null) {
+                String cellValue = cell.getStringCellValue();
+                return cellValue == null;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,136 @@
+package org.wickedsource.budgeteer.imports.api;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.LocaleUtil;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * A cell of a {@link StreamingRow}. The accessors behave like those of {@link org.apache.poi.ss.usermodel.Cell}:
+ * reading a value of the wrong type throws an {@link IllegalStateException} and blank cells are read as empty
+ * string, 0 or null.
+ */
+public class StreamingCell {
+
+    private final int rowIndex;
+
+    private final int columnIndex;
+
+    private final CellType cellType;
+
+    private final CellType valueType;
+
+    private final String text;
+
+    private final double number;
+
+    private final boolean dateFormatted;
+
+    private final boolean date1904;
+
+    private final String formula;
+
+    StreamingCell(int rowIndex, int columnIndex, CellType cellType, CellType valueType, String text, double number,
+                  boolean dateFormatted, boolean date1904, String formula) {
+        this.rowIndex = rowIndex;
+        this.columnIndex = columnIndex;
+        this.cellType = cellType;
+        this.valueType = valueType;
+        this.text = text;
+        this.number = number;
+        this.dateFormatted = dateFormatted;
+        this.date1904 = date1904;
+        this.formula = formula;
+    }
+
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    /**
+     * @return the type of the cell, {@link CellType#FORMULA} for formulas.
+     */
+    public CellType getCellType() {
+        return cellType;
+    }
+
+    /**
+     * @return the type of the value of this cell, for formulas the type of the cached result.
+     */
+    public CellType getValueType() {
+        return valueType;
+    }
+
+    public String getStringCellValue() {
+        switch (valueType) {
+            case BLANK:
+                return "";
+            case STRING:
+                return text;
+            default:
+                throw typeMismatch(CellType.STRING);
+        }
+    }
+
+    public double getNumericCellValue() {
+        switch (valueType) {
+            case BLANK:
+                return 0;
+            case NUMERIC:
+                return number;
+            default:
+                throw typeMismatch(CellType.NUMERIC);
+        }
+    }
+
+    public Date getDateCellValue() {
+        switch (valueType) {
+            case BLANK:
+                return null;
+            case NUMERIC:
+                return DateUtil.getJavaDate(number, date1904);
+            default:
+                throw typeMismatch(CellType.NUMERIC);
+        }
+    }
+
+    /**
+     * @return true if the cell contains a number that is formatted as date.
+     */
+    public boolean isDateFormatted() {
+        return valueType == CellType.NUMERIC && dateFormatted && DateUtil.isValidExcelDate(number);
+    }
+
+    private IllegalStateException typeMismatch(CellType expectedType) {
+        return new IllegalStateException(String.format("Cannot get a %s value from a %s cell", expectedType, valueType));
+    }
+
+    /**
+     * Returns the content of the cell formatted like {@code XSSFCell.toString()}.
+     */
+    @Override
+    public String toString() {
+        switch (cellType) {
+            case BLANK:
+                return "";
+            case FORMULA:
+                return formula;
+            case NUMERIC:
+                if (isDateFormatted()) {
+                    DateFormat format = new SimpleDateFormat("dd-MMM-yyyy", LocaleUtil.getUserLocale());
+                    format.setTimeZone(LocaleUtil.getUserTimeZone());
+                    return format.format(getDateCellValue());
+                }
+                return Double.toString(number);
+            default:
+                return text;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.wickedsource.budgeteer.imports.api;
+
+import java.util.List;
+
+/**
+ * A row of a {@link StreamingSheet}. Only cells that are contained in the sheet's XML are present, like in
+ * {@link org.apache.poi.ss.usermodel.Row}.
+ */
+public class StreamingRow {
+
+    private final int rowNum;
+
+    private final StreamingCell[] cells;
+
+    private final int firstCellNum;
+
+    StreamingRow(int rowNum, List<StreamingCell> cellList) {
+        this.rowNum = rowNum;
+        int lastColumn = -1;
+        int firstColumn = -1;
+        for (StreamingCell cell : cellList) {
+            lastColumn = Math.max(lastColumn, cell.getColumnIndex());
+            if (firstColumn < 0 || cell.getColumnIndex() < firstColumn) {
+                firstColumn = cell.getColumnIndex();
+            }
+        }
+        this.cells = new StreamingCell[lastColumn + 1];
+        for (StreamingCell cell : cellList) {
+            cells[cell.getColumnIndex()] = cell;
+        }
+        this.firstCellNum = firstColumn;
+    }
+
+    /**
+     * @return 0-based index of this row
+     */
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    /**
+     * @param cellNum 0-based index of the column
+     * @return the cell or null if the row does not contain a cell in this column
+     */
+    public StreamingCell getCell(int cellNum) {
+        if (cellNum < 0 || cellNum >= cells.length) {
+            return null;
+        }
+        return cells[cellNum];
+    }
+
+    /**
+     * @return index of the first cell contained in this row or -1 if the row does not contain any cells
+     */
+    public int getFirstCellNum() {
+        return firstCellNum;
+    }
+
+    /**
+     * @return index of the last cell contained in this row plus one or -1 if the row does not contain any cells
+     */
+    public int getLastCellNum() {
+        return cells.length == 0 ? -1 : cells.length;
+    }
+}
@@ -0,0 +1,243 @@
+package org.wickedsource.budgeteer.imports.api;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellReference;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A sheet of a {@link StreamingWorkbook}. Rows are parsed from the sheet's XML when they are requested and can only
+ * be requested in ascending order.
+ */
+public class StreamingSheet implements Closeable {
+
+    private final StreamingWorkbook workbook;
+
+    private final InputStream in;
+
+    private final XMLStreamReader xml;
+
+    /**
+     * The row that has been parsed ahead but not yet returned.
+     */
+    private StreamingRow pendingRow;
+
+    /**
+     * The row that has been returned last.
+     */
+    private StreamingRow lastRow;
+
+    /**
+     * Rows before this index have already been passed and cannot be read again.
+     */
+    private int firstReadableRowNum;
+
+    private int lastParsedRowNum = -1;
+
+    /**
+     * The shared formulas of the rows read so far by their index.
+     */
+    private final Map<String, SharedFormula> sharedFormulas = new HashMap<>();
+
+    private boolean finished;
+
+    StreamingSheet(StreamingWorkbook workbook, InputStream in, XMLStreamReader xml) {
+        this.workbook = workbook;
+        this.in = in;
+        this.xml = xml;
+    }
+
+    /**
+     * Returns the row with the given index, like {@link org.apache.poi.ss.usermodel.Sheet#getRow(int)}. All rows
+     * before the given index are skipped and cannot be read afterwards.
+     *
+     * @param rowNum 0-based index of the row
+     * @return the row or null if the sheet does not contain a row with this index
+     * @throws IllegalStateException if a row after the given index has already been read
+     */
+    public StreamingRow getRow(int rowNum) throws IOException {
+        if (rowNum < firstReadableRowNum) {
+            throw new IllegalStateException(String.format("Row %d has already been passed, rows can only be read in ascending order", rowNum));
+        }
+        if (lastRow != null && lastRow.getRowNum() == rowNum) {
+            return lastRow;
+        }
+        firstReadableRowNum = rowNum;
+        while (pendingRow == null || pendingRow.getRowNum() < rowNum) {
+            pendingRow = parseNextRow();
+            if (pendingRow == null) {
+                return null;
+            }
+        }
+        if (pendingRow.getRowNum() == rowNum) {
+            lastRow = pendingRow;
+            pendingRow = null;
+            return lastRow;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the row following the one that has been read last. Rows that are not contained in the sheet are
+     * skipped.
+     *
+     * @return the next row or null if there are no more rows in this sheet
+     */
+    public StreamingRow nextRow() throws IOException {
+        StreamingRow row = pendingRow != null ? pendingRow : parseNextRow();
+        pendingRow = null;
+        if (row != null) {
+            lastRow = row;
+            firstReadableRowNum = row.getRowNum();
+        }
+        return row;
+    }
+
+    private StreamingRow parseNextRow() throws IOException {
+        if (finished) {
+            return null;
+        }
+        try {
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                    String ref = xml.getAttributeValue(null, "r");
+                    lastParsedRowNum = ref == null ? lastParsedRowNum + 1 : Integer.parseInt(ref) - 1;
+                    return parseRow(lastParsedRowNum);
+                } else if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(xml.getLocalName())) {
+                    break;
+                }
+            }
+            finished = true;
+            return null;
+        } catch (XMLStreamException | RuntimeException e) {
+            throw new IOException(String.format("Row %d could not be read", lastParsedRowNum + 2), e);
+        }
+    }
+
+    private StreamingRow parseRow(int rowNum) throws XMLStreamException {
+        List<StreamingCell> cells = new ArrayList<>();
+        int columnIndex = -1;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "c".equals(xml.getLocalName())) {
+                String ref = xml.getAttributeValue(null, "r");
+                columnIndex = ref == null ? columnIndex + 1 : new CellReference(ref).getCol();
+                cells.add(parseCell(rowNum, columnIndex));
+            } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+                break;
+            }
+        }
+        return new StreamingRow(rowNum, cells);
+    }
+
+    private StreamingCell parseCell(int rowNum, int columnIndex) throws XMLStreamException {
+        String type = xml.getAttributeValue(null, "t");
+        String style = xml.getAttributeValue(null, "s");
+        String value = null;
+        String formula = null;
+        StringBuilder inlineString = null;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("v".equals(name)) {
+                    value = xml.getElementText();
+                } else if ("f".equals(name)) {
+                    formula = parseFormula(rowNum, columnIndex);
+                } else if ("t".equals(name)) {
+                    if (inlineString == null) {
+                        inlineString = new StringBuilder();
+                    }
+                    inlineString.append(xml.getElementText());
+                } else if ("rPh".equals(name)) {
+                    // phonetic hints of inline strings are not part of the value
+                    skipElement();
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(xml.getLocalName())) {
+                break;
+            }
+        }
+
+        CellType valueType;
+        String text = null;
+        double number = 0;
+        boolean dateFormatted = false;
+        if ("inlineStr".equals(type)) {
+            valueType = inlineString == null ? CellType.BLANK : CellType.STRING;
+            text = inlineString == null ? null : inlineString.toString();
+        } else if (value == null) {
+            valueType = CellType.BLANK;
+        } else if ("s".equals(type)) {
+            valueType = CellType.STRING;
+            text = workbook.getSharedString(Integer.parseInt(value));
+        } else if ("str".equals(type)) {
+            valueType = CellType.STRING;
+            text = value;
+        } else if ("b".equals(type)) {
+            valueType = CellType.BOOLEAN;
+            text = "1".equals(value) || "true".equalsIgnoreCase(value) ? "TRUE" : "FALSE";
+        } else if ("e".equals(type)) {
+            valueType = CellType.ERROR;
+            text = value;
+        } else {
+            valueType = CellType.NUMERIC;
+            number = Double.parseDouble(value);
+            dateFormatted = workbook.isDateStyle(style == null ? 0 : Integer.parseInt(style));
+        }
+        return new StreamingCell(rowNum, columnIndex, formula != null ? CellType.FORMULA : valueType, valueType,
+                text, number, dateFormatted, workbook.isDate1904(), formula);
+    }
+
+    /**
+     * Reads the formula of the current cell. For cells that use a shared formula, the formula is translated from the
+     * first cell of the shared range, which must have been read before. If it has not, null is returned and the cell
+     * is read like a value cell.
+     */
+    private String parseFormula(int rowNum, int columnIndex) throws XMLStreamException {
+        String type = xml.getAttributeValue(null, "t");
+        String sharedIndex = xml.getAttributeValue(null, "si");
+        String formula = xml.getElementText();
+        if (!"shared".equals(type) || sharedIndex == null) {
+            return formula;
+        }
+        if (!formula.isEmpty()) {
+            sharedFormulas.put(sharedIndex, new SharedFormula(rowNum, columnIndex, formula));
+            return formula;
+        }
+        SharedFormula sharedFormula = sharedFormulas.get(sharedIndex);
+        return sharedFormula == null ? null : sharedFormula.translate(rowNum, columnIndex);
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.wickedsource.budgeteer.imports.api;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Read-only access to the sheets of an xlsx file that does not build the document model of the workbook in memory.
+ * The rows of a sheet are parsed lazily from the sheet's XML while they are requested, so only the shared strings
+ * and the current row are kept in memory.
+ * <p>
+ * Only one sheet can be read at a time and its rows can only be read in ascending order.
+ */
+public class StreamingWorkbook implements Closeable {
+
+    private final Path file;
+
+    private final OPCPackage xlsxPackage;
+
+    private final XSSFReader reader;
+
+    private final ReadOnlySharedStringsTable sharedStrings;
+
+    private final StylesTable styles;
+
+    private final XMLInputFactory xmlInputFactory;
+
+    private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+
+    private boolean date1904;
+
+    private int numberOfSheets;
+
+    private StreamingSheet openSheet;
+
+    private int openSheetIndex = -1;
+
+    private StreamingWorkbook(Path file) throws IOException {
+        this.file = file;
+        this.xmlInputFactory = XMLInputFactory.newInstance();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            this.xlsxPackage = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        } catch (OpenXML4JException | RuntimeException e) {
+            throw new IOException("The file is not a valid xlsx file", e);
+        }
+        try {
+            this.reader = new XSSFReader(xlsxPackage);
+            this.sharedStrings = new ReadOnlySharedStringsTable(xlsxPackage);
+            this.styles = reader.getStylesTable();
+            readWorkbookProperties();
+        } catch (OpenXML4JException | SAXException | XMLStreamException | RuntimeException e) {
+            xlsxPackage.revert();
+            throw new IOException("The file is not a valid xlsx file", e);
+        }
+    }
+
+    /**
+     * Opens the xlsx file from the given stream. The content of the stream is copied into a temporary file, which is
+     * deleted when the workbook is closed.
+     */
+    public static StreamingWorkbook open(InputStream in) throws IOException {
+        Path file = Files.createTempFile("budgeteer-import", ".xlsx");
+        try {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            return new StreamingWorkbook(file);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private void readWorkbookProperties() throws IOException, OpenXML4JException, XMLStreamException {
+        try (InputStream in = reader.getWorkbookData()) {
+            XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT) {
+                        if ("workbookPr".equals(xml.getLocalName())) {
+                            String value = xml.getAttributeValue(null, "date1904");
+                            date1904 = "1".equals(value) || "true".equalsIgnoreCase(value);
+                        } else if ("sheet".equals(xml.getLocalName())) {
+                            numberOfSheets++;
+                        }
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        }
+    }
+
+    public int getNumberOfSheets() {
+        return numberOfSheets;
+    }
+
+    /**
+     * Opens the sheet with the given index. If that sheet is already open, it is returned at its current position,
+     * otherwise the previously opened sheet is closed.
+     *
+     * @param index index of the sheet in the workbook, starting with 0
+     */
+    public StreamingSheet getSheetAt(int index) throws IOException {
+        if (index == openSheetIndex) {
+            return openSheet;
+        }
+        if (index < 0 || index >= numberOfSheets) {
+            throw new IllegalArgumentException(String.format("Sheet index (%d) is out of range (0..%d)", index, numberOfSheets - 1));
+        }
+        closeOpenSheet();
+        try {
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            for (int i = 0; sheets.hasNext(); i++) {
+                InputStream in = sheets.next();
+                if (i == index) {
+                    openSheet = new StreamingSheet(this, in, xmlInputFactory.createXMLStreamReader(in));
+                    openSheetIndex = index;
+                    return openSheet;
+                }
+                in.close();
+            }
+        } catch (OpenXML4JException | XMLStreamException e) {
+            throw new IOException(String.format("Sheet %d could not be read", index), e);
+        }
+        throw new IllegalArgumentException(String.format("Sheet index (%d) is out of range", index));
+    }
+
+    String getSharedString(int index) {
+        return sharedStrings.getEntryAt(index);
+    }
+
+    boolean isDate1904() {
+        return date1904;
+    }
+
+    /**
+     * @return true if the cell style with the given index formats numbers as dates.
+     */
+    boolean isDateStyle(int styleIndex) {
+        Boolean isDate = dateStyles.get(styleIndex);
+        if (isDate == null) {
+            isDate = false;
+            if (styles != null && styleIndex < styles.getNumCellStyles()) {
+                XSSFCellStyle style = styles.getStyleAt(styleIndex);
+                isDate = style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+            }
+            dateStyles.put(styleIndex, isDate);
+        }
+        return isDate;
+    }
+
+    private void closeOpenSheet() throws IOException {
+        if (openSheet != null) {
+            openSheet.close();
+            openSheet = null;
+            openSheetIndex = -1;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            closeOpenSheet();
+        } finally {
+            // the package is opened read-only, so it must not be saved on close
+            xlsxPackage.revert();
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.wickedsource.budgeteer.imports.api;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SharedFormulaTest {
+
+    @Test
+    void testRelativeReferencesAreMoved() {
+        SharedFormula formula = new SharedFormula(0, 1, "A1*2+SUM(A1:B2)");
+
+        Assertions.assertEquals("A1*2+SUM(A1:B2)", formula.translate(0, 1));
+        Assertions.assertEquals("B3*2+SUM(B3:C4)", formula.translate(2, 2));
+        Assertions.assertEquals("Z1*2+SUM(Z1:AA2)", formula.translate(0, 26));
+    }
+
+    @Test
+    void testAbsoluteReferencesAreKept() {
+        SharedFormula formula = new SharedFormula(0, 0, "$A$1+A$1+$A1");
+
+        Assertions.assertEquals("$A$1+B$1+$A4", formula.translate(3, 1));
+    }
+
+    @Test
+    void testFunctionsSheetNamesAndStringsAreKept() {
+        SharedFormula formula = new SharedFormula(0, 0, "LOG10(A1)+'Sheet A1'!A1+Sheet1!A1&\"A1 \"\"B2\"\"\"");
+
+        Assertions.assertEquals("LOG10(A2)+'Sheet A1'!A2+Sheet1!A2&\"A1 \"\"B2\"\"\"", formula.translate(1, 0));
+    }
+
+    @Test
+    void testReferencesBeforeTheSheetAreInvalid() {
+        SharedFormula formula = new SharedFormula(2, 1, "A3-A1");
+
+        Assertions.assertEquals("A2-#REF!", formula.translate(1, 1));
+        Assertions.assertEquals("#REF!-#REF!", formula.translate(2, 0));
+    }
+}
@@ -0,0 +1,213 @@
+package org.wickedsource.budgeteer.imports.api;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+class StreamingWorkbookTest {
+
+    private static final String MAIN_NAMESPACE = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    private static final String RELATIONSHIP_NAMESPACE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    @Test
+    void testInlineAndSharedStrings() throws IOException {
+        try (StreamingWorkbook workbook = open(false,
+                "<row r=\"1\">"
+                        + "<c r=\"A1\" t=\"inlineStr\"><is><t>plain</t></is></c>"
+                        + "<c r=\"B1\" t=\"inlineStr\"><is><r><t>rich </t></r><r><t>text</t></r><rPh sb=\"0\" eb=\"1\"><t>hint</t></rPh></is></c>"
+                        + "<c r=\"C1\" t=\"inlineStr\"/>"
+                        + "<c r=\"D1\" t=\"s\"><v>1</v></c>"
+                        + "</row>")) {
+            StreamingRow row = workbook.getSheetAt(0).getRow(0);
+
+            Assertions.assertEquals(CellType.STRING, row.getCell(0).getCellType());
+            Assertions.assertEquals("plain", row.getCell(0).getStringCellValue());
+            Assertions.assertEquals("rich text", row.getCell(1).getStringCellValue());
+            Assertions.assertEquals(CellType.BLANK, row.getCell(2).getCellType());
+            Assertions.assertEquals("", row.getCell(2).getStringCellValue());
+            Assertions.assertEquals("second", row.getCell(3).getStringCellValue());
+            Assertions.assertThrows(IllegalStateException.class, () -> row.getCell(0).getNumericCellValue());
+        }
+    }
+
+    @Test
+    void testSparseRowsAndCells() throws IOException {
+        try (StreamingWorkbook workbook = open(false,
+                "<row r=\"2\"><c r=\"B2\"><v>1</v></c><c r=\"D2\"><v>2</v></c><c><v>3</v></c></row>"
+                        + "<row r=\"5\"><c r=\"A5\"><v>4</v></c></row>"
+                        + "<row><c r=\"C6\"><v>5</v></c></row>"
+                        + "<row r=\"8\"/>")) {
+            StreamingSheet sheet = workbook.getSheetAt(0);
+
+            Assertions.assertNull(sheet.getRow(0));
+            StreamingRow row = sheet.getRow(1);
+            Assertions.assertEquals(1, row.getRowNum());
+            Assertions.assertEquals(1, row.getFirstCellNum());
+            Assertions.assertEquals(5, row.getLastCellNum());
+            Assertions.assertNull(row.getCell(0));
+            Assertions.assertNull(row.getCell(2));
+            Assertions.assertEquals(1d, row.getCell(1).getNumericCellValue());
+            Assertions.assertEquals(2d, row.getCell(3).getNumericCellValue());
+            Assertions.assertEquals(3d, row.getCell(4).getNumericCellValue());
+            Assertions.assertNull(row.getCell(5));
+            Assertions.assertSame(row, sheet.getRow(1));
+
+            Assertions.assertNull(sheet.getRow(3));
+            Assertions.assertEquals(4, sheet.nextRow().getRowNum());
+            StreamingRow rowWithoutReference = sheet.nextRow();
+            Assertions.assertEquals(5, rowWithoutReference.getRowNum());
+            Assertions.assertEquals(5d, rowWithoutReference.getCell(2).getNumericCellValue());
+            StreamingRow emptyRow = sheet.nextRow();
+            Assertions.assertEquals(7, emptyRow.getRowNum());
+            Assertions.assertEquals(-1, emptyRow.getFirstCellNum());
+            Assertions.assertEquals(-1, emptyRow.getLastCellNum());
+            Assertions.assertNull(sheet.nextRow());
+
+            Assertions.assertThrows(IllegalStateException.class, () -> sheet.getRow(4));
+        }
+    }
+
+    @Test
+    void testDates() throws IOException {
+        try (StreamingWorkbook workbook = open(false,
+                "<row r=\"1\"><c r=\"A1\" s=\"1\"><v>43101</v></c><c r=\"B1\"><v>43101</v></c><c r=\"C1\" s=\"1\"/></row>")) {
+            StreamingRow row = workbook.getSheetAt(0).getRow(0);
+
+            Assertions.assertTrue(row.getCell(0).isDateFormatted());
+            Assertions.assertEquals(new GregorianCalendar(2018, Calendar.JANUARY, 1).getTime(), row.getCell(0).getDateCellValue());
+            Assertions.assertFalse(row.getCell(1).isDateFormatted());
+            Assertions.assertFalse(row.getCell(2).isDateFormatted());
+            Assertions.assertNull(row.getCell(2).getDateCellValue());
+        }
+    }
+
+    @Test
+    void testDatesOf1904Workbook() throws IOException {
+        try (StreamingWorkbook workbook = open(true,
+                "<row r=\"1\"><c r=\"A1\" s=\"1\"><v>41639</v></c></row>")) {
+            StreamingCell cell = workbook.getSheetAt(0).getRow(0).getCell(0);
+
+            Assertions.assertTrue(cell.isDateFormatted());
+            Assertions.assertEquals(new GregorianCalendar(2018, Calendar.JANUARY, 1).getTime(), cell.getDateCellValue());
+        }
+    }
+
+    @Test
+    void testFormulas() throws IOException {
+        try (StreamingWorkbook workbook = open(false,
+                "<row r=\"1\">"
+                        + "<c r=\"A1\"><v>2</v></c>"
+                        + "<c r=\"B1\"><f>A1*2</f><v>4</v></c>"
+                        + "<c r=\"C1\" t=\"str\"><f>\"x\"&amp;A1</f><v>x2</v></c>"
+                        + "<c r=\"D1\"><f>A1/0</f></c>"
+                        + "</row>")) {
+            StreamingRow row = workbook.getSheetAt(0).getRow(0);
+
+            Assertions.assertEquals(CellType.FORMULA, row.getCell(1).getCellType());
+            Assertions.assertEquals(CellType.NUMERIC, row.getCell(1).getValueType());
+            Assertions.assertEquals(4d, row.getCell(1).getNumericCellValue());
+            Assertions.assertEquals("A1*2", row.getCell(1).toString());
+            Assertions.assertEquals(CellType.STRING, row.getCell(2).getValueType());
+            Assertions.assertEquals("x2", row.getCell(2).getStringCellValue());
+            Assertions.assertEquals("\"x\"&A1", row.getCell(2).toString());
+            Assertions.assertEquals(CellType.FORMULA, row.getCell(3).getCellType());
+            Assertions.assertEquals(CellType.BLANK, row.getCell(3).getValueType());
+        }
+    }
+
+    @Test
+    void testSharedFormulas() throws IOException {
+        try (StreamingWorkbook workbook = open(false,
+                "<row r=\"1\"><c r=\"A1\"><v>1</v></c><c r=\"B1\"><f t=\"shared\" ref=\"B1:C2\" si=\"0\">A1*2+$A$1</f><v>3</v></c>"
+                        + "<c r=\"C1\"><f t=\"shared\" si=\"0\"/><v>7</v></c></row>"
+                        + "<row r=\"2\"><c r=\"A2\"><v>2</v></c><c r=\"B2\"><f t=\"shared\" si=\"0\"/><v>5</v></c></row>")) {
+            StreamingSheet sheet = workbook.getSheetAt(0);
+            StreamingRow firstRow = sheet.getRow(0);
+            StreamingRow secondRow = sheet.getRow(1);
+
+            Assertions.assertEquals("A1*2+$A$1", firstRow.getCell(1).toString());
+            Assertions.assertEquals(CellType.FORMULA, firstRow.getCell(2).getCellType());
+            Assertions.assertEquals("B1*2+$A$1", firstRow.getCell(2).toString());
+            Assertions.assertEquals(7d, firstRow.getCell(2).getNumericCellValue());
+            Assertions.assertEquals(CellType.FORMULA, secondRow.getCell(1).getCellType());
+            Assertions.assertEquals("A2*2+$A$1", secondRow.getCell(1).toString());
+            Assertions.assertEquals(5d, secondRow.getCell(1).getNumericCellValue());
+        }
+    }
+
+    @Test
+    void testSharedFormulaWithoutFirstCellIsReadAsValue() throws IOException {
+        try (StreamingWorkbook workbook = open(false,
+                "<row r=\"1\"><c r=\"B1\"><f t=\"shared\" si=\"3\"/><v>5</v></c></row>")) {
+            StreamingCell cell = workbook.getSheetAt(0).getRow(0).getCell(1);
+
+            Assertions.assertEquals(CellType.NUMERIC, cell.getCellType());
+            Assertions.assertEquals(5d, cell.getNumericCellValue());
+        }
+    }
+
+    @Test
+    void testInvalidFile() {
+        Assertions.assertThrows(IOException.class,
+                () -> StreamingWorkbook.open(new ByteArrayInputStream("no xlsx".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * Builds an xlsx file with a single sheet containing the given rows. Style 1 is formatted as date and the shared
+     * strings are "first" and "second".
+     */
+    private static StreamingWorkbook open(boolean date1904, String rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            write(zip, "[Content_Types].xml", "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                    + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                    + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+                    + "<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>"
+                    + "</Types>");
+            write(zip, "_rels/.rels", "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"" + RELATIONSHIP_NAMESPACE + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            write(zip, "xl/workbook.xml", "<workbook xmlns=\"" + MAIN_NAMESPACE + "\" xmlns:r=\"" + RELATIONSHIP_NAMESPACE + "\">"
+                    + (date1904 ? "<workbookPr date1904=\"1\"/>" : "<workbookPr/>")
+                    + "<sheets><sheet name=\"Sheet1\" sheetId=\"1\" r:id=\"rId1\"/></sheets>"
+                    + "</workbook>");
+            write(zip, "xl/_rels/workbook.xml.rels", "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"" + RELATIONSHIP_NAMESPACE + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                    + "<Relationship Id=\"rId2\" Type=\"" + RELATIONSHIP_NAMESPACE + "/styles\" Target=\"styles.xml\"/>"
+                    + "<Relationship Id=\"rId3\" Type=\"" + RELATIONSHIP_NAMESPACE + "/sharedStrings\" Target=\"sharedStrings.xml\"/>"
+                    + "</Relationships>");
+            write(zip, "xl/styles.xml", "<styleSheet xmlns=\"" + MAIN_NAMESPACE + "\">"
+                    + "<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+                    + "<fills count=\"1\"><fill><patternFill patternType=\"none\"/></fill></fills>"
+                    + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+                    + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                    + "<cellXfs count=\"2\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                    + "<xf numFmtId=\"14\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/></cellXfs>"
+                    + "</styleSheet>");
+            write(zip, "xl/sharedStrings.xml", "<sst xmlns=\"" + MAIN_NAMESPACE + "\" count=\"2\" uniqueCount=\"2\">"
+                    + "<si><t>first</t></si><si><t>second</t></si>"
+                    + "</sst>");
+            write(zip, "xl/worksheets/sheet1.xml", "<worksheet xmlns=\"" + MAIN_NAMESPACE + "\"><sheetData>" + rows + "</sheetData></worksheet>");
+        }
+        return StreamingWorkbook.open(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static void write(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" + content).getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,70 @@
+package org.wickedsource.budgeteer.SheetTemplate;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Getters for the declared fields of a DTO class. They are looked up once per class and kept for the lifetime of the
+ * class, so that writing a report does not use reflection per cell.
+ */
+final class FieldAccessors {
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final ClassValue<FieldAccessors> CACHE = new ClassValue<FieldAccessors>() {
+		@Override
+		protected FieldAccessors computeValue(Class<?> type) {
+			return new FieldAccessors(type);
+		}
+	};
+
+	private final Map<String, MethodHandle> getters = new HashMap<>();
+
+	private FieldAccessors(Class<?> type) {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		for (Field field : type.getDeclaredFields()) {
+			try {
+				field.setAccessible(true);
+				MethodHandle getter = lookup.unreflectGetter(field);
+				if (Modifier.isStatic(field.getModifiers())) {
+					getter = MethodHandles.dropArguments(getter, 0, Object.class);
+				}
+				getters.put(field.getName(), getter.asType(GETTER_TYPE));
+			} catch (IllegalAccessException | SecurityException e) {
+				// left out, the writer reports the field as unreadable when a template refers to it
+			}
+		}
+	}
+
+	static FieldAccessors of(Class<?> type) {
+		return CACHE.get(type);
+	}
+
+	/**
+	 * @return the getter of the declared field with the given name, null if the class does not declare it.
+	 */
+	Getter getter(String fieldname) {
+		MethodHandle getter = getters.get(fieldname);
+		if (getter == null) {
+			return null;
+		}
+		return dto -> {
+			try {
+				return (Object) getter.invokeExact(dto);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+
+	interface Getter {
+		Object get(Object dto);
+	}
+}
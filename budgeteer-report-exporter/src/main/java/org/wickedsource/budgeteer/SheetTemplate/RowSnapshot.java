@@ -0,0 +1,107 @@
+package org.wickedsource.budgeteer.SheetTemplate;
+
+import org.apache.poi.ss.usermodel.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The cells of a template sheet row, detached from the sheet so that the row can be removed from the template and
+ * created again in a streamed sheet.
+ */
+class RowSnapshot {
+
+	private final int rowIndex;
+	private final short height;
+	private final boolean customHeight;
+	private final CellStyle rowStyle;
+	private final List<CellSnapshot> cells = new ArrayList<>();
+
+	RowSnapshot(Row row) {
+		this.rowIndex = row.getRowNum();
+		this.height = row.getHeight();
+		this.customHeight = row.getHeight() != row.getSheet().getDefaultRowHeight();
+		this.rowStyle = row.isFormatted() ? row.getRowStyle() : null;
+		for (Cell cell : row) {
+			cells.add(new CellSnapshot(cell));
+		}
+	}
+
+	int getRowIndex() {
+		return rowIndex;
+	}
+
+	/**
+	 * Creates the row with the given index in the given sheet and copies the cells into it.
+	 */
+	Row createIn(Sheet sheet, int rowIndex) {
+		Row row = sheet.createRow(rowIndex);
+		if (customHeight) {
+			row.setHeight(height);
+		}
+		if (rowStyle != null) {
+			row.setRowStyle(rowStyle);
+		}
+		for (CellSnapshot cell : cells) {
+			cell.createIn(row);
+		}
+		return row;
+	}
+
+	private static class CellSnapshot {
+
+		private final int columnIndex;
+		private final CellType type;
+		private final Object value;
+		private final CellStyle style;
+
+		CellSnapshot(Cell cell) {
+			this.columnIndex = cell.getColumnIndex();
+			this.type = cell.getCellTypeEnum();
+			this.style = cell.getCellStyle();
+			switch (type) {
+			case STRING:
+				value = cell.getRichStringCellValue();
+				break;
+			case BOOLEAN:
+				value = cell.getBooleanCellValue();
+				break;
+			case FORMULA:
+				value = cell.getCellFormula();
+				break;
+			case NUMERIC:
+				value = cell.getNumericCellValue();
+				break;
+			case ERROR:
+				value = cell.getErrorCellValue();
+				break;
+			default:
+				value = null;
+			}
+		}
+
+		void createIn(Row row) {
+			Cell cell = row.createCell(columnIndex);
+			switch (type) {
+			case STRING:
+				cell.setCellValue((RichTextString) value);
+				break;
+			case BOOLEAN:
+				cell.setCellValue((Boolean) value);
+				break;
+			case FORMULA:
+				cell.setCellFormula((String) value);
+				break;
+			case NUMERIC:
+				cell.setCellValue((Double) value);
+				break;
+			case ERROR:
+				cell.setCellErrorValue((Byte) value);
+				break;
+			default:
+				cell.setCellType(CellType.BLANK);
+			}
+			cell.setCellStyle(style);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package org.wickedsource.budgeteer.SheetTemplate;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFFormulaEvaluator;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Writes a report whose data rows are streamed to a temporary file instead of being kept in memory.
+ * <p>
+ * The {@link TemplateWriter}s are passed to {@link #write(TemplateWriter)} in the same order in which their
+ * {@link TemplateWriter#write()} would be called. Each of them makes room for its rows in the template right away, so
+ * that formulas, merged regions and the templates that are read afterwards see the final layout. The rows themselves
+ * are created by {@link #writeTo(OutputStream)}: everything above the first template row stays in the template
+ * workbook, the template rows and all rows below them go through a windowed {@link SXSSFWorkbook}. Formulas are not
+ * evaluated, the workbook is marked to be recalculated when it is opened.
+ * <p>
+ * A writer created by {@link #forReport(XSSFWorkbook, int)} only streams reports with more than
+ * {@link #STREAMING_THRESHOLD} data rows. Smaller reports are written into the template right away and their formulas
+ * are evaluated before the workbook is written.
+ */
+public class StreamingReportWriter {
+
+	public static final int DEFAULT_WINDOW_SIZE = 100;
+
+	/**
+	 * Reports with more data rows are streamed to the file and their formulas are calculated when they are opened.
+	 */
+	public static final int STREAMING_THRESHOLD = 5000;
+
+	private final XSSFWorkbook workbook;
+
+	private final int windowSize;
+
+	private final boolean streaming;
+
+	private final Map<Sheet, List<ReservedRows>> reservedRowsBySheet = new LinkedHashMap<>();
+
+	public StreamingReportWriter(XSSFWorkbook workbook) {
+		this(workbook, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * @param workbook   the template workbook, it must not be used anymore after {@link #writeTo(OutputStream)}.
+	 * @param windowSize the number of streamed rows that are kept in memory.
+	 */
+	public StreamingReportWriter(XSSFWorkbook workbook, int windowSize) {
+		this(workbook, windowSize, true);
+	}
+
+	private StreamingReportWriter(XSSFWorkbook workbook, int windowSize, boolean streaming) {
+		this.workbook = workbook;
+		this.windowSize = windowSize;
+		this.streaming = streaming;
+	}
+
+	/**
+	 * @param workbook     the template workbook of the report.
+	 * @param numberOfRows the number of data rows of all writers of the report.
+	 * @return a writer that streams the rows if the report exceeds {@link #STREAMING_THRESHOLD} and writes them into
+	 *         the template otherwise.
+	 */
+	public static StreamingReportWriter forReport(XSSFWorkbook workbook, int numberOfRows) {
+		return new StreamingReportWriter(workbook, DEFAULT_WINDOW_SIZE, numberOfRows > STREAMING_THRESHOLD);
+	}
+
+	/**
+	 * Reserves the rows of the entries of the given writer in its sheet, which must belong to the workbook of this
+	 * report. The rows are written by {@link #writeTo(OutputStream)}, unless the report is not streamed and the writer
+	 * writes them into the template right away.
+	 */
+	public void write(TemplateWriter<?> writer) {
+		Sheet sheet = writer.getSheet();
+		if (sheet.getWorkbook() != workbook) {
+			throw new IllegalArgumentException("The template of the writer does not belong to the workbook of this report.");
+		}
+		if (!streaming) {
+			writer.write();
+			return;
+		}
+		List<ReservedRows> reservedRows = reservedRowsBySheet.computeIfAbsent(sheet, key -> new ArrayList<>());
+		int templateRowIndex = writer.getTemplate().getTemplateRowIndex();
+		int numberOfRows = writer.getNumberOfEntries();
+		int shift;
+		if (numberOfRows == 0) {
+			int lastRowIndex = sheet.getLastRowNum();
+			writer.insertRows();
+			shift = templateRowIndex == lastRowIndex ? 0 : -1;
+		} else {
+			reservedRows.add(new ReservedRows(writer, writer.reserveRows(), templateRowIndex));
+			shift = numberOfRows - 1;
+		}
+		// rows reserved before have been moved along with the rows below the template
+		for (ReservedRows rows : reservedRows) {
+			if (rows.firstRowIndex > templateRowIndex) {
+				rows.firstRowIndex += shift;
+			}
+		}
+	}
+
+	/**
+	 * Creates the reserved rows, fills them and writes the report to the given stream. A report that is not streamed
+	 * has its formulas evaluated and is written as it is.
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		if (!streaming) {
+			XSSFFormulaEvaluator.evaluateAllFormulaCells(workbook);
+			workbook.write(out);
+			return;
+		}
+		Map<Sheet, List<RowSnapshot>> trailingRowsBySheet = new HashMap<>();
+		for (Map.Entry<Sheet, List<ReservedRows>> entry : reservedRowsBySheet.entrySet()) {
+			if (!entry.getValue().isEmpty()) {
+				trailingRowsBySheet.put(entry.getKey(), removeRowsFrom(entry.getKey(), firstRowIndexOf(entry.getValue())));
+			}
+		}
+		workbook.setForceFormulaRecalculation(true);
+		SXSSFWorkbook streamingWorkbook = new SXSSFWorkbook(workbook, windowSize);
+		try {
+			for (Map.Entry<Sheet, List<RowSnapshot>> entry : trailingRowsBySheet.entrySet()) {
+				Sheet target = streamingWorkbook.getSheetAt(workbook.getSheetIndex(entry.getKey()));
+				writeRows(target, reservedRowsBySheet.get(entry.getKey()), entry.getValue());
+			}
+			streamingWorkbook.write(out);
+		} finally {
+			streamingWorkbook.dispose();
+		}
+	}
+
+	private int firstRowIndexOf(List<ReservedRows> reservedRows) {
+		int firstRowIndex = Integer.MAX_VALUE;
+		for (ReservedRows rows : reservedRows) {
+			firstRowIndex = Math.min(firstRowIndex, rows.firstRowIndex);
+		}
+		return firstRowIndex;
+	}
+
+	/**
+	 * Removes all rows from the given index on, new rows can only be streamed below the rows of the template.
+	 */
+	private List<RowSnapshot> removeRowsFrom(Sheet sheet, int firstRowIndex) {
+		List<Row> rows = new ArrayList<>();
+		for (Row row : sheet) {
+			if (row.getRowNum() >= firstRowIndex) {
+				rows.add(row);
+			}
+		}
+		List<RowSnapshot> snapshots = new ArrayList<>(rows.size());
+		for (Row row : rows) {
+			snapshots.add(new RowSnapshot(row));
+			sheet.removeRow(row);
+		}
+		return snapshots;
+	}
+
+	/**
+	 * Writes the reserved rows and the rows in between in ascending order, as the streamed sheet requires.
+	 */
+	private void writeRows(Sheet target, List<ReservedRows> reservedRows, List<RowSnapshot> trailingRows) {
+		List<ReservedRows> sortedRows = new ArrayList<>(reservedRows);
+		sortedRows.sort(Comparator.comparingInt(rows -> rows.firstRowIndex));
+		Iterator<RowSnapshot> trailing = trailingRows.iterator();
+		RowSnapshot next = trailing.hasNext() ? trailing.next() : null;
+		for (ReservedRows rows : sortedRows) {
+			while (next != null && next.getRowIndex() < rows.firstRowIndex) {
+				next.createIn(target, next.getRowIndex());
+				next = trailing.hasNext() ? trailing.next() : null;
+			}
+			rows.writer.writeRows(rows.templateRow, target, rows.firstRowIndex);
+		}
+		while (next != null) {
+			next.createIn(target, next.getRowIndex());
+			next = trailing.hasNext() ? trailing.next() : null;
+		}
+	}
+
+	private static class ReservedRows {
+
+		private final TemplateWriter<?> writer;
+		private final RowSnapshot templateRow;
+		private int firstRowIndex;
+
+		ReservedRows(TemplateWriter<?> writer, RowSnapshot templateRow, int firstRowIndex) {
+			this.writer = writer;
+			this.templateRow = templateRow;
+			this.firstRowIndex = firstRowIndex;
+		}
+	}
+}
@@ -3,15 +3,26 @@ package org.wickedsource.budgeteer.SheetTemplate;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import org.apache.poi.ss.usermodel.*;
+import org.slf4j.Logger;
 
-import java.lang.reflect.Field;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.slf4j.LoggerFactory.getLogger;
 
 public class TemplateWriter<T> {
+
+	private static final Logger log = getLogger(TemplateWriter.class);
 	
 	private static final String TEMPLATE_TAG_FORMAT = "\\{%s\\}";
+
+	/**
+	 * Compiled patterns of the template tags by tag name, shared by all writers.
+	 */
+	private static final Map<String, Pattern> TAG_PATTERNS = new ConcurrentHashMap<>();
 	
 	private SheetTemplate template;
 	private Sheet sheet;
@@ -20,6 +31,8 @@ public class TemplateWriter<T> {
 
 	private int currentRowIndex;
 	private Row currentRow;
+	private RowPlan rowPlan;
+	private Map<String,CellStyle> flagStyles = new HashMap<>();
 
 	public TemplateWriter(SheetTemplate sheetTemplate) {
 		this.template = sheetTemplate;
@@ -53,64 +66,84 @@ public class TemplateWriter<T> {
 		currentRowIndex++;
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Makes room for the rows of the entries like {@link #insertRows()}, but without creating them: the rows below
+	 * the template row are moved down and the template row is removed from the sheet. The rows are created later on
+	 * by {@link #writeRows(RowSnapshot, Sheet, int)}, e.g. in a streamed sheet. Must only be called with entries.
+	 *
+	 * @return the removed template row.
+	 */
+	RowSnapshot reserveRows() {
+		int templateRowIndex = template.getTemplateRowIndex();
+		int lastRowIndex = sheet.getLastRowNum();
+		Row templateRow = sheet.getRow(templateRowIndex);
+		RowSnapshot snapshot = new RowSnapshot(templateRow);
+		sheet.removeRow(templateRow);
+		if(templateRowIndex < lastRowIndex && getNumberOfEntries() > 1) {
+			sheet.shiftRows(templateRowIndex+1, lastRowIndex, getNumberOfEntries()-1);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Creates a row for each entry from the given template row and fills it, starting at the given row index of the
+	 * target sheet.
+	 */
+	void writeRows(RowSnapshot templateRow, Sheet target, int firstRowIndex) {
+		int rowIndex = firstRowIndex;
+		for(T dto : entries) {
+			currentRow = templateRow.createIn(target, rowIndex++);
+			replaceTemplateTags(dto);
+			setCellStyle(dto);
+		}
+	}
+
+	int getNumberOfEntries() {
+		return null != entries ? entries.size() : 0;
+	}
+
+	Sheet getSheet() {
+		return sheet;
+	}
+
+	SheetTemplate getTemplate() {
+		return template;
+	}
+
 	private void replaceTemplateTags(T dto) {
-		Multimap<String, Integer> fieldMapping = template.getFieldMapping();
-
-		for (Entry<String, Integer> entry : fieldMapping.entries()) {
-			Cell currentCell = currentRow.getCell(entry.getValue());
-			String tagname = entry.getKey();
-
-			Object fieldValue = null;
-			try {
-				if (isDynamicField(tagname)) {
-					Field field = dto.getClass().getDeclaredField(getFieldnameOf(tagname));
-					field.setAccessible(true);
-					Object fieldObject = field.get(dto);
-					if(fieldObject instanceof List) {
-						List<SheetTemplateSerializable> listObject = (List<SheetTemplateSerializable>) fieldObject;
-						HashMap<String,Object> map = new HashMap<String,Object>();
-						listObject.stream().forEach(listEntry -> map.put(listEntry.getName(), listEntry.getValue()));
-						fieldValue = map.get(subkeyOf(tagname));
-					} else if(fieldObject instanceof Map) {
-						Map<String,Object> mapObject = (Map<String, Object>) fieldObject;
-						fieldValue = mapObject.get(subkeyOf(tagname));
-					} else if (fieldObject == null) {
-						// do nothing
-					} else {
-						throw new IllegalArgumentException("The field " + field.getName() + " uses an unsupported type.");
-					}
-				} else {
-					Field field = dto.getClass().getDeclaredField(tagname);
-					field.setAccessible(true);
-					fieldValue = field.get(dto);
-				}
-			} catch (IllegalArgumentException | IllegalAccessException | NoSuchFieldException | SecurityException e) {
-				e.printStackTrace();
-			}
-			replaceTemplateTagByFieldValueIntoCell(tagname, fieldValue, currentCell);
+		RowPlan plan = rowPlanFor(dto.getClass());
+		Object[] fieldValues = plan.resolve(dto);
+		for (int i = 0; i < plan.bindings.length; i++) {
+			TagBinding binding = plan.bindings[i];
+			Cell currentCell = currentRow.getCell(binding.columnIndex);
+			replaceTemplateTagByFieldValueIntoCell(binding, fieldValues[i], currentCell);
 		}
 	}
 
-	private void replaceTemplateTagByFieldValueIntoCell(String fieldname, Object fieldValue, Cell currentCell) {
+	private RowPlan rowPlanFor(Class<?> dtoClass) {
+		if (rowPlan == null || rowPlan.dtoClass != dtoClass) {
+			rowPlan = new RowPlan(dtoClass);
+		}
+		return rowPlan;
+	}
+
+	private void replaceTemplateTagByFieldValueIntoCell(TagBinding binding, Object fieldValue, Cell currentCell) {
 		if(containsOnlyOneTemplateTag(currentCell)) {
 			mapFieldValueToCell(fieldValue,currentCell);
 		} else {
-			replaceTemplateTagInCell(fieldname,fieldValue,currentCell);
+			replaceTemplateTagInCell(binding.tagPattern,fieldValue,currentCell);
 		}
 	}
 
-	private void replaceTemplateTagInCell(String fieldname, Object fieldValue, Cell currentCell) {
+	private void replaceTemplateTagInCell(Pattern templateTag, Object fieldValue, Cell currentCell) {
 		String fieldValueString = (null != fieldValue) ? fieldValue.toString() : "";
 		if(currentCell.getCellTypeEnum().equals(CellType.FORMULA)) {
 			String formula = currentCell.getCellFormula();
-			String templateTag = String.format(TEMPLATE_TAG_FORMAT, fieldname);
-			String newFormula = formula.replaceAll(templateTag, fieldValueString);
+			String newFormula = templateTag.matcher(formula).replaceAll(fieldValueString);
 			currentCell.setCellFormula(newFormula);
 		} else {
 			String cellValue= currentCell.getStringCellValue();
-			String templateTag = String.format(TEMPLATE_TAG_FORMAT, fieldname);
-			String newCellValue = cellValue.replaceAll(templateTag, fieldValueString);
+			String newCellValue = templateTag.matcher(cellValue).replaceAll(fieldValueString);
 			currentCell.setCellValue(newCellValue);
 		}
 		
@@ -181,9 +214,16 @@ public class TemplateWriter<T> {
 			sheet.shiftRows(template.getTemplateRowIndex(), sheet.getLastRowNum(), -1);
 		} 
 		
-		// copy template row numberOfRows-1 times
-		for(int i = 0; i < numberOfRows-1; i++) {
-			copyRow(sheet,template.getTemplateRowIndex()+i);
+		if(numberOfRows > 1) {
+			// move the rows below the template out of the way at once, every shift rewrites all following rows
+			int templateRowIndex = template.getTemplateRowIndex();
+			if(templateRowIndex < sheet.getLastRowNum()) {
+				sheet.shiftRows(templateRowIndex+1, sheet.getLastRowNum(), numberOfRows-1);
+			}
+			Row templateRow = sheet.getRow(templateRowIndex);
+			for(int i = 1; i < numberOfRows; i++) {
+				copyRowTo(templateRow, sheet.createRow(templateRowIndex+i));
+			}
 		}
 	}
 	
@@ -191,8 +231,10 @@ public class TemplateWriter<T> {
 		if(from < sheet.getLastRowNum()) {
 			sheet.shiftRows(from+1, sheet.getLastRowNum(), 1);
 		}
-		Row copyRow = sheet.getRow(from);
-		Row insertRow = sheet.createRow(from+1);
+		copyRowTo(sheet.getRow(from), sheet.createRow(from+1));
+	}
+
+	private void copyRowTo(Row copyRow, Row insertRow) {
 		for(Cell copyCell : copyRow) {
 			Cell insertCell = insertRow.createCell(copyCell.getColumnIndex());
 			copyCellValues(copyCell,insertCell);
@@ -229,12 +271,22 @@ public class TemplateWriter<T> {
 				String flagname = flag.getFlag();
 				for(Integer columnIndex : template.getFieldMapping().get(fieldname)) {
 					Cell cell = currentRow.getCell(columnIndex);
-					cell.setCellStyle(sheet.getWorkbook().createCellStyle());
-					cell.getCellStyle().cloneStyleFrom(template.getFlagTemplate().getCellStyleFor(flagname));
+					cell.setCellStyle(flagStyleFor(flagname));
 				}
 			}
 		}
 	}
+
+	/**
+	 * @return the style of the given flag, cloned into the workbook of the sheet once and shared by all flagged cells.
+	 */
+	private CellStyle flagStyleFor(String flagname) {
+		return flagStyles.computeIfAbsent(flagname, name -> {
+			CellStyle style = sheet.getWorkbook().createCellStyle();
+			style.cloneStyleFrom(template.getFlagTemplate().getCellStyleFor(name));
+			return style;
+		});
+	}
 	
 	public void addFlag(T dto, String fieldname, String flag) {
 		if(template.getFieldMapping().containsKey(fieldname) && null != template.getFlagTemplate() && template.getFlagTemplate().contains(flag)) {
@@ -249,4 +301,109 @@ public class TemplateWriter<T> {
 			sheet.getWorkbook().removeSheetAt(sheetIndex);
 		}
 	}
+
+	/**
+	 * How the template tags of a row are filled from a DTO of one class: the getters of the fields the tags refer to
+	 * and, for each tag and column, the field, the subkey of dynamic fields and the compiled tag pattern. Built once
+	 * per writer, so that the rows only call the getters and look up the subkeys.
+	 */
+	private class RowPlan {
+
+		private final Class<?> dtoClass;
+		private final String[] fieldnames;
+		private final FieldAccessors.Getter[] getters;
+		private final TagBinding[] bindings;
+		private final boolean[] unsupportedFields;
+
+		RowPlan(Class<?> dtoClass) {
+			this.dtoClass = dtoClass;
+			FieldAccessors accessors = FieldAccessors.of(dtoClass);
+			Map<String, Integer> fieldIndexes = new LinkedHashMap<>();
+			List<FieldAccessors.Getter> fieldGetters = new ArrayList<>();
+			Collection<Entry<String, Integer>> entries = template.getFieldMapping().entries();
+			bindings = new TagBinding[entries.size()];
+			int i = 0;
+			for (Entry<String, Integer> entry : entries) {
+				String tagname = entry.getKey();
+				boolean dynamic = isDynamicField(tagname);
+				String fieldname = dynamic ? getFieldnameOf(tagname) : tagname;
+				Integer fieldIndex = fieldIndexes.get(fieldname);
+				if (fieldIndex == null) {
+					fieldIndex = fieldGetters.size();
+					fieldIndexes.put(fieldname, fieldIndex);
+					FieldAccessors.Getter getter = accessors.getter(fieldname);
+					if (getter == null) {
+						log.warn("The template tag {} refers to the field {}, which {} does not declare or which cannot be read.", tagname, fieldname, dtoClass.getName());
+					}
+					fieldGetters.add(getter);
+				}
+				Pattern tagPattern = TAG_PATTERNS.computeIfAbsent(tagname, name -> Pattern.compile(String.format(TEMPLATE_TAG_FORMAT, name)));
+				bindings[i++] = new TagBinding(entry.getValue(), fieldIndex, dynamic ? subkeyOf(tagname) : null, tagPattern);
+			}
+			fieldnames = fieldIndexes.keySet().toArray(new String[0]);
+			getters = fieldGetters.toArray(new FieldAccessors.Getter[0]);
+			unsupportedFields = new boolean[getters.length];
+		}
+
+		/**
+		 * @return the value of each binding for the given DTO. The attributes of a dynamic field are collected once
+		 *         per row, even if several tags refer to them.
+		 */
+		Object[] resolve(Object dto) {
+			Object[] fieldObjects = new Object[getters.length];
+			for (int i = 0; i < getters.length; i++) {
+				if (getters[i] != null) {
+					fieldObjects[i] = getters[i].get(dto);
+				}
+			}
+			Map<?, ?>[] attributes = new Map<?, ?>[getters.length];
+			Object[] values = new Object[bindings.length];
+			for (int i = 0; i < bindings.length; i++) {
+				TagBinding binding = bindings[i];
+				Object fieldObject = fieldObjects[binding.fieldIndex];
+				if (binding.subkey == null) {
+					values[i] = fieldObject;
+				} else if (fieldObject != null) {
+					if (attributes[binding.fieldIndex] == null) {
+						attributes[binding.fieldIndex] = attributesOf(binding.fieldIndex, fieldObject);
+					}
+					values[i] = attributes[binding.fieldIndex].get(binding.subkey);
+				}
+			}
+			return values;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Map<?, ?> attributesOf(int fieldIndex, Object fieldObject) {
+			if (fieldObject instanceof List) {
+				List<SheetTemplateSerializable> listObject = (List<SheetTemplateSerializable>) fieldObject;
+				HashMap<String, Object> map = new HashMap<String, Object>();
+				listObject.stream().forEach(listEntry -> map.put(listEntry.getName(), listEntry.getValue()));
+				return map;
+			} else if (fieldObject instanceof Map) {
+				return (Map<?, ?>) fieldObject;
+			} else {
+				if (!unsupportedFields[fieldIndex]) {
+					unsupportedFields[fieldIndex] = true;
+					log.warn("The dynamic field {} of {} has the unsupported type {}.", fieldnames[fieldIndex], dtoClass.getName(), fieldObject.getClass().getName());
+				}
+				return Collections.emptyMap();
+			}
+		}
+	}
+
+	private static class TagBinding {
+
+		private final int columnIndex;
+		private final int fieldIndex;
+		private final String subkey;
+		private final Pattern tagPattern;
+
+		TagBinding(int columnIndex, int fieldIndex, String subkey, Pattern tagPattern) {
+			this.columnIndex = columnIndex;
+			this.fieldIndex = fieldIndex;
+			this.subkey = subkey;
+			this.tagPattern = tagPattern;
+		}
+	}
 }
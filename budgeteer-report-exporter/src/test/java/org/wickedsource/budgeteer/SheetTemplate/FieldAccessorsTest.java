@@ -0,0 +1,38 @@
+package org.wickedsource.budgeteer.SheetTemplate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldAccessorsTest {
+
+	@Test
+	void testGetDeclaredFields() {
+		TestDTO dto = new TestDTO();
+		dto.setTest("Foo");
+		dto.setFoo(123.45);
+		dto.setBar(true);
+		dto.setDate(new Date(0));
+		dto.setDynamic(Arrays.asList(new Attribute("vorname", "Max")));
+
+		FieldAccessors accessors = FieldAccessors.of(TestDTO.class);
+		assertEquals("Foo", accessors.getter("test").get(dto));
+		assertEquals(123.45, accessors.getter("foo").get(dto));
+		assertEquals(true, accessors.getter("bar").get(dto));
+		assertEquals(new Date(0), accessors.getter("date").get(dto));
+		assertSame(dto.getDynamic(), accessors.getter("dynamic").get(dto));
+	}
+
+	@Test
+	void testUnknownField() {
+		assertNull(FieldAccessors.of(TestDTO.class).getter("unknown"));
+	}
+
+	@Test
+	void testAccessorsAreCachedPerClass() {
+		assertSame(FieldAccessors.of(TestDTO.class), FieldAccessors.of(TestDTO.class));
+	}
+}
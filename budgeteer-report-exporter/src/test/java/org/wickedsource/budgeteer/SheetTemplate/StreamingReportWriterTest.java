@@ -0,0 +1,186 @@
+package org.wickedsource.budgeteer.SheetTemplate;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingReportWriterTest {
+
+	private XSSFWorkbook wb;
+	private SheetTemplate template;
+	private int lastRowNumber;
+	private String footer;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		InputStream in = new FileInputStream("test-mapping.xlsx");
+		wb = (XSSFWorkbook) WorkbookFactory.create(in);
+		template = new SheetTemplate(TestDTO.class, wb.getSheetAt(0));
+		lastRowNumber = wb.getSheetAt(0).getLastRowNum();
+		footer = wb.getSheetAt(0).getRow(lastRowNumber).getCell(0).getStringCellValue();
+	}
+
+	@Test
+	void testWriteTo() throws Exception {
+		TemplateWriter<TestDTO> tw = new TemplateWriter<>(template);
+		tw.setEntries(Arrays.asList(createDTO("Foo", "Max", "Mustermann"), createDTO("Bar", "Marina", "Musterfrau")));
+		StreamingReportWriter writer = new StreamingReportWriter(wb, 1);
+		writer.write(tw);
+
+		Sheet sheet = writeAndRead(writer).getSheetAt(0);
+		Row row = sheet.getRow(4);
+		assertEquals("Foo",row.getCell(0).getStringCellValue());
+		assertEquals("Foo - 123.4567899",row.getCell(1).getStringCellValue());
+		assertTrue(row.getCell(2).getBooleanCellValue());
+		assertEquals("Mustermann, Max",row.getCell(8).getStringCellValue());
+
+		row = sheet.getRow(5);
+		assertEquals("Bar",row.getCell(0).getStringCellValue());
+		assertEquals("Musterfrau, Marina",row.getCell(8).getStringCellValue());
+
+		assertEquals(lastRowNumber+1, sheet.getLastRowNum());
+		assertEquals(footer, sheet.getRow(lastRowNumber+1).getCell(0).getStringCellValue());
+	}
+
+	@Test
+	void testWriteManyRows() throws Exception {
+		List<TestDTO> entries = new ArrayList<>();
+		for(int i = 0; i < 1000; i++) {
+			entries.add(createDTO("Test" + i, "Max", "Mustermann"));
+		}
+		TemplateWriter<TestDTO> tw = new TemplateWriter<>(template);
+		tw.setEntries(entries);
+		StreamingReportWriter writer = new StreamingReportWriter(wb, 10);
+		writer.write(tw);
+
+		Sheet sheet = writeAndRead(writer).getSheetAt(0);
+		for(int i = 0; i < 1000; i++) {
+			assertEquals("Test" + i, sheet.getRow(4+i).getCell(0).getStringCellValue());
+		}
+		assertEquals(footer, sheet.getRow(lastRowNumber+999).getCell(0).getStringCellValue());
+	}
+
+	@Test
+	void testWriteWithoutEntries() throws Exception {
+		TemplateWriter<TestDTO> tw = new TemplateWriter<>(template);
+		tw.setEntries(Collections.emptyList());
+		StreamingReportWriter writer = new StreamingReportWriter(wb);
+		writer.write(tw);
+
+		Sheet sheet = writeAndRead(writer).getSheetAt(0);
+		assertEquals(lastRowNumber-1, sheet.getLastRowNum());
+		assertEquals(footer, sheet.getRow(lastRowNumber-1).getCell(0).getStringCellValue());
+	}
+
+	@Test
+	void testFormulasAreRecalculatedOnOpen() throws Exception {
+		TemplateWriter<TestDTO> tw = new TemplateWriter<>(template);
+		tw.setEntries(Collections.singletonList(createDTO("Foo", "Max", "Mustermann")));
+		StreamingReportWriter writer = new StreamingReportWriter(wb);
+		writer.write(tw);
+
+		assertTrue(writeAndRead(writer).getForceFormulaRecalculation());
+	}
+
+	@Test
+	void testWriteSeveralWritersIntoSeveralSheets() throws Exception {
+		// a summary row between the template row and the footer of both sheets
+		wb.getSheetAt(0).createRow(7).createCell(0).setCellValue("{description}");
+		Sheet secondSheet = wb.cloneSheet(0);
+		XSSFCellStyle flagStyle = (XSSFCellStyle) template.getFlagTemplate().getCellStyleFor("warning1");
+		String flagColor = flagStyle.getFillForegroundXSSFColor().getARGBHex();
+		StreamingReportWriter writer = new StreamingReportWriter(wb, 1);
+
+		TemplateWriter<TestDTO> data = new TemplateWriter<>(new SheetTemplate(TestDTO.class, wb.getSheetAt(0)));
+		TestDTO flagged = createDTO("Foo", "Max", "Mustermann");
+		data.setEntries(Arrays.asList(flagged, createDTO("Bar", "Marina", "Musterfrau"), createDTO("Baz", "Erika", "Musterfrau")));
+		data.addFlag(flagged, "dynamic.vorname", "warning1");
+		writer.write(data);
+		TemplateWriter<SummaryDTO> summary = new TemplateWriter<>(new SheetTemplate(SummaryDTO.class, wb.getSheetAt(0)));
+		summary.setEntries(Arrays.asList(new SummaryDTO("Summe 1"), new SummaryDTO("Summe 2")));
+		writer.write(summary);
+
+		TemplateWriter<TestDTO> emptyData = new TemplateWriter<>(new SheetTemplate(TestDTO.class, secondSheet));
+		emptyData.setEntries(Collections.emptyList());
+		writer.write(emptyData);
+		TemplateWriter<SummaryDTO> secondSummary = new TemplateWriter<>(new SheetTemplate(SummaryDTO.class, secondSheet));
+		secondSummary.setEntries(Collections.singletonList(new SummaryDTO("Summe 3")));
+		writer.write(secondSummary);
+		secondSummary.removeFlagSheet();
+
+		XSSFWorkbook result = writeAndRead(writer);
+		assertEquals(2, result.getNumberOfSheets());
+		assertNull(result.getSheet("Flags"));
+
+		Sheet sheet = result.getSheetAt(0);
+		assertEquals("Foo", sheet.getRow(4).getCell(0).getStringCellValue());
+		assertEquals("Bar", sheet.getRow(5).getCell(0).getStringCellValue());
+		assertEquals("Erika", sheet.getRow(6).getCell(6).getStringCellValue());
+		assertEquals(flagColor, ((XSSFCellStyle) sheet.getRow(4).getCell(6).getCellStyle()).getFillForegroundXSSFColor().getARGBHex());
+		assertEquals(sheet.getRow(4).getCell(6).getCellStyle().getIndex(), sheet.getRow(4).getCell(8).getCellStyle().getIndex());
+		assertNotEquals(sheet.getRow(4).getCell(6).getCellStyle().getIndex(), sheet.getRow(5).getCell(6).getCellStyle().getIndex());
+		assertEquals("Summe 1", sheet.getRow(9).getCell(0).getStringCellValue());
+		assertEquals("Summe 2", sheet.getRow(10).getCell(0).getStringCellValue());
+		assertEquals(lastRowNumber+3, sheet.getLastRowNum());
+		assertEquals(footer, sheet.getRow(lastRowNumber+3).getCell(0).getStringCellValue());
+
+		sheet = result.getSheetAt(1);
+		assertEquals("Summe 3", sheet.getRow(6).getCell(0).getStringCellValue());
+		assertEquals(lastRowNumber-1, sheet.getLastRowNum());
+		assertEquals(footer, sheet.getRow(lastRowNumber-1).getCell(0).getStringCellValue());
+	}
+
+	@Test
+	void testSmallReportIsWrittenIntoTheTemplate() throws Exception {
+		TemplateWriter<TestDTO> tw = new TemplateWriter<>(template);
+		tw.setEntries(Arrays.asList(createDTO("Foo", "Max", "Mustermann"), createDTO("Bar", "Marina", "Musterfrau")));
+		StreamingReportWriter writer = StreamingReportWriter.forReport(wb, tw.getNumberOfEntries());
+		writer.write(tw);
+
+		assertEquals("Foo", wb.getSheetAt(0).getRow(4).getCell(0).getStringCellValue());
+		XSSFWorkbook result = writeAndRead(writer);
+		assertFalse(result.getForceFormulaRecalculation());
+		assertEquals("Bar", result.getSheetAt(0).getRow(5).getCell(0).getStringCellValue());
+		assertEquals(footer, result.getSheetAt(0).getRow(lastRowNumber+1).getCell(0).getStringCellValue());
+	}
+
+	private XSSFWorkbook writeAndRead(StreamingReportWriter writer) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer.writeTo(out);
+		return (XSSFWorkbook) WorkbookFactory.create(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	private TestDTO createDTO(String test, String vorname, String nachname) {
+		TestDTO dto = new TestDTO();
+		dto.setBar(true);
+		dto.setFoo(123.4567899);
+		dto.setTest(test);
+		dto.setDate(new Date());
+		dto.setDynamic(Arrays.asList(new Attribute("vorname", vorname), new Attribute("nachname", nachname)));
+		return dto;
+	}
+
+	static class SummaryDTO {
+		private String description;
+
+		SummaryDTO(String description) {
+			this.description = description;
+		}
+	}
+}
@@ -95,6 +95,20 @@ class TemplateWriterTest {
 		assertEquals(lastRowNumber+4,sheet.getLastRowNum());
 	}
 
+	@Test
+	void testInsertMultipleRowsMovesTrailingRows() {
+		int lastRowNumber = sheet.getLastRowNum();
+		String footer = sheet.getRow(lastRowNumber).getCell(0).getStringCellValue();
+		tw.setEntries(Collections.nCopies(5, new TestDTO()));
+		tw.insertRows();
+		assertEquals(footer, sheet.getRow(lastRowNumber+4).getCell(0).getStringCellValue());
+		for(int i = 1; i < 5; i++) {
+			Row copiedRow = sheet.getRow(template.getTemplateRowIndex()+i);
+			assertEquals("{test}", copiedRow.getCell(0).getStringCellValue());
+			assertEquals("{dynamic.nachname}, {dynamic.vorname}", copiedRow.getCell(8).getStringCellValue());
+		}
+	}
+
 	@Test
 	void testCopyRow() {
 		tw.copyRow(sheet, 4);
@@ -142,6 +156,18 @@ class TemplateWriterTest {
 		
 	}
 
+	@Test
+	void testFlaggedCellsShareOneStyle() {
+		tw.setEntries(Arrays.asList(dto1,dto2));
+		tw.addFlag(dto1, "dynamic.vorname" , "warning1");
+		tw.addFlag(dto2, "dynamic.vorname" , "warning1");
+		int numberOfStyles = wb.getNumCellStyles();
+		tw.write();
+
+		assertEquals(sheet.getRow(4).getCell(6).getCellStyle().getIndex(), sheet.getRow(5).getCell(6).getCellStyle().getIndex());
+		assertEquals(numberOfStyles+1, wb.getNumCellStyles());
+	}
+
 	@Test
 	void testRemoveFlagSheet() {
 		tw.removeFlagSheet();
@@ -1,9 +1,5 @@
 package org.wickedsource.budgeteer.importer.resourceplan;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellReference;
 import org.apache.poi.xssf.usermodel.*;
 import org.joda.money.CurrencyUnit;
@@ -43,18 +39,20 @@ public class ResourcePlanImporter implements PlanRecordsImporter {
 
         try {
             List<ImportedPlanRecord> resultList = new ArrayList<>();
-            Workbook workbook = new XSSFWorkbook(file.getInputStream());
-            if (!isValid(workbook)) {
-                throw new InvalidFileFormatException("Invalid file", file.getFilename());
-            }
-            Sheet sheet = workbook.getSheetAt(RESOURCE_PLAN_SHEET_INDEX);
-            List<DateColumn> dateColumns = getDateColumns(sheet);
-            int i = FIRST_ENTRY_ROW;
-            Row row = sheet.getRow(i);
-            while (!SpreadsheetAccessor.cellIsNull(row, 0)) {
-                List<ImportedPlanRecord> records = parseRow(row, dateColumns, currencyUnit, skippedRecords);
-                resultList.addAll(records);
-                row = sheet.getRow(++i);
+            try (StreamingWorkbook workbook = StreamingWorkbook.open(file.getInputStream())) {
+                StreamingRow headerRow = getHeaderRow(workbook);
+                if (!isValid(headerRow)) {
+                    throw new InvalidFileFormatException("Invalid file", file.getFilename());
+                }
+                StreamingSheet sheet = workbook.getSheetAt(RESOURCE_PLAN_SHEET_INDEX);
+                List<DateColumn> dateColumns = getDateColumns(headerRow);
+                int i = FIRST_ENTRY_ROW;
+                StreamingRow row = sheet.getRow(i);
+                while (!SpreadsheetAccessor.cellIsNull(row, 0)) {
+                    List<ImportedPlanRecord> records = parseRow(row, dateColumns, currencyUnit, skippedRecords);
+                    resultList.addAll(records);
+                    row = sheet.getRow(++i);
+                }
             }
             return resultList;
         } catch (IOException e) {
@@ -62,18 +60,25 @@ public class ResourcePlanImporter implements PlanRecordsImporter {
         }
     }
 
-    private boolean isValid(Workbook workbook) {
-        boolean result = workbook.getNumberOfSheets() >= RESOURCE_PLAN_SHEET_INDEX;
+    /**
+     * Reads the header row that contains the column titles and the dates of the plan. The header row has to be read
+     * before any plan row, since the rows of the sheet can only be read once.
+     *
+     * @return the header row or null if the workbook does not contain a resource plan sheet.
+     */
+    private StreamingRow getHeaderRow(StreamingWorkbook workbook) throws IOException {
+        if (workbook.getNumberOfSheets() <= RESOURCE_PLAN_SHEET_INDEX) {
+            return null;
+        }
+        return workbook.getSheetAt(RESOURCE_PLAN_SHEET_INDEX).getRow(FIRST_ENTRY_ROW - 1);
+    }
+
+    private boolean isValid(StreamingRow r) {
+        boolean result = r != null;
         if (result) {
             try {
-                Sheet s = workbook.getSheetAt(RESOURCE_PLAN_SHEET_INDEX);
-                Row r = s.getRow(FIRST_ENTRY_ROW - 1);
-                if (r == null) {
-                    result = false;
-                } else {
-                    result = r.getCell(COLUMN_PERSON).getStringCellValue().equals("Person") &&
-                            r.getCell(COLUMN_BUDGET).getStringCellValue().equals("Budget");
-                }
+                result = r.getCell(COLUMN_PERSON).getStringCellValue().equals("Person") &&
+                        r.getCell(COLUMN_BUDGET).getStringCellValue().equals("Budget");
             } catch (Exception e) {
                 result = false;
             }
@@ -81,32 +86,31 @@ public class ResourcePlanImporter implements PlanRecordsImporter {
         return result;
     }
 
-    private List<DateColumn> getDateColumns(Sheet sheet) {
+    private List<DateColumn> getDateColumns(StreamingRow headerRow) {
         List<DateColumn> columns = new ArrayList<>();
         int i = FIRST_ENTRY_COLUMN;
-        Cell dateCell = sheet.getRow(0).getCell(i);
+        StreamingCell dateCell = headerRow.getCell(i);
         while (dateCell != null && dateCell.getDateCellValue() != null) {
             Date date = dateCell.getDateCellValue();
             DateColumn dateColumn = new DateColumn(date, i);
             columns.add(dateColumn);
-            dateCell = sheet.getRow(0).getCell(++i);
+            dateCell = headerRow.getCell(++i);
         }
         return columns;
     }
 
-    private List<ImportedPlanRecord> parseRow(Row row, List<DateColumn> dateColumns, CurrencyUnit currencyUnit, List<List<String>> skippedRecords) throws ImportException {
+    private List<ImportedPlanRecord> parseRow(StreamingRow row, List<DateColumn> dateColumns, CurrencyUnit currencyUnit, List<List<String>> skippedRecords) throws ImportException {
         List<ImportedPlanRecord> recordsList = new ArrayList<>();
 
         for (DateColumn dateColumn : dateColumns) {
-            Cell hoursCell = row.getCell(dateColumn.getColumnIndex());
+            StreamingCell hoursCell = row.getCell(dateColumn.getColumnIndex());
 
             if (hoursCell != null) {
                 double hoursPlanned = 0d;
                 try {
-                    hoursPlanned = row.getCell(dateColumn.getColumnIndex()).getNumericCellValue();
+                    hoursPlanned = hoursCell.getNumericCellValue();
                 } catch (IllegalStateException e) {
-                    CellReference ref = new CellReference(row.getCell(dateColumn.getColumnIndex()));
-                    throw new ImportException(String.format("Error importing field in row %d and column %s", row.getRowNum() + 1, ref.getCellRefParts()[2]));
+                    throw new ImportException(String.format("Error importing field in row %d and column %s", row.getRowNum() + 1, CellReference.convertNumToColString(dateColumn.getColumnIndex())));
                 }
                 if (hoursPlanned > 0) {
                     int minutesPlanned = (int) (hoursPlanned * 60);
@@ -1,6 +1,6 @@
 package org.wickedsource.budgeteer.importer.ubw;
 
-import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.xssf.usermodel.*;
 import org.wickedsource.budgeteer.imports.api.*;
 
@@ -36,24 +36,25 @@ public class UBWWorkRecordsImporter implements WorkRecordsImporter {
             skippedRecords.add(fileName);
 
             List<ImportedWorkRecord> resultList = new ArrayList<>();
-            Workbook workbook = new XSSFWorkbook(file.getInputStream());
-            if (!checkValidity(workbook)) {
-                throw new InvalidFileFormatException("Invalid file", file.getFilename());
-            }
-            Sheet sheet = workbook.getSheetAt(SHEET_INDEX);
-            int i = 3;
-            Row row = sheet.getRow(i);
-            while (row != null && row.getCell(0) != null && row.getCell(0).getStringCellValue() != null) {
-                if (isImportable(row)) {
-                    ImportedWorkRecord record = parseRow(row, file);
-                    resultList.add(record);
-                } else {
-                    if (!isCompletelyEmpty(row)) {
-                        skippedRecords.add(getRowAsStrings(row, i));
+            try (StreamingWorkbook workbook = StreamingWorkbook.open(file.getInputStream())) {
+                if (!checkValidity(workbook)) {
+                    throw new InvalidFileFormatException("Invalid file", file.getFilename());
+                }
+                StreamingSheet sheet = workbook.getSheetAt(SHEET_INDEX);
+                int i = 3;
+                StreamingRow row = sheet.getRow(i);
+                while (row != null && row.getCell(0) != null && row.getCell(0).getStringCellValue() != null) {
+                    if (isImportable(row)) {
+                        ImportedWorkRecord record = parseRow(row, file);
+                        resultList.add(record);
+                    } else {
+                        if (!isCompletelyEmpty(row)) {
+                            skippedRecords.add(getRowAsStrings(row, i));
+                        }
                     }
+                    i++;
+                    row = sheet.getRow(i);
                 }
-                i++;
-                row = sheet.getRow(i);
             }
             return resultList;
         } catch (IOException e) {
@@ -61,9 +62,9 @@ public class UBWWorkRecordsImporter implements WorkRecordsImporter {
         }
     }
 
-    private boolean isCompletelyEmpty(Row row) {
-        for (short i = row.getFirstCellNum(); i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
+    private boolean isCompletelyEmpty(StreamingRow row) {
+        for (int i = row.getFirstCellNum(); i < row.getLastCellNum(); i++) {
+            StreamingCell cell = row.getCell(i);
             if (!isBlank(cell)) {
                 return false;
             }
@@ -71,7 +72,7 @@ public class UBWWorkRecordsImporter implements WorkRecordsImporter {
         return true;
     }
 
-    private boolean isBlank(Cell cell) {
+    private boolean isBlank(StreamingCell cell) {
         if (cell != null) {
             return isBlank(cell.toString());
         }
@@ -171,15 +172,18 @@ public class UBWWorkRecordsImporter implements WorkRecordsImporter {
     }
 
 
-    boolean checkValidity(Workbook workbook) {
-        boolean isValid = workbook.getNumberOfSheets() >= SHEET_INDEX;
+    /**
+     * Checks the header of the work record sheet. The rows before the first record are consumed by this check.
+     */
+    boolean checkValidity(StreamingWorkbook workbook) throws IOException {
+        boolean isValid = workbook.getNumberOfSheets() > SHEET_INDEX;
         if (isValid) {
-            Sheet sheet = workbook.getSheetAt(SHEET_INDEX);
+            StreamingSheet sheet = workbook.getSheetAt(SHEET_INDEX);
             int headerRowIndex = 2;
-            if (sheet.getRow(headerRowIndex) == null) {
+            StreamingRow r = sheet.getRow(headerRowIndex);
+            if (r == null) {
                 isValid = false;
             } else {
-                Row r = sheet.getRow(headerRowIndex);
                 try {
                     isValid = r.getCell(COLUMN_PERSON).getStringCellValue().equals("Name") &&
                             r.getCell(COLUMN_DATE).getStringCellValue().equals("Tag") &&
@@ -194,10 +198,10 @@ public class UBWWorkRecordsImporter implements WorkRecordsImporter {
         return isValid;
     }
 
-    private List<String> getRowAsStrings(Row row, int index) {
+    private List<String> getRowAsStrings(StreamingRow row, int index) {
         List<String> result = new LinkedList<>();
-        for (short i = row.getFirstCellNum(); i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
+        for (int i = row.getFirstCellNum(); i < row.getLastCellNum(); i++) {
+            StreamingCell cell = row.getCell(i);
             if (cell == null) {
                 result.add("");
                 continue;
@@ -210,7 +214,7 @@ public class UBWWorkRecordsImporter implements WorkRecordsImporter {
         return result;
     }
 
-    private ImportedWorkRecord parseRow(Row row, ImportFile file) throws ImportException {
+    private ImportedWorkRecord parseRow(StreamingRow row, ImportFile file) throws ImportException {
         try {
             String personName = row.getCell(COLUMN_PERSON).getStringCellValue();
             Date date = row.getCell(COLUMN_DATE).getDateCellValue();
@@ -235,7 +239,7 @@ public class UBWWorkRecordsImporter implements WorkRecordsImporter {
         }
     }
 
-    private boolean isImportable(Row row) {
+    private boolean isImportable(StreamingRow row) {
         CellContentValidator cellNotEmptyValidator = (String s) -> !"".equals(s.trim());
 
         return row != null
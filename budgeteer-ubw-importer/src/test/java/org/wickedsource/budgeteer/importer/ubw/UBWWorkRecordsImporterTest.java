@@ -1,13 +1,12 @@
 package org.wickedsource.budgeteer.importer.ubw;
 
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.wickedsource.budgeteer.imports.api.ExampleFile;
 import org.wickedsource.budgeteer.imports.api.ImportFile;
 import org.wickedsource.budgeteer.imports.api.ImportedWorkRecord;
 import org.wickedsource.budgeteer.imports.api.InvalidFileFormatException;
+import org.wickedsource.budgeteer.imports.api.StreamingWorkbook;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -55,8 +54,9 @@ class UBWWorkRecordsImporterTest {
     @Test
     void testValidity() throws IOException {
         UBWWorkRecordsImporter importer = new UBWWorkRecordsImporter();
-        Workbook workbook = new XSSFWorkbook(importer.getExampleFile().getInputStream());
-        assertTrue(importer.checkValidity(workbook));
+        try (StreamingWorkbook workbook = StreamingWorkbook.open(importer.getExampleFile().getInputStream())) {
+            assertTrue(importer.checkValidity(workbook));
+        }
     }
 
     @Test
@@ -0,0 +1,119 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import org.wickedsource.budgeteer.MoneyUtil;
+import org.wickedsource.budgeteer.service.record.AggregatedRecord;
+import org.wickedsource.budgeteer.service.record.AggregatedRecordComparator;
+import org.wickedsource.budgeteer.service.record.PlanAndWorkRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The string keyed join implementation that was used before {@link PeriodKey}, kept as baseline for the benchmarks.
+ */
+class LegacyJoiner {
+
+    static List<WeeklyAggregatedRecordWithTitleAndTaxBean> joinWorkBeanHours(List<WeeklyAggregatedRecordWithTitleAndTaxBean> beans) {
+        HashMap<String, WeeklyAggregatedRecordWithTitleAndTaxBean> workMap = new HashMap<>();
+        for (WeeklyAggregatedRecordWithTitleAndTaxBean bean : beans) {
+            WeeklyAggregatedRecordWithTitleAndTaxBean record = workMap.get(String.format("%d%d%d%s%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate(), bean.getTitle()));
+            if (record == null) {
+                workMap.put(String.format("%d%d%d%s%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate(), bean.getTitle()), bean);
+            } else {
+                record.setHours(record.getHours() + bean.getHours());
+            }
+        }
+        return new ArrayList<>(workMap.values());
+    }
+
+    static List<PlanAndWorkRecord> joinWeeklyToPlanAndWorkRecords(List<WeeklyAggregatedRecordWithTaxBean> planList, List<WeeklyAggregatedRecordWithTitleAndTaxBean> workList) {
+        HashMap<String, PlanAndWorkRecord> planAndWorkMap = new HashMap<>();
+        for (WeeklyAggregatedRecordWithTaxBean bean : planList) {
+            PlanAndWorkRecord record = planAndWorkMap.get(String.format("%d%d%d%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate()));
+            if (record == null) {
+                planAndWorkMap.put(String.format("%d%d%d%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate()), new PlanAndWorkRecord(bean));
+            } else {
+                record.setValueInCentsPlanned(record.getValueInCentsPlanned() + bean.getValueInCents());
+                record.setValueInCentsPlanned_gross(MoneyUtil.getCentsWithTaxes(record.getValueInCentsPlanned(), record.getTaxRate()));
+                record.setHoursPlanned(record.getHoursPlanned() + bean.getHours());
+            }
+        }
+        for (WeeklyAggregatedRecordWithTitleAndTaxBean bean : workList) {
+            PlanAndWorkRecord record = planAndWorkMap.get(String.format("%d%d%d%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate()));
+            if (record == null) {
+                planAndWorkMap.put(String.format("%d%d%d%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate()), new PlanAndWorkRecord(bean));
+            } else {
+                record.setValueInCentsBurned(record.getValueInCentsBurned() + bean.getValueInCents());
+                record.setValueInCentsBurned_gross(MoneyUtil.getCentsWithTaxes(record.getValueInCentsBurned(), record.getTaxRate()));
+                record.setHoursWorked(record.getHoursWorked() + bean.getHours());
+            }
+        }
+        return new ArrayList<>(planAndWorkMap.values());
+    }
+
+    static List<PlanAndWorkRecord> joinMonthlyToPlanAndWorkRecords(List<MonthlyAggregatedRecordWithTaxBean> planList, List<MonthlyAggregatedRecordWithTaxBean> workList) {
+        HashMap<String, PlanAndWorkRecord> planAndWorkMap = new HashMap<>();
+        for (MonthlyAggregatedRecordWithTaxBean planBean : planList) {
+            PlanAndWorkRecord record = planAndWorkMap.get(String.format("%s%d%d", planBean.getTaxRate(), planBean.getYear(), planBean.getMonth()));
+            if (record == null) {
+                planAndWorkMap.put(String.format("%s%d%d", planBean.getTaxRate(), planBean.getYear(), planBean.getMonth()), new PlanAndWorkRecord(planBean, true));
+            } else {
+                record.setValueInCentsPlanned(record.getValueInCentsPlanned() + planBean.getValueInCents());
+                record.setValueInCentsPlanned_gross(MoneyUtil.getCentsWithTaxes(record.getValueInCentsPlanned(), record.getTaxRate()));
+                record.setHoursPlanned(record.getHoursPlanned() + planBean.getHours());
+            }
+        }
+        for (MonthlyAggregatedRecordWithTaxBean workBean : workList) {
+            PlanAndWorkRecord record = planAndWorkMap.get(String.format("%s%d%d", workBean.getTaxRate(), workBean.getYear(), workBean.getMonth()));
+            if (record == null) {
+                planAndWorkMap.put(String.format("%s%d%d", workBean.getTaxRate(), workBean.getYear(), workBean.getMonth()), new PlanAndWorkRecord(workBean, false));
+            } else {
+                record.setValueInCentsBurned(record.getValueInCentsBurned() + workBean.getValueInCents());
+                record.setValueInCentsBurned_gross(MoneyUtil.getCentsWithTaxes(record.getValueInCentsBurned(), record.getTaxRate()));
+                record.setHoursWorked(record.getHoursWorked() + workBean.getHours());
+            }
+        }
+        return new ArrayList<>(planAndWorkMap.values());
+    }
+
+    static List<AggregatedRecord> joinMonthlyWithTax(List<MonthlyAggregatedRecordWithTaxBean> workRecords, List<MonthlyAggregatedRecordWithTaxBean> planRecords) {
+        List<AggregatedRecord> recordList = new ArrayList<>();
+        for (PlanAndWorkRecord planAndWorkRecord : joinMonthlyToPlanAndWorkRecords(planRecords, workRecords)) {
+            recordList.add(new AggregatedRecord(planAndWorkRecord));
+        }
+        Collections.sort(recordList, new AggregatedRecordComparator());
+        return sumRecordsForEachPeriod(recordList);
+    }
+
+    private static List<AggregatedRecord> sumRecordsForEachPeriod(List<AggregatedRecord> records) {
+        int i = 0;
+        while (i < records.size() - 1) {
+            AggregatedRecord current = records.get(i);
+            current.removeNullValues();
+            AggregatedRecord next = records.get(i + 1);
+            next.removeNullValues();
+
+            if (current.getAggregationPeriodStart().equals(next.getAggregationPeriodStart()) && current.getAggregationPeriodEnd().equals(next.getAggregationPeriodEnd())) {
+                AggregatedRecord sum = new AggregatedRecord();
+                sum.setAggregationPeriodTitle(current.getAggregationPeriodTitle());
+                sum.setAggregationPeriodStart(current.getAggregationPeriodStart());
+                sum.setAggregationPeriodEnd(current.getAggregationPeriodEnd());
+                sum.setHours(current.getHours() + next.getHours());
+
+                sum.setBudgetPlanned_net(MoneyUtil.sumMoney(current.getBudgetPlanned_net(), next.getBudgetPlanned_net()));
+                sum.setBudgetPlanned_gross(MoneyUtil.sumMoney(current.getBudgetPlanned_gross(), next.getBudgetPlanned_gross()));
+                sum.setBudgetBurned_net(MoneyUtil.sumMoney(current.getBudgetBurned_net(), next.getBudgetBurned_net()));
+                sum.setBudgetBurned_gross(MoneyUtil.sumMoney(current.getBudgetBurned_gross(), next.getBudgetBurned_gross()));
+
+                records.remove(current);
+                records.remove(next);
+                records.add(i, sum);
+            } else {
+                i++;
+            }
+        }
+        return records;
+    }
+}
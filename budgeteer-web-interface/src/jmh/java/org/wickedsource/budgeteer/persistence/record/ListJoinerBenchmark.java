@@ -0,0 +1,91 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import org.openjdk.jmh.annotations.*;
+import org.wickedsource.budgeteer.service.record.AggregatedRecord;
+import org.wickedsource.budgeteer.service.record.PlanAndWorkRecord;
+import org.wickedsource.budgeteer.service.record.RecordJoiner;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the packed key joins of {@link ListJoiner} and {@link RecordJoiner} with the former string keyed joins
+ * on inputs of 100k beans.
+ * <p>
+ * Run with {@code gradle :budgeteer-web-interface:jmh -Pjmh.includes=ListJoinerBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListJoinerBenchmark {
+
+    private static final int BEANS = 100_000;
+
+    private static final BigDecimal[] TAX_RATES = {BigDecimal.ZERO, BigDecimal.valueOf(7), BigDecimal.valueOf(19)};
+
+    private List<WeeklyAggregatedRecordWithTaxBean> weeklyPlanBeans;
+
+    private List<WeeklyAggregatedRecordWithTitleAndTaxBean> weeklyWorkBeans;
+
+    private List<MonthlyAggregatedRecordWithTaxBean> monthlyPlanBeans;
+
+    private List<MonthlyAggregatedRecordWithTaxBean> monthlyWorkBeans;
+
+    private RecordJoiner recordJoiner = new RecordJoiner();
+
+    @Setup
+    public void createBeans() {
+        Random random = new Random(42);
+        weeklyPlanBeans = new ArrayList<>(BEANS);
+        weeklyWorkBeans = new ArrayList<>(BEANS);
+        monthlyPlanBeans = new ArrayList<>(BEANS);
+        monthlyWorkBeans = new ArrayList<>(BEANS);
+        for (int i = 0; i < BEANS; i++) {
+            int year = 2000 + random.nextInt(20);
+            int week = 1 + random.nextInt(52);
+            int month = Math.min((week - 1) / 4, 11);
+            BigDecimal taxRate = TAX_RATES[random.nextInt(TAX_RATES.length)];
+            long cents = random.nextInt(100_000);
+            weeklyPlanBeans.add(new WeeklyAggregatedRecordWithTaxBean(year, month, week, cents, taxRate));
+            weeklyWorkBeans.add(new WeeklyAggregatedRecordWithTitleAndTaxBean(year, month, week, cents, taxRate, "person" + random.nextInt(50)));
+            monthlyPlanBeans.add(new MonthlyAggregatedRecordWithTaxBean(year, month, cents, taxRate));
+            monthlyWorkBeans.add(new MonthlyAggregatedRecordWithTaxBean(year, month, cents, taxRate));
+        }
+    }
+
+    @Benchmark
+    public List<WeeklyAggregatedRecordWithTitleAndTaxBean> joinWorkBeanHoursLegacy() {
+        return LegacyJoiner.joinWorkBeanHours(weeklyWorkBeans);
+    }
+
+    @Benchmark
+    public List<WeeklyAggregatedRecordWithTitleAndTaxBean> joinWorkBeanHours() {
+        return ListJoiner.joinWorkBeanHours(weeklyWorkBeans);
+    }
+
+    @Benchmark
+    public List<PlanAndWorkRecord> joinWeeklyToPlanAndWorkRecordsLegacy() {
+        return LegacyJoiner.joinWeeklyToPlanAndWorkRecords(weeklyPlanBeans, weeklyWorkBeans);
+    }
+
+    @Benchmark
+    public List<PlanAndWorkRecord> joinWeeklyToPlanAndWorkRecords() {
+        return ListJoiner.joinWeeklyToPlanAndWorkRecords(weeklyPlanBeans, weeklyWorkBeans);
+    }
+
+    @Benchmark
+    public List<AggregatedRecord> joinMonthlyWithTaxLegacy() {
+        return LegacyJoiner.joinMonthlyWithTax(monthlyWorkBeans, monthlyPlanBeans);
+    }
+
+    @Benchmark
+    public List<AggregatedRecord> joinMonthlyWithTax() {
+        return recordJoiner.joinMonthlyWithTax(monthlyWorkBeans, monthlyPlanBeans);
+    }
+}
@@ -0,0 +1,153 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.wickedsource.budgeteer.MoneyUtil;
+import org.wickedsource.budgeteer.persistence.budget.BudgetEntity;
+import org.wickedsource.budgeteer.persistence.imports.ImportEntity;
+import org.wickedsource.budgeteer.persistence.person.PersonEntity;
+import org.wickedsource.budgeteer.persistence.project.ProjectEntity;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former import of records through {@code repository.save()}, which keeps every record in the
+ * persistence context until the transaction ends, with {@link RecordBatchInserter}, which flushes and detaches the
+ * records in chunks. Both run through Hibernate with the JDBC batch settings of the application against an embedded
+ * HSQL database, the reported operations are rows per second.
+ * <p>
+ * Run with {@code gradle :budgeteer-web-interface:jmh -Pjmh.includes=RecordInsertBenchmark}, the rows per second of
+ * both variants are written to {@code build/reports/jmh/results.json}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordInsertBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private EmbeddedDatabase database;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private EntityManager entityManager;
+
+    private BudgetEntity budget;
+
+    private PersonEntity person;
+
+    private ImportEntity importRecord;
+
+    @Setup(Level.Trial)
+    public void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.HSQL)
+                .setName("recordInsertBenchmark")
+                .build();
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.hbm2ddl.auto", "create");
+        properties.setProperty("hibernate.id.new_generator_mappings", "false");
+        properties.setProperty("hibernate.jdbc.batch_size", "50");
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(database);
+        factoryBean.setPackagesToScan("org.wickedsource.budgeteer.persistence");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+
+        EntityManager setupEntityManager = entityManagerFactory.createEntityManager();
+        setupEntityManager.getTransaction().begin();
+        ProjectEntity project = new ProjectEntity();
+        project.setName("project");
+        setupEntityManager.persist(project);
+        budget = new BudgetEntity();
+        budget.setName("budget");
+        budget.setImportKey("budget");
+        budget.setProject(project);
+        setupEntityManager.persist(budget);
+        person = new PersonEntity();
+        person.setName("person");
+        person.setImportKey("person");
+        person.setProject(project);
+        setupEntityManager.persist(person);
+        importRecord = new ImportEntity();
+        importRecord.setImportDate(new Date());
+        importRecord.setImportType("benchmark");
+        importRecord.setProject(project);
+        setupEntityManager.persist(importRecord);
+        setupEntityManager.getTransaction().commit();
+        setupEntityManager.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void beginTransaction() {
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+    }
+
+    @TearDown(Level.Invocation)
+    public void commitTransaction() {
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteRecords() {
+        EntityManager cleanupEntityManager = entityManagerFactory.createEntityManager();
+        cleanupEntityManager.getTransaction().begin();
+        cleanupEntityManager.createNativeQuery("DELETE FROM WORK_RECORD").executeUpdate();
+        cleanupEntityManager.getTransaction().commit();
+        cleanupEntityManager.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownDatabase() {
+        entityManagerFactory.close();
+        database.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void saveWithRepository() {
+        new SimpleJpaRepository<>(WorkRecordEntity.class, entityManager).save(createRecords());
+        entityManager.flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertInBatches() {
+        RecordBatchInserter.insert(entityManager, createRecords());
+    }
+
+    private List<WorkRecordEntity> createRecords() {
+        List<WorkRecordEntity> records = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            WorkRecordEntity record = new WorkRecordEntity();
+            record.setBudget(entityManager.getReference(BudgetEntity.class, budget.getId()));
+            record.setPerson(entityManager.getReference(PersonEntity.class, person.getId()));
+            record.setImportRecord(entityManager.getReference(ImportEntity.class, importRecord.getId()));
+            record.setDate(new Date(1_500_000_000_000L + i * 86_400_000L));
+            record.setMinutes(480);
+            record.setDailyRate(MoneyUtil.createMoney(500));
+            records.add(record);
+        }
+        return records;
+    }
+}
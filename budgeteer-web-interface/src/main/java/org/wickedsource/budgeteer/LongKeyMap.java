@@ -0,0 +1,103 @@
+package org.wickedsource.budgeteer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal open addressing hash map with primitive long keys. Lookups neither box the key nor allocate,
+ * which makes it suitable for joining large lists of aggregated records by packed keys.
+ * The values are kept in insertion order.
+ *
+ * @param <V> type of the values
+ */
+public class LongKeyMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+
+    /**
+     * Index of the value in {@link #values} plus one for each slot, 0 marks an empty slot.
+     */
+    private int[] slots;
+
+    private final List<V> values;
+
+    public LongKeyMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongKeyMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        slots = new int[capacity];
+        values = new ArrayList<>(expectedSize);
+    }
+
+    /**
+     * @return the value stored for the given key or null if there is none.
+     */
+    public V get(long key) {
+        int slot = findSlot(keys, slots, key);
+        return slots[slot] == 0 ? null : values.get(slots[slot] - 1);
+    }
+
+    /**
+     * Stores the given value for the given key, replacing the value previously stored for this key.
+     */
+    public void put(long key, V value) {
+        int slot = findSlot(keys, slots, key);
+        if (slots[slot] != 0) {
+            values.set(slots[slot] - 1, value);
+            return;
+        }
+        values.add(value);
+        keys[slot] = key;
+        slots[slot] = values.size();
+        if (values.size() * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * @return the values of this map in insertion order. The returned list is the backing list of this map.
+     */
+    public List<V> values() {
+        return values;
+    }
+
+    private void grow() {
+        long[] newKeys = new long[keys.length * 2];
+        int[] newSlots = new int[slots.length * 2];
+        for (int i = 0; i < keys.length; i++) {
+            if (slots[i] != 0) {
+                int slot = findSlot(newKeys, newSlots, keys[i]);
+                newKeys[slot] = keys[i];
+                newSlots[slot] = slots[i];
+            }
+        }
+        keys = newKeys;
+        slots = newSlots;
+    }
+
+    private static int findSlot(long[] keys, int[] slots, long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (slots[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,74 @@
+package org.wickedsource.budgeteer.persistence.attachment;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Runs the Flyway migrations and moves the files that are still stored as LOBs into the {@link AttachmentStore}
+ * afterwards. The files are moved in batches, every batch of references is written in its own statement, so that an
+ * interrupted migration continues with the remaining files on the next start. The LOB columns are emptied, but kept
+ * until all installations have been migrated.
+ */
+@Component
+public class AttachmentMigrationStrategy implements FlywayMigrationStrategy {
+
+    private static final Logger log = getLogger(AttachmentMigrationStrategy.class);
+
+    static final int BATCH_SIZE = 20;
+
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    @Override
+    public void migrate(Flyway flyway) {
+        flyway.migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getDataSource());
+        jdbcTemplate.setMaxRows(BATCH_SIZE);
+        moveFiles(jdbcTemplate, "CONTRACT", "CONTRACT_FILE", "FILE_HASH");
+        moveFiles(jdbcTemplate, "INVOICE", "INVOICE_FILE", "FILE_HASH");
+        moveFiles(jdbcTemplate, "TEMPLATE", "TEMPLATE", "CONTENT_HASH");
+    }
+
+    /**
+     * Moves the files of the given LOB column into the store and writes their references into the given column.
+     *
+     * @param jdbcTemplate a template that returns at most {@link #BATCH_SIZE} rows per query.
+     */
+    void moveFiles(JdbcTemplate jdbcTemplate, String table, String fileColumn, String referenceColumn) {
+        String select = "SELECT ID, " + fileColumn + " FROM " + table + " WHERE " + fileColumn + " IS NOT NULL";
+        String update = "UPDATE " + table + " SET " + referenceColumn + " = ?, " + fileColumn + " = NULL WHERE ID = ?";
+        int moved = 0;
+        List<Object[]> references;
+        do {
+            references = new ArrayList<>();
+            List<Object[]> batch = references;
+            jdbcTemplate.query(select, (RowCallbackHandler) resultSet -> {
+                try (InputStream file = resultSet.getBinaryStream(2)) {
+                    batch.add(new Object[]{attachmentStore.store(file), resultSet.getLong(1)});
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not move file of " + table + " " + resultSet.getLong(1), e);
+                }
+            });
+            if (!references.isEmpty()) {
+                jdbcTemplate.batchUpdate(update, references);
+                moved += references.size();
+            }
+        } while (references.size() == BATCH_SIZE);
+        if (moved > 0) {
+            log.info("Moved {} files of {} into the attachment store", moved, table);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.wickedsource.budgeteer.persistence.attachment;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stores the files attached to contracts, invoices and templates outside of the database. Contents are addressed by
+ * their SHA-256 hash, so entities only keep the hash as reference, and storing the same content twice keeps only one
+ * copy.
+ */
+public interface AttachmentStore {
+
+    /**
+     * Reads the given stream up to its end and stores its content. The stream is not closed.
+     *
+     * @return the reference of the content, its hex encoded SHA-256 hash.
+     */
+    String store(InputStream content) throws IOException;
+
+    /**
+     * @param reference a reference returned by {@link #store(InputStream)}.
+     * @return a stream of the stored content, which has to be closed by the caller.
+     * @throws java.nio.file.NoSuchFileException if there is no content with the given reference.
+     */
+    InputStream open(String reference) throws IOException;
+
+    boolean contains(String reference);
+}
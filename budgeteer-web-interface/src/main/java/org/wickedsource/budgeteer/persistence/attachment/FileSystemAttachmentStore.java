@@ -0,0 +1,82 @@
+package org.wickedsource.budgeteer.persistence.attachment;
+
+import org.apache.commons.codec.binary.Hex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the attachments as files in a local directory. A file is named after its hash and lies in two levels of
+ * subdirectories named after the first characters of the hash, so that no directory gets too many entries.
+ * <p>
+ * Contents are written to a temporary file while their hash is computed and moved to their final name afterwards, so
+ * that readers never see partially written files.
+ */
+@Component
+public class FileSystemAttachmentStore implements AttachmentStore {
+
+    private static final Pattern REFERENCE = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path directory;
+
+    @Autowired
+    public FileSystemAttachmentStore(@Value("${budgeteer.attachments.directory:${user.home}/.budgeteer/attachments}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    @Override
+    public String store(InputStream content) throws IOException {
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, "upload", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            Files.copy(new DigestInputStream(content, digest), temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+            String reference = Hex.encodeHexString(digest.digest());
+            Path file = pathOf(reference);
+            if (!Files.exists(file)) {
+                Files.createDirectories(file.getParent());
+                try {
+                    Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // the same content has been stored concurrently
+                }
+            }
+            return reference;
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    @Override
+    public InputStream open(String reference) throws IOException {
+        return Files.newInputStream(pathOf(reference));
+    }
+
+    @Override
+    public boolean contains(String reference) {
+        return Files.exists(pathOf(reference));
+    }
+
+    private Path pathOf(String reference) {
+        if (reference == null || !REFERENCE.matcher(reference).matches()) {
+            throw new IllegalArgumentException("Not an attachment reference: " + reference);
+        }
+        return directory.resolve(reference.substring(0, 2)).resolve(reference.substring(2, 4)).resolve(reference);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
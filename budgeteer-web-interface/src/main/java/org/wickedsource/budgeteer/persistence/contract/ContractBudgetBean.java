@@ -0,0 +1,18 @@
+package org.wickedsource.budgeteer.persistence.contract;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A budget that belongs to a contract.
+ */
+@Data
+@AllArgsConstructor
+public class ContractBudgetBean {
+
+    private long contractId;
+
+    private long budgetId;
+
+    private String budgetName;
+}
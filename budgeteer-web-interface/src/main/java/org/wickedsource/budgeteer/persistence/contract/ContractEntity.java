@@ -63,10 +63,11 @@ public class ContractEntity implements Serializable {
     @Column(name = "LINK")
     private String link;
 
-    @Lob
-    @Basic(fetch = FetchType.LAZY)
-    @Column(name = "CONTRACT_FILE", length = 5 * 1024 * 1024) // five megabytes
-    private byte[] file;
+    /**
+     * Reference of the attached file in the {@link org.wickedsource.budgeteer.persistence.attachment.AttachmentStore}.
+     */
+    @Column(name = "FILE_HASH", length = 64)
+    private String fileHash;
 
     @Column(name = "FILE_NAME")
     private String fileName;
@@ -0,0 +1,18 @@
+package org.wickedsource.budgeteer.persistence.contract;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The value of a single contract field of a contract.
+ */
+@Data
+@AllArgsConstructor
+public class ContractFieldValueBean {
+
+    private long contractId;
+
+    private String fieldName;
+
+    private String value;
+}
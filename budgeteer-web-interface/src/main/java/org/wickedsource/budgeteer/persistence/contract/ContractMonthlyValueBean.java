@@ -0,0 +1,23 @@
+package org.wickedsource.budgeteer.persistence.contract;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A monetary value of a contract summed up for a single month, e.g. the spent budget or the invoiced sum.
+ */
+@Data
+@AllArgsConstructor
+public class ContractMonthlyValueBean {
+
+    private long contractId;
+
+    private int year;
+
+    /**
+     * Month is 0-based;
+     */
+    private int month;
+
+    private long valueInCents;
+}
@@ -8,10 +8,34 @@ import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
-public interface ContractRepository extends CrudRepository<ContractEntity, Long> {
+public interface ContractRepository extends CrudRepository<ContractEntity, Long>, ContractRepositoryCustom {
 
     List<ContractEntity> findByProjectId(long projectId);
 
+    /**
+     * Loads all contracts of the given project together with their field values.
+     */
+    @Query("select distinct c from ContractEntity c left join fetch c.contractFields where c.project.id = :projectId")
+    List<ContractEntity> findWithContractFieldsByProjectId(@Param("projectId") long projectId);
+
+    /**
+     * Loads the overview columns of all contracts of the given project, leaving out the contract files.
+     */
+    @Query("select new org.wickedsource.budgeteer.persistence.contract.ContractSummaryBean(c.id, c.name, c.budget, c.taxRate, c.internalNumber, c.startDate, c.type, c.link, c.fileName) from ContractEntity c where c.project.id = :projectId order by c.id")
+    List<ContractSummaryBean> findSummariesByProjectId(@Param("projectId") long projectId);
+
+    /**
+     * Loads the values of the contract fields of all contracts of the given project.
+     */
+    @Query("select new org.wickedsource.budgeteer.persistence.contract.ContractFieldValueBean(c.id, f.field.fieldName, f.value) from ContractEntity c join c.contractFields f where c.project.id = :projectId")
+    List<ContractFieldValueBean> findFieldValuesByProjectId(@Param("projectId") long projectId);
+
+    /**
+     * Loads the IDs and names of the budgets of all contracts of the given project.
+     */
+    @Query("select new org.wickedsource.budgeteer.persistence.contract.ContractBudgetBean(b.contract.id, b.id, b.name) from BudgetEntity b where b.contract.project.id = :projectId order by b.id")
+    List<ContractBudgetBean> findBudgetsByProjectId(@Param("projectId") long projectId);
+
     @Query("select cif from ContractInvoiceField cif where cif.contract.id = :contractId AND cif.fieldName = :fieldName")
     ContractInvoiceField findInvoiceFieldByName(@Param("contractId") long contractID, @Param("fieldName") String fieldName);
 
@@ -114,4 +138,7 @@ public interface ContractRepository extends CrudRepository<ContractEntity, Long>
     @Query("select coalesce(sum(wr.minutes * wr.dailyRate/ 60 / 8),0) from WorkRecordEntity wr where wr.budget.contract.id = :contractId AND (wr.year < :year OR (wr.year = :year AND wr.month <= :month))")
     Double getSpentBudgetByContractIdUntilDate(@Param("contractId") Long contractId, @Param("month") Integer month, @Param("year") Integer year);
 
+    @Query("select c.fileHash from ContractEntity c where c.id = :contractId")
+    String getFileHashOfContract(@Param("contractId") long contractId);
+
 }
\ No newline at end of file
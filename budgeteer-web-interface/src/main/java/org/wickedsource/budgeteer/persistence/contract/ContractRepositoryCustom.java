@@ -0,0 +1,48 @@
+package org.wickedsource.budgeteer.persistence.contract;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queries on contracts that cannot be expressed as query methods of {@link ContractRepository}.
+ */
+public interface ContractRepositoryCustom {
+
+    /**
+     * Calculates the statistics of the given contracts for consecutive months. The work records, manual records and
+     * invoices of all contracts are summed up by month with one query each, the running totals are calculated in a
+     * single pass over the months.
+     *
+     * @param contractIds    IDs of the contracts.
+     * @param year           year of the first month.
+     * @param month          first month (0-based).
+     * @param numberOfMonths number of months to calculate the statistics for.
+     * @return one bean per month and contract, with the values of
+     * {@link ContractRepository#getContractStatisticAggregatedByMonthAndYear(Long, Integer, Integer)}, ordered by month
+     * and mapped by contract ID. Contracts that do not exist are not contained.
+     */
+    Map<Long, List<ContractStatisticBean>> getContractStatisticsAggregatedByMonth(Collection<Long> contractIds, int year, int month, int numberOfMonths);
+
+    /**
+     * Same as {@link #getContractStatisticsAggregatedByMonth(Collection, int, int, int)}, but with the values of
+     * {@link ContractRepository#getContractStatisticByMonthAndYear(Long, Integer, Integer)}.
+     */
+    Map<Long, List<ContractStatisticBean>> getContractStatisticsByMonth(Collection<Long> contractIds, int year, int month, int numberOfMonths);
+
+    /**
+     * Sums up the spent budget of the work records of the given contracts until the given month with a single query,
+     * see {@link ContractRepository#getSpentBudgetByContractIdUntilDate(Long, Integer, Integer)}.
+     *
+     * @return the spent budget in cents, mapped by contract ID. Contracts without work records are not contained.
+     */
+    Map<Long, Long> getSpentBudgetsByContractUntilDate(Collection<Long> contractIds, int month, int year);
+
+    /**
+     * Sums up the spent budget of the work records and manual records of each contract of the given project, with one
+     * grouped query each, see {@link org.wickedsource.budgeteer.service.contract.ContractService#getBudgetSpent(long)}.
+     *
+     * @return the spent budget in cents, mapped by contract ID. Contracts without records are not contained.
+     */
+    Map<Long, Long> getSpentBudgetsByProjectId(long projectId);
+}
@@ -0,0 +1,207 @@
+package org.wickedsource.budgeteer.persistence.contract;
+
+import org.joda.money.Money;
+import org.wickedsource.budgeteer.persistence.record.IdPartitions;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+
+public class ContractRepositoryImpl implements ContractRepositoryCustom {
+
+    private static final String BUDGETS_QUERY =
+            "select c.id, c.budget from ContractEntity c where c.id in (:contractIds)";
+
+    private static final String WORK_RECORDS_QUERY =
+            "select new org.wickedsource.budgeteer.persistence.contract.ContractMonthlyValueBean(wr.budget.contract.id, wr.year, wr.month, coalesce(sum(wr.minutes * wr.dailyRate/ 60 / 8),0)) " +
+            "from WorkRecordEntity wr where wr.budget.contract.id in (:contractIds) " +
+            "group by wr.budget.contract.id, wr.year, wr.month";
+
+    private static final String MANUAL_RECORDS_QUERY =
+            "select new org.wickedsource.budgeteer.persistence.contract.ContractMonthlyValueBean(record.budget.contract.id, record.year, record.month, coalesce(sum(record.moneyAmount),0)) " +
+            "from ManualRecordEntity record where record.budget.contract.id in (:contractIds) " +
+            "group by record.budget.contract.id, record.year, record.month";
+
+    private static final String INVOICES_QUERY =
+            "select new org.wickedsource.budgeteer.persistence.contract.ContractMonthlyValueBean(i.contract.id, i.year, i.month, coalesce(sum(i.invoiceSum),0)) " +
+            "from InvoiceEntity i where i.contract.id in (:contractIds) " +
+            "group by i.contract.id, i.year, i.month";
+
+    private static final String SPENT_UNTIL_DATE_QUERY =
+            "select wr.budget.contract.id, coalesce(sum(wr.minutes * wr.dailyRate/ 60 / 8),0) " +
+            "from WorkRecordEntity wr where wr.budget.contract.id in (:contractIds) " +
+            "AND (wr.year < :year OR (wr.year = :year AND wr.month <= :month)) " +
+            "group by wr.budget.contract.id";
+
+    private static final String SPENT_WORK_RECORDS_BY_PROJECT_QUERY =
+            "select wr.budget.contract.id, coalesce(sum(wr.minutes * wr.dailyRate/ 60 / 8),0) " +
+            "from WorkRecordEntity wr where wr.budget.contract.project.id = :projectId " +
+            "group by wr.budget.contract.id";
+
+    private static final String SPENT_MANUAL_RECORDS_BY_PROJECT_QUERY =
+            "select record.budget.contract.id, coalesce(sum(record.moneyAmount),0) " +
+            "from ManualRecordEntity record where record.budget.contract.project.id = :projectId " +
+            "group by record.budget.contract.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<Long, List<ContractStatisticBean>> getContractStatisticsAggregatedByMonth(Collection<Long> contractIds, int year, int month, int numberOfMonths) {
+        return getContractStatistics(contractIds, year, month, numberOfMonths, true);
+    }
+
+    @Override
+    public Map<Long, List<ContractStatisticBean>> getContractStatisticsByMonth(Collection<Long> contractIds, int year, int month, int numberOfMonths) {
+        return getContractStatistics(contractIds, year, month, numberOfMonths, false);
+    }
+
+    @Override
+    public Map<Long, Long> getSpentBudgetsByContractUntilDate(Collection<Long> contractIds, int month, int year) {
+        Map<Long, Long> result = new HashMap<>();
+        for (List<Long> chunk : IdPartitions.of(contractIds)) {
+            List<Object[]> rows = entityManager.createQuery(SPENT_UNTIL_DATE_QUERY, Object[].class)
+                    .setParameter("contractIds", chunk)
+                    .setParameter("month", month)
+                    .setParameter("year", year)
+                    .getResultList();
+            for (Object[] row : rows) {
+                result.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Long, Long> getSpentBudgetsByProjectId(long projectId) {
+        Map<Long, Long> result = new HashMap<>();
+        for (String query : Arrays.asList(SPENT_WORK_RECORDS_BY_PROJECT_QUERY, SPENT_MANUAL_RECORDS_BY_PROJECT_QUERY)) {
+            List<Object[]> rows = entityManager.createQuery(query, Object[].class)
+                    .setParameter("projectId", projectId)
+                    .getResultList();
+            for (Object[] row : rows) {
+                result.merge((Long) row[0], ((Number) row[1]).longValue(), Long::sum);
+            }
+        }
+        return result;
+    }
+
+    private Map<Long, List<ContractStatisticBean>> getContractStatistics(Collection<Long> contractIds, int year, int month, int numberOfMonths, boolean aggregated) {
+        Map<Long, List<ContractStatisticBean>> result = new HashMap<>();
+        for (List<Long> chunk : IdPartitions.of(contractIds)) {
+            Map<Long, ContractMonths> contracts = new HashMap<>();
+            List<Object[]> budgets = entityManager.createQuery(BUDGETS_QUERY, Object[].class)
+                    .setParameter("contractIds", chunk)
+                    .getResultList();
+            for (Object[] row : budgets) {
+                contracts.put((Long) row[0], new ContractMonths((Money) row[1]));
+            }
+            for (ContractMonthlyValueBean bean : findMonthlyValues(WORK_RECORDS_QUERY, chunk)) {
+                contracts.get(bean.getContractId()).workRecords.put(ContractMonths.key(bean.getYear(), bean.getMonth()), bean.getValueInCents());
+            }
+            for (ContractMonthlyValueBean bean : findMonthlyValues(MANUAL_RECORDS_QUERY, chunk)) {
+                contracts.get(bean.getContractId()).manualRecords.put(ContractMonths.key(bean.getYear(), bean.getMonth()), bean.getValueInCents());
+            }
+            for (ContractMonthlyValueBean bean : findMonthlyValues(INVOICES_QUERY, chunk)) {
+                contracts.get(bean.getContractId()).invoices.put(ContractMonths.key(bean.getYear(), bean.getMonth()), bean.getValueInCents());
+            }
+            for (Map.Entry<Long, ContractMonths> entry : contracts.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().statistics(year, month, numberOfMonths, aggregated));
+            }
+        }
+        return result;
+    }
+
+    private List<ContractMonthlyValueBean> findMonthlyValues(String query, List<Long> contractIds) {
+        return entityManager.createQuery(query, ContractMonthlyValueBean.class)
+                .setParameter("contractIds", contractIds)
+                .getResultList();
+    }
+
+    /**
+     * The monthly sums of a single contract, keyed by year * 100 + month so that the keys are ordered by month.
+     */
+    private static class ContractMonths {
+
+        private final Long budgetInCents;
+        private final TreeMap<Integer, Long> workRecords = new TreeMap<>();
+        private final TreeMap<Integer, Long> manualRecords = new TreeMap<>();
+        private final TreeMap<Integer, Long> invoices = new TreeMap<>();
+
+        ContractMonths(Money budget) {
+            this.budgetInCents = budget == null ? null : budget.getAmountMinorLong();
+        }
+
+        static int key(int year, int month) {
+            return year * 100 + month;
+        }
+
+        /**
+         * Walks through the months once, adding the monthly sums of the work records and invoices up to running
+         * totals.
+         */
+        List<ContractStatisticBean> statistics(int year, int month, int numberOfMonths, boolean aggregated) {
+            List<ContractStatisticBean> result = new ArrayList<>(numberOfMonths);
+            Iterator<Map.Entry<Integer, Long>> workIterator = workRecords.entrySet().iterator();
+            Iterator<Map.Entry<Integer, Long>> invoiceIterator = invoices.entrySet().iterator();
+            Map.Entry<Integer, Long> nextWork = next(workIterator);
+            Map.Entry<Integer, Long> nextInvoice = next(invoiceIterator);
+            long spentTotal = 0;
+            boolean hasWorkRecords = false;
+            long invoicedTotal = 0;
+            for (int i = 0; i < numberOfMonths; i++) {
+                int key = key(year, month);
+                while (nextWork != null && nextWork.getKey() <= key) {
+                    spentTotal += nextWork.getValue();
+                    hasWorkRecords = true;
+                    nextWork = next(workIterator);
+                }
+                while (nextInvoice != null && nextInvoice.getKey() <= key) {
+                    invoicedTotal += nextInvoice.getValue();
+                    nextInvoice = next(invoiceIterator);
+                }
+                long budget = budgetInCents == null ? 0 : budgetInCents;
+                if (aggregated) {
+                    long manual = manualRecordsUntil(year, month);
+                    result.add(new ContractStatisticBean(year, progress(spentTotal - manual), budget - manual - spentTotal,
+                            hasWorkRecords ? spentTotal + manual : 0, invoicedTotal, month));
+                } else {
+                    long spent = workRecords.getOrDefault(key, 0L);
+                    long manual = manualRecords.getOrDefault(key, 0L);
+                    result.add(new ContractStatisticBean(year, progress(spentTotal + manual), budget - spent - manual,
+                            spent + manual, invoices.getOrDefault(key, 0L), month));
+                }
+                if (++month == 12) {
+                    month = 0;
+                    year++;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Sums up the manual records whose month and year are not after the given month and year, each compared
+         * on its own like the single contract queries do.
+         */
+        private long manualRecordsUntil(int year, int month) {
+            long sum = 0;
+            for (Map.Entry<Integer, Long> entry : manualRecords.entrySet()) {
+                if (entry.getKey() / 100 <= year && entry.getKey() % 100 <= month) {
+                    sum += entry.getValue();
+                }
+            }
+            return sum;
+        }
+
+        private Double progress(long value) {
+            if (budgetInCents == null || budgetInCents == 0) {
+                return null;
+            }
+            return value / budgetInCents.doubleValue();
+        }
+
+        private static Map.Entry<Integer, Long> next(Iterator<Map.Entry<Integer, Long>> iterator) {
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.wickedsource.budgeteer.persistence.contract;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The sorting index a user has chosen for a contract.
+ */
+@Data
+@AllArgsConstructor
+public class ContractSortingIndexBean {
+
+    private long contractId;
+
+    private Integer sortingIndex;
+}
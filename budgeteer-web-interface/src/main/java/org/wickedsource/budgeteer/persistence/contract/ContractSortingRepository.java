@@ -5,10 +5,15 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+
 public interface ContractSortingRepository extends CrudRepository<ContractSortingEntity, Long> {
     @Query("select cs.sortingIndex from ContractSortingEntity cs where cs.contract.id = :contractId and cs.user.id = :userId")
     Integer getSortingIndex(@Param("contractId") long contractId, @Param("userId") long userId);
 
+    @Query("select new org.wickedsource.budgeteer.persistence.contract.ContractSortingIndexBean(cs.contract.id, cs.sortingIndex) from ContractSortingEntity cs where cs.contract.project.id = :projectId and cs.user.id = :userId")
+    List<ContractSortingIndexBean> getSortingIndicesByProjectId(@Param("projectId") long projectId, @Param("userId") long userId);
+
     @Query("select cs from ContractSortingEntity cs where cs.contract.id = :contractId and cs.user.id = :userId")
     ContractSortingEntity findByContractIdAndUserId(@Param("contractId") long contractId, @Param("userId") long userId);
 
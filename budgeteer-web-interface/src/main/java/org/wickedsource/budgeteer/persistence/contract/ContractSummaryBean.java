@@ -0,0 +1,34 @@
+package org.wickedsource.budgeteer.persistence.contract;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.joda.money.Money;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * The columns of a contract that are shown in overviews, without the content of the contract file.
+ */
+@Data
+@AllArgsConstructor
+public class ContractSummaryBean {
+
+    private long id;
+
+    private String name;
+
+    private Money budget;
+
+    private BigDecimal taxRate;
+
+    private String internalNumber;
+
+    private Date startDate;
+
+    private ContractEntity.ContractType type;
+
+    private String link;
+
+    private String fileName;
+}
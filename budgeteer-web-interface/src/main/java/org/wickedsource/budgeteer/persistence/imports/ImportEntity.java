@@ -26,6 +26,14 @@ public class ImportEntity {
 
     private Integer numberOfImportedFiles = 0;
 
+    /**
+     * Set when the import has been deleted by a user. The records of a retracted import are hidden from all record
+     * queries (see {@link org.wickedsource.budgeteer.persistence.record.RecordEntity#NOT_RETRACTED}) and removed
+     * in the background later on.
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date retractedDate;
+
     @ManyToOne(optional = false)
     @JoinColumn(name = "PROJECT_ID")
     private ProjectEntity project;
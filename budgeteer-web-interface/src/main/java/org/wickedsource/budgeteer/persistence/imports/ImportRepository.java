@@ -5,12 +5,23 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
 import java.util.List;
 
 public interface ImportRepository extends CrudRepository<ImportEntity, Long> {
 
     public List<ImportEntity> findByProjectId(long projectId);
 
+    /**
+     * Marks the import as deleted, its records are hidden immediately and purged later on.
+     */
+    @Modifying
+    @Query("update ImportEntity i set i.retractedDate = :retractedDate where i.id = :importId")
+    void retract(@Param("importId") long importId, @Param("retractedDate") Date retractedDate);
+
+    @Query("select i.id from ImportEntity i where i.retractedDate is not null order by i.retractedDate")
+    List<Long> findRetractedIds();
+
     @Modifying
     @Query("delete from ImportEntity i where i.project.id = :projectId")
     public void deleteByProjectId(@Param("projectId") long projectId);
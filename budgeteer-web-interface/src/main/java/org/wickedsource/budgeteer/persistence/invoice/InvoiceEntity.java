@@ -63,9 +63,11 @@ public class InvoiceEntity {
     @Column(name = "URL", length = 255)
     private String link;
 
-    @Lob @Basic(fetch=FetchType.LAZY)
-    @Column(name = "INVOICE_FILE", length = 5 * 1024 * 1024) // five megabytes
-    private byte[] file;
+    /**
+     * Reference of the attached file in the {@link org.wickedsource.budgeteer.persistence.attachment.AttachmentStore}.
+     */
+    @Column(name = "FILE_HASH", length = 64)
+    private String fileHash;
 
     @Column(name = "FILE_NAME", length = 255)
     private String fileName;
@@ -29,6 +29,9 @@ public interface InvoiceRepository extends CrudRepository<InvoiceEntity, Long> {
     @Query("Select ie from InvoiceFieldEntity ie where ie.id = :id")
     InvoiceFieldEntity findInvoiceFieldById(@Param("id") long id);
 
+    @Query("Select ie.fileHash from InvoiceEntity ie where ie.id = :invoiceId")
+    String getFileHashOfInvoice(@Param("invoiceId") long invoiceId);
+
     @Modifying
     @Query("delete from InvoiceFieldEntity cif where cif.id in (select id from InvoiceFieldEntity where field.contract.id = :contractId )")
     void deleteInvoiceFieldsByContractId(@Param("contractId") long contractId);
@@ -13,6 +13,10 @@ import java.util.Date;
 
 
 @Entity
+@Table(name = "MANUAL_RECORD_ENTITY", indexes = {
+        @Index(name = "MANUAL_RECORD_BUDGET_DATE_IDX", columnList = "BUDGET_ID, BILLING_DATE"),
+        @Index(name = "MANUAL_RECORD_BUDGET_WEEK_IDX", columnList = "BUDGET_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, MONEY_AMOUNT")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,7 +29,7 @@ public class ManualRecordEntity {
     @Column(nullable = false, length = 255)
     private String description;
 
-    @Column(nullable = false)
+    @Column(name="MONEY_AMOUNT", nullable = false)
     private Money moneyAmount;
 
     @ManyToOne(optional = false)
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QueryDslPredicateExecutor;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
+import org.wickedsource.budgeteer.persistence.record.BudgetValueBean;
 import org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordWithTaxBean;
 import org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordWithTitleAndTaxBean;
 import org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordBean;
@@ -20,6 +21,12 @@ public interface ManualRecordRepository extends CrudRepository<ManualRecordEntit
     @Query("select coalesce(sum(record.moneyAmount),0) from ManualRecordEntity record where record.budget.id = :budgetId")
     Double getManualRecordSumForBudget(@Param("budgetId") long budgetId);
 
+    @Query("select new org.wickedsource.budgeteer.persistence.record.BudgetValueBean(record.budget.id, sum(record.moneyAmount)) from ManualRecordEntity record where record.budget.id in (:budgetIds) group by record.budget.id")
+    List<BudgetValueBean> getManualRecordSumsForBudgets(@Param("budgetIds") List<Long> budgetIds);
+
+    @Query("select new org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRollupEntity(r.budget.id, r.year, r.month, r.week, sum(r.moneyAmount)) from ManualRecordEntity r where r.budget.id = :budgetId group by r.budget.id, r.year, r.month, r.week")
+    List<ManualRecordRollupEntity> aggregateForRollup(@Param("budgetId") long budgetId);
+
     @Query("select new org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordBean(r.year, r.week, coalesce(sum(r.moneyAmount),0)) from ManualRecordEntity r where r.budget.project.id=:projectId and r.billingDate >= :startDate group by r.year, r.week order by r.year, r.week")
     List<WeeklyAggregatedRecordBean> aggregateByWeekForProject(@Param("projectId") long projectId, @Param("startDate") Date start);
 
@@ -0,0 +1,55 @@
+package org.wickedsource.budgeteer.persistence.manualRecord;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.joda.money.Money;
+import org.wickedsource.budgeteer.MoneyUtil;
+import org.wickedsource.budgeteer.persistence.budget.BudgetEntity;
+
+import javax.persistence.*;
+
+/**
+ * Sum of the manual records of one budget for one week of a month.
+ */
+@Entity
+@Table(name = "MANUAL_RECORD_ROLLUP", indexes = {
+        @Index(name = "MANUAL_ROLLUP_BUDGET_ID_IDX", columnList = "BUDGET_ID")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ManualRecordRollupEntity {
+
+    @Id
+    @SequenceGenerator(name = "SEQ_MANUAL_RECORD_ROLLUP_ID", sequenceName = "SEQ_MANUAL_RECORD_ROLLUP_ID")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SEQ_MANUAL_RECORD_ROLLUP_ID")
+    private long id;
+
+    @Column(name = "BUDGET_ID", nullable = false)
+    private long budgetId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "BUDGET_ID", insertable = false, updatable = false)
+    private BudgetEntity budget;
+
+    @Column(name = "RECORD_YEAR", nullable = false)
+    private int year;
+
+    @Column(name = "RECORD_MONTH", nullable = false)
+    private int month;
+
+    @Column(name = "RECORD_WEEK", nullable = false)
+    private int week;
+
+    @Column(nullable = false)
+    private Money moneyAmount;
+
+    public ManualRecordRollupEntity(long budgetId, int year, int month, int week, long moneyAmountInCents) {
+        this.budgetId = budgetId;
+        this.year = year;
+        this.month = month;
+        this.week = week;
+        this.moneyAmount = MoneyUtil.createMoneyFromCents(moneyAmountInCents);
+    }
+}
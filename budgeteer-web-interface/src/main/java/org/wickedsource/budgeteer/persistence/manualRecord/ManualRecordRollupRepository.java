@@ -0,0 +1,37 @@
+package org.wickedsource.budgeteer.persistence.manualRecord;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordWithTaxBean;
+import org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordWithTitleAndTaxBean;
+
+import java.util.List;
+
+/**
+ * Aggregation queries on the manual record rollups. Each query returns the same result as the equally named query in
+ * {@link ManualRecordRepository}.
+ */
+public interface ManualRecordRollupRepository extends CrudRepository<ManualRecordRollupEntity, Long> {
+
+    @Modifying
+    @Query("delete from ManualRecordRollupEntity r where r.budgetId = :budgetId")
+    void deleteByBudgetId(@Param("budgetId") long budgetId);
+
+    @Modifying
+    @Query("delete from ManualRecordRollupEntity r where r.budgetId in ( select b.id from BudgetEntity b where b.project.id = :projectId)")
+    void deleteByProjectId(@Param("projectId") long projectId);
+
+    @Query("select new org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordWithTaxBean(r.year, r.month, coalesce(sum(r.moneyAmount),0), r.budget.contract.taxRate) from ManualRecordRollupEntity r join r.budget b where b.project.id=:projectId group by r.year, r.month, r.budget.contract.taxRate order by r.year, r.month")
+    List<MonthlyAggregatedRecordWithTaxBean> aggregateByMonthWithTax(@Param("projectId") long projectId);
+
+    @Query("select new org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordWithTaxBean(r.year, r.month, coalesce(sum(r.moneyAmount),0), r.budget.contract.taxRate) from ManualRecordRollupEntity r join r.budget b join b.tags t where b.project.id=:projectId and t.tag in (:tags) group by r.year, r.month, r.budget.contract.taxRate order by r.year, r.month")
+    List<MonthlyAggregatedRecordWithTaxBean> aggregateByMonthAndBudgetTagsWithTax(@Param("projectId") long projectId, @Param("tags") List<String> tags);
+
+    @Query("select new org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordWithTitleAndTaxBean(r.year, r.month, r.week, coalesce(sum(r.moneyAmount),0), r.budget.contract.taxRate, 'Manual records' ) from ManualRecordRollupEntity r join r.budget b where b.project.id=:projectId group by r.year, r.month, r.week, r.budget.contract.taxRate order by r.year, r.week")
+    List<WeeklyAggregatedRecordWithTitleAndTaxBean> aggregateByWeekForBudgetsWithTax(@Param("projectId") long projectId);
+
+    @Query("select new org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordWithTitleAndTaxBean(r.year, r.month, r.week,  coalesce(sum(r.moneyAmount),0), r.budget.contract.taxRate, 'Manual records') from ManualRecordRollupEntity r join r.budget b join b.tags t where b.project.id=:projectId and t.tag in (:tags) group by r.year, r.month, r.week, r.budget.contract.taxRate order by r.year, r.week")
+    List<WeeklyAggregatedRecordWithTitleAndTaxBean> aggregateByWeekForBudgetsWithTax(@Param("projectId") long projectId, @Param("tags") List<String> tags);
+}
@@ -0,0 +1,22 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The spent budget and the booked hours of a single budget within a time range, loaded with one grouped query for
+ * many budgets at once.
+ */
+@Data
+@AllArgsConstructor
+public class BudgetSpentBean {
+
+    private long budgetId;
+
+    /**
+     * Null if none of the work records has a daily rate.
+     */
+    private Long spentInCents;
+
+    private Double hours;
+}
@@ -0,0 +1,16 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A single aggregated monetary value belonging to a budget, e.g. the planned or manually booked sum.
+ */
+@Data
+@AllArgsConstructor
+public class BudgetValueBean {
+
+    private long budgetId;
+
+    private long valueInCents;
+}
@@ -0,0 +1,37 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * Aggregated work record values of a single budget, loaded with one grouped query for many budgets at once.
+ */
+@Data
+@AllArgsConstructor
+public class BudgetWorkRecordsBean {
+
+    private long budgetId;
+
+    private Date latestRecordDate;
+
+    private long spentInCents;
+
+    private long minutes;
+
+    /**
+     * Sum of dailyRate * minutes over all work records of the budget.
+     */
+    private long weightedDailyRateInCents;
+
+    /**
+     * @return the average daily rate in cents weighted by the booked minutes.
+     */
+    public double getAverageDailyRateInCents() {
+        if (minutes == 0) {
+            return 0;
+        }
+        return (double) weightedDailyRateInCents / minutes;
+    }
+}
@@ -0,0 +1,28 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Splits lists of IDs into chunks that can be passed into a single "in" clause.
+ */
+public final class IdPartitions {
+
+    /**
+     * Upper bound for the number of IDs passed into a single "in" clause (Oracle allows at most 1000).
+     */
+    static final int MAX_IDS_PER_STATEMENT = 1000;
+
+    private IdPartitions() {
+    }
+
+    public static List<List<Long>> of(Collection<Long> ids) {
+        List<Long> idList = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += MAX_IDS_PER_STATEMENT) {
+            chunks.add(idList.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, idList.size())));
+        }
+        return chunks;
+    }
+}
@@ -1,10 +1,10 @@
 package org.wickedsource.budgeteer.persistence.record;
 
+import org.wickedsource.budgeteer.LongKeyMap;
 import org.wickedsource.budgeteer.MoneyUtil;
 import org.wickedsource.budgeteer.service.record.PlanAndWorkRecord;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.math.BigDecimal;
 import java.util.List;
 
 public class ListJoiner {
@@ -15,35 +15,41 @@ public class ListJoiner {
      * @return new list with joined plan-beans
      */
     public static List<WeeklyAggregatedRecordWithTaxBean> joinPlanBeanHours(List<WeeklyAggregatedRecordWithTaxBean> beans) {
-        HashMap<String, WeeklyAggregatedRecordWithTaxBean> planMap = new HashMap<>();
+        LongKeyMap<WeeklyAggregatedRecordWithTaxBean> planMap = new LongKeyMap<>(beans.size());
+        PeriodKey.Buckets<BigDecimal> taxRates = new PeriodKey.Buckets<>();
         for (WeeklyAggregatedRecordWithTaxBean bean : beans) {
-            WeeklyAggregatedRecordWithTaxBean record = planMap.get(String.format("%d%d%d%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate()));
+            long key = PeriodKey.of(bean.getYear(), bean.getMonth(), bean.getWeek(), taxRates.of(bean.getTaxRate()));
+            WeeklyAggregatedRecordWithTaxBean record = planMap.get(key);
             if (record == null) {
-                planMap.put(String.format("%d%d%d%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate()), bean);
+                planMap.put(key, bean);
             } else {
                 record.setHours(record.getHours() + bean.getHours());
             }
         }
-        return new ArrayList<>(planMap.values());
+        return planMap.values();
     }
 
     /**
-     * Sums the hours of weekly work-beans with the same year, month, week and tax rate.
+     * Sums the hours of weekly work-beans with the same year, month, week, tax rate and title.
      *
      * @param beans List of the weekly work-beans that should be joined
      * @return new list with joined work-beans
      */
     public static List<WeeklyAggregatedRecordWithTitleAndTaxBean> joinWorkBeanHours(List<WeeklyAggregatedRecordWithTitleAndTaxBean> beans) {
-        HashMap<String, WeeklyAggregatedRecordWithTitleAndTaxBean> workMap = new HashMap<>();
+        LongKeyMap<WeeklyAggregatedRecordWithTitleAndTaxBean> workMap = new LongKeyMap<>(beans.size());
+        PeriodKey.Buckets<BigDecimal> taxRates = new PeriodKey.Buckets<>();
+        PeriodKey.Buckets<String> titles = new PeriodKey.Buckets<>();
         for (WeeklyAggregatedRecordWithTitleAndTaxBean bean : beans) {
-            WeeklyAggregatedRecordWithTitleAndTaxBean record = workMap.get(String.format("%d%d%d%s%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate(), bean.getTitle()));
+            int bucket = PeriodKey.combine(titles.of(bean.getTitle()), taxRates.of(bean.getTaxRate()));
+            long key = PeriodKey.of(bean.getYear(), bean.getMonth(), bean.getWeek(), bucket);
+            WeeklyAggregatedRecordWithTitleAndTaxBean record = workMap.get(key);
             if (record == null) {
-                workMap.put(String.format("%d%d%d%s%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate(), bean.getTitle()), bean);
+                workMap.put(key, bean);
             } else {
                 record.setHours(record.getHours() + bean.getHours());
             }
         }
-        return new ArrayList<>(workMap.values());
+        return workMap.values();
     }
 
     /**
@@ -54,11 +60,13 @@ public class ListJoiner {
      * @return joined beans as a list of PlanAndWorkRecords
      */
     public static List<PlanAndWorkRecord> joinWeeklyToPlanAndWorkRecords(List<WeeklyAggregatedRecordWithTaxBean> planList, List<WeeklyAggregatedRecordWithTitleAndTaxBean> workList) {
-        HashMap<String, PlanAndWorkRecord> planAndWorkMap = new HashMap<>();
+        LongKeyMap<PlanAndWorkRecord> planAndWorkMap = new LongKeyMap<>(planList.size() + workList.size());
+        PeriodKey.Buckets<BigDecimal> taxRates = new PeriodKey.Buckets<>();
         for (WeeklyAggregatedRecordWithTaxBean bean : planList) {
-            PlanAndWorkRecord record = planAndWorkMap.get(String.format("%d%d%d%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate()));
+            long key = PeriodKey.of(bean.getYear(), bean.getMonth(), bean.getWeek(), taxRates.of(bean.getTaxRate()));
+            PlanAndWorkRecord record = planAndWorkMap.get(key);
             if (record == null) {
-                planAndWorkMap.put(String.format("%d%d%d%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate()), new PlanAndWorkRecord(bean));
+                planAndWorkMap.put(key, new PlanAndWorkRecord(bean));
             } else {
                 record.setValueInCentsPlanned(record.getValueInCentsPlanned() + bean.getValueInCents());
                 record.setValueInCentsPlanned_gross(MoneyUtil.getCentsWithTaxes(record.getValueInCentsPlanned(), record.getTaxRate()));
@@ -66,16 +74,17 @@ public class ListJoiner {
             }
         }
         for (WeeklyAggregatedRecordWithTitleAndTaxBean bean : workList) {
-            PlanAndWorkRecord record = planAndWorkMap.get(String.format("%d%d%d%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate()));
+            long key = PeriodKey.of(bean.getYear(), bean.getMonth(), bean.getWeek(), taxRates.of(bean.getTaxRate()));
+            PlanAndWorkRecord record = planAndWorkMap.get(key);
             if (record == null) {
-                planAndWorkMap.put(String.format("%d%d%d%s", bean.getYear(), bean.getMonth(), bean.getWeek(), bean.getTaxRate()), new PlanAndWorkRecord(bean));
+                planAndWorkMap.put(key, new PlanAndWorkRecord(bean));
             } else {
                 record.setValueInCentsBurned(record.getValueInCentsBurned() + bean.getValueInCents());
                 record.setValueInCentsBurned_gross(MoneyUtil.getCentsWithTaxes(record.getValueInCentsBurned(), record.getTaxRate()));
                 record.setHoursWorked(record.getHoursWorked() + bean.getHours());
             }
         }
-        return new ArrayList<>(planAndWorkMap.values());
+        return planAndWorkMap.values();
     }
 
     /**
@@ -86,12 +95,14 @@ public class ListJoiner {
      * @return joined beans as a list of PlanAndWorkRecords
      */
     public static List<PlanAndWorkRecord> joinMonthlyToPlanAndWorkRecords(List<MonthlyAggregatedRecordWithTaxBean> planList, List<MonthlyAggregatedRecordWithTaxBean> workList) {
-        HashMap<String, PlanAndWorkRecord> planAndWorkMap = new HashMap<>();
+        LongKeyMap<PlanAndWorkRecord> planAndWorkMap = new LongKeyMap<>(planList.size() + workList.size());
+        PeriodKey.Buckets<BigDecimal> taxRates = new PeriodKey.Buckets<>();
 
         for (MonthlyAggregatedRecordWithTaxBean planBean : planList) {
-            PlanAndWorkRecord record = planAndWorkMap.get(String.format("%s%d%d", planBean.getTaxRate(), planBean.getYear(), planBean.getMonth()));
+            long key = PeriodKey.of(planBean.getYear(), planBean.getMonth(), -1, taxRates.of(planBean.getTaxRate()));
+            PlanAndWorkRecord record = planAndWorkMap.get(key);
             if (record == null) {
-                planAndWorkMap.put(String.format("%s%d%d", planBean.getTaxRate(), planBean.getYear(), planBean.getMonth()), new PlanAndWorkRecord(planBean, true));
+                planAndWorkMap.put(key, new PlanAndWorkRecord(planBean, true));
             } else {
                 record.setValueInCentsPlanned(record.getValueInCentsPlanned() + planBean.getValueInCents());
                 record.setValueInCentsPlanned_gross(MoneyUtil.getCentsWithTaxes(record.getValueInCentsPlanned(), record.getTaxRate()));
@@ -99,15 +110,16 @@ public class ListJoiner {
             }
         }
         for (MonthlyAggregatedRecordWithTaxBean workBean : workList) {
-            PlanAndWorkRecord record = planAndWorkMap.get(String.format("%s%d%d", workBean.getTaxRate(), workBean.getYear(), workBean.getMonth()));
+            long key = PeriodKey.of(workBean.getYear(), workBean.getMonth(), -1, taxRates.of(workBean.getTaxRate()));
+            PlanAndWorkRecord record = planAndWorkMap.get(key);
             if (record == null) {
-                planAndWorkMap.put(String.format("%s%d%d", workBean.getTaxRate(), workBean.getYear(), workBean.getMonth()), new PlanAndWorkRecord(workBean, false));
+                planAndWorkMap.put(key, new PlanAndWorkRecord(workBean, false));
             } else {
                 record.setValueInCentsBurned(record.getValueInCentsBurned() + workBean.getValueInCents());
                 record.setValueInCentsBurned_gross(MoneyUtil.getCentsWithTaxes(record.getValueInCentsBurned(), record.getTaxRate()));
                 record.setHoursWorked(record.getHoursWorked() + workBean.getHours());
             }
         }
-        return new ArrayList<>(planAndWorkMap.values());
+        return planAndWorkMap.values();
     }
 }
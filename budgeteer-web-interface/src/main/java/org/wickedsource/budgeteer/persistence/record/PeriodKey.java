@@ -0,0 +1,69 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Packs the period of an aggregated record (year, month, week) and an additional bucket number into a single long
+ * that can be used as key when joining records. Unlike concatenated strings, the packed keys cannot collide
+ * (e.g. year 2019 week 11 and year 20191 week 1).
+ * <p>
+ * Layout: year (20 bits) | month (5 bits) | week + 1 (7 bits) | bucket (32 bits)
+ */
+public final class PeriodKey {
+
+    private PeriodKey() {
+    }
+
+    /**
+     * @param year   the year of the record
+     * @param month  the month of the record (0-based), 0 if the record is not aggregated by month
+     * @param week   the week of the record, -1 if the record is not aggregated by week
+     * @param bucket additional discriminator, e.g. the bucket of the tax rate
+     * @return the packed key
+     */
+    public static long of(int year, int month, int week, int bucket) {
+        return ((long) year << 44)
+                | ((long) (month & 0x1F) << 39)
+                | ((long) ((week + 1) & 0x7F) << 32)
+                | (bucket & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Combines two bucket numbers below 65536 into one bucket number.
+     */
+    public static int combine(int highBucket, int lowBucket) {
+        if (highBucket > 0xFFFF || lowBucket > 0xFFFF) {
+            throw new IllegalStateException("Too many distinct values to combine into a single record key");
+        }
+        return (highBucket << 16) | lowBucket;
+    }
+
+    /**
+     * Assigns consecutive bucket numbers to distinct values (e.g. tax rates or titles), so that they can be packed
+     * into a {@link PeriodKey}. Values are compared by equals, null is a valid value.
+     */
+    public static class Buckets<T> {
+
+        private final Map<T, Integer> buckets = new HashMap<>();
+
+        private T lastValue;
+
+        private int lastBucket = -1;
+
+        public int of(T value) {
+            // consecutive beans mostly share the same value, so the map lookup can be skipped
+            if (lastBucket >= 0 && (lastValue == null ? value == null : lastValue.equals(value))) {
+                return lastBucket;
+            }
+            Integer bucket = buckets.get(value);
+            if (bucket == null) {
+                bucket = buckets.size();
+                buckets.put(value, bucket);
+            }
+            lastValue = value;
+            lastBucket = bucket;
+            return bucket;
+        }
+    }
+}
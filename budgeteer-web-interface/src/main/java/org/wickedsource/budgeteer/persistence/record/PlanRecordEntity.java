@@ -1,11 +1,19 @@
 package org.wickedsource.budgeteer.persistence.record;
 
+import org.hibernate.annotations.Where;
+
 import javax.persistence.Entity;
 import javax.persistence.Index;
 import javax.persistence.Table;
 
 @Entity
-@Table(name = "PLAN_RECORD", indexes = {@Index(name = "PLAN_RECORD_BUDGET_ID_IDX", columnList = "BUDGET_ID")})
+@Where(clause = RecordEntity.NOT_RETRACTED)
+@Table(name = "PLAN_RECORD", indexes = {
+        @Index(name = "PLAN_RECORD_BUDGET_DATE_IDX", columnList = "BUDGET_ID, RECORD_DATE"),
+        @Index(name = "PLAN_RECORD_PERSON_DATE_IDX", columnList = "PERSON_ID, RECORD_DATE"),
+        @Index(name = "PLAN_RECORD_IMPORT_ID_IDX", columnList = "IMPORT_ID"),
+        @Index(name = "PLAN_RECORD_BUDGET_WEEK_IDX", columnList = "BUDGET_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, PERSON_ID, DAILY_RATE, MINUTES")
+})
 public class PlanRecordEntity extends RecordEntity {
 
 }
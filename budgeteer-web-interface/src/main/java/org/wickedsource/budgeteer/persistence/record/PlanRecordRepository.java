@@ -9,7 +9,7 @@ import org.springframework.data.repository.query.Param;
 import java.util.Date;
 import java.util.List;
 
-public interface PlanRecordRepository extends CrudRepository<PlanRecordEntity, Long>, RecordRepository {
+public interface PlanRecordRepository extends CrudRepository<PlanRecordEntity, Long>, RecordRepository, PlanRecordRepositoryCustom {
 
     /**
      * Aggregates the monetary value of all planned records in the given budget.
@@ -20,6 +20,28 @@ public interface PlanRecordRepository extends CrudRepository<PlanRecordEntity, L
     @Query("select sum(record.minutes * record.dailyRate) / 60 / 8 from PlanRecordEntity record where record.budget.id = :budgetId")
     Double getPlannedBudget(@Param("budgetId") long budgetId);
 
+    /**
+     * Aggregates the monetary value of all planned records for each of the given budgets with a single grouped query.
+     *
+     * @param budgetIds IDs of the budgets whose planned spending to aggregate.
+     * @return planned budget in cents per budget that has plan records.
+     */
+    @Query("select new org.wickedsource.budgeteer.persistence.record.BudgetValueBean(record.budget.id, sum(record.minutes * record.dailyRate) / 60 / 8) from PlanRecordEntity record where record.budget.id in (:budgetIds) group by record.budget.id")
+    List<BudgetValueBean> getPlannedBudgets(@Param("budgetIds") List<Long> budgetIds);
+
+    /**
+     * Aggregates the records of the given budgets to the grain of the plan record rollup table.
+     *
+     * @param budgetIds IDs of the budgets whose rollups should be rebuilt.
+     * @return one (unsaved) rollup entity per budget, person, year, month, week and daily rate.
+     */
+    @Query("select new org.wickedsource.budgeteer.persistence.record.PlanRecordRollupEntity(r.budget.id, r.person.id, r.year, r.month, r.week, r.dailyRate, sum(r.minutes)) from PlanRecordEntity r where r.budget.id in (:budgetIds) group by r.budget.id, r.person.id, r.year, r.month, r.week, r.dailyRate")
+    List<PlanRecordRollupEntity> aggregateForRollup(@Param("budgetIds") List<Long> budgetIds);
+
+    @Override
+    @Query("select distinct r.budget.id from PlanRecordEntity r where r.importRecord.id = :importId")
+    List<Long> findBudgetIdsByImport(@Param("importId") long importId);
+
     @Override
     @Modifying
     @Query("delete from PlanRecordEntity r where r.importRecord.id = :importId")
@@ -27,7 +49,7 @@ public interface PlanRecordRepository extends CrudRepository<PlanRecordEntity, L
 
     @Override
     @Modifying
-    @Query("delete from PlanRecordEntity r where r.id in (select p.id from PlanRecordEntity p where p.importRecord.project.id = :projectId )")
+    @Query("delete from PlanRecordEntity r where r.importRecord.id in (select i.id from ImportEntity i where i.project.id = :projectId)")
     void deleteByImportAndProjectId(@Param("projectId") long projectId);
 
     @Override
@@ -243,6 +265,13 @@ public interface PlanRecordRepository extends CrudRepository<PlanRecordEntity, L
     @Query("select pre from PlanRecordEntity pre where pre.person.id = :personId AND pre.budget.id = :budgetId AND pre.date = :date")
     List<PlanRecordEntity> findByPersonBudgetDate(@Param("personId") long personId, @Param("budgetId") long budgetId, @Param("date") Date date);
 
+    /**
+     * Loads the plan records of a budget from the given date on that belong to other imports than the given one, to be
+     * compared with the records of a delta import.
+     */
+    @Query("select new org.wickedsource.budgeteer.persistence.record.RecordFingerprintBean(r.id, r.person.id, r.budget.id, r.date, r.minutes, r.dailyRate) from PlanRecordEntity r where r.budget.id = :budgetId AND r.date >= :date AND r.importRecord.id <> :importId")
+    List<RecordFingerprintBean> findFingerprints(@Param("budgetId") long budgetId, @Param("date") Date date, @Param("importId") long importId);
+
     @Modifying
     @Query("delete from PlanRecordEntity r where r.budget.id in ( select b.id from BudgetEntity b where  b.project.id = :projectId AND b.importKey = :importKey) AND r.date >= :date")
     void deleteByBudgetKeyAndDate(@Param("projectId") long projectId,@Param("importKey") String importKey, @Param("date") Date date);
@@ -0,0 +1,65 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Operations on plan records that cannot be expressed as query methods of {@link PlanRecordRepository}.
+ */
+public interface PlanRecordRepositoryCustom {
+
+    /**
+     * Inserts new plan records in JDBC batches. The records are detached afterwards.
+     *
+     * @param records the records to insert, they must not have been persisted before.
+     */
+    void insertInBatches(List<PlanRecordEntity> records);
+
+    /**
+     * Loads the plan records with the given IDs, using as many queries as needed.
+     *
+     * @param ids IDs of the plan records to load.
+     * @return the plan records, in no particular order.
+     */
+    List<PlanRecordEntity> findByIds(Collection<Long> ids);
+
+    /**
+     * Deletes the plan records with the given IDs with bulk statements.
+     *
+     * @param ids IDs of the plan records to delete.
+     */
+    void deleteByIds(Collection<Long> ids);
+
+    /**
+     * Assigns the plan records with the given IDs to the given import with bulk statements.
+     *
+     * @param ids      IDs of the plan records to move.
+     * @param importId ID of the import the plan records should belong to.
+     */
+    void moveToImport(Collection<Long> ids, long importId);
+
+    /**
+     * Physically deletes a batch of plan records of the given retracted import.
+     *
+     * @param importId  ID of the retracted import.
+     * @param batchSize maximum number of plan records to delete.
+     * @return the number of deleted plan records, 0 if the import has no plan records left.
+     */
+    int purgeRetractedBatch(long importId, int batchSize);
+
+    /**
+     * Physically deletes the plan records of retracted imports in the given budget, which are not deleted together
+     * with the budget entity.
+     *
+     * @param budgetId ID of the budget.
+     */
+    void purgeRetractedOfBudget(long budgetId);
+
+    /**
+     * Physically deletes the plan records of retracted imports of the given person, which are not deleted together
+     * with the person entity.
+     *
+     * @param personId ID of the person.
+     */
+    void purgeRetractedOfPerson(long personId);
+}
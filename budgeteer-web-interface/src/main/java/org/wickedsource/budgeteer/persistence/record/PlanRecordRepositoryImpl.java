@@ -0,0 +1,73 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.wickedsource.budgeteer.persistence.imports.ImportEntity;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class PlanRecordRepositoryImpl implements PlanRecordRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertInBatches(List<PlanRecordEntity> records) {
+        RecordBatchInserter.insert(entityManager, records);
+    }
+
+    @Override
+    public List<PlanRecordEntity> findByIds(Collection<Long> ids) {
+        QPlanRecordEntity record = QPlanRecordEntity.planRecordEntity;
+        List<PlanRecordEntity> records = new ArrayList<>(ids.size());
+        for (List<Long> chunk : IdPartitions.of(ids)) {
+            records.addAll(new JPAQueryFactory(entityManager)
+                    .selectFrom(record)
+                    .where(record.id.in(chunk))
+                    .fetch());
+        }
+        return records;
+    }
+
+    @Override
+    public void deleteByIds(Collection<Long> ids) {
+        QPlanRecordEntity record = QPlanRecordEntity.planRecordEntity;
+        for (List<Long> chunk : IdPartitions.of(ids)) {
+            new JPAQueryFactory(entityManager)
+                    .delete(record)
+                    .where(record.id.in(chunk))
+                    .execute();
+        }
+    }
+
+    @Override
+    public void moveToImport(Collection<Long> ids, long importId) {
+        QPlanRecordEntity record = QPlanRecordEntity.planRecordEntity;
+        ImportEntity importRecord = entityManager.getReference(ImportEntity.class, importId);
+        for (List<Long> chunk : IdPartitions.of(ids)) {
+            new JPAQueryFactory(entityManager)
+                    .update(record)
+                    .set(record.importRecord, importRecord)
+                    .where(record.id.in(chunk))
+                    .execute();
+        }
+    }
+
+    @Override
+    public int purgeRetractedBatch(long importId, int batchSize) {
+        return RetractedRecords.deleteBatch(entityManager, "PLAN_RECORD", importId, batchSize);
+    }
+
+    @Override
+    public void purgeRetractedOfBudget(long budgetId) {
+        RetractedRecords.deleteWhere(entityManager, "PLAN_RECORD", "BUDGET_ID", budgetId);
+    }
+
+    @Override
+    public void purgeRetractedOfPerson(long personId) {
+        RetractedRecords.deleteWhere(entityManager, "PLAN_RECORD", "PERSON_ID", personId);
+    }
+}
@@ -0,0 +1,66 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface PlanRecordRollupRepository extends CrudRepository<PlanRecordRollupEntity, Long>, RecordRollupRepository {
+
+    @Override
+    @Modifying
+    @Query("delete from PlanRecordRollupEntity r where r.budgetId in (:budgetIds)")
+    void deleteByBudgetIds(@Param("budgetIds") List<Long> budgetIds);
+
+    @Override
+    @Modifying
+    @Query("delete from PlanRecordRollupEntity r where r.personId = :personId")
+    void deleteByPersonId(@Param("personId") long personId);
+
+    @Override
+    @Modifying
+    @Query("delete from PlanRecordRollupEntity r where r.budgetId in ( select b.id from BudgetEntity b where b.project.id = :projectId)")
+    void deleteByProjectId(@Param("projectId") long projectId);
+
+    @Override
+    @Query("select new org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordBean(r.year, r.week, sum(r.minutes) / 60.0, sum(r.minutes * r.dailyRate) / 60 / 8 ) from PlanRecordRollupEntity r join r.budget b where b.project.id=:projectId group by r.year, r.week order by r.year, r.week")
+    List<WeeklyAggregatedRecordBean> aggregateByWeek(@Param("projectId") long projectId);
+
+    @Override
+    @Query("select new org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordBean(r.year, r.week, sum(r.minutes) / 60.0, sum(r.minutes * r.dailyRate) / 60 / 8 ) from PlanRecordRollupEntity r join r.budget b join b.tags t where b.project.id=:projectId and t.tag in (:tags) group by r.year, r.week order by r.year, r.week")
+    List<WeeklyAggregatedRecordBean> aggregateByWeekAndBudgetTags(@Param("projectId") long projectId, @Param("tags") List<String> tags);
+
+    @Override
+    @Query("select new org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordWithTitleAndTaxBean(r.year, r.month, r.week, sum(r.minutes), r.dailyRate, r.budget.contract.taxRate, p.name ) from PlanRecordRollupEntity r join r.person p join r.budget b where b.project.id=:projectId group by r.year, r.month, r.week, r.dailyRate, r.budget.contract.taxRate, p.name order by p.name, r.year, r.week")
+    List<WeeklyAggregatedRecordWithTitleAndTaxBean> aggregateByWeekAndPersonForBudgetsWithTax(@Param("projectId") long projectId);
+
+    @Override
+    @Query("select new org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordWithTitleAndTaxBean(r.year, r.month, r.week, sum(r.minutes), r.dailyRate, r.budget.contract.taxRate, p.name ) from PlanRecordRollupEntity r join r.person p join r.budget b join b.tags t where b.project.id=:projectId and t.tag in (:tags) group by r.year, r.month, r.week, r.dailyRate, r.budget.contract.taxRate, p.name order by p.name, r.year, r.week")
+    List<WeeklyAggregatedRecordWithTitleAndTaxBean> aggregateByWeekAndPersonForBudgetsWithTax(@Param("projectId") long projectId, @Param("tags") List<String> tags);
+
+    @Override
+    @Query("select new org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordWithTaxBean(r.year, r.month, r.week, sum(r.minutes), r.dailyRate, r.budget.contract.taxRate ) from PlanRecordRollupEntity r join r.budget b where b.project.id=:projectId group by r.year, r.month, r.week, r.dailyRate, r.budget.contract.taxRate order by r.year, r.month, r.week")
+    List<WeeklyAggregatedRecordWithTaxBean> aggregateByWeekForBudgetsWithTax(@Param("projectId") long projectId);
+
+    @Override
+    @Query("select new org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordWithTaxBean(r.year, r.month, r.week, sum(r.minutes), r.dailyRate, r.budget.contract.taxRate ) from PlanRecordRollupEntity r join r.budget b join b.tags t where b.project.id=:projectId and t.tag in (:tags) group by r.year, r.month, r.week, r.dailyRate, r.budget.contract.taxRate order by r.year, r.month, r.week")
+    List<WeeklyAggregatedRecordWithTaxBean> aggregateByWeekForBudgetsWithTax(@Param("projectId") long projectId, @Param("tags") List<String> tags);
+
+    @Override
+    @Query("select new org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordBean(r.year, r.month, sum(r.minutes) / 60.0, sum(r.minutes * r.dailyRate) / 60 / 8 ) from PlanRecordRollupEntity r join r.budget b where b.project.id=:projectId group by r.year, r.month order by r.year, r.month")
+    List<MonthlyAggregatedRecordBean> aggregateByMonth(@Param("projectId") long projectId);
+
+    @Override
+    @Query("select new org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordBean(r.year, r.month, sum(r.minutes) / 60.0, sum(r.minutes * r.dailyRate) / 60 / 8 ) from PlanRecordRollupEntity r join r.budget b join b.tags t where b.project.id=:projectId and t.tag in (:tags) group by r.year, r.month order by r.year, r.month")
+    List<MonthlyAggregatedRecordBean> aggregateByMonthAndBudgetTags(@Param("projectId") long projectId, @Param("tags") List<String> tags);
+
+    @Override
+    @Query("select new org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordWithTaxBean(r.year, r.month, sum(r.minutes), r.dailyRate, r.budget.contract.taxRate) from PlanRecordRollupEntity r join r.budget b where b.project.id=:projectId group by r.year, r.month, r.dailyRate, r.budget.contract.taxRate order by r.year, r.month")
+    List<MonthlyAggregatedRecordWithTaxBean> aggregateByMonthWithTax(@Param("projectId") long projectId);
+
+    @Override
+    @Query("select new org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordWithTaxBean(r.year, r.month, sum(r.minutes), r.dailyRate, r.budget.contract.taxRate) from PlanRecordRollupEntity r join r.budget b join b.tags t where b.project.id=:projectId and t.tag in (:tags) group by r.year, r.month, r.dailyRate, r.budget.contract.taxRate order by r.year, r.month")
+    List<MonthlyAggregatedRecordWithTaxBean> aggregateByMonthAndBudgetTagsWithTax(@Param("projectId") long projectId, @Param("tags") List<String> tags);
+}
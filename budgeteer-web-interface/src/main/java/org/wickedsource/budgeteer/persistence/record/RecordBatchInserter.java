@@ -0,0 +1,34 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * Inserts large numbers of records. The inserts are flushed in chunks, so that Hibernate can send them as JDBC
+ * batches (see {@code hibernate.jdbc.batch_size}), and the flushed records are detached afterwards, so that the
+ * persistence context does not grow with the number of imported records. Other entities stay managed.
+ */
+final class RecordBatchInserter {
+
+    /**
+     * Number of records that are flushed at once, a multiple of the JDBC batch size.
+     */
+    static final int FLUSH_SIZE = 1000;
+
+    private RecordBatchInserter() {
+    }
+
+    static void insert(EntityManager entityManager, List<? extends RecordEntity> records) {
+        int chunkStart = 0;
+        for (int i = 0; i < records.size(); i++) {
+            entityManager.persist(records.get(i));
+            if (i + 1 - chunkStart == FLUSH_SIZE || i == records.size() - 1) {
+                entityManager.flush();
+                for (RecordEntity record : records.subList(chunkStart, i + 1)) {
+                    entityManager.detach(record);
+                }
+                chunkStart = i + 1;
+            }
+        }
+    }
+}
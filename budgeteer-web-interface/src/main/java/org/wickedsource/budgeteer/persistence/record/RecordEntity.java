@@ -16,8 +16,21 @@ import java.util.Date;
 @Getter @Setter @NoArgsConstructor
 public abstract class RecordEntity {
 
+    /**
+     * Number of IDs that are allocated with a single sequence call. Imports insert thousands of records, so fetching
+     * a sequence value per record would double the number of statements.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Hides the records of retracted imports. Applied to all JPQL queries on work and plan records, bulk updates and
+     * deletes as well as native queries are not restricted by it.
+     */
+    public static final String NOT_RETRACTED = "IMPORT_ID NOT IN (SELECT i.ID FROM IMPORT i WHERE i.RETRACTED_DATE IS NOT NULL)";
+
     @Id
-    @GeneratedValue
+    @SequenceGenerator(name = "SEQ_RECORD_ID", sequenceName = "SEQ_RECORD_ID", allocationSize = ID_ALLOCATION_SIZE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SEQ_RECORD_ID")
     private long id;
 
     @ManyToOne(optional = false)
@@ -44,10 +57,10 @@ public abstract class RecordEntity {
     @Column(name="RECORD_WEEK", nullable = false)
     private int week;
 
-    @Column(nullable = false)
+    @Column(name="MINUTES", nullable = false)
     private int minutes;
 
-    @Column(nullable = false)
+    @Column(name="DAILY_RATE", nullable = false)
     private Money dailyRate;
 
     @ManyToOne(optional = false)
@@ -0,0 +1,27 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.joda.money.Money;
+
+import java.util.Date;
+
+/**
+ * The values of a stored work or plan record that are compared with the records of a delta import.
+ */
+@Data
+@AllArgsConstructor
+public class RecordFingerprintBean {
+
+    private long id;
+
+    private long personId;
+
+    private long budgetId;
+
+    private Date date;
+
+    private int minutes;
+
+    private Money dailyRate;
+}
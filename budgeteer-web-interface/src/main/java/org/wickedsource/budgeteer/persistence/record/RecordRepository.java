@@ -10,6 +10,8 @@ public interface RecordRepository {
 
     void deleteByImport(long importId);
 
+    List<Long> findBudgetIdsByImport(long importId);
+
     void deleteByImportAndProjectId(long projectId);
 
     void deleteByProjectId(long projectId);
@@ -0,0 +1,61 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.joda.money.Money;
+import org.wickedsource.budgeteer.persistence.budget.BudgetEntity;
+import org.wickedsource.budgeteer.persistence.person.PersonEntity;
+
+import javax.persistence.*;
+
+/**
+ * Pre-aggregated records of one person in one budget for one week of a month with the same daily rate.
+ * Since the daily rate is part of the key, monetary values can be computed from the summed minutes exactly like
+ * they are computed from the single records (sum(minutes * dailyRate) / 60 / 8).
+ */
+@MappedSuperclass
+@Getter
+@Setter
+@NoArgsConstructor
+public abstract class RecordRollupEntity {
+
+    @Column(name = "BUDGET_ID", nullable = false)
+    private long budgetId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "BUDGET_ID", insertable = false, updatable = false)
+    private BudgetEntity budget;
+
+    @Column(name = "PERSON_ID", nullable = false)
+    private long personId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "PERSON_ID", insertable = false, updatable = false)
+    private PersonEntity person;
+
+    @Column(name = "RECORD_YEAR", nullable = false)
+    private int year;
+
+    @Column(name = "RECORD_MONTH", nullable = false)
+    private int month;
+
+    @Column(name = "RECORD_WEEK", nullable = false)
+    private int week;
+
+    @Column(nullable = false)
+    private Money dailyRate;
+
+    @Column(nullable = false)
+    private long minutes;
+
+    public RecordRollupEntity(long budgetId, long personId, int year, int month, int week, Money dailyRate, long minutes) {
+        this.budgetId = budgetId;
+        this.personId = personId;
+        this.year = year;
+        this.month = month;
+        this.week = week;
+        this.dailyRate = dailyRate;
+        this.minutes = minutes;
+    }
+}
@@ -0,0 +1,36 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import java.util.List;
+
+/**
+ * Aggregation queries that read from the record rollup tables instead of the single records. The result of each
+ * query is the same as the result of the equally named query in {@link RecordRepository}.
+ */
+public interface RecordRollupRepository {
+
+    void deleteByBudgetIds(List<Long> budgetIds);
+
+    void deleteByPersonId(long personId);
+
+    void deleteByProjectId(long projectId);
+
+    List<WeeklyAggregatedRecordBean> aggregateByWeek(long projectId);
+
+    List<WeeklyAggregatedRecordBean> aggregateByWeekAndBudgetTags(long projectId, List<String> tags);
+
+    List<WeeklyAggregatedRecordWithTitleAndTaxBean> aggregateByWeekAndPersonForBudgetsWithTax(long projectId);
+
+    List<WeeklyAggregatedRecordWithTitleAndTaxBean> aggregateByWeekAndPersonForBudgetsWithTax(long projectId, List<String> tags);
+
+    List<WeeklyAggregatedRecordWithTaxBean> aggregateByWeekForBudgetsWithTax(long projectId);
+
+    List<WeeklyAggregatedRecordWithTaxBean> aggregateByWeekForBudgetsWithTax(long projectId, List<String> tags);
+
+    List<MonthlyAggregatedRecordBean> aggregateByMonth(long projectId);
+
+    List<MonthlyAggregatedRecordBean> aggregateByMonthAndBudgetTags(long projectId, List<String> tags);
+
+    List<MonthlyAggregatedRecordWithTaxBean> aggregateByMonthWithTax(long projectId);
+
+    List<MonthlyAggregatedRecordWithTaxBean> aggregateByMonthAndBudgetTagsWithTax(long projectId, List<String> tags);
+}
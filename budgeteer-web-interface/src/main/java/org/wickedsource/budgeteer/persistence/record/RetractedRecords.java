@@ -0,0 +1,54 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Removes the records of retracted imports. They are hidden from JPQL queries by {@link RecordEntity#NOT_RETRACTED},
+ * so they are selected and deleted with native statements.
+ */
+final class RetractedRecords {
+
+    private static final String RETRACTED_IMPORT_IDS = "SELECT i.ID FROM IMPORT i WHERE i.RETRACTED_DATE IS NOT NULL";
+
+    private RetractedRecords() {
+    }
+
+    /**
+     * Deletes at most batchSize records of the given import from the given table.
+     *
+     * @return the number of deleted records, 0 if the import has no records left.
+     */
+    @SuppressWarnings("unchecked")
+    static int deleteBatch(EntityManager entityManager, String table, long importId, int batchSize) {
+        List<Number> ids = entityManager.createNativeQuery("SELECT r.ID FROM " + table + " r WHERE r.IMPORT_ID = :importId")
+                .setParameter("importId", importId)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> idList = new ArrayList<>(ids.size());
+        for (Number id : ids) {
+            idList.add(id.longValue());
+        }
+        int deleted = 0;
+        for (List<Long> chunk : IdPartitions.of(idList)) {
+            deleted += entityManager.createNativeQuery("DELETE FROM " + table + " WHERE ID IN (:ids)")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes the records of retracted imports whose value in the given column matches, e.g. before the budget or
+     * person they belong to is deleted.
+     */
+    static void deleteWhere(EntityManager entityManager, String table, String column, long id) {
+        entityManager.createNativeQuery("DELETE FROM " + table + " WHERE " + column + " = :id AND IMPORT_ID IN (" + RETRACTED_IMPORT_IDS + ")")
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,30 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.joda.money.Money;
+
+import java.util.Date;
+
+/**
+ * Flat projection of a work record with the names of its budget and person, used to display pages of work records
+ * without loading the full entities.
+ */
+@Data
+@AllArgsConstructor
+public class WorkRecordBean {
+
+    private long id;
+
+    private String budgetName;
+
+    private String personName;
+
+    private Date date;
+
+    private int minutes;
+
+    private Money dailyRate;
+
+    private Boolean editedManually;
+}
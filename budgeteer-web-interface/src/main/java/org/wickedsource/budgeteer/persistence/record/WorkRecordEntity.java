@@ -1,14 +1,20 @@
 package org.wickedsource.budgeteer.persistence.record;
 
+import org.hibernate.annotations.Where;
+
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Index;
 import javax.persistence.Table;
 
 @Entity
+@Where(clause = RecordEntity.NOT_RETRACTED)
 @Table(name = "WORK_RECORD", indexes = {
-        @Index(name = "WORK_RECORD_BUDGET_ID_IDX", columnList = "BUDGET_ID"),
-        @Index(name = "WORK_RECORD_PERSON_ID_IDX", columnList = "PERSON_ID")
+        @Index(name = "WORK_RECORD_BUDGET_DATE_IDX", columnList = "BUDGET_ID, RECORD_DATE"),
+        @Index(name = "WORK_RECORD_PERSON_DATE_IDX", columnList = "PERSON_ID, RECORD_DATE"),
+        @Index(name = "WORK_RECORD_IMPORT_ID_IDX", columnList = "IMPORT_ID"),
+        @Index(name = "WORK_RECORD_EDITED_DATE_IDX", columnList = "EDITED_MANUALLY, RECORD_DATE"),
+        @Index(name = "WORK_RECORD_BUDGET_WEEK_IDX", columnList = "BUDGET_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, PERSON_ID, DAILY_RATE, MINUTES")
 })
 public class WorkRecordEntity extends RecordEntity {
 
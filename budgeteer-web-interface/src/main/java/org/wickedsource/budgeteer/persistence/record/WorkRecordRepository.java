@@ -14,7 +14,7 @@ import org.wickedsource.budgeteer.persistence.project.ProjectEntity;
 import java.util.Date;
 import java.util.List;
 
-public interface WorkRecordRepository extends CrudRepository<WorkRecordEntity, Long>, QueryDslPredicateExecutor<WorkRecordEntity>, RecordRepository, JpaSpecificationExecutor {
+public interface WorkRecordRepository extends CrudRepository<WorkRecordEntity, Long>, QueryDslPredicateExecutor<WorkRecordEntity>, RecordRepository, JpaSpecificationExecutor, WorkRecordRepositoryCustom {
 
     /**
      * Aggregates the monetary value of all work records in the given budget.
@@ -34,6 +34,33 @@ public interface WorkRecordRepository extends CrudRepository<WorkRecordEntity, L
     @Query("select case when (sum(record.minutes) = 0) then 0 else (sum(record.dailyRate * record.minutes) / sum(record.minutes)) end from WorkRecordEntity record where record.budget.id=:budgetId")
     Double getAverageDailyRate(@Param("budgetId") long budgetId);
 
+    /**
+     * Aggregates the spent budget, the booked minutes and the date of the latest work record for each of the given
+     * budgets with a single grouped query. Budgets without work records are not contained in the result.
+     *
+     * @param budgetIds IDs of the budgets whose work records to aggregate.
+     * @return one aggregate per budget that has work records.
+     */
+    @Query("select new org.wickedsource.budgeteer.persistence.record.BudgetWorkRecordsBean(record.budget.id, max(record.date), sum(record.minutes * record.dailyRate) / 60 / 8, sum(record.minutes), sum(record.dailyRate * record.minutes)) from WorkRecordEntity record where record.budget.id in (:budgetIds) group by record.budget.id")
+    List<BudgetWorkRecordsBean> aggregateByBudgets(@Param("budgetIds") List<Long> budgetIds);
+
+    /**
+     * Aggregates the spent budget of each of the given budgets until the given date with a single grouped query, see
+     * {@link #getSpentBudgetUntilDate(long, Date)}. The booked hours are not calculated. Budgets without work
+     * records are not contained in the result.
+     */
+    @Query("select new org.wickedsource.budgeteer.persistence.record.BudgetSpentBean(record.budget.id, sum(record.minutes * record.dailyRate) / 60 / 8, 0.0) from WorkRecordEntity record where record.budget.id in (:budgetIds) and record.date <= :untilDate group by record.budget.id")
+    List<BudgetSpentBean> getSpentBudgetsUntilDate(@Param("budgetIds") List<Long> budgetIds, @Param("untilDate") Date untilDate);
+
+    /**
+     * Aggregates the spent budget and the booked hours of each of the given budgets in the given time range with a
+     * single grouped query, see {@link #getSpentBudgetInTimeRange(long, Date, Date)} and
+     * {@link #getTotalHoursInTimeRange(long, Date, Date)}. Budgets without work records in the time range are not
+     * contained in the result.
+     */
+    @Query("select new org.wickedsource.budgeteer.persistence.record.BudgetSpentBean(record.budget.id, sum(record.minutes * record.dailyRate) / 60 / 8, case when (count(*) = 0) then 0.0 else (cast(sum(record.minutes) AS double) / 60.0) end) from WorkRecordEntity record where record.budget.id in (:budgetIds) and :fromDate <= record.date and record.date <= :untilDate group by record.budget.id")
+    List<BudgetSpentBean> getSpentBudgetsInTimeRange(@Param("budgetIds") List<Long> budgetIds, @Param("fromDate") Date fromDate, @Param("untilDate") Date untilDate);
+
     @Query("select sum(record.minutes * record.dailyRate) / 60 / 8 from WorkRecordEntity record where record.budget.id = :budgetId and record.date <= :untilDate")
     Double getSpentBudgetUntilDate(@Param("budgetId") long budgetId, @Param("untilDate") Date untilDate);
 
@@ -58,6 +85,19 @@ public interface WorkRecordRepository extends CrudRepository<WorkRecordEntity, L
     @Query("select case when (count(*) = 0) then 0.0 else (cast(sum(record.minutes) AS double) / 60.0) end from WorkRecordEntity record where record.budget.id=:budgetId and :fromDate <= record.date and record.date <= :untilDate")
     Double getTotalHoursInTimeRange(@Param("budgetId") long budgetId, @Param("fromDate") Date fromDate, @Param("untilDate") Date untilDate);
 
+    /**
+     * Aggregates the records of the given budgets to the grain of the work record rollup table.
+     *
+     * @param budgetIds IDs of the budgets whose rollups should be rebuilt.
+     * @return one (unsaved) rollup entity per budget, person, year, month, week and daily rate.
+     */
+    @Query("select new org.wickedsource.budgeteer.persistence.record.WorkRecordRollupEntity(r.budget.id, r.person.id, r.year, r.month, r.week, r.dailyRate, sum(r.minutes)) from WorkRecordEntity r where r.budget.id in (:budgetIds) group by r.budget.id, r.person.id, r.year, r.month, r.week, r.dailyRate")
+    List<WorkRecordRollupEntity> aggregateForRollup(@Param("budgetIds") List<Long> budgetIds);
+
+    @Override
+    @Query("select distinct r.budget.id from WorkRecordEntity r where r.importRecord.id = :importId")
+    List<Long> findBudgetIdsByImport(@Param("importId") long importId);
+
     @Override
     @Modifying
     @Query("delete from WorkRecordEntity r where r.importRecord.id = :importId")
@@ -65,7 +105,7 @@ public interface WorkRecordRepository extends CrudRepository<WorkRecordEntity, L
 
     @Override
     @Modifying
-    @Query("delete from WorkRecordEntity r where r.id in (select p.id from WorkRecordEntity p where p.importRecord.project.id = :projectId )")
+    @Query("delete from WorkRecordEntity r where r.importRecord.id in (select i.id from ImportEntity i where i.project.id = :projectId)")
     void deleteByImportAndProjectId(@Param("projectId") long projectId);
 
     @Override
@@ -289,6 +329,13 @@ public interface WorkRecordRepository extends CrudRepository<WorkRecordEntity, L
     @Query("select wr from WorkRecordEntity wr where wr.budget.project.id = :projectId AND wr.editedManually = true AND wr.date >= :startDate AND wr.date <= :endDate")
     List<WorkRecordEntity> findManuallyEditedEntries(@Param("projectId") long projectId, @Param("startDate") Date earliestRecordDate, @Param("endDate") Date latestRecordDate);
 
+    /**
+     * Loads the imported (not manually edited) work records of a budget within the given period that belong to other
+     * imports than the given one, to be compared with the records of a delta import.
+     */
+    @Query("select new org.wickedsource.budgeteer.persistence.record.RecordFingerprintBean(wr.id, wr.person.id, wr.budget.id, wr.date, wr.minutes, wr.dailyRate) from WorkRecordEntity wr where wr.budget.id = :budgetId AND wr.date >= :startDate AND wr.date <= :endDate AND wr.editedManually = false AND wr.importRecord.id <> :importId")
+    List<RecordFingerprintBean> findFingerprints(@Param("budgetId") long budgetId, @Param("startDate") Date startDate, @Param("endDate") Date endDate, @Param("importId") long importId);
+
     @Query("select wr from WorkRecordEntity wr where wr.budget = :budget AND wr.person = :person AND wr.date = :recordDate AND wr.minutes = :workedMinutes AND wr.editedManually = false")
     List<WorkRecordEntity> findDuplicateEntries(@Param("budget") BudgetEntity budget, @Param("person") PersonEntity person, @Param("recordDate") Date recordDate, @Param("workedMinutes") int workedMinutes);
 
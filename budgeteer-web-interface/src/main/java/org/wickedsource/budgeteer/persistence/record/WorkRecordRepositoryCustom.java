@@ -0,0 +1,128 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queries and operations on work records that cannot be expressed as query methods of {@link WorkRecordRepository}.
+ */
+public interface WorkRecordRepositoryCustom {
+
+    /**
+     * Loads a single page of the work records matching the given predicate as flat beans.
+     *
+     * @param predicate the predicate the work records have to match.
+     * @param order     the order of the work records, should end with a unique column to get stable pages.
+     * @param offset    index of the first work record to load.
+     * @param limit     maximum number of work records to load.
+     * @return the requested page of work records.
+     */
+    List<WorkRecordBean> findBeans(Predicate predicate, OrderSpecifier<?>[] order, long offset, long limit);
+
+    /**
+     * Iterates over all work records matching the given predicate with a forward-only database cursor, so that only a
+     * few records are held in memory at a time. Must be called within a transaction and the iterator must be closed.
+     *
+     * @param predicate the predicate the work records have to match.
+     * @param order     the order of the work records.
+     * @return iterator over the matching work records.
+     */
+    CloseableIterator<WorkRecordBean> iterateBeans(Predicate predicate, OrderSpecifier<?>[] order);
+
+    /**
+     * Sums minutes * dailyRate over all work records matching the given predicate.
+     *
+     * @param predicate the predicate the work records have to match.
+     * @return the sum in cents per minute and day, divide by 60 * 8 to get the spent budget in cents.
+     */
+    long getWeightedMinutes(Predicate predicate);
+
+    /**
+     * Finds the runs of consecutive work records without daily rate of each person and budget in the given project.
+     *
+     * @param projectId ID of the project.
+     * @return one bean per run, ordered by person name, budget name and start date.
+     */
+    List<MissingDailyRateForBudgetBean> getMissingDailyRatesForProject(long projectId);
+
+    /**
+     * Finds the runs of consecutive work records without daily rate of the given person in each budget.
+     *
+     * @param personId ID of the person.
+     * @return one bean per run, ordered by budget name and start date.
+     */
+    List<MissingDailyRateForBudgetBean> getMissingDailyRatesForPerson(long personId);
+
+    /**
+     * Inserts new work records in JDBC batches. The records are detached afterwards.
+     *
+     * @param records the records to insert, they must not have been persisted before.
+     */
+    void insertInBatches(List<WorkRecordEntity> records);
+
+    /**
+     * Pairs the manually edited work records of the given project and period with the imported (not manually edited)
+     * work records that have the same budget, person, date and minutes.
+     *
+     * @param projectId ID of the project.
+     * @param startDate first day of the period.
+     * @param endDate   last day of the period.
+     * @return the imported duplicates ordered by ID, mapped by the ID of the manually edited record they duplicate.
+     * Manually edited records without duplicates are not contained.
+     */
+    Map<Long, List<WorkRecordEntity>> findDuplicatesOfManuallyEditedEntries(long projectId, Date startDate, Date endDate);
+
+    /**
+     * Deletes the work records with the given IDs with bulk statements.
+     *
+     * @param ids IDs of the work records to delete.
+     */
+    void deleteByIds(Collection<Long> ids);
+
+    /**
+     * Assigns the work records with the given IDs to the given import with bulk statements.
+     *
+     * @param ids      IDs of the work records to move.
+     * @param importId ID of the import the work records should belong to.
+     */
+    void moveToImport(Collection<Long> ids, long importId);
+
+    /**
+     * Loads the work records with the given IDs, using as many queries as needed.
+     *
+     * @param ids IDs of the work records to load.
+     * @return the work records, in no particular order.
+     */
+    List<WorkRecordEntity> findByIds(Collection<Long> ids);
+
+    /**
+     * Physically deletes a batch of work records of the given retracted import.
+     *
+     * @param importId  ID of the retracted import.
+     * @param batchSize maximum number of work records to delete.
+     * @return the number of deleted work records, 0 if the import has no work records left.
+     */
+    int purgeRetractedBatch(long importId, int batchSize);
+
+    /**
+     * Physically deletes the work records of retracted imports in the given budget, which are not deleted together
+     * with the budget entity.
+     *
+     * @param budgetId ID of the budget.
+     */
+    void purgeRetractedOfBudget(long budgetId);
+
+    /**
+     * Physically deletes the work records of retracted imports of the given person, which are not deleted together
+     * with the person entity.
+     *
+     * @param personId ID of the person.
+     */
+    void purgeRetractedOfPerson(long personId);
+}
@@ -0,0 +1,235 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.Oracle8iDialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.wickedsource.budgeteer.persistence.imports.ImportEntity;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+
+public class WorkRecordRepositoryImpl implements WorkRecordRepositoryCustom {
+
+    private static final int FETCH_SIZE = 500;
+
+    /**
+     * Gaps-and-islands query: within each person and budget, the difference between the position of a record among
+     * all records and its position among the records with the same "has daily rate" state is constant for each run
+     * of consecutive records, so grouping by it yields one row per run of records without daily rate.
+     */
+    static final String MISSING_DAILY_RATES_QUERY =
+            "SELECT g.PERSON_ID, p.NAME AS PERSON_NAME, MIN(g.RECORD_DATE) AS START_DATE, MAX(g.RECORD_DATE) AS END_DATE, b.NAME AS BUDGET_NAME " +
+            "FROM (SELECT r.PERSON_ID, r.BUDGET_ID, r.RECORD_DATE, r.DAILY_RATE, " +
+            "      ROW_NUMBER() OVER (PARTITION BY r.PERSON_ID, r.BUDGET_ID ORDER BY r.RECORD_DATE, r.ID) " +
+            "    - ROW_NUMBER() OVER (PARTITION BY r.PERSON_ID, r.BUDGET_ID, CASE WHEN r.DAILY_RATE = 0 THEN 0 ELSE 1 END ORDER BY r.RECORD_DATE, r.ID) AS RUN " +
+            "      FROM WORK_RECORD r JOIN BUDGET rb ON rb.ID = r.BUDGET_ID " +
+            "      WHERE %s AND r." + RecordEntity.NOT_RETRACTED + ") g " +
+            "JOIN PERSON p ON p.ID = g.PERSON_ID " +
+            "JOIN BUDGET b ON b.ID = g.BUDGET_ID " +
+            "WHERE g.DAILY_RATE = 0 " +
+            "GROUP BY g.PERSON_ID, p.NAME, g.BUDGET_ID, b.NAME, g.RUN " +
+            "ORDER BY p.NAME, g.PERSON_ID, b.NAME, g.BUDGET_ID, START_DATE";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<WorkRecordBean> findBeans(Predicate predicate, OrderSpecifier<?>[] order, long offset, long limit) {
+        QWorkRecordEntity record = QWorkRecordEntity.workRecordEntity;
+        return new JPAQueryFactory(entityManager)
+                .select(Projections.constructor(WorkRecordBean.class, record.id, record.budget.name, record.person.name,
+                        record.date, record.minutes, record.dailyRate, record.editedManually))
+                .from(record)
+                .where(predicate)
+                .orderBy(order)
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    public CloseableIterator<WorkRecordBean> iterateBeans(Predicate predicate, OrderSpecifier<?>[] order) {
+        QWorkRecordEntity record = QWorkRecordEntity.workRecordEntity;
+        return new JPAQueryFactory(entityManager)
+                .select(Projections.constructor(WorkRecordBean.class, record.id, record.budget.name, record.person.name,
+                        record.date, record.minutes, record.dailyRate, record.editedManually))
+                .from(record)
+                .where(predicate)
+                .orderBy(order)
+                .setHint("org.hibernate.fetchSize", FETCH_SIZE)
+                .setHint("org.hibernate.readOnly", true)
+                .iterate();
+    }
+
+    @Override
+    public long getWeightedMinutes(Predicate predicate) {
+        QWorkRecordEntity record = QWorkRecordEntity.workRecordEntity;
+        Long sum = new JPAQueryFactory(entityManager)
+                .select(Expressions.numberTemplate(Long.class, "sum({0} * {1})", record.minutes, record.dailyRate))
+                .from(record)
+                .where(predicate)
+                .fetchOne();
+        return sum == null ? 0 : sum;
+    }
+
+    @Override
+    public List<MissingDailyRateForBudgetBean> getMissingDailyRatesForProject(long projectId) {
+        if (supportsWindowFunctions()) {
+            return findMissingDailyRates("rb.PROJECT_ID = :id", projectId);
+        }
+        return iterateMissingDailyRates(QWorkRecordEntity.workRecordEntity.budget.project.id.eq(projectId));
+    }
+
+    @Override
+    public List<MissingDailyRateForBudgetBean> getMissingDailyRatesForPerson(long personId) {
+        if (supportsWindowFunctions()) {
+            return findMissingDailyRates("r.PERSON_ID = :id", personId);
+        }
+        return iterateMissingDailyRates(QWorkRecordEntity.workRecordEntity.person.id.eq(personId));
+    }
+
+    private boolean supportsWindowFunctions() {
+        return supportsWindowFunctions(entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getDialect());
+    }
+
+    static boolean supportsWindowFunctions(Dialect dialect) {
+        return dialect instanceof Oracle8iDialect || dialect instanceof PostgreSQL81Dialect;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MissingDailyRateForBudgetBean> findMissingDailyRates(String condition, long id) {
+        List<Object[]> rows = entityManager.createNativeQuery(String.format(MISSING_DAILY_RATES_QUERY, condition))
+                .setParameter("id", id)
+                .getResultList();
+        List<MissingDailyRateForBudgetBean> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new MissingDailyRateForBudgetBean(((Number) row[0]).longValue(), (String) row[1],
+                    new java.sql.Date(((Date) row[2]).getTime()), new java.sql.Date(((Date) row[3]).getTime()), (String) row[4]));
+        }
+        return result;
+    }
+
+    /**
+     * Fallback for databases without window functions: streams the work records ordered by person, budget and date
+     * and collects the runs of records without daily rate in a single pass.
+     */
+    private List<MissingDailyRateForBudgetBean> iterateMissingDailyRates(Predicate predicate) {
+        QWorkRecordEntity record = QWorkRecordEntity.workRecordEntity;
+        List<MissingDailyRateForBudgetBean> result = new ArrayList<>();
+        try (CloseableIterator<Tuple> it = new JPAQueryFactory(entityManager)
+                .select(record.person.id, record.person.name, record.budget.id, record.budget.name, record.date, record.dailyRate)
+                .from(record)
+                .where(predicate)
+                .orderBy(record.person.name.asc(), record.person.id.asc(), record.budget.name.asc(), record.budget.id.asc(), record.date.asc(), record.id.asc())
+                .setHint("org.hibernate.fetchSize", FETCH_SIZE)
+                .setHint("org.hibernate.readOnly", true)
+                .iterate()) {
+            MissingDailyRateForBudgetBean run = null;
+            long runBudgetId = 0;
+            while (it.hasNext()) {
+                Tuple row = it.next();
+                if (!row.get(record.dailyRate).isZero()) {
+                    run = null;
+                } else if (run != null && run.getPersonId() == row.get(record.person.id) && runBudgetId == row.get(record.budget.id)) {
+                    run.setEndDate(row.get(record.date));
+                } else {
+                    run = new MissingDailyRateForBudgetBean(row.get(record.person.id), row.get(record.person.name),
+                            row.get(record.date), row.get(record.date), row.get(record.budget.name));
+                    runBudgetId = row.get(record.budget.id);
+                    result.add(run);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void insertInBatches(List<WorkRecordEntity> records) {
+        RecordBatchInserter.insert(entityManager, records);
+    }
+
+    @Override
+    public Map<Long, List<WorkRecordEntity>> findDuplicatesOfManuallyEditedEntries(long projectId, Date startDate, Date endDate) {
+        QWorkRecordEntity edited = new QWorkRecordEntity("edited");
+        QWorkRecordEntity duplicate = new QWorkRecordEntity("duplicate");
+        List<Tuple> pairs = new JPAQueryFactory(entityManager)
+                .select(edited.id, duplicate)
+                .from(edited, duplicate)
+                .where(edited.budget.project.id.eq(projectId),
+                        edited.editedManually.isTrue(),
+                        edited.date.between(startDate, endDate),
+                        duplicate.budget.eq(edited.budget),
+                        duplicate.person.eq(edited.person),
+                        duplicate.date.eq(edited.date),
+                        duplicate.minutes.eq(edited.minutes),
+                        duplicate.editedManually.isFalse())
+                .orderBy(edited.id.asc(), duplicate.id.asc())
+                .fetch();
+        Map<Long, List<WorkRecordEntity>> duplicates = new HashMap<>();
+        for (Tuple pair : pairs) {
+            duplicates.computeIfAbsent(pair.get(edited.id), id -> new ArrayList<>()).add(pair.get(duplicate));
+        }
+        return duplicates;
+    }
+
+    @Override
+    public void deleteByIds(Collection<Long> ids) {
+        QWorkRecordEntity record = QWorkRecordEntity.workRecordEntity;
+        for (List<Long> chunk : IdPartitions.of(ids)) {
+            new JPAQueryFactory(entityManager)
+                    .delete(record)
+                    .where(record.id.in(chunk))
+                    .execute();
+        }
+    }
+
+    @Override
+    public void moveToImport(Collection<Long> ids, long importId) {
+        QWorkRecordEntity record = QWorkRecordEntity.workRecordEntity;
+        ImportEntity importRecord = entityManager.getReference(ImportEntity.class, importId);
+        for (List<Long> chunk : IdPartitions.of(ids)) {
+            new JPAQueryFactory(entityManager)
+                    .update(record)
+                    .set(record.importRecord, importRecord)
+                    .where(record.id.in(chunk))
+                    .execute();
+        }
+    }
+
+    @Override
+    public List<WorkRecordEntity> findByIds(Collection<Long> ids) {
+        QWorkRecordEntity record = QWorkRecordEntity.workRecordEntity;
+        List<WorkRecordEntity> records = new ArrayList<>(ids.size());
+        for (List<Long> chunk : IdPartitions.of(ids)) {
+            records.addAll(new JPAQueryFactory(entityManager)
+                    .selectFrom(record)
+                    .where(record.id.in(chunk))
+                    .fetch());
+        }
+        return records;
+    }
+
+    @Override
+    public int purgeRetractedBatch(long importId, int batchSize) {
+        return RetractedRecords.deleteBatch(entityManager, "WORK_RECORD", importId, batchSize);
+    }
+
+    @Override
+    public void purgeRetractedOfBudget(long budgetId) {
+        RetractedRecords.deleteWhere(entityManager, "WORK_RECORD", "BUDGET_ID", budgetId);
+    }
+
+    @Override
+    public void purgeRetractedOfPerson(long personId) {
+        RetractedRecords.deleteWhere(entityManager, "WORK_RECORD", "PERSON_ID", personId);
+    }
+}
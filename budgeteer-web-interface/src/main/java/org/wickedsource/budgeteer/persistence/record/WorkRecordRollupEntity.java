@@ -0,0 +1,28 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.joda.money.Money;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "WORK_RECORD_ROLLUP", indexes = {
+        @Index(name = "WORK_ROLLUP_BUDGET_ID_IDX", columnList = "BUDGET_ID"),
+        @Index(name = "WORK_ROLLUP_PERSON_ID_IDX", columnList = "PERSON_ID")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class WorkRecordRollupEntity extends RecordRollupEntity {
+
+    @Id
+    @SequenceGenerator(name = "SEQ_WORK_RECORD_ROLLUP_ID", sequenceName = "SEQ_WORK_RECORD_ROLLUP_ID")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SEQ_WORK_RECORD_ROLLUP_ID")
+    private long id;
+
+    public WorkRecordRollupEntity(long budgetId, long personId, int year, int month, int week, Money dailyRate, long minutes) {
+        super(budgetId, personId, year, month, week, dailyRate, minutes);
+    }
+}
@@ -0,0 +1,41 @@
+package org.wickedsource.budgeteer.persistence.template;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.wickedsource.budgeteer.service.ReportType;
+
+/**
+ * The columns of a template without the workbook.
+ */
+@Data
+@AllArgsConstructor
+public class TemplateMetadataBean {
+
+    private long id;
+
+    private String name;
+
+    private String description;
+
+    private ReportType type;
+
+    private Boolean isDefault;
+
+    private long projectId;
+
+    private String contentHash;
+
+    /**
+     * @see TemplateEntity#getType()
+     */
+    public ReportType getType() {
+        return type == null ? ReportType.BUDGET_REPORT : type;
+    }
+
+    /**
+     * @see TemplateEntity#isDefault()
+     */
+    public boolean isDefault() {
+        return isDefault != null && isDefault;
+    }
+}
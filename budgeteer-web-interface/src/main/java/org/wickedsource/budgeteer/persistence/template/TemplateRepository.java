@@ -1,9 +1,20 @@
 package org.wickedsource.budgeteer.persistence.template;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface TemplateRepository extends CrudRepository<TemplateEntity, Long> {
     List<TemplateEntity> findByProjectId(long projectId);
-}
\ No newline at end of file
+
+    @Query("select new org.wickedsource.budgeteer.persistence.template.TemplateMetadataBean(t.id, t.name, t.description, t.type, t.isDefault, t.projectId, t.contentHash) from TemplateEntity t")
+    List<TemplateMetadataBean> findAllMetadata();
+
+    @Query("select new org.wickedsource.budgeteer.persistence.template.TemplateMetadataBean(t.id, t.name, t.description, t.type, t.isDefault, t.projectId, t.contentHash) from TemplateEntity t where t.projectId = :projectId")
+    List<TemplateMetadataBean> findMetadataByProjectId(@Param("projectId") long projectId);
+
+    @Query("select new org.wickedsource.budgeteer.persistence.template.TemplateMetadataBean(t.id, t.name, t.description, t.type, t.isDefault, t.projectId, t.contentHash) from TemplateEntity t where t.id = :id")
+    TemplateMetadataBean findMetadataById(@Param("id") long id);
+}
@@ -0,0 +1,44 @@
+package org.wickedsource.budgeteer.service.attachment;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.wickedsource.budgeteer.persistence.attachment.AttachmentStore;
+import org.wickedsource.budgeteer.web.components.fileUpload.FileUploadModel;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Moves the files uploaded for contracts and invoices into the {@link AttachmentStore}.
+ */
+@Service
+public class AttachmentService {
+
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    /**
+     * Moves a newly uploaded file into the attachment store. The content is removed from the model and replaced by
+     * its reference.
+     *
+     * @param currentFileHash the reference of the file the entity has before saving.
+     * @return the reference of the file the entity has after saving, null if the file has been removed.
+     */
+    public String storeUploadedFile(FileUploadModel fileModel, String currentFileHash) {
+        if (fileModel.getFileName() == null) {
+            return null;
+        }
+        if (fileModel.getFile() == null) {
+            return currentFileHash;
+        }
+        try {
+            String fileHash = attachmentStore.store(new ByteArrayInputStream(fileModel.getFile()));
+            fileModel.setFile(null);
+            fileModel.setFileHash(fileHash);
+            return fileHash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store the file " + fileModel.getFileName() + ".", e);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.wickedsource.budgeteer.service.budget;
 import org.joda.money.BigMoney;
 import org.joda.money.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.wickedsource.budgeteer.MoneyUtil;
@@ -15,10 +16,15 @@ import org.wickedsource.budgeteer.persistence.person.DailyRateRepository;
 import org.wickedsource.budgeteer.persistence.project.ProjectEntity;
 import org.wickedsource.budgeteer.persistence.project.ProjectRepository;
 import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRepository;
+import org.wickedsource.budgeteer.persistence.record.BudgetValueBean;
+import org.wickedsource.budgeteer.persistence.record.BudgetWorkRecordsBean;
+import org.wickedsource.budgeteer.persistence.record.IdPartitions;
 import org.wickedsource.budgeteer.persistence.record.PlanRecordRepository;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
 import org.wickedsource.budgeteer.service.UnknownEntityException;
 import org.wickedsource.budgeteer.service.contract.ContractDataMapper;
+import org.wickedsource.budgeteer.service.notification.ProjectDataChangedEvent;
+import org.wickedsource.budgeteer.service.record.RecordRollupService;
 import org.wickedsource.budgeteer.web.BudgeteerSession;
 import org.wickedsource.budgeteer.web.components.listMultipleChoiceWithGroups.OptionGroup;
 
@@ -26,6 +32,7 @@ import javax.transaction.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -59,6 +66,12 @@ public class BudgetService {
     @Autowired
     private ManualRecordRepository manualRecordRepository;
 
+    @Autowired
+    private RecordRollupService recordRollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Loads all Budgets that the given user is qualified for and returns base data about them.
      *
@@ -129,11 +142,51 @@ public class BudgetService {
     }
 
     private BudgetDetailData enrichBudgetEntity(BudgetEntity entity) {
-        Date lastUpdated = workRecordRepository.getLatestWorkRecordDate(entity.getId());
-        Double spentBudgetInCents = workRecordRepository.getSpentBudget(entity.getId()) + manualRecordRepository.getManualRecordSumForBudget(entity.getId());
-        Double plannedBudgetInCents = planRecordRepository.getPlannedBudget(entity.getId());
-        Double avgDailyRateInCents = workRecordRepository.getAverageDailyRate(entity.getId());
-        Double taxCoefficient = budgetRepository.getTaxCoefficientByBudget(entity.getId());
+        return enrichBudgetEntities(Collections.singletonList(entity)).get(0);
+    }
+
+    /**
+     * Enriches the given budgets with their aggregated record data. The aggregates are loaded with a fixed number
+     * of grouped queries per chunk of budgets instead of several queries per budget.
+     */
+    private List<BudgetDetailData> enrichBudgetEntities(List<BudgetEntity> entities) {
+        Map<Long, BudgetWorkRecordsBean> workRecords = new HashMap<>();
+        Map<Long, Long> plannedInCents = new HashMap<>();
+        Map<Long, Long> manualInCents = new HashMap<>();
+        List<Long> budgetIds = entities.stream().map(BudgetEntity::getId).collect(Collectors.toList());
+        for (List<Long> chunk : IdPartitions.of(budgetIds)) {
+            for (BudgetWorkRecordsBean bean : workRecordRepository.aggregateByBudgets(chunk)) {
+                workRecords.put(bean.getBudgetId(), bean);
+            }
+            for (BudgetValueBean bean : planRecordRepository.getPlannedBudgets(chunk)) {
+                plannedInCents.put(bean.getBudgetId(), bean.getValueInCents());
+            }
+            for (BudgetValueBean bean : manualRecordRepository.getManualRecordSumsForBudgets(chunk)) {
+                manualInCents.put(bean.getBudgetId(), bean.getValueInCents());
+            }
+        }
+
+        List<BudgetDetailData> dataList = new ArrayList<>();
+        for (BudgetEntity entity : entities) {
+            BudgetWorkRecordsBean workRecordsOfBudget = workRecords.get(entity.getId());
+            Date lastUpdated = null;
+            double spentBudgetInCents = manualInCents.getOrDefault(entity.getId(), 0L);
+            Double avgDailyRateInCents = null;
+            if (workRecordsOfBudget != null) {
+                lastUpdated = workRecordsOfBudget.getLatestRecordDate();
+                spentBudgetInCents += workRecordsOfBudget.getSpentInCents();
+                avgDailyRateInCents = workRecordsOfBudget.getAverageDailyRateInCents();
+            }
+            Long plannedBudgetInCents = plannedInCents.get(entity.getId());
+            dataList.add(mapToDetailData(entity, lastUpdated, spentBudgetInCents,
+                    plannedBudgetInCents == null ? null : plannedBudgetInCents.doubleValue(), avgDailyRateInCents));
+        }
+        return dataList;
+    }
+
+    private BudgetDetailData mapToDetailData(BudgetEntity entity, Date lastUpdated, Double spentBudgetInCents,
+                                             Double plannedBudgetInCents, Double avgDailyRateInCents) {
+        double taxCoefficient = getTaxCoefficient(entity);
 
         BudgetDetailData data = new BudgetDetailData();
         data.setId(entity.getId());
@@ -157,6 +210,16 @@ public class BudgetService {
         return data;
     }
 
+    /**
+     * Same as {@link BudgetRepository#getTaxCoefficientByBudget(long)}, but computed from the already loaded contract.
+     */
+    private double getTaxCoefficient(BudgetEntity entity) {
+        if (entity.getContract() == null || entity.getContract().getTaxRate() == null) {
+            return 1.0;
+        }
+        return 1.0 + entity.getContract().getTaxRate().doubleValue() / 100.0;
+    }
+
     private Money toMoneyNullsafe(Double cents) {
         if (cents == null) {
             return MoneyUtil.createMoneyFromCents(0L);
@@ -196,12 +259,7 @@ public class BudgetService {
     @PreAuthorize("canReadProject(#projectId)")
     public List<BudgetDetailData> loadBudgetsDetailData(long projectId, BudgetTagFilter filter) {
         List<BudgetEntity> budgets = loadBudgetEntities(projectId, filter);
-        List<BudgetDetailData> dataList = new ArrayList<>();
-        for (BudgetEntity entity : budgets) {
-            // TODO: 4 additional database queries per loop! These can yet be optimized to 4 queries total!
-            dataList.add(enrichBudgetEntity(entity));
-        }
-        return dataList;
+        return enrichBudgetEntities(budgets);
     }
 
     /**
@@ -287,6 +345,9 @@ public class BudgetService {
             budget.setContract(contractEntity);
         }
         budgetRepository.save(budget);
+        if (budget.getProject() != null) {
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(budget.getProject().getId()));
+        }
         return budget.getId();
     }
 
@@ -310,19 +371,24 @@ public class BudgetService {
 
     @PreAuthorize("canReadBudget(#id)")
     public void deleteBudget(long id) {
+        BudgetEntity budget = budgetRepository.findOne(id);
+        recordRollupService.deleteRollupsOfBudget(id);
+        // records of retracted imports are not part of the budget's record collections
+        workRecordRepository.purgeRetractedOfBudget(id);
+        planRecordRepository.purgeRetractedOfBudget(id);
         budgetRepository.delete(id);
+        if (budget != null) {
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(budget.getProject().getId()));
+        }
     }
 
     @PreAuthorize("canReadContract(#cId)")
     public List<BudgetDetailData> loadBudgetByContract(long cId) {
-        List<BudgetDetailData> result = new LinkedList<>();
         List<BudgetEntity> temp = budgetRepository.findByContractId(cId);
-        if (temp != null) {
-            for (BudgetEntity b : temp) {
-                result.add(enrichBudgetEntity(b));
-            }
+        if (temp == null) {
+            return new LinkedList<>();
         }
-        return result;
+        return new LinkedList<>(enrichBudgetEntities(temp));
     }
 
     public List<OptionGroup<BudgetBaseData>> getPossibleBudgetDataForPersonAndProject(long projectId, long personId) {
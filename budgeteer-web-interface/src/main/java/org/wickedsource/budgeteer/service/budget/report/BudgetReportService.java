@@ -1,7 +1,6 @@
 package org.wickedsource.budgeteer.service.budget.report;
 
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.xssf.usermodel.XSSFFormulaEvaluator;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.joda.money.Money;
@@ -10,7 +9,10 @@ import org.springframework.stereotype.Service;
 import org.wickedsource.budgeteer.MoneyUtil;
 import org.wickedsource.budgeteer.SheetTemplate.SheetTemplate;
 import org.wickedsource.budgeteer.SheetTemplate.SheetTemplateSerializable;
+import org.wickedsource.budgeteer.SheetTemplate.StreamingReportWriter;
 import org.wickedsource.budgeteer.SheetTemplate.TemplateWriter;
+import org.wickedsource.budgeteer.persistence.record.BudgetSpentBean;
+import org.wickedsource.budgeteer.persistence.record.IdPartitions;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
 import org.wickedsource.budgeteer.service.DateRange;
 import org.wickedsource.budgeteer.service.budget.BudgetDetailData;
@@ -27,10 +29,7 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
-import java.util.Date;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -56,40 +55,42 @@ public class BudgetReportService {
 	 * @return Excel spreadsheet file
 	 */
     public File createReportFile(long templateId, long projectId, BudgetTagFilter filter, ReportMetaInformation metaInformationen) {
-		List<BudgetReportData> overallBudgetReportList = loadOverallBudgetReportData(projectId, filter,
-				metaInformationen);
-		List<BudgetReportData> monthlyBudgetReportList = loadMonthlyBudgetReportData(projectId, filter,
-				metaInformationen);
+		List<BudgetDetailData> budgets = budgetService.loadBudgetsDetailData(projectId, filter);
+		Map<Long, ContractBaseData> contracts = contractService.getContractTaxRatesAndAttributes(projectId);
+		List<BudgetReportData> overallBudgetReportList = enrichReportData(budgets, contracts,
+				metaInformationen.getOverallTimeRange());
+		List<BudgetReportData> monthlyBudgetReportList = enrichReportData(budgets, contracts,
+				metaInformationen.getMonthlyTimeRange());
 
 		XSSFWorkbook wb = getSheetWorkbook(templateId);
+		StreamingReportWriter reportWriter = StreamingReportWriter.forReport(wb, overallBudgetReportList.size() + monthlyBudgetReportList.size());
 
-		writeBudgetData(wb.getSheetAt(0), overallBudgetReportList);
-		writeBudgetData(wb.getSheetAt(1), monthlyBudgetReportList);
+		writeBudgetData(wb.getSheetAt(0), overallBudgetReportList, reportWriter);
+		writeBudgetData(wb.getSheetAt(1), monthlyBudgetReportList, reportWriter);
 
 		List<BudgetSummary> overallSummary = createBudgetSummary(overallBudgetReportList);
 		List<BudgetSummary> monthlySummary = createBudgetSummary(monthlyBudgetReportList);
 
-		writeSummary(wb.getSheetAt(0), overallSummary);
-		writeSummary(wb.getSheetAt(1), monthlySummary);
+		writeSummary(wb.getSheetAt(0), overallSummary, reportWriter);
+		writeSummary(wb.getSheetAt(1), monthlySummary, reportWriter);
 
-		XSSFFormulaEvaluator.evaluateAllFormulaCells(wb);
-		return createOutputFile(wb);
+		return createOutputFile(reportWriter);
 	}
 
-	private void writeSummary(XSSFSheet sheet, List<BudgetSummary> summary) {
+	private void writeSummary(XSSFSheet sheet, List<BudgetSummary> summary, StreamingReportWriter reportWriter) {
 		SheetTemplate template = new SheetTemplate(BudgetSummary.class, sheet);
         TemplateWriter<BudgetSummary> tw = new TemplateWriter<>(template);
 		tw.setEntries(summary);
-		tw.write();
+		reportWriter.write(tw);
 		tw.removeFlagSheet();
 	}
 
-	private void writeBudgetData(Sheet sheet, List<BudgetReportData> budgetList) {
+	private void writeBudgetData(Sheet sheet, List<BudgetReportData> budgetList, StreamingReportWriter reportWriter) {
 		SheetTemplate template = new SheetTemplate(BudgetReportData.class, sheet);
         TemplateWriter<BudgetReportData> tw = new TemplateWriter<>(template);
 		tw.setEntries(budgetList);
 		setWarnings(budgetList, tw);
-		tw.write();
+		reportWriter.write(tw);
 	}
 
 	private void setWarnings(List<BudgetReportData> budgetList, TemplateWriter<BudgetReportData> tw) {
@@ -130,14 +131,14 @@ public class BudgetReportService {
 		return "";
 	}
 
-	private File createOutputFile(XSSFWorkbook wb) {
+	private File createOutputFile(StreamingReportWriter reportWriter) {
 		File outputFile = null;
-        FileOutputStream out;
 		try {
 			outputFile = File.createTempFile("report-", ".xlsx");
 			outputFile.deleteOnExit();
-			out = new FileOutputStream(outputFile);
-			wb.write(out);
+			try (FileOutputStream out = new FileOutputStream(outputFile)) {
+				reportWriter.writeTo(out);
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -147,41 +148,60 @@ public class BudgetReportService {
 	public List<BudgetReportData> loadOverallBudgetReportData(long projectId, BudgetTagFilter filter,
 			ReportMetaInformation metaInformation) {
 		List<BudgetDetailData> budgets = budgetService.loadBudgetsDetailData(projectId, filter);
-		List<BudgetReportData> data = budgets.stream()
-				.map(budget -> enrichReportData(budget, metaInformation.getOverallTimeRange()))
-				.collect(Collectors.toList());
-		return data;
+		return enrichReportData(budgets, contractService.getContractTaxRatesAndAttributes(projectId),
+				metaInformation.getOverallTimeRange());
 	}
 
 	public List<BudgetReportData> loadMonthlyBudgetReportData(long projectId, BudgetTagFilter filter,
 			ReportMetaInformation metaInformation) {
 		List<BudgetDetailData> budgets = budgetService.loadBudgetsDetailData(projectId, filter);
-		List<BudgetReportData> data = budgets.stream()
-				.map(budget -> enrichReportData(budget, metaInformation.getMonthlyTimeRange()))
+		return enrichReportData(budgets, contractService.getContractTaxRatesAndAttributes(projectId),
+				metaInformation.getMonthlyTimeRange());
+	}
+
+	/**
+	 * Creates the report data of the given budgets in the given time range. The spent budgets and booked hours are
+	 * loaded with grouped queries for all budgets at once.
+	 *
+	 * @param contracts the tax rates and attributes of the contracts of the project by contract ID.
+	 */
+	private List<BudgetReportData> enrichReportData(List<BudgetDetailData> budgets, Map<Long, ContractBaseData> contracts,
+			DateRange dateRange) {
+		Map<Long, BudgetSpentBean> spentInTimeRange = new HashMap<>();
+		Map<Long, BudgetSpentBean> spentUntilDate = new HashMap<>();
+		List<Long> budgetIds = budgets.stream().map(BudgetDetailData::getId).collect(Collectors.toList());
+		for (List<Long> chunk : IdPartitions.of(budgetIds)) {
+			for (BudgetSpentBean bean : workRecordRepository.getSpentBudgetsInTimeRange(chunk, dateRange.getStartDate(),
+					dateRange.getEndDate())) {
+				spentInTimeRange.put(bean.getBudgetId(), bean);
+			}
+			for (BudgetSpentBean bean : workRecordRepository.getSpentBudgetsUntilDate(chunk, dateRange.getEndDate())) {
+				spentUntilDate.put(bean.getBudgetId(), bean);
+			}
+		}
+		return budgets.stream()
+				.map(budget -> enrichReportData(budget, contracts.get(budget.getContractId()),
+						spentInTimeRange.get(budget.getId()), spentUntilDate.get(budget.getId()), dateRange))
 				.collect(Collectors.toList());
-		return data;
 	}
 
-    private BudgetReportData enrichReportData(BudgetDetailData budget, DateRange dateRange) {
-        ContractBaseData contract;
+	private BudgetReportData enrichReportData(BudgetDetailData budget, ContractBaseData contract,
+			BudgetSpentBean spentInTimeRange, BudgetSpentBean spentUntilDate, DateRange dateRange) {
 		List<? extends SheetTemplateSerializable> attributes = null;
 		double taxRate = 0.0;
-		if (budget.getContractId() != 0L) {
-			contract = contractService.getContractById(budget.getContractId());
+		if (budget.getContractId() != 0L && contract != null) {
 			taxRate = contract.getTaxRate();
 			attributes = contract.getContractAttributes();
 		}
 
-		Double spentMoneyInPeriodInCents = workRecordRepository.getSpentBudgetInTimeRange(budget.getId(),
-				dateRange.getStartDate(), dateRange.getEndDate());
+		Long spentMoneyInPeriodInCents = spentInTimeRange == null ? null : spentInTimeRange.getSpentInCents();
 		double spentMoneyInPeriod = toMoneyNullsafe(spentMoneyInPeriodInCents).getAmount().doubleValue();
-		Double spentMoneyInCents = workRecordRepository.getSpentBudgetUntilDate(budget.getId(), dateRange.getEndDate());
+		Long spentMoneyInCents = spentUntilDate == null ? null : spentUntilDate.getSpentInCents();
 		double spentMoney = toMoneyNullsafe(spentMoneyInCents).getAmount().doubleValue();
 		double taxCoefficient = 1.0 + taxRate / 100;
 		double totalMoney = budget.getTotal().getAmount().doubleValue();
         Double progress = (Math.abs(totalMoney) < Math.ulp(1.0) && Math.abs(spentMoney) < Math.ulp(1.0)) ? null : spentMoney / totalMoney;
-		double totalHours = workRecordRepository.getTotalHoursInTimeRange(budget.getId(), dateRange.getStartDate(),
-				dateRange.getEndDate());
+		double totalHours = spentInTimeRange == null ? 0.0 : spentInTimeRange.getHours();
 
 		BudgetReportData data = new BudgetReportData();
 		data.setName(budget.getName());
@@ -218,11 +238,11 @@ public class BudgetReportService {
 		return Date.from(firstOfMonth.minus(1, ChronoUnit.MONTHS).atStartOfDay(ZoneId.systemDefault()).toInstant());
 	}
 
-	private Money toMoneyNullsafe(Double cents) {
+	private Money toMoneyNullsafe(Long cents) {
 		if (cents == null) {
             return MoneyUtil.createMoneyFromCents(0L);
 		} else {
-			return MoneyUtil.createMoneyFromCents(Math.round(cents));
+			return MoneyUtil.createMoneyFromCents(cents);
 		}
 	}
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package org.wickedsource.budgeteer.service.contract;
 
 
+import org.joda.money.Money;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.wickedsource.budgeteer.MoneyUtil;
 import org.wickedsource.budgeteer.persistence.budget.BudgetEntity;
 import org.wickedsource.budgeteer.persistence.contract.ContractEntity;
 import org.wickedsource.budgeteer.persistence.contract.ContractFieldEntity;
+import org.wickedsource.budgeteer.persistence.contract.ContractFieldValueBean;
+import org.wickedsource.budgeteer.persistence.contract.ContractSummaryBean;
 import org.wickedsource.budgeteer.persistence.invoice.InvoiceEntity;
 import org.wickedsource.budgeteer.persistence.project.ProjectContractField;
 import org.wickedsource.budgeteer.service.AbstractMapper;
@@ -40,17 +44,10 @@ public class ContractDataMapper extends AbstractMapper<ContractEntity, ContractB
         result.setProjectId(entity.getProject().getId());
         result.setType(entity.getType());
         result.setStartDate(entity.getStartDate());
-        result.setFileModel(new FileUploadModel(entity.getFileName(), entity.getFile(), entity.getLink()));
+        result.setFileModel(new FileUploadModel(entity.getFileName(), entity.getFileHash(), entity.getLink()));
         result.setTaxRate(entity.getTaxRate() == null ? 0.0 : entity.getTaxRate().doubleValue());
 
-        Map<String, DynamicAttributeField> contractAttributes = new HashMap<>();
-        for (ProjectContractField projectContractField : entity.getProject().getContractFields()) {
-            contractAttributes.put(projectContractField.getFieldName(), new DynamicAttributeField(projectContractField.getFieldName(), ""));
-        }
-        for (ContractFieldEntity fieldEntity : entity.getContractFields()) {
-            contractAttributes.put(fieldEntity.getField().getFieldName(), new DynamicAttributeField(fieldEntity.getField().getFieldName(), fieldEntity.getValue()));
-        }
-        result.setContractAttributes(new ArrayList<>(contractAttributes.values()));
+        result.setContractAttributes(mapContractAttributes(entity));
 
         result.setBelongingBudgets(new LinkedList<>());
         for (BudgetEntity budgetEntity : entity.getBudgets()) {
@@ -65,6 +62,62 @@ public class ContractDataMapper extends AbstractMapper<ContractEntity, ContractB
         return result;
     }
 
+    /**
+     * Maps the overview columns of a contract, see {@link ContractService#getContractsByProject(long)}. The invoices
+     * and the content of the contract file are left out.
+     *
+     * @param contract      the overview columns of the contract.
+     * @param projectId     ID of the project of the contract.
+     * @param projectFields the contract fields of the project.
+     * @param fieldValues   the values of the contract fields of the contract.
+     * @param budgets       the budgets of the contract.
+     * @param spentInCents  the budget spent on the contract in cents.
+     */
+    public ContractBaseData map(ContractSummaryBean contract, long projectId, Set<ProjectContractField> projectFields,
+                                List<ContractFieldValueBean> fieldValues, List<BudgetBaseData> budgets, long spentInCents) {
+        ContractBaseData result = new ContractBaseData();
+        result.setContractName(contract.getName());
+        result.setContractId(contract.getId());
+        result.setSortingIndex(0);
+        result.setBudget(contract.getBudget());
+        Money spent = MoneyUtil.createMoneyFromCents(spentInCents);
+        result.setBudgetLeft(MoneyUtil.createMoneyFromCents(contract.getBudget() == null ? 0 : contract.getBudget().getAmountMinorLong()).minus(spent));
+        result.setBudgetSpent(spent);
+        result.setInternalNumber(contract.getInternalNumber());
+        result.setProjectId(projectId);
+        result.setType(contract.getType());
+        result.setStartDate(contract.getStartDate());
+        result.setFileModel(new FileUploadModel(contract.getFileName(), null, contract.getLink()));
+        result.setTaxRate(contract.getTaxRate() == null ? 0.0 : contract.getTaxRate().doubleValue());
+
+        Map<String, DynamicAttributeField> contractAttributes = new HashMap<>();
+        for (ProjectContractField projectContractField : projectFields) {
+            contractAttributes.put(projectContractField.getFieldName(), new DynamicAttributeField(projectContractField.getFieldName(), ""));
+        }
+        for (ContractFieldValueBean fieldValue : fieldValues) {
+            contractAttributes.put(fieldValue.getFieldName(), new DynamicAttributeField(fieldValue.getFieldName(), fieldValue.getValue()));
+        }
+        result.setContractAttributes(new ArrayList<>(contractAttributes.values()));
+
+        result.setBelongingBudgets(new LinkedList<>(budgets));
+        result.setBelongingInvoices(new LinkedList<>());
+        return result;
+    }
+
+    /**
+     * @return the values of all contract fields of the project, empty for the fields the contract has no value for.
+     */
+    public List<DynamicAttributeField> mapContractAttributes(ContractEntity entity) {
+        Map<String, DynamicAttributeField> contractAttributes = new HashMap<>();
+        for (ProjectContractField projectContractField : entity.getProject().getContractFields()) {
+            contractAttributes.put(projectContractField.getFieldName(), new DynamicAttributeField(projectContractField.getFieldName(), ""));
+        }
+        for (ContractFieldEntity fieldEntity : entity.getContractFields()) {
+            contractAttributes.put(fieldEntity.getField().getFieldName(), new DynamicAttributeField(fieldEntity.getField().getFieldName(), fieldEntity.getValue()));
+        }
+        return new ArrayList<>(contractAttributes.values());
+    }
+
     public List<ContractBaseData> map(List<ContractEntity> entityList) {
         List<ContractBaseData> result = new LinkedList<>();
         for (ContractEntity entity : entityList) {
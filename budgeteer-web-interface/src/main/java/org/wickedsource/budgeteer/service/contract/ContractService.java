@@ -2,23 +2,29 @@ package org.wickedsource.budgeteer.service.contract;
 
 import org.joda.money.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.wickedsource.budgeteer.MoneyUtil;
+import org.wickedsource.budgeteer.persistence.attachment.AttachmentStore;
 import org.wickedsource.budgeteer.persistence.budget.BudgetEntity;
 import org.wickedsource.budgeteer.persistence.budget.BudgetRepository;
-import org.wickedsource.budgeteer.persistence.contract.ContractEntity;
-import org.wickedsource.budgeteer.persistence.contract.ContractFieldEntity;
-import org.wickedsource.budgeteer.persistence.contract.ContractRepository;
+import org.wickedsource.budgeteer.persistence.contract.*;
 import org.wickedsource.budgeteer.persistence.invoice.InvoiceRepository;
 import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRepository;
 import org.wickedsource.budgeteer.persistence.project.ProjectContractField;
 import org.wickedsource.budgeteer.persistence.project.ProjectEntity;
 import org.wickedsource.budgeteer.persistence.project.ProjectRepository;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
+import org.wickedsource.budgeteer.service.attachment.AttachmentService;
+import org.wickedsource.budgeteer.service.budget.BudgetBaseData;
+import org.wickedsource.budgeteer.service.notification.ProjectDataChangedEvent;
+import org.wickedsource.budgeteer.web.components.fileUpload.FileUploadModel;
 import org.wickedsource.budgeteer.web.pages.contract.overview.table.ContractOverviewTableModel;
 
 import javax.transaction.Transactional;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.*;
 
@@ -32,6 +38,12 @@ public class ContractService {
     @Autowired
     private ProjectRepository projectRepository;
 
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    @Autowired
+    private AttachmentService attachmentService;
+
     @Autowired
     private BudgetRepository budgetRepository;
 
@@ -47,6 +59,9 @@ public class ContractService {
     @Autowired
     private ContractDataMapper mapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @PreAuthorize("canReadContract(#contractId)")
     public Money getBudgetLeft(long contractId) {
         Money spent = getBudgetSpent(contractId);
@@ -65,7 +80,7 @@ public class ContractService {
     @PreAuthorize("canReadProject(#projectId)")
     public ContractOverviewTableModel getContractOverviewByProject(long projectId) {
         ContractOverviewTableModel result = new ContractOverviewTableModel();
-        result.setContracts(mapper.map(contractRepository.findByProjectId(projectId)));
+        result.setContracts(getContractsByProject(projectId));
         return result;
     }
 
@@ -75,11 +90,54 @@ public class ContractService {
         return mapper.map(contractRepository.findOne(contractId));
     }
 
+    /**
+     * Loads the tax rates and attributes of all contracts of the given project with a single query, e.g. for reports
+     * over many budgets. Only the ID, tax rate and attributes of the returned contracts are set.
+     *
+     * @return the contracts by their ID.
+     */
+    @PreAuthorize("canReadProject(#projectId)")
+    public Map<Long, ContractBaseData> getContractTaxRatesAndAttributes(long projectId) {
+        Map<Long, ContractBaseData> result = new HashMap<>();
+        for (ContractEntity entity : contractRepository.findWithContractFieldsByProjectId(projectId)) {
+            ContractBaseData contract = new ContractBaseData(projectId);
+            contract.setContractId(entity.getId());
+            contract.setTaxRate(entity.getTaxRate() == null ? 0.0 : entity.getTaxRate().doubleValue());
+            contract.setContractAttributes(mapper.mapContractAttributes(entity));
+            result.put(entity.getId(), contract);
+        }
+        return result;
+    }
+
+    /**
+     * Loads the contracts of the given project for overviews with a constant number of queries. Unlike
+     * {@link #getContractById(long)}, the contracts contain neither their invoices nor the content of their file.
+     */
     @PreAuthorize("canReadProject(#projectId)")
     public List<ContractBaseData> getContractsByProject(long projectId) {
-        List<ContractEntity> contracts = new LinkedList<>();
-        contracts.addAll(contractRepository.findByProjectId(projectId));
-        return mapper.map(contracts);
+        List<ContractBaseData> result = new LinkedList<>();
+        ProjectEntity project = projectRepository.findOne(projectId);
+        if (project == null) {
+            return result;
+        }
+        Set<ProjectContractField> projectFields = project.getContractFields();
+        Map<Long, List<ContractFieldValueBean>> fieldValues = new HashMap<>();
+        for (ContractFieldValueBean fieldValue : contractRepository.findFieldValuesByProjectId(projectId)) {
+            fieldValues.computeIfAbsent(fieldValue.getContractId(), id -> new LinkedList<>()).add(fieldValue);
+        }
+        Map<Long, List<BudgetBaseData>> budgets = new HashMap<>();
+        for (ContractBudgetBean budget : contractRepository.findBudgetsByProjectId(projectId)) {
+            budgets.computeIfAbsent(budget.getContractId(), id -> new LinkedList<>()).add(new BudgetBaseData(budget.getBudgetId(), budget.getBudgetName()));
+        }
+        Map<Long, Long> spent = contractRepository.getSpentBudgetsByProjectId(projectId);
+
+        for (ContractSummaryBean contract : contractRepository.findSummariesByProjectId(projectId)) {
+            result.add(mapper.map(contract, projectId, projectFields,
+                    fieldValues.getOrDefault(contract.getId(), Collections.emptyList()),
+                    budgets.getOrDefault(contract.getId(), Collections.emptyList()),
+                    spent.getOrDefault(contract.getId(), 0L)));
+        }
+        return result;
     }
 
     @PreAuthorize("canReadProject(#projectId)")
@@ -110,7 +168,7 @@ public class ContractService {
         contractEntity.setType(contractBaseData.getType());
         contractEntity.setLink(contractBaseData.getFileModel().getLink());
         contractEntity.setFileName(contractBaseData.getFileModel().getFileName());
-        contractEntity.setFile(contractBaseData.getFileModel().getFile());
+        contractEntity.setFileHash(attachmentService.storeUploadedFile(contractBaseData.getFileModel(), contractEntity.getFileHash()));
 
         if (contractBaseData.getTaxRate() < 0) {
             throw new IllegalArgumentException("Taxrate must be positive.");
@@ -150,8 +208,19 @@ public class ContractService {
         return contractEntity.getId();
     }
 
+    /**
+     * @return a stream of the file attached to the given contract, which has to be closed by the caller, or null if
+     * the contract has no file.
+     */
+    @PreAuthorize("canReadContract(#contractId)")
+    public InputStream openFile(long contractId) throws IOException {
+        String fileHash = contractRepository.getFileHashOfContract(contractId);
+        return fileHash == null ? null : attachmentStore.open(fileHash);
+    }
+
     @PreAuthorize("canReadContract(#contractId)")
     public void deleteContract(long contractId) {
+        long projectId = contractRepository.findOne(contractId).getProject().getId();
         List<BudgetEntity> budgets = budgetRepository.findByContractId(contractId);
         for (BudgetEntity budgetEntity : budgets) {
             budgetEntity.setContract(null);
@@ -162,6 +231,8 @@ public class ContractService {
         invoiceRepository.deleteInvoicesByContractId(contractId);
 
         contractRepository.delete(contractId);
+        // the budgets of the contract are without contract now
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(projectId));
     }
 
     @PreAuthorize("canReadContract(#contractId)")
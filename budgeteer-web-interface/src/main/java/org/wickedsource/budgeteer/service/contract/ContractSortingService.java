@@ -4,11 +4,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.wickedsource.budgeteer.persistence.contract.ContractRepository;
 import org.wickedsource.budgeteer.persistence.contract.ContractSortingEntity;
+import org.wickedsource.budgeteer.persistence.contract.ContractSortingIndexBean;
 import org.wickedsource.budgeteer.persistence.contract.ContractSortingRepository;
 import org.wickedsource.budgeteer.persistence.user.UserRepository;
 
 import javax.transaction.Transactional;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -28,8 +31,12 @@ public class ContractSortingService {
 
     public List<ContractBaseData> getSortedContracts(long projectId, long userId){
         List<ContractBaseData> contractBaseData = contractService.getContractsByProject(projectId);
+        Map<Long, Integer> sortingIndices = new HashMap<>();
+        for (ContractSortingIndexBean bean : contractSortingRepository.getSortingIndicesByProjectId(projectId, userId)) {
+            sortingIndices.put(bean.getContractId(), bean.getSortingIndex());
+        }
         for(ContractBaseData e : contractBaseData){
-            Integer sortingIndex = contractSortingRepository.getSortingIndex(e.getContractId(), userId);
+            Integer sortingIndex = sortingIndices.get(e.getContractId());
             if (sortingIndex == null) {
                 // Create a new ContractSortingEntity if the contract has none for this user
                 ContractSortingEntity sortingEntity = new ContractSortingEntity();
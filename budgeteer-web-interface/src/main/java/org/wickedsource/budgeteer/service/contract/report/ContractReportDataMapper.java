@@ -13,6 +13,7 @@ import org.wickedsource.budgeteer.service.contract.DynamicAttributeField;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Component
 public class ContractReportDataMapper {
@@ -21,8 +22,10 @@ public class ContractReportDataMapper {
 	private ContractRepository contractRepository;
 	
 	public ContractReportData map(ContractEntity contract, Date endDate) {
-		LocalDate end = endDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-		ContractStatisticBean statistics = contractRepository.getContractStatisticAggregatedByMonthAndYear(contract.getId(), end.getMonthValue()-1, end.getYear());
+		return map(Collections.singletonList(contract), endDate).get(0);
+	}
+
+	private ContractReportData map(ContractEntity contract, Date endDate, ContractStatisticBean statistics) {
 		DateRange dateRange = new DateRange(contract.getStartDate(), endDate);
 		
 		ContractReportData report = new ContractReportData();
@@ -51,10 +54,16 @@ public class ContractReportDataMapper {
 		return report;
 	}
 
+    /**
+     * Maps the given contracts, the statistics of all contracts are calculated at once.
+     */
     public List<ContractReportData> map(List<ContractEntity> entityList, Date endDate){
+        LocalDate end = endDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        Map<Long, List<ContractStatisticBean>> statistics = contractRepository.getContractStatisticsAggregatedByMonth(
+                entityList.stream().map(ContractEntity::getId).collect(Collectors.toList()), end.getYear(), end.getMonthValue()-1, 1);
         List<ContractReportData> result = new LinkedList<>();
         for(ContractEntity entity : entityList){
-            result.add(map(entity,endDate));
+            result.add(map(entity, endDate, statistics.get(entity.getId()).get(0)));
         }
         return result;
     }
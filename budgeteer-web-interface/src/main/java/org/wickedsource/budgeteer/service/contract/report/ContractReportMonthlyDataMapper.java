@@ -12,6 +12,7 @@ import org.wickedsource.budgeteer.service.contract.DynamicAttributeField;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Component
 public class ContractReportMonthlyDataMapper {
@@ -20,9 +21,11 @@ public class ContractReportMonthlyDataMapper {
     private ContractRepository contractRepository;
 
     public ContractReportData map(ContractEntity contract, Date endDate) {
-        LocalDate end = endDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        ContractStatisticBean statistics = contractRepository.getContractStatisticByMonthAndYear(contract.getId(), end.getMonthValue()-1, end.getYear());
+        return map(Collections.singletonList(contract), endDate).get(0);
+    }
 
+    private ContractReportData map(ContractEntity contract, Date endDate, ContractStatisticBean statistics, long spentUntilEndDate) {
+        LocalDate end = endDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
         LocalDate firstOfMonth = end.withDayOfMonth(1);
 
         ContractReportData report = new ContractReportData();
@@ -39,7 +42,7 @@ public class ContractReportMonthlyDataMapper {
         report.setFrom(Date.from(firstOfMonth.atStartOfDay().atZone(ZoneId.systemDefault()).toInstant()));
         report.setUntil(endDate);
         report.setBudgetSpent_net(MoneyUtil.createMoneyFromCents(statistics.getSpentBudget()).getAmount().doubleValue());
-        report.setBudgetLeft_net(contract.getBudget().getAmount().doubleValue() - MoneyUtil.createMoneyFromCents(contractRepository.getSpentBudgetByContractIdUntilDate(contract.getId(),end.getMonthValue()-1,end.getYear()).longValue()).getAmount().doubleValue());
+        report.setBudgetLeft_net(contract.getBudget().getAmount().doubleValue() - MoneyUtil.createMoneyFromCents(spentUntilEndDate).getAmount().doubleValue());
         report.setBudgetTotal_net(contract.getBudget().getAmount().doubleValue());
 
         double taxCoefficient = 1.0 + report.getTaxRate().doubleValue();
@@ -51,10 +54,17 @@ public class ContractReportMonthlyDataMapper {
         return report;
     }
 
+    /**
+     * Maps the given contracts, the statistics of all contracts are calculated at once.
+     */
     public List<ContractReportData> map(List<ContractEntity> entityList, Date endDate){
+        LocalDate end = endDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        List<Long> contractIds = entityList.stream().map(ContractEntity::getId).collect(Collectors.toList());
+        Map<Long, List<ContractStatisticBean>> statistics = contractRepository.getContractStatisticsByMonth(contractIds, end.getYear(), end.getMonthValue()-1, 1);
+        Map<Long, Long> spentUntilEndDate = contractRepository.getSpentBudgetsByContractUntilDate(contractIds, end.getMonthValue()-1, end.getYear());
         List<ContractReportData> result = new LinkedList<>();
         for(ContractEntity entity : entityList){
-            result.add(map(entity,endDate));
+            result.add(map(entity, endDate, statistics.get(entity.getId()).get(0), spentUntilEndDate.getOrDefault(entity.getId(), 0L)));
         }
         return result;
     }
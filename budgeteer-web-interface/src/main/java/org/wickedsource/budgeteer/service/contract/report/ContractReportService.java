@@ -1,12 +1,12 @@
 package org.wickedsource.budgeteer.service.contract.report;
 
-import org.apache.poi.xssf.usermodel.XSSFFormulaEvaluator;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.wickedsource.budgeteer.SheetTemplate.SheetTemplate;
 import org.wickedsource.budgeteer.SheetTemplate.SheetTemplateSerializable;
+import org.wickedsource.budgeteer.SheetTemplate.StreamingReportWriter;
 import org.wickedsource.budgeteer.SheetTemplate.TemplateWriter;
 import org.wickedsource.budgeteer.persistence.contract.ContractEntity;
 import org.wickedsource.budgeteer.persistence.contract.ContractRepository;
@@ -38,29 +38,30 @@ public class ContractReportService {
 	public File createReportFile(long templateId, long projectId,Date endDate) {
 		XSSFWorkbook wb = getSheetWorkbook(templateId);
 
-		// Overal summary
 		List<ContractReportData> contractReportList = loadContractReportData(projectId, endDate);
-		writeContractData(wb.getSheetAt(0),contractReportList);
+		List<ContractReportData> monthlyContractReportList = loadMonthlyContractReportData(projectId, endDate);
+		StreamingReportWriter reportWriter = StreamingReportWriter.forReport(wb, contractReportList.size() + monthlyContractReportList.size());
+
+		// Overal summary
+		writeContractData(wb.getSheetAt(0),contractReportList, reportWriter);
 
 		List<ContractReportSummary> summary = createSummary(contractReportList);
-		writeSummary(wb.getSheetAt(0), summary,false);
+		writeSummary(wb.getSheetAt(0), summary,false, reportWriter);
 
 		 // Monthly summary
-		List<ContractReportData> monthlyContractReportList = loadMonthlyContractReportData(projectId, endDate);
-		writeContractData(wb.getSheetAt(1),monthlyContractReportList);
+		writeContractData(wb.getSheetAt(1),monthlyContractReportList, reportWriter);
 
 		List<ContractReportSummary> monthlySummary = createSummary(monthlyContractReportList);
-		writeSummary(wb.getSheetAt(1), monthlySummary,true);
+		writeSummary(wb.getSheetAt(1), monthlySummary,true, reportWriter);
 
-		XSSFFormulaEvaluator.evaluateAllFormulaCells(wb);
-		return outputfile(wb);
+		return outputfile(reportWriter);
 	}
 
-	private void writeSummary(XSSFSheet sheet, List<ContractReportSummary> summary, boolean removeFlagSheet) {
+	private void writeSummary(XSSFSheet sheet, List<ContractReportSummary> summary, boolean removeFlagSheet, StreamingReportWriter reportWriter) {
 		SheetTemplate template = new SheetTemplate(ContractReportSummary.class, sheet);
 		TemplateWriter<ContractReportSummary> tw = new TemplateWriter<>(template);
 		tw.setEntries(summary);
-		tw.write();
+		reportWriter.write(tw);
 		if(removeFlagSheet) {
             tw.removeFlagSheet();
         }
@@ -88,26 +89,26 @@ public class ContractReportService {
 		return "";
 	}
 
-	private File outputfile(XSSFWorkbook wb) {
+	private File outputfile(StreamingReportWriter reportWriter) {
 		File outputFile = null;
-		FileOutputStream out;
 		try {
 			outputFile = File.createTempFile("contract-report-", ".xlsx");
 			outputFile.deleteOnExit();
-			out = new FileOutputStream(outputFile);
-			wb.write(out);
+			try (FileOutputStream out = new FileOutputStream(outputFile)) {
+				reportWriter.writeTo(out);
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		return outputFile;
 	}
 
-	private void writeContractData(XSSFSheet sheet, List<ContractReportData> reportList) {
+	private void writeContractData(XSSFSheet sheet, List<ContractReportData> reportList, StreamingReportWriter reportWriter) {
 		SheetTemplate template = new SheetTemplate(ContractReportData.class, sheet);
 		TemplateWriter<ContractReportData> tw = new TemplateWriter<>(template);
 		tw.setEntries(reportList);
 		setWarnings(reportList, tw);
-		tw.write();
+		reportWriter.write(tw);
 		
 	}
 
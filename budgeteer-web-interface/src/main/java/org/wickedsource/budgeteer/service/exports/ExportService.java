@@ -1,62 +1,81 @@
 package org.wickedsource.budgeteer.service.exports;
 
 
-import org.apache.wicket.markup.repeater.data.DataView;
+import com.mysema.commons.lang.CloseableIterator;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.stereotype.Service;
 import org.wickedsource.budgeteer.CSVUtils;
+import org.wickedsource.budgeteer.persistence.record.WorkRecordBean;
+import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
 import org.wickedsource.budgeteer.service.record.WorkRecord;
+import org.wickedsource.budgeteer.service.record.WorkRecordFilter;
+import org.wickedsource.budgeteer.service.record.WorkRecordMapper;
+import org.wickedsource.budgeteer.service.record.WorkRecordQueries;
 
-import java.io.File;
-import java.io.FileWriter;
+import javax.transaction.Transactional;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class ExportService implements ApplicationContextAware {
 
+    private static final int BUFFER_SIZE = 8192;
+
     private ApplicationContext applicationContext;
 
-    public File generateCSVFileFromRecords(DataView<WorkRecord> records) {
-        File csvFile = null;
-        try {
-            csvFile = new File("export.csv");
-            csvFile.createNewFile();
-            FileWriter writer = new FileWriter(csvFile);
+    @Autowired
+    private WorkRecordRepository workRecordRepository;
+
+    @Autowired
+    private WorkRecordMapper workRecordMapper;
 
-            if (writer != null) {
+    /**
+     * Writes all work records matching the given filter as CSV to the given stream. The records are read with a
+     * forward-only cursor in the order of the filter and written one by one, so the memory used does not depend on
+     * the number of records. The given stream is flushed but not closed.
+     *
+     * @param filter the filter selecting the work records to export.
+     * @param out    the stream to write to, e.g. the stream of the HTTP response.
+     * @param gzip   whether the CSV should be gzip compressed.
+     */
+    @Transactional
+    public void writeCSVFromRecords(WorkRecordFilter filter, OutputStream out, boolean gzip) throws IOException {
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? gzipStream : out, StandardCharsets.UTF_8), BUFFER_SIZE);
 
+        CSVUtils.writeLine(writer, Arrays.asList(
+                "Budget",
+                "Name",
+                "Daily Rate",
+                "Date",
+                "Hours",
+                "Budget"));
+        try (CloseableIterator<WorkRecordBean> it = workRecordRepository.iterateBeans(WorkRecordQueries.findByFilter(filter), WorkRecordQueries.getOrder(filter))) {
+            while (it.hasNext()) {
+                WorkRecord record = workRecordMapper.map(it.next());
                 CSVUtils.writeLine(writer, Arrays.asList(
-                        "Budget",
-                        "Name",
-                        "Daily Rate",
-                        "Date",
-                        "Hours",
-                        "Budget"));
-                Iterator<? extends WorkRecord> it = records.getDataProvider().iterator(0, records.getItemCount());
-                while (it.hasNext()) {
-                    WorkRecord record = it.next();
-                    CSVUtils.writeLine(writer, Arrays.asList(
-                            record.getBudgetName(),
-                            record.getPersonName(),
-                            record.getDailyRate().getCurrencyUnit().toString() + " " + record.getDailyRate().getAmount().toString(),
-                            record.getDate().toString(),
-                            Double.toString(record.getHours()),
-                            record.getBudgetBurned().getAmount().toString()));
-                }
+                        record.getBudgetName(),
+                        record.getPersonName(),
+                        record.getDailyRate().getCurrencyUnit().toString() + " " + record.getDailyRate().getAmount().toString(),
+                        record.getDate().toString(),
+                        Double.toString(record.getHours()),
+                        record.getBudgetBurned().getAmount().toString()));
             }
-
-            writer.flush();
-            writer.close();
-
-        } catch (IOException e) {
-            System.err.println("Error while exporting to csv");
-            e.printStackTrace();
         }
-        return csvFile;
+        writer.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        out.flush();
     }
 
     @Override
@@ -0,0 +1,91 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import org.joda.money.Money;
+import org.wickedsource.budgeteer.persistence.person.DailyRateEntity;
+
+import java.util.*;
+
+/**
+ * Looks up the daily rate of a person in a budget at a given date in O(log n).
+ * <p>
+ * The rates are grouped by the import keys of budget and person. The date ranges of each group are split at their
+ * bounds into disjoint segments, each holding the rate that was given first for that segment. This keeps the result
+ * of the former linear scan over all rates if ranges overlap.
+ */
+class DailyRateIndex {
+
+    private final Map<String, Map<String, Intervals>> intervalsByBudgetAndPerson = new HashMap<>();
+
+    DailyRateIndex(List<DailyRateEntity> rates) {
+        Map<String, Map<String, List<DailyRateEntity>>> ratesByBudgetAndPerson = new HashMap<>();
+        for (DailyRateEntity rate : rates) {
+            ratesByBudgetAndPerson
+                    .computeIfAbsent(rate.getBudget().getImportKey(), budget -> new HashMap<>())
+                    .computeIfAbsent(rate.getPerson().getImportKey(), person -> new ArrayList<>())
+                    .add(rate);
+        }
+        for (Map.Entry<String, Map<String, List<DailyRateEntity>>> budgetEntry : ratesByBudgetAndPerson.entrySet()) {
+            Map<String, Intervals> intervalsByPerson = new HashMap<>();
+            for (Map.Entry<String, List<DailyRateEntity>> personEntry : budgetEntry.getValue().entrySet()) {
+                intervalsByPerson.put(personEntry.getKey(), new Intervals(personEntry.getValue()));
+            }
+            intervalsByBudgetAndPerson.put(budgetEntry.getKey(), intervalsByPerson);
+        }
+    }
+
+    /**
+     * @return the rate whose date range contains the given date (bounds included) or null if there is none
+     */
+    Money getRate(String budgetImportKey, String personImportKey, Date date) {
+        Map<String, Intervals> intervalsByPerson = intervalsByBudgetAndPerson.get(budgetImportKey);
+        if (intervalsByPerson == null) {
+            return null;
+        }
+        Intervals intervals = intervalsByPerson.get(personImportKey);
+        return intervals == null ? null : intervals.getRate(date.getTime());
+    }
+
+    private static class Intervals {
+
+        /**
+         * Sorted start times of the segments, each segment ends right before the start of the next one.
+         */
+        private final long[] starts;
+
+        /**
+         * The rate of each segment, null if no range covers it.
+         */
+        private final Money[] rates;
+
+        Intervals(List<DailyRateEntity> rates) {
+            TreeSet<Long> bounds = new TreeSet<>();
+            for (DailyRateEntity rate : rates) {
+                bounds.add(rate.getDateStart().getTime());
+                bounds.add(rate.getDateEnd().getTime() + 1);
+            }
+            starts = new long[bounds.size()];
+            int i = 0;
+            for (Long bound : bounds) {
+                starts[i++] = bound;
+            }
+            this.rates = new Money[starts.length];
+            for (DailyRateEntity rate : rates) {
+                int first = Arrays.binarySearch(starts, rate.getDateStart().getTime());
+                int end = Arrays.binarySearch(starts, rate.getDateEnd().getTime() + 1);
+                for (int segment = first; segment < end; segment++) {
+                    if (this.rates[segment] == null) {
+                        this.rates[segment] = rate.getRate();
+                    }
+                }
+            }
+        }
+
+        Money getRate(long time) {
+            int segment = Arrays.binarySearch(starts, time);
+            if (segment < 0) {
+                segment = -segment - 2;
+            }
+            return segment < 0 ? null : rates[segment];
+        }
+    }
+}
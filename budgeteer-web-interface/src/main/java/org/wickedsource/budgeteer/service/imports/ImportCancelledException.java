@@ -0,0 +1,13 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import org.wickedsource.budgeteer.imports.api.ImportException;
+
+/**
+ * Thrown when an import has been cancelled while it was running. All records imported so far are rolled back.
+ */
+public class ImportCancelledException extends ImportException {
+
+    public ImportCancelledException() {
+        super("The import has been cancelled");
+    }
+}
@@ -0,0 +1,231 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import org.springframework.stereotype.Component;
+import org.wickedsource.budgeteer.imports.api.ImportException;
+import org.wickedsource.budgeteer.imports.api.ImportFile;
+import org.wickedsource.budgeteer.imports.api.Importer;
+import org.wickedsource.budgeteer.imports.api.InvalidFileFormatException;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parses the files of an import in parallel. Each file is parsed by its own instance of the importer, since the
+ * importers collect the skipped records of a file in mutable state.
+ */
+@Component
+public class ImportFileParser {
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private final int filesAhead;
+
+    private final ExecutorService executor;
+
+    public ImportFileParser() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param filesAhead the number of parser threads, which is also the maximum number of files parsed ahead of the
+     *                   file that is persisted.
+     */
+    ImportFileParser(int filesAhead) {
+        this.filesAhead = filesAhead;
+        this.executor = Executors.newFixedThreadPool(filesAhead, runnable -> {
+            Thread thread = new Thread(runnable, "import-parser-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Parses a single file with the given importer.
+     */
+    @FunctionalInterface
+    public interface FileParser<I extends Importer, R> {
+        List<R> parse(I importer, ImportFile file) throws ImportException, InvalidFileFormatException;
+    }
+
+    /**
+     * Starts parsing the given files. The results are returned in the order of the files, so that they can be
+     * persisted in the same order as in a sequential import. Only as many files as there are parser threads are parsed
+     * ahead of the file that is taken next, so that a large import never holds the records of all files at once.
+     *
+     * @param importer the importer whose type should be used, it is not used for parsing itself.
+     * @param files    the files to be parsed
+     * @param parser   parses one file with a new instance of the importer
+     * @return the pending results, to be taken one after another with {@link ParsedFiles#next()}.
+     */
+    public <I extends Importer, R> ParsedFiles<I, R> parse(I importer, List<ImportFile> files, FileParser<I, R> parser) throws ImportException {
+        ParsedFiles<I, R> parsedFiles = new ParsedFiles<>(importer, files, parser);
+        for (int i = 0; i < filesAhead; i++) {
+            parsedFiles.submitNext();
+        }
+        return parsedFiles;
+    }
+
+    /**
+     * Joins the skipped records of the parsed files as if all files had been parsed by the same importer instance.
+     * The importers report the skipped records of each file after an empty row and a row with the file name and
+     * return an empty list if nothing but these two rows has been collected.
+     */
+    public static List<List<String>> mergeSkippedRecords(List<? extends ParsedFile<?>> files) {
+        List<List<String>> merged = new LinkedList<>();
+        for (ParsedFile<?> file : files) {
+            if (file.getSkippedRecords() == null || file.getSkippedRecords().isEmpty()) {
+                merged.add(new LinkedList<>());
+                merged.add(new LinkedList<>(Collections.singletonList(file.getFilename())));
+            } else {
+                merged.addAll(file.getSkippedRecords());
+            }
+        }
+        if (merged.size() == 2) {
+            return new LinkedList<>();
+        }
+        return merged;
+    }
+
+    private Importer newImporter(Importer importer) throws ImportException {
+        try {
+            return importer.getClass().newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new ImportException(String.format("Importer of type %s cannot be instantiated", importer.getClass()), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The files of an import that are being parsed. Taking a file starts parsing the next one that has not been
+     * started yet.
+     */
+    public class ParsedFiles<I extends Importer, R> {
+
+        private final I importer;
+
+        private final Iterator<ImportFile> remainingFiles;
+
+        private final FileParser<I, R> parser;
+
+        private final Deque<Future<ParsedFile<R>>> pendingFiles = new ArrayDeque<>();
+
+        private ParsedFiles(I importer, List<ImportFile> files, FileParser<I, R> parser) {
+            this.importer = importer;
+            this.remainingFiles = files.iterator();
+            this.parser = parser;
+        }
+
+        public boolean hasNext() {
+            return !pendingFiles.isEmpty();
+        }
+
+        /**
+         * Waits for the next file and rethrows the exception that occurred while parsing it.
+         */
+        public ParsedFile<R> next() throws ImportException, InvalidFileFormatException {
+            Future<ParsedFile<R>> result = pendingFiles.poll();
+            if (result == null) {
+                throw new NoSuchElementException();
+            }
+            submitNext();
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ImportCancelledException();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof ImportException) {
+                    throw (ImportException) cause;
+                } else if (cause instanceof InvalidFileFormatException) {
+                    throw (InvalidFileFormatException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new ImportException(cause);
+            }
+        }
+
+        /**
+         * Stops parsing files whose results are not needed anymore, e.g. because a previous file could not be
+         * imported.
+         */
+        public void cancel() {
+            for (Future<ParsedFile<R>> result : pendingFiles) {
+                result.cancel(true);
+            }
+            pendingFiles.clear();
+            while (remainingFiles.hasNext()) {
+                remainingFiles.next();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void submitNext() throws ImportException {
+            if (!remainingFiles.hasNext()) {
+                return;
+            }
+            ImportFile file = remainingFiles.next();
+            I fileImporter = (I) newImporter(importer);
+            pendingFiles.add(executor.submit(() -> {
+                List<R> records = parser.parse(fileImporter, file);
+                return new ParsedFile<>(file.getFilename(), records, fileImporter.getSkippedRecords());
+            }));
+        }
+    }
+
+    /**
+     * The records of a single file together with the records the importer skipped in this file.
+     */
+    public static class ParsedFile<R> {
+
+        private final String filename;
+
+        private final List<R> records;
+
+        private final List<List<String>> skippedRecords;
+
+        ParsedFile(String filename, List<R> records, List<List<String>> skippedRecords) {
+            this.filename = filename;
+            this.records = records;
+            this.skippedRecords = skippedRecords;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public List<R> getRecords() {
+            return records;
+        }
+
+        public List<List<String>> getSkippedRecords() {
+            return skippedRecords;
+        }
+
+        /**
+         * @return the number of skipped rows without the two rows that introduce the file.
+         */
+        public int getSkippedRows() {
+            return skippedRecords == null ? 0 : Math.max(0, skippedRecords.size() - 2);
+        }
+
+        /**
+         * @return the file name and the skipped records of this file, without the records that have been stored.
+         */
+        public ParsedFile<R> withoutRecords() {
+            return new ParsedFile<>(filename, Collections.emptyList(), skippedRecords);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An import that is running in the background. The state of the job is updated by the worker thread and read by
+ * the page that polls for its progress.
+ */
+public class ImportJob implements ImportProgress {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    @Getter
+    private final String id;
+
+    @Getter
+    private final long projectId;
+
+    @Getter
+    private final String importerName;
+
+    /**
+     * The status together with the result of the job, replaced as a whole so that the result is only set by the
+     * transition that finishes the job.
+     */
+    private final AtomicReference<State> state = new AtomicReference<>(new State(Status.QUEUED, null, Collections.emptyList(), Long.MAX_VALUE));
+
+    private volatile boolean cancelled;
+
+    private final Map<String, FileProgress> files = new LinkedHashMap<>();
+
+    ImportJob(String id, long projectId, String importerName, List<String> fileNames) {
+        this.id = id;
+        this.projectId = projectId;
+        this.importerName = importerName;
+        for (String fileName : fileNames) {
+            files.put(fileName, new FileProgress(fileName, 0, 0, 0, false));
+        }
+    }
+
+    public Status getStatus() {
+        return state.get().status;
+    }
+
+    public Throwable getError() {
+        return state.get().error;
+    }
+
+    public List<List<String>> getSkippedRecords() {
+        return state.get().skippedRecords;
+    }
+
+    /**
+     * @return the time the job finished at, far in the future until then, so that a job never looks like it finished
+     * long ago.
+     */
+    public long getFinishedAt() {
+        return state.get().finishedAt;
+    }
+
+    /**
+     * @return a copy of the progress of each file of this import.
+     */
+    public synchronized List<FileProgress> getFiles() {
+        List<FileProgress> copy = new ArrayList<>(files.size());
+        for (FileProgress file : files.values()) {
+            copy.add(new FileProgress(file.getFileName(), file.getParsedRows(), file.getPersistedRows(), file.getSkippedRows(), file.isFinished()));
+        }
+        return copy;
+    }
+
+    /**
+     * @return the number of files that have been stored in the database.
+     */
+    public synchronized int getFinishedFiles() {
+        int finished = 0;
+        for (FileProgress file : files.values()) {
+            if (file.isFinished()) {
+                finished++;
+            }
+        }
+        return finished;
+    }
+
+    @Override
+    public synchronized void fileParsed(String filename, int parsedRows, int skippedRows) {
+        FileProgress file = getOrCreate(filename);
+        file.setParsedRows(parsedRows);
+        file.setSkippedRows(skippedRows);
+    }
+
+    @Override
+    public synchronized void filePersisted(String filename, int persistedRows, int skippedRows) {
+        FileProgress file = getOrCreate(filename);
+        file.setPersistedRows(persistedRows);
+        file.setSkippedRows(file.getSkippedRows() + skippedRows);
+        file.setFinished(true);
+    }
+
+    private FileProgress getOrCreate(String filename) {
+        FileProgress file = files.get(filename);
+        if (file == null) {
+            file = new FileProgress(filename, 0, 0, 0, false);
+            files.put(filename, file);
+        }
+        return file;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Asks the job to stop. A queued job is cancelled right away and never started, a running job stops before its
+     * next file and rolls back everything it has imported so far.
+     */
+    void cancel() {
+        cancelled = true;
+        transition(Status.QUEUED, Status.CANCELLED);
+    }
+
+    /**
+     * @return false if the job has been cancelled before it could be started.
+     */
+    boolean started() {
+        return transition(Status.QUEUED, Status.RUNNING);
+    }
+
+    void succeeded(List<List<String>> skippedRecords) {
+        transition(Status.RUNNING, Status.SUCCEEDED, null, skippedRecords);
+    }
+
+    void failed(Throwable error) {
+        transition(Status.RUNNING, Status.FAILED, error, Collections.emptyList());
+    }
+
+    /**
+     * Finishes the running job with the given status.
+     */
+    void finish(Status status) {
+        transition(Status.RUNNING, status);
+    }
+
+    private boolean transition(Status expected, Status next) {
+        return transition(expected, next, null, Collections.emptyList());
+    }
+
+    /**
+     * Changes the status only if the job is still in the expected status, so that concurrent transitions by the
+     * worker thread and by a cancelling request cannot overwrite each other. The result is stored along with the new
+     * status, a transition that loses keeps the result of the one that won.
+     */
+    private boolean transition(Status expected, Status next, Throwable error, List<List<String>> skippedRecords) {
+        State current = state.get();
+        if (current.status != expected) {
+            return false;
+        }
+        long finishedAt = next.isFinished() ? System.currentTimeMillis() : Long.MAX_VALUE;
+        // every transition changes the status, so the state can only have been replaced by another transition
+        return state.compareAndSet(current, new State(next, error, skippedRecords, finishedAt));
+    }
+
+    private static final class State {
+        private final Status status;
+        private final Throwable error;
+        private final List<List<String>> skippedRecords;
+        private final long finishedAt;
+
+        State(Status status, Throwable error, List<List<String>> skippedRecords, long finishedAt) {
+            this.status = status;
+            this.error = error;
+            this.skippedRecords = skippedRecords;
+            this.finishedAt = finishedAt;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class FileProgress implements Serializable {
+        private String fileName;
+        private int parsedRows;
+        private int persistedRows;
+        private int skippedRows;
+        private boolean finished;
+    }
+}
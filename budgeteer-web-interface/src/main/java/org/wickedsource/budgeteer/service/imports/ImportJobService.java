@@ -0,0 +1,190 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.wickedsource.budgeteer.imports.api.ImportException;
+import org.wickedsource.budgeteer.imports.api.ImportFile;
+import org.wickedsource.budgeteer.imports.api.Importer;
+
+import javax.annotation.PreDestroy;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Runs imports in the background on a bounded pool of worker threads, so that large uploads do not block the
+ * request that submitted them. The state of each job can be polled with {@link #getJob(String)}.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger log = getLogger(ImportJobService.class);
+
+    static final int WORKER_THREADS = 2;
+
+    static final int QUEUE_CAPACITY = 10;
+
+    /**
+     * Finished jobs are kept this long so that the page that submitted them can pick up the result.
+     */
+    static final long FINISHED_JOB_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Autowired
+    private ImportService importService;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+        Thread thread = new Thread(runnable, "import-worker-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.AbortPolicy());
+
+    /**
+     * Queues an import of the given files. The content of the files is copied before this method returns, so the
+     * streams may be closed by the caller afterwards.
+     *
+     * @param projectId ID of the project to import the files into
+     * @param importer  the importer that understands the format of the files
+     * @param files     the files to be imported
+     * @return the queued job
+     * @throws ImportException if the files cannot be copied or too many imports are already waiting.
+     */
+    public ImportJob submit(long projectId, Importer importer, List<ImportFile> files) throws ImportException {
+        return submit(projectId, importer, files, false);
+    }
+
+    /**
+     * Queues an import of the given files. The content of the files is copied before this method returns, so the
+     * streams may be closed by the caller afterwards.
+     *
+     * @param projectId   ID of the project to import the files into
+     * @param importer    the importer that understands the format of the files
+     * @param files       the files to be imported
+     * @param deltaImport whether only the differences to the stored records should be written
+     * @return the queued job
+     * @throws ImportException if the files cannot be copied or too many imports are already waiting.
+     */
+    public ImportJob submit(long projectId, Importer importer, List<ImportFile> files, boolean deltaImport) throws ImportException {
+        purgeFinishedJobs();
+        List<String> fileNames = new ArrayList<>();
+        List<Path> spooledFiles = new ArrayList<>();
+        try {
+            for (ImportFile file : files) {
+                Path spooledFile = Files.createTempFile("budgeteer-import", null);
+                spooledFiles.add(spooledFile);
+                try (InputStream in = file.getInputStream()) {
+                    Files.copy(in, spooledFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                fileNames.add(file.getFilename());
+            }
+        } catch (IOException e) {
+            deleteFiles(spooledFiles);
+            throw new ImportException("The uploaded files could not be stored", e);
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), projectId, importer.getDisplayName(), fileNames);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, importer, fileNames, spooledFiles, deltaImport));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteFiles(spooledFiles);
+            throw new ImportException("Too many imports are running at the moment, please try again later", e);
+        }
+        return job;
+    }
+
+    /**
+     * @return the job with the given ID or null if there is no such job (anymore).
+     */
+    public ImportJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * Cancels the job with the given ID. Records already imported by the job are rolled back.
+     */
+    public void cancel(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job != null && !job.getStatus().isFinished()) {
+            job.cancel();
+        }
+    }
+
+    private void run(ImportJob job, Importer importer, List<String> fileNames, List<Path> spooledFiles, boolean deltaImport) {
+        List<InputStream> streams = new ArrayList<>();
+        try {
+            if (!job.started()) {
+                return;
+            }
+            List<ImportFile> importFiles = new ArrayList<>();
+            for (int i = 0; i < spooledFiles.size(); i++) {
+                InputStream in = new FileInputStream(spooledFiles.get(i).toFile());
+                streams.add(in);
+                importFiles.add(new ImportFile(fileNames.get(i), in));
+            }
+            job.succeeded(importService.doImport(job.getProjectId(), importer, importFiles, job, deltaImport));
+        } catch (ImportCancelledException e) {
+            job.finish(ImportJob.Status.CANCELLED);
+        } catch (Exception e) {
+            log.warn(String.format("Import %s into project %d failed", job.getId(), job.getProjectId()), e);
+            job.failed(e);
+        } finally {
+            for (InputStream stream : streams) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    log.debug("Could not close import file", e);
+                }
+            }
+            deleteFiles(spooledFiles);
+        }
+    }
+
+    private void deleteFiles(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn(String.format("Could not delete temporary import file %s", file), e);
+            }
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        long threshold = System.currentTimeMillis() - FINISHED_JOB_RETENTION_MILLIS;
+        Iterator<ImportJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            ImportJob job = iterator.next();
+            if (job.getStatus().isFinished() && job.getFinishedAt() < threshold) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
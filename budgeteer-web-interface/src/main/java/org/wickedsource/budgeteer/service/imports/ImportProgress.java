@@ -0,0 +1,40 @@
+package org.wickedsource.budgeteer.service.imports;
+
+/**
+ * Receives the progress of an import file by file.
+ */
+public interface ImportProgress {
+
+    /**
+     * Progress that is not reported anywhere and never cancelled.
+     */
+    ImportProgress NONE = new ImportProgress() {
+        @Override
+        public void fileParsed(String filename, int parsedRows, int skippedRows) {
+        }
+
+        @Override
+        public void filePersisted(String filename, int persistedRows, int skippedRows) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    /**
+     * Called after the rows of the given file have been read by the importer.
+     */
+    void fileParsed(String filename, int parsedRows, int skippedRows);
+
+    /**
+     * Called after the rows of the given file have been stored in the database.
+     */
+    void filePersisted(String filename, int persistedRows, int skippedRows);
+
+    /**
+     * @return true if the import should be stopped and rolled back.
+     */
+    boolean isCancelled();
+}
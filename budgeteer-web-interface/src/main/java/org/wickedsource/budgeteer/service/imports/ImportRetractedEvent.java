@@ -0,0 +1,14 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published when an import has been retracted and its records are waiting to be removed.
+ */
+@Data
+@AllArgsConstructor
+public class ImportRetractedEvent {
+
+    private long importId;
+}
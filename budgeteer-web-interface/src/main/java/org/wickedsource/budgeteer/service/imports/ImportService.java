@@ -12,9 +12,14 @@ import org.wickedsource.budgeteer.persistence.imports.ImportEntity;
 import org.wickedsource.budgeteer.persistence.imports.ImportRepository;
 import org.wickedsource.budgeteer.persistence.record.PlanRecordRepository;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
+import org.wickedsource.budgeteer.service.imports.ImportFileParser.ParsedFile;
+import org.wickedsource.budgeteer.service.imports.ImportFileParser.ParsedFiles;
+import org.wickedsource.budgeteer.service.notification.ProjectDataChangedEvent;
+import org.wickedsource.budgeteer.service.record.RecordRollupService;
 
 import javax.transaction.Transactional;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -34,6 +39,12 @@ public class ImportService implements ApplicationContextAware {
     @Autowired
     private PlanRecordRepository planRecordRepository;
 
+    @Autowired
+    private RecordRollupService recordRollupService;
+
+    @Autowired
+    private ImportFileParser importFileParser;
+
     private ApplicationContext applicationContext;
 
     @Getter
@@ -48,6 +59,9 @@ public class ImportService implements ApplicationContextAware {
         List<ImportEntity> imports = importRepository.findByProjectId(projectId);
         List<Import> resultList = new ArrayList<>();
         for (ImportEntity entity : imports) {
+            if (entity.getRetractedDate() != null) {
+                continue;
+            }
             Import i = new Import();
             i.setId(entity.getId());
             i.setImportType(entity.getImportType());
@@ -61,14 +75,54 @@ public class ImportService implements ApplicationContextAware {
     }
 
     /**
-     * Deletes all imported records that were imported within the given import.
+     * Retracts the given import. Its records are hidden from all queries right away and removed in the background by
+     * the {@link RetractedImportPurger}.
      *
      * @param importId ID of the import whose records shall be deleted.
      */
     public void deleteImport(long importId) {
-        workRecordRepository.deleteByImport(importId);
-        planRecordRepository.deleteByImport(importId);
+        ImportEntity importEntity = importRepository.findOne(importId);
+        if (importEntity == null || importEntity.getRetractedDate() != null) {
+            return;
+        }
+        List<Long> workRecordBudgetIds = workRecordRepository.findBudgetIdsByImport(importId);
+        List<Long> planRecordBudgetIds = planRecordRepository.findBudgetIdsByImport(importId);
+        importRepository.retract(importId, new Date());
+        recordRollupService.refreshWorkRecordRollups(workRecordBudgetIds);
+        recordRollupService.refreshPlanRecordRollups(planRecordBudgetIds);
+        applicationContext.publishEvent(new ProjectDataChangedEvent(importEntity.getProject().getId()));
+        applicationContext.publishEvent(new ImportRetractedEvent(importId));
+    }
+
+    /**
+     * @return the IDs of all retracted imports whose records have not been removed yet, oldest retraction first.
+     */
+    public List<Long> findRetractedImportIds() {
+        return importRepository.findRetractedIds();
+    }
+
+    /**
+     * Removes the next batch of records of the given retracted import. Once all of its records are gone, the import
+     * itself is removed.
+     *
+     * @param importId  ID of a retracted import.
+     * @param batchSize the maximum number of work and plan records to remove.
+     * @return true if records of the import may be left, false if the import has been removed completely.
+     */
+    public boolean purgeRetractedImport(long importId, int batchSize) {
+        ImportEntity importEntity = importRepository.findOne(importId);
+        if (importEntity == null || importEntity.getRetractedDate() == null) {
+            return false;
+        }
+        int deleted = workRecordRepository.purgeRetractedBatch(importId, batchSize);
+        if (deleted < batchSize) {
+            deleted += planRecordRepository.purgeRetractedBatch(importId, batchSize - deleted);
+        }
+        if (deleted > 0) {
+            return true;
+        }
         importRepository.delete(importId);
+        return false;
     }
 
     /**
@@ -91,29 +145,100 @@ public class ImportService implements ApplicationContextAware {
      */
     @Transactional(rollbackOn = ImportException.class)
     public void doImport(long projectId, Importer importer, List<ImportFile> importFiles) throws ImportException, InvalidFileFormatException {
-        skippedRecords = new LinkedList<>();
+        skippedRecords = doImport(projectId, importer, importFiles, ImportProgress.NONE);
+    }
+
+    /**
+     * Imports the data from the given inputstreams using the given importer and reports the progress after each file.
+     * The files are parsed in parallel, each by a new instance of the importer, while the records are stored one file
+     * after another in the order of the given list.
+     *
+     * @param importer    an importer that understands the format of the files represented by the input streams.
+     * @param importFiles the files to be imported
+     * @param progress    receives the progress of each file and is asked whether the import has been cancelled.
+     * @return the records that have been skipped during the import.
+     * @throws ImportCancelledException if the import has been cancelled, all changes are rolled back.
+     */
+    @Transactional(rollbackOn = ImportException.class)
+    public List<List<String>> doImport(long projectId, Importer importer, List<ImportFile> importFiles, ImportProgress progress) throws ImportException, InvalidFileFormatException {
+        return doImport(projectId, importer, importFiles, progress, false);
+    }
+
+    /**
+     * Imports the data from the given inputstreams like {@link #doImport(long, Importer, List, ImportProgress)}.
+     * In delta mode, the imported records are compared with the records already stored for the same budgets and
+     * dates and only the differences are inserted, updated or deleted.
+     *
+     * @param importer    an importer that understands the format of the files represented by the input streams.
+     * @param importFiles the files to be imported
+     * @param progress    receives the progress of each file and is asked whether the import has been cancelled.
+     * @param deltaImport whether only the differences to the stored records should be written.
+     * @return the records that have been skipped during the import.
+     * @throws ImportCancelledException if the import has been cancelled, all changes are rolled back.
+     */
+    @Transactional(rollbackOn = ImportException.class)
+    public List<List<String>> doImport(long projectId, Importer importer, List<ImportFile> importFiles, ImportProgress progress, boolean deltaImport) throws ImportException, InvalidFileFormatException {
+        List<List<String>> skipped = new LinkedList<>();
         if (importer instanceof WorkRecordsImporter) {
-            WorkRecordsImporter workRecordsImporter = (WorkRecordsImporter) importer;
-            WorkRecordDatabaseImporter dbImporter = applicationContext.getBean(WorkRecordDatabaseImporter.class, projectId, workRecordsImporter.getDisplayName());
-            for (ImportFile file : importFiles) {
-                List<ImportedWorkRecord> records = workRecordsImporter.importFile(file);
-                dbImporter.importRecords(records);
+            WorkRecordDatabaseImporter dbImporter = applicationContext.getBean(WorkRecordDatabaseImporter.class, projectId, importer.getDisplayName());
+            dbImporter.setDeltaImport(deltaImport);
+            ParsedFiles<WorkRecordsImporter, ImportedWorkRecord> results = importFileParser.parse((WorkRecordsImporter) importer, importFiles, WorkRecordsImporter::importFile);
+            List<ParsedFile<ImportedWorkRecord>> parsedFiles = new ArrayList<>();
+            try {
+                while (results.hasNext()) {
+                    checkCancelled(progress);
+                    ParsedFile<ImportedWorkRecord> file = results.next();
+                    progress.fileParsed(file.getFilename(), file.getRecords().size(), file.getSkippedRows());
+                    checkCancelled(progress);
+                    int dbSkippedBefore = dbImporter.getSkippedRecords().size();
+                    dbImporter.importRecords(file.getRecords());
+                    int dbSkipped = dbImporter.getSkippedRecords().size() - dbSkippedBefore;
+                    progress.filePersisted(file.getFilename(), file.getRecords().size() - dbSkipped, dbSkipped);
+                    // the records of a file are not needed anymore once they are stored
+                    parsedFiles.add(file.withoutRecords());
+                }
+            } finally {
+                results.cancel();
             }
-            skippedRecords.addAll(workRecordsImporter.getSkippedRecords());
-            skippedRecords.addAll(dbImporter.getSkippedRecords());
-            skippedRecords.addAll(dbImporter.findAndRemoveManuallyEditedEntries());
+            checkCancelled(progress);
+            skipped.addAll(ImportFileParser.mergeSkippedRecords(parsedFiles));
+            skipped.addAll(dbImporter.getSkippedRecords());
+            skipped.addAll(dbImporter.findAndRemoveManuallyEditedEntries());
         } else if (importer instanceof PlanRecordsImporter) {
-            PlanRecordsImporter planRecordsImporter = (PlanRecordsImporter) importer;
-            PlanRecordDatabaseImporter dbImporter = applicationContext.getBean(PlanRecordDatabaseImporter.class, projectId, planRecordsImporter.getDisplayName());
-            for (ImportFile file : importFiles) {
-                List<ImportedPlanRecord> records = planRecordsImporter.importFile(file, MoneyUtil.DEFAULT_CURRENCY);
-                dbImporter.importRecords(records, file.getFilename());
+            PlanRecordDatabaseImporter dbImporter = applicationContext.getBean(PlanRecordDatabaseImporter.class, projectId, importer.getDisplayName());
+            dbImporter.setDeltaImport(deltaImport);
+            ParsedFiles<PlanRecordsImporter, ImportedPlanRecord> results = importFileParser.parse((PlanRecordsImporter) importer, importFiles,
+                    (planRecordsImporter, file) -> planRecordsImporter.importFile(file, MoneyUtil.DEFAULT_CURRENCY));
+            List<ParsedFile<ImportedPlanRecord>> parsedFiles = new ArrayList<>();
+            List<List<String>> dbSkipped = new LinkedList<>();
+            try {
+                while (results.hasNext()) {
+                    checkCancelled(progress);
+                    ParsedFile<ImportedPlanRecord> file = results.next();
+                    progress.fileParsed(file.getFilename(), file.getRecords().size(), file.getSkippedRows());
+                    checkCancelled(progress);
+                    dbImporter.importRecords(file.getRecords(), file.getFilename());
+                    // the database importer only keeps the skipped records of the last file
+                    dbSkipped.addAll(dbImporter.getSkippedRecords());
+                    progress.filePersisted(file.getFilename(), file.getRecords().size() - dbImporter.getSkippedRecords().size(), dbImporter.getSkippedRecords().size());
+                    parsedFiles.add(file.withoutRecords());
+                }
+            } finally {
+                results.cancel();
             }
-            skippedRecords.addAll(planRecordsImporter.getSkippedRecords());
-            skippedRecords.addAll(dbImporter.getSkippedRecords());
+            skipped.addAll(ImportFileParser.mergeSkippedRecords(parsedFiles));
+            skipped.addAll(dbSkipped);
         } else {
             throw new IllegalArgumentException(String.format("Importer of type %s is not supported!", importer.getClass()));
         }
+        applicationContext.publishEvent(new ProjectDataChangedEvent(projectId));
+        return skipped;
+    }
+
+    private void checkCancelled(ImportProgress progress) throws ImportCancelledException {
+        if (progress.isCancelled()) {
+            throw new ImportCancelledException();
+        }
     }
 
     @Override
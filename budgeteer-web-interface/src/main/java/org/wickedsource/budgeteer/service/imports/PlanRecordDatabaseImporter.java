@@ -2,8 +2,6 @@ package org.wickedsource.budgeteer.service.imports;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.joda.money.Money;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
@@ -15,12 +13,11 @@ import org.wickedsource.budgeteer.persistence.person.PersonEntity;
 import org.wickedsource.budgeteer.persistence.project.ProjectEntity;
 import org.wickedsource.budgeteer.persistence.record.PlanRecordEntity;
 import org.wickedsource.budgeteer.persistence.record.PlanRecordRepository;
+import org.wickedsource.budgeteer.service.record.RecordRollupService;
 
 import javax.annotation.PostConstruct;
-import javax.print.DocFlavor;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Component
 @Scope("prototype")
@@ -32,6 +29,9 @@ public class PlanRecordDatabaseImporter extends RecordDatabaseImporter {
     @Autowired
     private DailyRateRepository dailyRateRepository;
 
+    @Autowired
+    private RecordRollupService recordRollupService;
+
     private List<List<String>> skippedRecords;
 
     private SimpleDateFormat formatter = new SimpleDateFormat();
@@ -52,26 +52,34 @@ public class PlanRecordDatabaseImporter extends RecordDatabaseImporter {
 
     public void importRecords(List<ImportedPlanRecord> records, String filename) {
         skippedRecords = new LinkedList<>();
-        Map<RecordKey, List<ImportedPlanRecord>> groupedRecords = groupRecords(records);
-
-        //Because of Issue #70 all PlanRecords that are after the earliest of the imported ones, should be deleted
+        Map<String, Date> earliestDateByBudget = new LinkedHashMap<>();
+        Map<RecordKey, List<ImportedPlanRecord>> groupedRecords = groupRecords(records, earliestDateByBudget);
 
-        // Delete only records of the imported budgets
-        List<String> budgetNames = getBudgetNames(records);
-        for (String name : budgetNames) {
-            // Select which record to delete for each budget individually
-            List<ImportedPlanRecord> budgetRecords = getRecordsOfBudget(name, records);
-            Date earliestDate = findEarliestDate(budgetRecords);
-            planRecordRepository.deleteByBudgetKeyAndDate(getProjectId(), name, earliestDate);
-        }
-
-        for (RecordKey key : groupedRecords.keySet()) {
-            List<ImportedPlanRecord> importedPlanRecords = groupedRecords.get(key);
-            List<List<String>> skippedPlanRecords = importRecordGroup(key, importedPlanRecords, filename);
+        List<PlanRecordEntity> entitiesToImport = new ArrayList<>();
+        for (Map.Entry<RecordKey, List<ImportedPlanRecord>> group : groupedRecords.entrySet()) {
+            List<List<String>> skippedPlanRecords = importRecordGroup(group.getKey(), group.getValue(), filename, entitiesToImport);
             if (skippedPlanRecords != null && !skippedPlanRecords.isEmpty()) {
                 skippedRecords.addAll(skippedPlanRecords);
             }
         }
+
+        //Because of Issue #70 all PlanRecords that are after the earliest of the imported ones, should be deleted
+        Set<Long> affectedBudgetIds = new HashSet<>();
+        if (isDeltaImport()) {
+            affectedBudgetIds.addAll(importDelta(entitiesToImport, earliestDateByBudget));
+        } else {
+            // Delete only records of the imported budgets, selecting which records to delete for each budget individually
+            for (Map.Entry<String, Date> budget : earliestDateByBudget.entrySet()) {
+                planRecordRepository.deleteByBudgetKeyAndDate(getProjectId(), budget.getKey(), budget.getValue());
+                affectedBudgetIds.add(getBudget(budget.getKey()).getId());
+            }
+            if (!entitiesToImport.isEmpty()) {
+                planRecordRepository.insertInBatches(entitiesToImport);
+            }
+        }
+        if (!affectedBudgetIds.isEmpty()) {
+            recordRollupService.refreshPlanRecordRollups(affectedBudgetIds);
+        }
         //If all records haven been skipped the startDate of the import is new Date(Long.MAX_VALUE) and the EndDate is null.
         // This causes problems in our application, so they have to be set to properly values...
         if (getImportRecord().getStartDate() == null || getImportRecord().getStartDate().equals(new Date(Long.MAX_VALUE))) {
@@ -83,65 +91,63 @@ public class PlanRecordDatabaseImporter extends RecordDatabaseImporter {
         getImportRecord().setNumberOfImportedFiles(getImportRecord().getNumberOfImportedFiles() + 1);
     }
 
-    private Date findEarliestDate(List<ImportedPlanRecord> records) {
-        if (records == null || records.isEmpty()) return null;
-        Date da = new Date(Long.MAX_VALUE);
-        for (ImportedPlanRecord pla : records) {
-            if (pla.getDate().before(da)) {
-                da = pla.getDate();
-            }
-        }
-        return da;
-    }
-
     /**
-     * Get the names of all budgets in the imported records
+     * Instead of deleting and reinserting all plan records of a budget from the earliest imported date on, only
+     * stores the differences between the imported and the stored records of that period.
      *
-     * @param records imported records
-     * @return budget names of the imported records
+     * @return IDs of the budgets whose plan records changed
      */
-    private List<String> getBudgetNames(List<ImportedPlanRecord> records) {
-        List<String> names = new ArrayList<>();
-
-        for (ImportedPlanRecord record : records) {
-            String name = record.getBudgetName();
-            if (!names.contains(name)) {
-                names.add(name);
+    private Set<Long> importDelta(List<PlanRecordEntity> entities, Map<String, Date> earliestDateByBudget) {
+        Map<String, List<PlanRecordEntity>> entitiesByBudget = new HashMap<>();
+        for (PlanRecordEntity entity : entities) {
+            entitiesByBudget.computeIfAbsent(entity.getBudget().getImportKey(), key -> new ArrayList<>()).add(entity);
+        }
+        Set<Long> changedBudgetIds = new HashSet<>();
+        for (Map.Entry<String, Date> budgetEntry : earliestDateByBudget.entrySet()) {
+            BudgetEntity budget = getBudget(budgetEntry.getKey());
+            List<PlanRecordEntity> budgetEntities = entitiesByBudget.getOrDefault(budgetEntry.getKey(), Collections.emptyList());
+            RecordDelta<PlanRecordEntity> delta = new RecordDelta<>(budgetEntities, planRecordRepository.findFingerprints(budget.getId(), budgetEntry.getValue(), getImportRecord().getId()));
+            planRecordRepository.deleteByIds(delta.getDeletes());
+            delta.applyUpdates(planRecordRepository::findByIds, getImportRecord());
+            // the unchanged records are part of the new import, so that they survive when an older import is deleted
+            planRecordRepository.moveToImport(delta.getUnchanged(), getImportRecord().getId());
+            if (!delta.getInserts().isEmpty()) {
+                planRecordRepository.insertInBatches(delta.getInserts());
+            }
+            if (!delta.isEmpty()) {
+                changedBudgetIds.add(budget.getId());
             }
         }
-
-        return names;
+        return changedBudgetIds;
     }
 
     /**
-     * Get all records of one budget
+     * Groups the records by person, budget and daily rate in a single pass.
      *
-     * @param budgetname name of the budget
-     * @param records    import records
-     * @return records of the budget
+     * @param records              imported records
+     * @param earliestDateByBudget is filled with the earliest date of the records of each budget, in the order the
+     *                             budgets appear in the records
+     * @return the groups of records, in the order the groups appear in the records
      */
-    private List<ImportedPlanRecord> getRecordsOfBudget(String budgetname, List<ImportedPlanRecord> records) {
-        return records.stream().filter(r -> r.getBudgetName().equals(budgetname)).collect(Collectors.toList());
-    }
-
-    private Map<RecordKey, List<ImportedPlanRecord>> groupRecords(List<ImportedPlanRecord> records) {
-        Map<RecordKey, List<ImportedPlanRecord>> result = new HashMap<>();
+    private Map<RecordKey, List<ImportedPlanRecord>> groupRecords(List<ImportedPlanRecord> records, Map<String, Date> earliestDateByBudget) {
+        Map<RecordKey, List<ImportedPlanRecord>> result = new LinkedHashMap<>();
         for (ImportedPlanRecord record : records) {
             RecordKey key = new RecordKey(record.getPersonName(), record.getBudgetName(), record.getDailyRate());
-            List<ImportedPlanRecord> keyList = result.get(key);
-            if (keyList == null) {
-                keyList = new ArrayList<>();
-                result.put(key, keyList);
+            result.computeIfAbsent(key, k -> new ArrayList<>()).add(record);
+
+            Date earliestDate = earliestDateByBudget.get(record.getBudgetName());
+            if (earliestDate == null || record.getDate().before(earliestDate)) {
+                earliestDateByBudget.put(record.getBudgetName(), record.getDate());
             }
-            keyList.add(record);
         }
         return result;
     }
 
     /**
-     * Imports a list of records with the same person, budget and daily rate.
+     * Converts a list of records with the same person, budget and daily rate and adds the records within the project
+     * period to the given list of entities to import.
      */
-    private List<List<String>> importRecordGroup(RecordKey groupKey, List<ImportedPlanRecord> records, String filename) {
+    private List<List<String>> importRecordGroup(RecordKey groupKey, List<ImportedPlanRecord> records, String filename, List<PlanRecordEntity> entitiesToImport) {
         List<List<String>> skippedRecords = new LinkedList<>();
         Date earliestDate = new Date(Long.MAX_VALUE);
         Date latestDate = new Date(0);
@@ -150,7 +156,7 @@ public class PlanRecordDatabaseImporter extends RecordDatabaseImporter {
         PersonEntity person = getPerson(groupKey.getPersonName());
         ProjectEntity project = budget.getProject();
 
-        List<PlanRecordEntity> entitiesToImport = new ArrayList<>();
+        int importedRecords = 0;
         for (ImportedPlanRecord record : records) {
             PlanRecordEntity recordEntity = new PlanRecordEntity();
             recordEntity.setDate(record.getDate());
@@ -166,6 +172,7 @@ public class PlanRecordDatabaseImporter extends RecordDatabaseImporter {
             } else {
 
                 entitiesToImport.add(recordEntity);
+                importedRecords++;
 
                 if (record.getDate().after(latestDate)) {
                     latestDate = record.getDate();
@@ -175,9 +182,7 @@ public class PlanRecordDatabaseImporter extends RecordDatabaseImporter {
                 }
             }
         }
-        if (entitiesToImport != null && !entitiesToImport.isEmpty()) {
-            planRecordRepository.save(entitiesToImport);
-
+        if (importedRecords > 0) {
             // updating start and end date for import record
             if (getImportRecord().getStartDate() == null || getImportRecord().getStartDate().after(earliestDate)) {
                 getImportRecord().setStartDate(earliestDate);
@@ -207,20 +212,10 @@ public class PlanRecordDatabaseImporter extends RecordDatabaseImporter {
 
     @Data
     @AllArgsConstructor
-    class RecordKey {
+    static class RecordKey {
         private String personName;
         private String budgetName;
         private Money dailyRate;
-
-        @Override
-        public boolean equals(Object o) {
-            return EqualsBuilder.reflectionEquals(this, o);
-        }
-
-        @Override
-        public int hashCode() {
-            return HashCodeBuilder.reflectionHashCode(this);
-        }
     }
 
 }
@@ -42,6 +42,8 @@ public abstract class RecordDatabaseImporter {
 
     private ImportEntity importRecord;
 
+    private boolean deltaImport;
+
     public RecordDatabaseImporter(long projectId, String importType) {
         this.projectId = projectId;
         this.importType = importType;
@@ -75,6 +77,19 @@ public abstract class RecordDatabaseImporter {
         return importRecord;
     }
 
+    protected boolean isDeltaImport() {
+        return deltaImport;
+    }
+
+    /**
+     * In delta mode, the imported records are compared with the records already stored for the same budgets and
+     * dates and only the differences are inserted, updated or deleted. Stored records that did not change stay
+     * assigned to the import that created them.
+     */
+    public void setDeltaImport(boolean deltaImport) {
+        this.deltaImport = deltaImport;
+    }
+
     protected PersonEntity getPerson(String personName) {
         PersonEntity person = personsByImportKey.get(personName);
         if (person == null) {
@@ -0,0 +1,135 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import lombok.Getter;
+import lombok.Value;
+import org.joda.money.Money;
+import org.wickedsource.budgeteer.persistence.imports.ImportEntity;
+import org.wickedsource.budgeteer.persistence.record.RecordEntity;
+import org.wickedsource.budgeteer.persistence.record.RecordFingerprintBean;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * The differences between the records of a delta import and the records already stored for the same budgets and
+ * dates. Records are compared by their fingerprint (person, budget, day, minutes and daily rate), identical records
+ * are matched one to one, so that records that occur several times are kept as often as they are imported.
+ * <p>
+ * Of the remaining records, an imported and a stored record of the same person, budget and day are turned into an
+ * update of the stored record. Imported records left over are inserted, stored records left over are deleted.
+ */
+class RecordDelta<E extends RecordEntity> {
+
+    @Getter
+    private final List<E> inserts = new ArrayList<>();
+
+    /**
+     * The imported records whose values are written into stored records, by ID of the stored record.
+     */
+    @Getter
+    private final Map<Long, E> updates = new HashMap<>();
+
+    @Getter
+    private final List<Long> deletes = new ArrayList<>();
+
+    /**
+     * The IDs of the stored records that are identical to an imported record. They are kept, but belong to the new
+     * import afterwards, like the updated records.
+     */
+    @Getter
+    private final List<Long> unchanged = new ArrayList<>();
+
+    RecordDelta(List<E> importedRecords, List<RecordFingerprintBean> storedRecords) {
+        Map<Fingerprint, Deque<E>> importedByFingerprint = new LinkedHashMap<>();
+        for (E record : importedRecords) {
+            importedByFingerprint.computeIfAbsent(Fingerprint.of(record), key -> new ArrayDeque<>()).add(record);
+        }
+
+        Map<Slot, Deque<Long>> obsoleteIdsBySlot = new LinkedHashMap<>();
+        for (RecordFingerprintBean stored : storedRecords) {
+            Deque<E> identical = importedByFingerprint.get(Fingerprint.of(stored));
+            if (identical != null && !identical.isEmpty()) {
+                identical.poll();
+                unchanged.add(stored.getId());
+            } else {
+                obsoleteIdsBySlot.computeIfAbsent(Slot.of(stored), key -> new ArrayDeque<>()).add(stored.getId());
+            }
+        }
+
+        for (Deque<E> records : importedByFingerprint.values()) {
+            for (E record : records) {
+                Deque<Long> obsoleteIds = obsoleteIdsBySlot.get(Slot.of(record));
+                if (obsoleteIds != null && !obsoleteIds.isEmpty()) {
+                    updates.put(obsoleteIds.poll(), record);
+                } else {
+                    inserts.add(record);
+                }
+            }
+        }
+        for (Deque<Long> obsoleteIds : obsoleteIdsBySlot.values()) {
+            deletes.addAll(obsoleteIds);
+        }
+    }
+
+    boolean isEmpty() {
+        return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+    }
+
+    /**
+     * Writes the minutes and daily rates of the updates into the stored records and assigns them to the given import.
+     * The changes are flushed with the other changes of the transaction.
+     *
+     * @param loader       loads the stored records with the given IDs.
+     * @param importRecord the import the updated records belong to.
+     */
+    void applyUpdates(Function<Collection<Long>, List<E>> loader, ImportEntity importRecord) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        for (E stored : loader.apply(updates.keySet())) {
+            E imported = updates.get(stored.getId());
+            stored.setMinutes(imported.getMinutes());
+            stored.setDailyRate(imported.getDailyRate());
+            stored.setImportRecord(importRecord);
+        }
+    }
+
+    private static LocalDate toDay(Date date) {
+        return new java.sql.Date(date.getTime()).toLocalDate();
+    }
+
+    private static long toCents(Money money) {
+        return money == null ? 0 : money.getAmountMinorLong();
+    }
+
+    @Value
+    private static class Slot {
+        long personId;
+        long budgetId;
+        LocalDate day;
+
+        static Slot of(RecordFingerprintBean record) {
+            return new Slot(record.getPersonId(), record.getBudgetId(), toDay(record.getDate()));
+        }
+
+        static Slot of(RecordEntity record) {
+            return new Slot(record.getPerson().getId(), record.getBudget().getId(), toDay(record.getDate()));
+        }
+    }
+
+    @Value
+    private static class Fingerprint {
+        Slot slot;
+        int minutes;
+        long rateInCents;
+
+        static Fingerprint of(RecordFingerprintBean record) {
+            return new Fingerprint(Slot.of(record), record.getMinutes(), toCents(record.getDailyRate()));
+        }
+
+        static Fingerprint of(RecordEntity record) {
+            return new Fingerprint(Slot.of(record), record.getMinutes(), toCents(record.getDailyRate()));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Removes the records of retracted imports in the background. Each batch is removed in its own transaction, so that
+ * no long running delete holds locks on the record tables. Imports whose purge has been interrupted (e.g. by a
+ * restart) are picked up again periodically.
+ */
+@Component
+public class RetractedImportPurger {
+
+    private static final Logger log = getLogger(RetractedImportPurger.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final long PURGE_INTERVAL_MINUTES = 10;
+
+    @Autowired
+    private ImportService importService;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "retracted-import-purger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void schedule() {
+        executor.scheduleWithFixedDelay(this::purge, PURGE_INTERVAL_MINUTES, PURGE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImportRetracted(ImportRetractedEvent event) {
+        executor.execute(this::purge);
+    }
+
+    private void purge() {
+        try {
+            for (long importId : importService.findRetractedImportIds()) {
+                while (!Thread.currentThread().isInterrupted() && importService.purgeRetractedImport(importId, BATCH_SIZE)) {
+                    // every call removes one batch in its own transaction
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not purge the records of retracted imports", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
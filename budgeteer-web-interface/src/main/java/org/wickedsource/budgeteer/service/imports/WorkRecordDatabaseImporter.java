@@ -9,18 +9,16 @@ import org.springframework.stereotype.Component;
 import org.wickedsource.budgeteer.MoneyUtil;
 import org.wickedsource.budgeteer.imports.api.ImportedWorkRecord;
 import org.wickedsource.budgeteer.persistence.budget.BudgetEntity;
-import org.wickedsource.budgeteer.persistence.person.DailyRateEntity;
 import org.wickedsource.budgeteer.persistence.person.DailyRateRepository;
 import org.wickedsource.budgeteer.persistence.project.ProjectEntity;
+import org.wickedsource.budgeteer.persistence.record.RecordFingerprintBean;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordEntity;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
+import org.wickedsource.budgeteer.service.record.RecordRollupService;
 
 import javax.annotation.PostConstruct;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
 
 @Component
 @Scope("prototype")
@@ -32,13 +30,16 @@ public class WorkRecordDatabaseImporter extends RecordDatabaseImporter {
     @Autowired
     private DailyRateRepository rateRepository;
 
+    @Autowired
+    private RecordRollupService recordRollupService;
+
     @Getter @Setter
     private Date earliestRecordDate = new Date(Long.MAX_VALUE);
 
     @Getter @Setter
     private Date latestRecordDate = new Date(1L);
 
-    private List<DailyRateEntity> dailyRates;
+    private DailyRateIndex dailyRates;
 
     public WorkRecordDatabaseImporter(long projectId, String importType) {
         super(projectId, importType);
@@ -91,7 +92,12 @@ public class WorkRecordDatabaseImporter extends RecordDatabaseImporter {
             }
         }
         if(!entitiesToImport.isEmpty()) {
-            workRecordRepository.save(entitiesToImport);
+            if (isDeltaImport()) {
+                importDelta(entitiesToImport);
+            } else {
+                workRecordRepository.insertInBatches(entitiesToImport);
+                recordRollupService.refreshWorkRecordRollups(getBudgetIds(entitiesToImport));
+            }
         }
 
         //If all records haven been skipped the startDate of the import is new Date(Long.MAX_VALUE) and the EndDate is null.
@@ -107,6 +113,53 @@ public class WorkRecordDatabaseImporter extends RecordDatabaseImporter {
         getImportRecord().setNumberOfImportedFiles(getImportRecord().getNumberOfImportedFiles() + 1);
     }
 
+    /**
+     * Compares the imported records with the stored records of the same budget, person and period and only stores
+     * the differences. Stored records of other persons or manually edited records are not touched.
+     */
+    private void importDelta(List<WorkRecordEntity> entities) {
+        Map<Long, List<WorkRecordEntity>> entitiesByBudget = new LinkedHashMap<>();
+        for (WorkRecordEntity entity : entities) {
+            entitiesByBudget.computeIfAbsent(entity.getBudget().getId(), budgetId -> new ArrayList<>()).add(entity);
+        }
+        Set<Long> changedBudgetIds = new HashSet<>();
+        for (Map.Entry<Long, List<WorkRecordEntity>> budget : entitiesByBudget.entrySet()) {
+            // the period of each person in the imported records of the budget
+            Map<Long, Date[]> periodByPerson = new HashMap<>();
+            Date budgetStart = null;
+            Date budgetEnd = null;
+            for (WorkRecordEntity entity : budget.getValue()) {
+                Date[] period = periodByPerson.computeIfAbsent(entity.getPerson().getId(), personId -> new Date[]{entity.getDate(), entity.getDate()});
+                period[0] = period[0].before(entity.getDate()) ? period[0] : entity.getDate();
+                period[1] = period[1].after(entity.getDate()) ? period[1] : entity.getDate();
+                budgetStart = budgetStart == null || budgetStart.after(period[0]) ? period[0] : budgetStart;
+                budgetEnd = budgetEnd == null || budgetEnd.before(period[1]) ? period[1] : budgetEnd;
+            }
+            List<RecordFingerprintBean> storedRecords = new ArrayList<>();
+            for (RecordFingerprintBean stored : workRecordRepository.findFingerprints(budget.getKey(), budgetStart, budgetEnd, getImportRecord().getId())) {
+                Date[] period = periodByPerson.get(stored.getPersonId());
+                if (period != null && !stored.getDate().before(period[0]) && !stored.getDate().after(period[1])) {
+                    storedRecords.add(stored);
+                }
+            }
+
+            RecordDelta<WorkRecordEntity> delta = new RecordDelta<>(budget.getValue(), storedRecords);
+            workRecordRepository.deleteByIds(delta.getDeletes());
+            delta.applyUpdates(workRecordRepository::findByIds, getImportRecord());
+            // the unchanged records are part of the new import, so that they survive when an older import is deleted
+            workRecordRepository.moveToImport(delta.getUnchanged(), getImportRecord().getId());
+            if (!delta.getInserts().isEmpty()) {
+                workRecordRepository.insertInBatches(delta.getInserts());
+            }
+            if (!delta.isEmpty()) {
+                changedBudgetIds.add(budget.getKey());
+            }
+        }
+        if (!changedBudgetIds.isEmpty()) {
+            recordRollupService.refreshWorkRecordRollups(changedBudgetIds);
+        }
+    }
+
     /**
      * If there are any manually edited entries, there would be duplicate records in the database.
      * This methods seeks and deletes these entries. If there is both a manually edited and a newly imported entry, the imported one will be deleted.
@@ -121,31 +174,63 @@ public class WorkRecordDatabaseImporter extends RecordDatabaseImporter {
         deletedRecordList.add(headline);
         //Find duplicate Records, where the dailyRate was edited manually
         List<WorkRecordEntity> manuallyEditedEntries = workRecordRepository.findManuallyEditedEntries(super.getProjectId(), getEarliestRecordDate(), getLatestRecordDate() );
+        if (manuallyEditedEntries.isEmpty()) {
+            return new LinkedList<>();
+        }
+        Set<Long> affectedBudgetIds = getBudgetIds(manuallyEditedEntries);
+        Map<Long, List<WorkRecordEntity>> duplicates = workRecordRepository.findDuplicatesOfManuallyEditedEntries(super.getProjectId(), getEarliestRecordDate(), getLatestRecordDate());
+
+        // each imported duplicate replaces at most one manually edited entry
+        Set<Long> duplicateIdsToDelete = new LinkedHashSet<>();
+        Map<Long, List<Long>> editedIdsByImportId = new HashMap<>();
+        List<WorkRecordEntity> leftRecords = new LinkedList<>();
         for(int i = manuallyEditedEntries.size() -1; i >= 0; i--) {
             WorkRecordEntity editedEntry = manuallyEditedEntries.get(i);
-            List<WorkRecordEntity> duplicateEntryList = workRecordRepository.findDuplicateEntries(editedEntry.getBudget(), editedEntry.getPerson(), editedEntry.getDate(), editedEntry.getMinutes());
-            if (!duplicateEntryList.isEmpty()) {
-                deletedRecordList.add(getRecordAsString(duplicateEntryList.get(0), "There was a manually edited entry associated with this one already in the database"));
-                workRecordRepository.delete(duplicateEntryList.get(0));
-                //Update the import-reference of the the manually edited record so that it belongs to the current import
-                editedEntry.setImportRecord(duplicateEntryList.get(0).getImportRecord());
-                workRecordRepository.save(editedEntry);
-
-                manuallyEditedEntries.remove(editedEntry);
+            WorkRecordEntity duplicateEntry = null;
+            for (WorkRecordEntity candidate : duplicates.getOrDefault(editedEntry.getId(), Collections.emptyList())) {
+                if (!duplicateIdsToDelete.contains(candidate.getId())) {
+                    duplicateEntry = candidate;
+                    break;
+                }
+            }
+            if (duplicateEntry != null) {
+                deletedRecordList.add(getRecordAsString(duplicateEntry, "There was a manually edited entry associated with this one already in the database"));
+                duplicateIdsToDelete.add(duplicateEntry.getId());
+                //The manually edited record will belong to the import of the deleted duplicate
+                editedIdsByImportId.computeIfAbsent(duplicateEntry.getImportRecord().getId(), importId -> new ArrayList<>()).add(editedEntry.getId());
+            } else {
+                leftRecords.add(0, editedEntry);
             }
         }
-        //if there are still any manually edited records in the list, there weren't any associated entries in the current import
+        workRecordRepository.deleteByIds(duplicateIdsToDelete);
+        for (Map.Entry<Long, List<Long>> entry : editedIdsByImportId.entrySet()) {
+            workRecordRepository.moveToImport(entry.getValue(), entry.getKey());
+        }
+        //if there are still any manually edited records left, there weren't any associated entries in the current import
         // -> remove all  left manually-edited-records in the database
-        for(WorkRecordEntity leftRecord : manuallyEditedEntries){
-            workRecordRepository.delete(leftRecord);
+        List<Long> leftRecordIds = new ArrayList<>();
+        for(WorkRecordEntity leftRecord : leftRecords){
+            leftRecordIds.add(leftRecord.getId());
             deletedRecordList.add(getRecordAsString(leftRecord, "The record was edited manually in the application but didn't has a corresponding entry in the import -> deleted"));
         }
+        workRecordRepository.deleteByIds(leftRecordIds);
+        if (!affectedBudgetIds.isEmpty()) {
+            recordRollupService.refreshWorkRecordRollups(affectedBudgetIds);
+        }
         //If just an empty row and the headline was added, return a empty list
         if(deletedRecordList.size() <= 2)
             return  new LinkedList<>();
         return deletedRecordList;
     }
 
+    private Set<Long> getBudgetIds(List<WorkRecordEntity> entities) {
+        Set<Long> budgetIds = new HashSet<>();
+        for (WorkRecordEntity entity : entities) {
+            budgetIds.add(entity.getBudget().getId());
+        }
+        return budgetIds;
+    }
+
     private List<String> getRecordAsString(WorkRecordEntity entity){
         return getRecordAsString(entity, "Record is out of project-date-range");
     }
@@ -163,21 +248,13 @@ public class WorkRecordDatabaseImporter extends RecordDatabaseImporter {
     }
 
     private Money getDailyRateForRecord(ImportedWorkRecord record) {
-        for (DailyRateEntity rate : dailyRates) {
-            // TODO: this is far from performant, should be reworked when large data proves to be an issue
-            if (rate.getBudget().getImportKey().equals(record.getBudgetName()) &&
-                    rate.getPerson().getImportKey().equals(record.getPersonName()) &&
-                    !rate.getDateStart().after(record.getDate()) &&
-                    !rate.getDateEnd().before(record.getDate())) {
-                return rate.getRate();
-            }
-        }
-        return MoneyUtil.createMoneyFromCents(0l);
+        Money rate = dailyRates.getRate(record.getBudgetName(), record.getPersonName(), record.getDate());
+        return rate != null ? rate : MoneyUtil.createMoneyFromCents(0l);
     }
 
 
-    private List<DailyRateEntity> getDailyRateCache(long projectId) {
-        return rateRepository.findByProjectIdFetch(projectId);
+    private DailyRateIndex getDailyRateCache(long projectId) {
+        return new DailyRateIndex(rateRepository.findByProjectIdFetch(projectId));
     }
 
 }
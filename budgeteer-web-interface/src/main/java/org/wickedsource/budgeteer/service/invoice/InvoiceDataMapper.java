@@ -34,7 +34,7 @@ public class InvoiceDataMapper extends AbstractMapper<InvoiceEntity, InvoiceBase
         result.setMonth(entity.getMonth());
         result.setPaidDate(entity.getPaidDate());
         result.setDueDate(entity.getDueDate());
-        result.setFileUploadModel(new FileUploadModel(entity.getFileName(), entity.getFile(), entity.getLink()));
+        result.setFileUploadModel(new FileUploadModel(entity.getFileName(), entity.getFileHash(), entity.getLink()));
         BigDecimal taxRate = entity.getContract().getTaxRate();
         result.setTaxRate(taxRate);
         result.setSum_gross(MoneyUtil.getMoneyWithTaxes(result.getSum(), taxRate));
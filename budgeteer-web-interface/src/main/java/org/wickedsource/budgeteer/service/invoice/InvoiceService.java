@@ -3,16 +3,21 @@ package org.wickedsource.budgeteer.service.invoice;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.wickedsource.budgeteer.persistence.attachment.AttachmentStore;
 import org.wickedsource.budgeteer.persistence.contract.ContractEntity;
 import org.wickedsource.budgeteer.persistence.contract.ContractInvoiceField;
 import org.wickedsource.budgeteer.persistence.contract.ContractRepository;
 import org.wickedsource.budgeteer.persistence.invoice.InvoiceEntity;
 import org.wickedsource.budgeteer.persistence.invoice.InvoiceFieldEntity;
 import org.wickedsource.budgeteer.persistence.invoice.InvoiceRepository;
+import org.wickedsource.budgeteer.service.attachment.AttachmentService;
 import org.wickedsource.budgeteer.service.contract.DynamicAttributeField;
+import org.wickedsource.budgeteer.web.components.fileUpload.FileUploadModel;
 import org.wickedsource.budgeteer.web.pages.invoice.overview.table.InvoiceOverviewTableModel;
 
 import javax.transaction.Transactional;
+import java.io.IOException;
+import java.io.InputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Set;
@@ -31,6 +36,12 @@ public class InvoiceService {
     @Autowired
     private ContractRepository contractRepository;
 
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    @Autowired
+    private AttachmentService attachmentService;
+
     @PreAuthorize("canReadProject(#projectId)")
     public InvoiceOverviewTableModel getInvoiceOverviewByProject(long projectId){
         InvoiceOverviewTableModel result = new InvoiceOverviewTableModel();
@@ -86,7 +97,7 @@ public class InvoiceService {
         invoiceEntity.setDueDate(invoiceBaseData.getDueDate());
 
         invoiceEntity.setFileName(invoiceBaseData.getFileUploadModel().getFileName());
-        invoiceEntity.setFile(invoiceBaseData.getFileUploadModel().getFile());
+        invoiceEntity.setFileHash(attachmentService.storeUploadedFile(invoiceBaseData.getFileUploadModel(), invoiceEntity.getFileHash()));
         invoiceEntity.setLink(invoiceBaseData.getFileUploadModel().getLink());
 
         //update additional information of the current contract
@@ -125,4 +136,14 @@ public class InvoiceService {
     public void deleteInvoice(long invoiceId) {
         invoiceRepository.delete(invoiceId);
     }
+
+    /**
+     * @return a stream of the file attached to the given invoice, which has to be closed by the caller, or null if the
+     * invoice has no file.
+     */
+    @PreAuthorize("canReadInvoice(#invoiceId)")
+    public InputStream openFile(long invoiceId) throws IOException {
+        String fileHash = invoiceRepository.getFileHashOfInvoice(invoiceId);
+        return fileHash == null ? null : attachmentStore.open(fileHash);
+    }
 }
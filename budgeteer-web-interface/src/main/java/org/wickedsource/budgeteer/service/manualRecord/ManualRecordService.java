@@ -1,11 +1,14 @@
 package org.wickedsource.budgeteer.service.manualRecord;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.wickedsource.budgeteer.persistence.budget.BudgetEntity;
 import org.wickedsource.budgeteer.persistence.budget.BudgetRepository;
 import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordEntity;
 import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRepository;
+import org.wickedsource.budgeteer.service.notification.ProjectDataChangedEvent;
+import org.wickedsource.budgeteer.service.record.RecordRollupService;
 
 import javax.transaction.Transactional;
 import java.util.ArrayList;
@@ -21,6 +24,12 @@ public class ManualRecordService {
     @Autowired
     private BudgetRepository budgetRepository;
 
+    @Autowired
+    private RecordRollupService recordRollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<ManualRecord> getManualRecords(long budgetId) {
         List<ManualRecordEntity> entities = manualRecordRepository.getManualRecordByBudgetId(budgetId);
         List<ManualRecord> result = new ArrayList<>();
@@ -60,11 +69,18 @@ public class ManualRecordService {
         record.setBudget(budgetEntity);
 
         manualRecordRepository.save(record);
+        recordRollupService.refreshManualRecordRollups(data.getBudgetId());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(budgetEntity.getProject().getId()));
 
         return record.getId();
     }
 
     public void deleteRecord(long id) {
+        ManualRecordEntity record = manualRecordRepository.findOne(id);
         manualRecordRepository.delete(id);
+        if (record != null) {
+            recordRollupService.refreshManualRecordRollups(record.getBudget().getId());
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(record.getBudget().getProject().getId()));
+        }
     }
 }
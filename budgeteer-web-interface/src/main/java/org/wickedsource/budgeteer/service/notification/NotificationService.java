@@ -50,13 +50,46 @@ public class NotificationService {
     @Autowired
     private MissingDailyRateForBudgetNotificationMapper missingDailyRateForBudgetNotificationMapper;
 
+    @Autowired
+    private NotificationSnapshotStore snapshotStore;
+
     /**
-     * Returns all notifications currently available for the given project
+     * Returns all notifications currently available for the given project. The notifications concerning the data of
+     * the project are read from the latest snapshot, which is refreshed in the background when the data changes. They
+     * are only computed synchronously if no snapshot exists yet.
      *
      * @param projectId ID of the project whose notifications to load
      * @return list of notifications
      */
     public List<Notification> getNotifications(long projectId, long userId) {
+        NotificationSnapshot snapshot = snapshotStore.get(projectId);
+        if (snapshot == null) {
+            long version = snapshotStore.beginComputation(projectId);
+            snapshot = snapshotStore.put(projectId, version, getProjectNotifications(projectId));
+        }
+        List<Notification> notifications = new ArrayList<>(snapshot.getNotifications());
+
+        UserEntity user = userRepository.findOne(userId);
+        if (user != null) {
+            if (user.getMail() == null) {
+                notifications.add(new MissingMailNotification(user.getId()));
+            }
+
+            if (!user.getMailVerified() && user.getMail() != null) {
+                notifications.add(new MailNotVerifiedNotification(user.getId(), user.getMail()));
+            }
+        }
+
+        return notifications;
+    }
+
+    /**
+     * Computes the notifications concerning the data of the given project, without using the snapshot.
+     *
+     * @param projectId ID of the project whose notifications to compute
+     * @return list of notifications
+     */
+    public List<Notification> getProjectNotifications(long projectId) {
         List<Notification> notifications = new ArrayList<>();
         if (workRecordRepository.countByProjectId(projectId) == 0) {
             notifications.add(new EmptyWorkRecordsNotification());
@@ -78,18 +111,6 @@ public class NotificationService {
                     notifications.add(limitReachedNotificationMapper.map(limitReached));
             }
         }
-
-        UserEntity user = userRepository.findOne(userId);
-        if (user != null) {
-            if (user.getMail() == null) {
-                notifications.add(new MissingMailNotification(user.getId()));
-            }
-
-            if (!user.getMailVerified() && user.getMail() != null) {
-                notifications.add(new MailNotVerifiedNotification(user.getId(), user.getMail()));
-            }
-        }
-
         return notifications;
     }
 
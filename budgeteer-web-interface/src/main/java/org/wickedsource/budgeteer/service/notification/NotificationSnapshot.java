@@ -0,0 +1,35 @@
+package org.wickedsource.budgeteer.service.notification;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The notifications of a project computed from a certain version of its data.
+ */
+public class NotificationSnapshot {
+
+    @Getter
+    private final List<Notification> notifications;
+
+    @Getter
+    private final long version;
+
+    private final AtomicLong projectVersion;
+
+    NotificationSnapshot(long version, AtomicLong projectVersion, List<Notification> notifications) {
+        this.notifications = Collections.unmodifiableList(notifications);
+        this.version = version;
+        this.projectVersion = projectVersion;
+    }
+
+    /**
+     * @return true if the data of the project changed after the snapshot has been computed and a new snapshot is
+     * pending.
+     */
+    public boolean isStale() {
+        return version < projectVersion.get();
+    }
+}
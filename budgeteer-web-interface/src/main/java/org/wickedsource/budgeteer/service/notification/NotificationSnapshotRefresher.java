@@ -0,0 +1,64 @@
+package org.wickedsource.budgeteer.service.notification;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Recomputes the notification snapshot of a project in the background after its data has been changed. Changes that
+ * arrive while a refresh of the same project is still queued are coalesced into that refresh.
+ */
+@Component
+public class NotificationSnapshotRefresher {
+
+    private static final Logger log = getLogger(NotificationSnapshotRefresher.class);
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationSnapshotStore snapshotStore;
+
+    private final Set<Long> queuedProjects = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-snapshot-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectDataChanged(ProjectDataChangedEvent event) {
+        long projectId = event.getProjectId();
+        // without a snapshot or a running computation the notifications are computed on the next request anyway
+        if (snapshotStore.markStale(projectId) && queuedProjects.add(projectId)) {
+            executor.execute(() -> refresh(projectId));
+        }
+    }
+
+    void refresh(long projectId) {
+        queuedProjects.remove(projectId);
+        try {
+            long version = snapshotStore.beginComputation(projectId);
+            snapshotStore.put(projectId, version, notificationService.getProjectNotifications(projectId));
+        } catch (RuntimeException e) {
+            // a stale snapshot would be shown until the next change, so the next request computes the notifications
+            snapshotStore.discard(projectId);
+            log.error(String.format("Could not refresh the notifications of project %d", projectId), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
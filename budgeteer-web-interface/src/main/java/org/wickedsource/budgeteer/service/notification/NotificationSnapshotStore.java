@@ -0,0 +1,89 @@
+package org.wickedsource.budgeteer.service.notification;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the latest notification snapshot of each project.
+ * <p>
+ * Every project whose notifications are computed gets a version that is incremented with each change of its data.
+ * A computation registers the version it starts from, so that a result that has been overtaken by a change while it
+ * was computed never replaces a newer snapshot and is recognized as stale.
+ * <p>
+ * The snapshots are held in the memory of this instance and only changes made through this instance mark them stale.
+ * This assumes that budgeteer runs on a single node; changes made on another node would not reach the snapshots
+ * held here.
+ */
+@Component
+public class NotificationSnapshotStore {
+
+    private final ConcurrentMap<Long, NotificationSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * @return the latest snapshot of the given project or null if no snapshot has been computed yet.
+     */
+    public NotificationSnapshot get(long projectId) {
+        return snapshots.get(projectId);
+    }
+
+    /**
+     * Registers a computation of the notifications of the given project. Changes of the project are tracked from now
+     * on, so this has to be called before the data of the project is read.
+     *
+     * @return the version of the project data the computation is based on.
+     */
+    public long beginComputation(long projectId) {
+        return versions.computeIfAbsent(projectId, id -> new AtomicLong()).get();
+    }
+
+    /**
+     * Stores the notifications computed from the given version, unless a snapshot of a newer version has been stored
+     * in the meantime.
+     *
+     * @param version the version returned by {@link #beginComputation(long)} before the notifications were computed.
+     * @return the latest snapshot of the project, which is stale if the data changed during the computation.
+     */
+    public NotificationSnapshot put(long projectId, long version, List<Notification> notifications) {
+        AtomicLong projectVersion = versions.get(projectId);
+        NotificationSnapshot computed = new NotificationSnapshot(version, projectVersion == null ? new AtomicLong() : projectVersion, notifications);
+        if (projectVersion == null) {
+            // the project has been removed during the computation
+            return computed;
+        }
+        return snapshots.merge(projectId, computed, (current, candidate) -> current.getVersion() < candidate.getVersion() ? candidate : current);
+    }
+
+    /**
+     * Marks the notifications of the given project as stale.
+     *
+     * @return true if there is a snapshot or a running computation that needs to be followed by a refresh. Without
+     * either, the notifications are computed from the changed data on the next request anyway.
+     */
+    public boolean markStale(long projectId) {
+        AtomicLong version = versions.get(projectId);
+        if (version == null) {
+            return false;
+        }
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Drops the snapshot of the given project, so that its notifications are computed again on the next request.
+     * Changes of the project are still tracked.
+     */
+    public void discard(long projectId) {
+        snapshots.remove(projectId);
+    }
+
+    public void remove(long projectId) {
+        versions.remove(projectId);
+        snapshots.remove(projectId);
+    }
+}
@@ -0,0 +1,15 @@
+package org.wickedsource.budgeteer.service.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published when imports, daily rates, budgets or manual records of a project have been changed, so that data derived
+ * from them (like the notifications of the project) can be recomputed.
+ */
+@Data
+@AllArgsConstructor
+public class ProjectDataChangedEvent {
+
+    private long projectId;
+}
@@ -3,6 +3,7 @@ package org.wickedsource.budgeteer.service.person;
 import org.joda.money.CurrencyUnit;
 import org.joda.money.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.wickedsource.budgeteer.persistence.budget.BudgetRepository;
@@ -11,15 +12,20 @@ import org.wickedsource.budgeteer.persistence.person.PersonEntity;
 import org.wickedsource.budgeteer.persistence.person.PersonRepository;
 import org.wickedsource.budgeteer.persistence.record.MissingDailyRateForBudgetBean;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordEntity;
+import org.wickedsource.budgeteer.persistence.record.PlanRecordRepository;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
 import org.wickedsource.budgeteer.service.DateRange;
 import org.wickedsource.budgeteer.service.DateUtil;
 import org.wickedsource.budgeteer.service.budget.BudgetBaseData;
+import org.wickedsource.budgeteer.service.notification.ProjectDataChangedEvent;
+import org.wickedsource.budgeteer.service.record.RecordRollupService;
 import org.wickedsource.budgeteer.service.record.RecordService;
 
 import javax.transaction.Transactional;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 
 @Service
@@ -41,9 +47,18 @@ public class PersonService {
     @Autowired
     private WorkRecordRepository workRecordRepository;
 
+    @Autowired
+    private PlanRecordRepository planRecordRepository;
+
     @Autowired
     private RecordService recordService;
 
+    @Autowired
+    private RecordRollupService recordRollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Returns all people the given user can make use of to manage budgets.
      *
@@ -108,8 +123,10 @@ public class PersonService {
         personEntity.setImportKey(person.getImportKey());
 
         List<DailyRateEntity> dailyRates = new ArrayList<>();
+        Set<Long> affectedBudgetIds = new HashSet<>();
 
         for (PersonRate rate : loadPersonWithRates(person.getPersonId()).getRates()) {
+            affectedBudgetIds.add(rate.getBudget().getId());
             workRecordRepository.updateDailyRates(rate.getBudget().getId(), person.getPersonId(),
                     rate.getDateRange().getStartDate(), rate.getDateRange().getEndDate(), Money.zero(CurrencyUnit.EUR));
         }
@@ -123,12 +140,15 @@ public class PersonService {
             rateEntity.setDateEnd(rate.getDateRange().getEndDate());
             dailyRates.add(rateEntity);
 
+            affectedBudgetIds.add(rate.getBudget().getId());
             workRecordRepository.updateDailyRates(rate.getBudget().getId(), person.getPersonId(),
                     rate.getDateRange().getStartDate(), rate.getDateRange().getEndDate(), rate.getRate());
         }
         personEntity.getDailyRates().clear();
         personEntity.getDailyRates().addAll(dailyRates);
         personRepository.save(personEntity);
+        recordRollupService.refreshWorkRecordRollups(affectedBudgetIds);
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(personEntity.getProject().getId()));
     }
 
     public List<String> getOverlapWithManuallyEditedRecords(PersonWithRates person, long projectId){
@@ -168,7 +188,15 @@ public class PersonService {
 
     @PreAuthorize("canReadPerson(#personId)")
     public void deletePerson(long personId) {
+        PersonEntity personEntity = personRepository.findOne(personId);
+        recordRollupService.deleteRollupsOfPerson(personId);
+        // records of retracted imports are not part of the person's record collections
+        workRecordRepository.purgeRetractedOfPerson(personId);
+        planRecordRepository.purgeRetractedOfPerson(personId);
         personRepository.delete(personId);
+        if (personEntity != null) {
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(personEntity.getProject().getId()));
+        }
     }
 
     @PreAuthorize("canReadBudget(#budgetId)")
@@ -182,11 +210,17 @@ public class PersonService {
 
     public void removeDailyRateFromPerson(PersonWithRates personWithRates, PersonRate rate) {
         List<WorkRecordEntity> records = workRecordRepository.findByPersonId(personWithRates.getPersonId());
+        Set<Long> affectedBudgetIds = new HashSet<>();
         for(WorkRecordEntity record : records){
             if(record.getBudget().getName().equals(rate.getBudget().getName()) && DateUtil.isDateInDateRange(record.getDate(), rate.getDateRange())){
                 record.setDailyRate(Money.zero(CurrencyUnit.EUR));
                 workRecordRepository.save(record);
+                affectedBudgetIds.add(record.getBudget().getId());
             }
         }
+        recordRollupService.refreshWorkRecordRollups(affectedBudgetIds);
+        if (!records.isEmpty()) {
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(records.get(0).getPerson().getProject().getId()));
+        }
     }
 }
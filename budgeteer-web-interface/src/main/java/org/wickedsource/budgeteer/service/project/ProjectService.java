@@ -18,6 +18,8 @@ import org.wickedsource.budgeteer.persistence.user.UserEntity;
 import org.wickedsource.budgeteer.persistence.user.UserRepository;
 import org.wickedsource.budgeteer.service.DateRange;
 import org.wickedsource.budgeteer.service.DateUtil;
+import org.wickedsource.budgeteer.service.notification.NotificationSnapshotStore;
+import org.wickedsource.budgeteer.service.record.RecordRollupService;
 import org.wickedsource.budgeteer.web.pages.administration.Project;
 
 import javax.transaction.Transactional;
@@ -63,6 +65,12 @@ public class ProjectService {
     @Autowired
     private ContractSortingRepository contractSortingRepository;
 
+    @Autowired
+    private RecordRollupService recordRollupService;
+
+    @Autowired
+    private NotificationSnapshotStore notificationSnapshotStore;
+
     /**
      * Creates a new empty project with the given name.
      *
@@ -118,6 +126,8 @@ public class ProjectService {
      */
     @PreAuthorize("canReadProject(#projectId)")
     public void deleteProject(long projectId) {
+        recordRollupService.deleteRollupsOfProject(projectId);
+        notificationSnapshotStore.remove(projectId);
         dailyRateRepository.deleteByProjectId(projectId);
         planRecordRepository.deleteByImportAndProjectId(projectId);
         workRecordRepository.deleteByImportAndProjectId(projectId);
@@ -1,6 +1,7 @@
 package org.wickedsource.budgeteer.service.record;
 
 import org.springframework.stereotype.Component;
+import org.wickedsource.budgeteer.LongKeyMap;
 import org.wickedsource.budgeteer.MoneyUtil;
 import org.wickedsource.budgeteer.persistence.record.*;
 import org.wickedsource.budgeteer.service.statistics.MonthlyStats;
@@ -57,43 +58,44 @@ public class RecordJoiner {
     }
 
     /**
-     * Goes through a list of records by time periods and sums up the money of all records for each period.
+     * Goes through a list of records sorted by time periods and sums up the money of all records for each period.
      *
-     * @param records a list of records to sum up
+     * @param records a list of records sorted by time periods
      * @return a list of the summed records
      */
     private List<AggregatedRecord> sumRecordsForEachPeriod(List<AggregatedRecord> records) {
-        int i = 0;
-        while (i < records.size() - 1) {
-            AggregatedRecord current = records.get(i);
-            current.removeNullValues();
-            AggregatedRecord next = records.get(i + 1);
+        if (records.size() < 2) {
+            return records;
+        }
+        List<AggregatedRecord> result = new ArrayList<>(records.size());
+        AggregatedRecord current = records.get(0);
+        current.removeNullValues();
+        for (int i = 1; i < records.size(); i++) {
+            AggregatedRecord next = records.get(i);
             next.removeNullValues();
-
-            // Create new record as a sum
             if (current.getAggregationPeriodStart().equals(next.getAggregationPeriodStart()) && current.getAggregationPeriodEnd().equals(next.getAggregationPeriodEnd())) {
-                AggregatedRecord sum = new AggregatedRecord();
-                sum.setAggregationPeriodTitle(current.getAggregationPeriodTitle());
-                sum.setAggregationPeriodStart(current.getAggregationPeriodStart());
-                sum.setAggregationPeriodEnd(current.getAggregationPeriodEnd());
-                sum.setHours(current.getHours() + next.getHours());
-
-                sum.setBudgetPlanned_net(MoneyUtil.sumMoney(current.getBudgetPlanned_net(), next.getBudgetPlanned_net()));
-                sum.setBudgetPlanned_gross(MoneyUtil.sumMoney(current.getBudgetPlanned_gross(), next.getBudgetPlanned_gross()));
-                sum.setBudgetBurned_net(MoneyUtil.sumMoney(current.getBudgetBurned_net(), next.getBudgetBurned_net()));
-                sum.setBudgetBurned_gross(MoneyUtil.sumMoney(current.getBudgetBurned_gross(), next.getBudgetBurned_gross()));
-
-                // Replace the two old records by their sum
-                records.remove(current);
-                records.remove(next);
-                records.add(i, sum);
+                current = sum(current, next);
             } else {
-                // Go to the next record
-                i++;
+                result.add(current);
+                current = next;
             }
         }
+        result.add(current);
+        return result;
+    }
 
-        return records;
+    private AggregatedRecord sum(AggregatedRecord current, AggregatedRecord next) {
+        AggregatedRecord sum = new AggregatedRecord();
+        sum.setAggregationPeriodTitle(current.getAggregationPeriodTitle());
+        sum.setAggregationPeriodStart(current.getAggregationPeriodStart());
+        sum.setAggregationPeriodEnd(current.getAggregationPeriodEnd());
+        sum.setHours(current.getHours() + next.getHours());
+
+        sum.setBudgetPlanned_net(MoneyUtil.sumMoney(current.getBudgetPlanned_net(), next.getBudgetPlanned_net()));
+        sum.setBudgetPlanned_gross(MoneyUtil.sumMoney(current.getBudgetPlanned_gross(), next.getBudgetPlanned_gross()));
+        sum.setBudgetBurned_net(MoneyUtil.sumMoney(current.getBudgetBurned_net(), next.getBudgetBurned_net()));
+        sum.setBudgetBurned_gross(MoneyUtil.sumMoney(current.getBudgetBurned_gross(), next.getBudgetBurned_gross()));
+        return sum;
     }
 
     public List<AggregatedRecord> joinMonthly(List<MonthlyAggregatedRecordBean> workRecords, List<MonthlyAggregatedRecordBean> planRecords) {
@@ -127,7 +129,7 @@ public class RecordJoiner {
         return recordList;
     }
 
-    class RecordMap extends HashMap<String, AggregatedRecord> {
+    class RecordMap extends LongKeyMap<AggregatedRecord> {
 
         public AggregatedRecord getOrCreateRecord(WeeklyAggregatedRecordBean recordBean) {
             AggregatedRecord record = get(getKey(recordBean));
@@ -164,12 +166,12 @@ public class RecordJoiner {
             return record;
         }
 
-        private String getKey(WeeklyAggregatedRecordBean recordBean) {
-            return String.format("%d%d", recordBean.getYear(), recordBean.getWeek());
+        private long getKey(WeeklyAggregatedRecordBean recordBean) {
+            return PeriodKey.of(recordBean.getYear(), 0, recordBean.getWeek(), 0);
         }
 
-        private String getKey(MonthlyAggregatedRecordBean recordBean) {
-            return String.format("%d%d", recordBean.getYear(), recordBean.getMonth());
+        private long getKey(MonthlyAggregatedRecordBean recordBean) {
+            return PeriodKey.of(recordBean.getYear(), recordBean.getMonth(), -1, 0);
         }
     }
 }
@@ -0,0 +1,105 @@
+package org.wickedsource.budgeteer.service.record;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRepository;
+import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRollupRepository;
+import org.wickedsource.budgeteer.persistence.record.IdPartitions;
+import org.wickedsource.budgeteer.persistence.record.PlanRecordRepository;
+import org.wickedsource.budgeteer.persistence.record.PlanRecordRollupRepository;
+import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
+import org.wickedsource.budgeteer.persistence.record.WorkRecordRollupRepository;
+
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maintains the weekly/monthly rollup tables of work, plan and manual records. Every service that changes records
+ * has to tell this service which budgets were affected, so that only the rollups of these budgets are rebuilt.
+ */
+@Service
+@Transactional
+public class RecordRollupService {
+
+    @Autowired
+    private WorkRecordRepository workRecordRepository;
+
+    @Autowired
+    private PlanRecordRepository planRecordRepository;
+
+    @Autowired
+    private ManualRecordRepository manualRecordRepository;
+
+    @Autowired
+    private WorkRecordRollupRepository workRecordRollupRepository;
+
+    @Autowired
+    private PlanRecordRollupRepository planRecordRollupRepository;
+
+    @Autowired
+    private ManualRecordRollupRepository manualRecordRollupRepository;
+
+    /**
+     * Rebuilds the work record rollups of the given budgets from their work records.
+     *
+     * @param budgetIds IDs of the budgets whose work records have changed.
+     */
+    public void refreshWorkRecordRollups(Collection<Long> budgetIds) {
+        for (List<Long> chunk : IdPartitions.of(budgetIds)) {
+            workRecordRollupRepository.deleteByBudgetIds(chunk);
+            workRecordRollupRepository.save(workRecordRepository.aggregateForRollup(chunk));
+        }
+    }
+
+    /**
+     * Rebuilds the plan record rollups of the given budgets from their plan records.
+     *
+     * @param budgetIds IDs of the budgets whose plan records have changed.
+     */
+    public void refreshPlanRecordRollups(Collection<Long> budgetIds) {
+        for (List<Long> chunk : IdPartitions.of(budgetIds)) {
+            planRecordRollupRepository.deleteByBudgetIds(chunk);
+            planRecordRollupRepository.save(planRecordRepository.aggregateForRollup(chunk));
+        }
+    }
+
+    /**
+     * Rebuilds the manual record rollups of the given budget from its manual records.
+     *
+     * @param budgetId ID of the budget whose manual records have changed.
+     */
+    public void refreshManualRecordRollups(long budgetId) {
+        manualRecordRollupRepository.deleteByBudgetId(budgetId);
+        manualRecordRollupRepository.save(manualRecordRepository.aggregateForRollup(budgetId));
+    }
+
+    /**
+     * Removes all rollups of the given budget. Must be called before the budget itself is deleted.
+     */
+    public void deleteRollupsOfBudget(long budgetId) {
+        List<Long> budgetIds = new ArrayList<>();
+        budgetIds.add(budgetId);
+        workRecordRollupRepository.deleteByBudgetIds(budgetIds);
+        planRecordRollupRepository.deleteByBudgetIds(budgetIds);
+        manualRecordRollupRepository.deleteByBudgetId(budgetId);
+    }
+
+    /**
+     * Removes all rollups of the given person. Must be called before the person itself is deleted.
+     */
+    public void deleteRollupsOfPerson(long personId) {
+        workRecordRollupRepository.deleteByPersonId(personId);
+        planRecordRollupRepository.deleteByPersonId(personId);
+    }
+
+    /**
+     * Removes all rollups of the budgets in the given project. Must be called before the budgets are deleted.
+     */
+    public void deleteRollupsOfProject(long projectId) {
+        workRecordRollupRepository.deleteByProjectId(projectId);
+        planRecordRollupRepository.deleteByProjectId(projectId);
+        manualRecordRollupRepository.deleteByProjectId(projectId);
+    }
+}
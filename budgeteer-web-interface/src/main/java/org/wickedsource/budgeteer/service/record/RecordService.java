@@ -1,13 +1,17 @@
 package org.wickedsource.budgeteer.service.record;
 
 import com.querydsl.core.types.Predicate;
+import org.joda.money.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.wickedsource.budgeteer.ListUtil;
+import org.wickedsource.budgeteer.MoneyUtil;
 import org.wickedsource.budgeteer.persistence.budget.BudgetRepository;
 import org.wickedsource.budgeteer.persistence.record.*;
 import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRepository;
+import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRollupRepository;
 import org.wickedsource.budgeteer.service.budget.BudgetTagFilter;
+import org.wickedsource.budgeteer.service.notification.ProjectDataChangedEvent;
 import org.wickedsource.budgeteer.service.statistics.MonthlyStats;
 
 import javax.transaction.Transactional;
@@ -35,6 +39,21 @@ public class RecordService {
     @Autowired
     private ManualRecordRepository manualRecordRepository;
 
+    @Autowired
+    private WorkRecordRollupRepository workRecordRollupRepository;
+
+    @Autowired
+    private PlanRecordRollupRepository planRecordRollupRepository;
+
+    @Autowired
+    private ManualRecordRollupRepository manualRecordRollupRepository;
+
+    @Autowired
+    private RecordRollupService recordRollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Loads the actual budget burned by the given person and the budget planned for this person aggregated by week.
      *
@@ -127,11 +146,11 @@ public class RecordService {
         List<WeeklyAggregatedRecordBean> workRecords;
 
         if (budgetFilter.getSelectedTags().isEmpty()) {
-            planRecords = planRecordRepository.aggregateByWeek(budgetFilter.getProjectId());
-            workRecords = workRecordRepository.aggregateByWeek(budgetFilter.getProjectId());
+            planRecords = planRecordRollupRepository.aggregateByWeek(budgetFilter.getProjectId());
+            workRecords = workRecordRollupRepository.aggregateByWeek(budgetFilter.getProjectId());
         } else {
-            planRecords = planRecordRepository.aggregateByWeekAndBudgetTags(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
-            workRecords = workRecordRepository.aggregateByWeekAndBudgetTags(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
+            planRecords = planRecordRollupRepository.aggregateByWeekAndBudgetTags(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
+            workRecords = workRecordRollupRepository.aggregateByWeekAndBudgetTags(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
         }
 
         return recordJoiner.joinWeekly(workRecords, planRecords);
@@ -149,13 +168,13 @@ public class RecordService {
         List<WeeklyAggregatedRecordWithTitleAndTaxBean> manualWorkRecords;
 
         if (budgetFilter.getSelectedTags().isEmpty()) {
-            workRecords = workRecordRepository.aggregateByWeekAndPersonForBudgetsWithTax(budgetFilter.getProjectId());
-            planRecords = planRecordRepository.aggregateByWeekForBudgetsWithTax(budgetFilter.getProjectId());
-            manualWorkRecords = manualRecordRepository.aggregateByWeekForBudgetsWithTax(budgetFilter.getProjectId());
+            workRecords = workRecordRollupRepository.aggregateByWeekAndPersonForBudgetsWithTax(budgetFilter.getProjectId());
+            planRecords = planRecordRollupRepository.aggregateByWeekForBudgetsWithTax(budgetFilter.getProjectId());
+            manualWorkRecords = manualRecordRollupRepository.aggregateByWeekForBudgetsWithTax(budgetFilter.getProjectId());
         } else {
-            workRecords = workRecordRepository.aggregateByWeekAndPersonForBudgetsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
-            planRecords = planRecordRepository.aggregateByWeekForBudgetsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
-            manualWorkRecords = manualRecordRepository.aggregateByWeekForBudgetsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
+            workRecords = workRecordRollupRepository.aggregateByWeekAndPersonForBudgetsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
+            planRecords = planRecordRollupRepository.aggregateByWeekForBudgetsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
+            manualWorkRecords = manualRecordRollupRepository.aggregateByWeekForBudgetsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
         }
         workRecords.addAll(manualWorkRecords);
         MonthlyStats monthlyStats = new MonthlyStats(budgetFilter, workRecordRepository, planRecordRepository);
@@ -172,11 +191,11 @@ public class RecordService {
         List<MonthlyAggregatedRecordBean> planRecords;
         List<MonthlyAggregatedRecordBean> workRecords;
         if (budgetFilter.getSelectedTags().isEmpty()) {
-            workRecords = workRecordRepository.aggregateByMonth(budgetFilter.getProjectId());
-            planRecords = planRecordRepository.aggregateByMonth(budgetFilter.getProjectId());
+            workRecords = workRecordRollupRepository.aggregateByMonth(budgetFilter.getProjectId());
+            planRecords = planRecordRollupRepository.aggregateByMonth(budgetFilter.getProjectId());
         } else {
-            workRecords = workRecordRepository.aggregateByMonthAndBudgetTags(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
-            planRecords = planRecordRepository.aggregateByMonthAndBudgetTags(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
+            workRecords = workRecordRollupRepository.aggregateByMonthAndBudgetTags(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
+            planRecords = planRecordRollupRepository.aggregateByMonthAndBudgetTags(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
         }
         return recordJoiner.joinMonthly(workRecords, planRecords);
     }
@@ -193,13 +212,13 @@ public class RecordService {
         List<MonthlyAggregatedRecordWithTaxBean> manualWorkRecords;
 
         if (budgetFilter.getSelectedTags().isEmpty()) {
-            workRecords = workRecordRepository.aggregateByMonthWithTax(budgetFilter.getProjectId());
-            planRecords = planRecordRepository.aggregateByMonthWithTax(budgetFilter.getProjectId());
-            manualWorkRecords = manualRecordRepository.aggregateByMonthWithTax(budgetFilter.getProjectId());
+            workRecords = workRecordRollupRepository.aggregateByMonthWithTax(budgetFilter.getProjectId());
+            planRecords = planRecordRollupRepository.aggregateByMonthWithTax(budgetFilter.getProjectId());
+            manualWorkRecords = manualRecordRollupRepository.aggregateByMonthWithTax(budgetFilter.getProjectId());
         } else {
-            workRecords = workRecordRepository.aggregateByMonthAndBudgetTagsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
-            planRecords = planRecordRepository.aggregateByMonthAndBudgetTagsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
-            manualWorkRecords = manualRecordRepository.aggregateByMonthAndBudgetTagsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
+            workRecords = workRecordRollupRepository.aggregateByMonthAndBudgetTagsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
+            planRecords = planRecordRollupRepository.aggregateByMonthAndBudgetTagsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
+            manualWorkRecords = manualRecordRollupRepository.aggregateByMonthAndBudgetTagsWithTax(budgetFilter.getProjectId(), budgetFilter.getSelectedTags());
         }
 
         workRecords.addAll(manualWorkRecords);
@@ -208,39 +227,36 @@ public class RecordService {
     }
 
     /**
-     * Loads the records from the database that match the given filter. If a filter criterion is left empty (null) it
-     * will not be applied.
+     * Loads a single page of the records that match the given filter, sorted by the column and sort type of the filter.
+     * Sorting and paging is done by the database, so only the requested records are loaded.
      *
      * @param filter the filter to apply when loading records.
-     * @return filtered list of records.
+     * @param first  index of the first record to load.
+     * @param count  maximum number of records to load.
+     * @return the requested page of filtered records.
      */
-    public List<WorkRecord> getFilteredRecords(WorkRecordFilter filter) {
+    public List<WorkRecord> getFilteredRecords(WorkRecordFilter filter, long first, long count) {
         Predicate query = WorkRecordQueries.findByFilter(filter);
-        List<WorkRecord> workRecords = recordMapper.map(ListUtil.toArrayList(workRecordRepository.findAll(query)));
-        switch (filter.getColumnToSort().getObject()) {
-            case BUDGET:
-                workRecords.sort(Comparator.comparing(WorkRecord::getBudgetName));
-                break;
-            case NAME:
-                workRecords.sort(Comparator.comparing(WorkRecord::getPersonName));
-                break;
-            case DAILY_RATE:
-                workRecords.sort(Comparator.comparing(WorkRecord::getDailyRate));
-                break;
-            case DATE:
-                workRecords.sort(Comparator.comparing(WorkRecord::getDate));
-                break;
-            case HOURS:
-                workRecords.sort(Comparator.comparing(WorkRecord::getHours));
-                break;
-            case BUDGET_BURNED:
-                workRecords.sort(Comparator.comparing(WorkRecord::getBudgetBurned));
-                break;
-        }
-        if (filter.getSortType().getObject().equals("Descending")) {
-            Collections.reverse(workRecords);
-        }
-        return workRecords;
+        return recordMapper.mapBeans(workRecordRepository.findBeans(query, WorkRecordQueries.getOrder(filter), first, count));
+    }
+
+    /**
+     * @param filter the filter to apply when counting records.
+     * @return the number of records that match the given filter.
+     */
+    public long countFilteredRecords(WorkRecordFilter filter) {
+        return workRecordRepository.count(WorkRecordQueries.findByFilter(filter));
+    }
+
+    /**
+     * Calculates the budget burned by all records that match the given filter.
+     *
+     * @param filter the filter to apply when summing up records.
+     * @return the budget burned by the filtered records.
+     */
+    public Money getFilteredRecordsTotal(WorkRecordFilter filter) {
+        long weightedMinutes = workRecordRepository.getWeightedMinutes(WorkRecordQueries.findByFilter(filter));
+        return MoneyUtil.createMoneyFromCents(weightedMinutes / 60 / 8);
     }
 
     public void saveDailyRateForWorkRecord(WorkRecord record) {
@@ -248,6 +264,8 @@ public class RecordService {
         entity.setDailyRate(record.getDailyRate());
         entity.setEditedManually(record.isEditedManually());
         workRecordRepository.save(entity);
+        recordRollupService.refreshWorkRecordRollups(Collections.singletonList(entity.getBudget().getId()));
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(entity.getBudget().getProject().getId()));
     }
 
     /**
@@ -256,73 +274,7 @@ public class RecordService {
      * @return All missing daily rates for the project.
      */
     public List<MissingDailyRateBean> getMissingDailyRatesForProject(long projectId) {
-        List<MissingDailyRateBean> result = new ArrayList<>();
-        List<WorkRecordEntity> dailyRatesForProject = workRecordRepository.findByProjectId(projectId);
-
-        //If we only have one daily Rate, see if it's zero and return as missing.
-        if(dailyRatesForProject.size() == 1){
-            WorkRecordEntity wr = dailyRatesForProject.get(0);
-            if(wr.getDailyRate().isZero()){
-                result.add(new MissingDailyRateBean(wr.getPerson().getId(), wr.getPerson().getName(), wr.getDate(), wr.getDate()));
-                return result;
-            }
-        }
-
-        //Sort the daily rates by person names, record dates and record budget.
-        //This is needed in the loop below.
-        dailyRatesForProject.sort((o1, o2) -> {
-            int names = o1.getPerson().getName().compareTo(o2.getPerson().getName());
-            if (names == 0) {
-                int dates = o1.getBudget().getName().compareTo(o2.getBudget().getName());
-                if(dates == 0){
-                    return o1.getDate().compareTo(o2.getDate());
-                }else{
-                    return dates;
-                }
-            } else {
-                return names;
-            }
-        });
-
-        Date endDate = null;
-        Date startDate = null;
-
-        //We check the rates in a loop and see if any two are adjacent (are both zero)
-        //and then we merge those into one MissingDailyRateBean
-        for(int i = 0; i < dailyRatesForProject.size() - 1; i++){
-            WorkRecordEntity rate1 = dailyRatesForProject.get(i);
-            WorkRecordEntity rate2 = dailyRatesForProject.get(i+1);
-            if(!rate1.getDailyRate().isZero()){
-                continue;
-            }
-            if(startDate == null) {
-                endDate = rate2.getDate();
-                startDate = rate1.getDate();
-            }
-
-            if(rate1.getDailyRate().isZero() && rate2.getDailyRate().isZero()
-                    && rate1.getPerson().getId() == rate2.getPerson().getId()
-                    && rate1.getBudget().getId() == rate2.getBudget().getId()){
-                endDate = rate2.getDate();
-
-                //If we are the end of the list.
-                if(i+1 == dailyRatesForProject.size() - 1){
-                    result.add(new MissingDailyRateBean(rate1.getPerson().getId(),
-                            rate1.getPerson().getName(), startDate, endDate));
-                }
-            }else{
-                //If the next rate belongs to a different person and is not zero, then set the end date of the missing record to the last one checked for this person.
-                if(rate1.getPerson().getId() != rate2.getPerson().getId() || !rate2.getDailyRate().isZero()){
-                    endDate = rate1.getDate();
-                }
-                MissingDailyRateBean missingDailyRateBean = new MissingDailyRateBean(rate1.getPerson().getId(),
-                        rate1.getPerson().getName(), startDate, endDate);
-                result.add(missingDailyRateBean);
-                startDate = null;
-            }
-        }
-
-        return result;
+        return new ArrayList<>(workRecordRepository.getMissingDailyRatesForProject(projectId));
     }
 
     /**
@@ -331,62 +283,6 @@ public class RecordService {
      * @return All daily rates for that person which are zero.
      */
     public List<MissingDailyRateForBudgetBean> getMissingDailyRatesForPerson(long personId) {
-        List<MissingDailyRateForBudgetBean> result = new ArrayList<>();
-        List<WorkRecordEntity> dailyRatesForPerson = workRecordRepository.findByPersonId(personId);
-
-        //If there is only one entity
-        if(dailyRatesForPerson.size() == 1){
-            WorkRecordEntity wr = dailyRatesForPerson.get(0);
-            if(wr.getDailyRate().isZero()){
-                result.add(new MissingDailyRateForBudgetBean(wr.getPerson().getId(), wr.getPerson().getName(), wr.getDate(), wr.getDate(), wr.getBudget().getName()));
-                return result;
-            }
-        }
-
-        //Sort by date and budget name, this is needed in the loop below.
-        dailyRatesForPerson.sort((o1, o2) -> {
-            int dates = o1.getBudget().getName().compareTo(o2.getBudget().getName());
-            if(dates == 0){
-                return o1.getDate().compareTo(o2.getDate());
-            }else{
-                return dates;
-            }
-        });
-
-        Date startDate = null;
-
-        //We check the rates in a loop and see if any two are adjacent (are both zero)
-        //and then we merge those into one MissingDailyRateForBudgetBean
-        for(int i = 0; i < dailyRatesForPerson.size() - 1; i++){
-            WorkRecordEntity rate1 = dailyRatesForPerson.get(i);
-            WorkRecordEntity rate2 = dailyRatesForPerson.get(i+1);
-            if(!rate1.getDailyRate().isZero()){
-                if(i+1 == dailyRatesForPerson.size()-1 && rate2.getDailyRate().isZero()) {
-                    result.add(new MissingDailyRateForBudgetBean(rate2.getPerson().getId(),
-                            rate2.getPerson().getName(), rate2.getDate(), rate2.getDate(), rate2.getBudget().getName()));
-                    return result;
-                }else{
-                    continue;
-                }
-            }
-            if(startDate == null) {
-                startDate = rate1.getDate();
-            }
-
-            if(rate1.getDailyRate().isZero() && rate2.getDailyRate().isZero()
-                    && rate1.getBudget().getId() == rate2.getBudget().getId()){
-                //If we are the end of the list
-                if(i+1 == dailyRatesForPerson.size() - 1){
-                    result.add(new MissingDailyRateForBudgetBean(rate1.getPerson().getId(),
-                            rate1.getPerson().getName(), startDate, rate2.getDate(), rate1.getBudget().getName()));
-                }
-            }else{
-                MissingDailyRateForBudgetBean missingDailyRateBean = new MissingDailyRateForBudgetBean(rate1.getPerson().getId(),
-                        rate1.getPerson().getName(), startDate, rate1.getDate(), rate1.getBudget().getName());
-                result.add(missingDailyRateBean);
-                startDate = null;
-            }
-        }
-        return result;
+        return workRecordRepository.getMissingDailyRatesForPerson(personId);
     }
 }
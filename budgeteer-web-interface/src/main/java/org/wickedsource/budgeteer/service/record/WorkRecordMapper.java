@@ -1,10 +1,13 @@
 package org.wickedsource.budgeteer.service.record;
 
 import org.springframework.stereotype.Component;
+import org.wickedsource.budgeteer.persistence.record.WorkRecordBean;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordEntity;
 import org.wickedsource.budgeteer.service.AbstractMapper;
 
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class WorkRecordMapper extends AbstractMapper<WorkRecordEntity, WorkRecord> {
@@ -22,4 +25,25 @@ public class WorkRecordMapper extends AbstractMapper<WorkRecordEntity, WorkRecor
         record.setEditedManually(entity.isEditedManually() != null ? entity.isEditedManually(): false);
         return record;
     }
+
+    public WorkRecord map(WorkRecordBean bean) {
+        WorkRecord record = new WorkRecord();
+        record.setId(bean.getId());
+        record.setBudgetBurned(bean.getDailyRate().multipliedBy(bean.getMinutes()).dividedBy(60, RoundingMode.FLOOR).dividedBy(8, RoundingMode.FLOOR));
+        record.setPersonName(bean.getPersonName());
+        record.setHours(bean.getMinutes() / 60d);
+        record.setDate(bean.getDate());
+        record.setBudgetName(bean.getBudgetName());
+        record.setDailyRate(bean.getDailyRate());
+        record.setEditedManually(bean.getEditedManually() != null ? bean.getEditedManually() : false);
+        return record;
+    }
+
+    public List<WorkRecord> mapBeans(List<WorkRecordBean> beans) {
+        List<WorkRecord> result = new ArrayList<>(beans.size());
+        for (WorkRecordBean bean : beans) {
+            result.add(map(bean));
+        }
+        return result;
+    }
 }
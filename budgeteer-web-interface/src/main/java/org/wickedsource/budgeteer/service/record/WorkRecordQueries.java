@@ -1,15 +1,20 @@
 package org.wickedsource.budgeteer.service.record;
 
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
 import org.wickedsource.budgeteer.persistence.record.QWorkRecordEntity;
 
 public class WorkRecordQueries {
 
     /**
-     * @deprecated should be re-implemented using criteria api to load "flat" objects instead of a WorkRecordEntity!!!
+     * Creates a predicate matching the work records selected by the given filter. Use it with
+     * {@link org.wickedsource.budgeteer.persistence.record.WorkRecordRepository#findBeans} to load flat beans instead
+     * of full WorkRecordEntities.
      */
-    @Deprecated
     public static Predicate findByFilter(WorkRecordFilter filter) {
         QWorkRecordEntity record = QWorkRecordEntity.workRecordEntity;
         BooleanExpression expression = record.budget.project.id.eq(filter.getProjectId());
@@ -30,6 +35,43 @@ public class WorkRecordQueries {
         return expression;
     }
 
+    /**
+     * Creates the order of the work records selected by the column and sort type of the given filter. The ID is
+     * appended as last order criteria so that pages of equal values are stable.
+     */
+    public static OrderSpecifier<?>[] getOrder(WorkRecordFilter filter) {
+        QWorkRecordEntity record = QWorkRecordEntity.workRecordEntity;
+        Order order = "Descending".equals(filter.getSortType().getObject()) ? Order.DESC : Order.ASC;
+        Expression<? extends Comparable> column;
+        switch (filter.getColumnToSort().getObject()) {
+            case NAME:
+                column = record.person.name;
+                break;
+            case DAILY_RATE:
+                column = record.dailyRate;
+                break;
+            case DATE:
+                column = record.date;
+                break;
+            case HOURS:
+                column = record.minutes;
+                break;
+            case BUDGET_BURNED:
+                column = Expressions.numberTemplate(Long.class, "{0} * {1}", record.minutes, record.dailyRate);
+                break;
+            case BUDGET:
+            default:
+                column = record.budget.name;
+                break;
+        }
+        return new OrderSpecifier<?>[]{orderSpecifier(order, column), new OrderSpecifier<>(order, record.id)};
+    }
+
+    @SuppressWarnings("unchecked")
+    private static OrderSpecifier<?> orderSpecifier(Order order, Expression<? extends Comparable> column) {
+        return new OrderSpecifier(order, column);
+    }
+
     private static BooleanExpression getBudgetExpression(WorkRecordFilter filter, QWorkRecordEntity record) {
         BooleanExpression result = null;
         for (int index = 0; index < filter.getBudgetList().size(); index++) {
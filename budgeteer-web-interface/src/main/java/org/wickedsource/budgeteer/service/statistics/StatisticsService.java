@@ -805,32 +805,36 @@ public class StatisticsService {
     }
 
     public List<ContractStatisticBean> getMonthlyAggregatedStatisticsForContract(long contractId, int numberOfMonths) {
-        List<ContractStatisticBean> result = new LinkedList<>();
         Date startDate = dateUtil.monthsAgo(numberOfMonths);
         Calendar cal = Calendar.getInstance();
         cal.setTime(startDate);
-        Calendar currentDate = Calendar.getInstance();
-        currentDate.setTime(new Date());
-        while (cal.before(currentDate)) {
-            ContractStatisticBean bean = contractRepository.getContractStatisticAggregatedByMonthAndYear(contractId, cal.get(Calendar.MONTH), cal.get(Calendar.YEAR));
-            result.add(bean);
-            cal.add(Calendar.MONTH, 1);
-        }
-        return result;
+        return contractRepository.getContractStatisticsAggregatedByMonth(Collections.singletonList(contractId),
+                cal.get(Calendar.YEAR), cal.get(Calendar.MONTH), countMonthsUntilNow(startDate))
+                .getOrDefault(contractId, Collections.emptyList());
     }
 
     public List<ContractStatisticBean> getMonthlyStatisticsForContract(long contractId, Date startDate) {
-        List<ContractStatisticBean> result = new LinkedList<>();
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(startDate);
+        return contractRepository.getContractStatisticsByMonth(Collections.singletonList(contractId),
+                cal.get(Calendar.YEAR), cal.get(Calendar.MONTH), countMonthsUntilNow(startDate))
+                .getOrDefault(contractId, Collections.emptyList());
+    }
+
+    /**
+     * Counts the months from the given date on that start before now.
+     */
+    private int countMonthsUntilNow(Date startDate) {
         Calendar cal = Calendar.getInstance();
         cal.setTime(startDate);
         Calendar currentDate = Calendar.getInstance();
         currentDate.setTime(new Date());
+        int numberOfMonths = 0;
         while (cal.before(currentDate)) {
-            ContractStatisticBean bean = contractRepository.getContractStatisticByMonthAndYear(contractId, cal.get(Calendar.MONTH), cal.get(Calendar.YEAR));
-            result.add(bean);
+            numberOfMonths++;
             cal.add(Calendar.MONTH, 1);
         }
-        return result;
+        return numberOfMonths;
     }
 
     public ContractDetailBudgetChart getMonthlyBudgetBurnedForContract(long contractId, int numberOfMonths) {
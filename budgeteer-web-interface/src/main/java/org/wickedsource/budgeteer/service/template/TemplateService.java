@@ -2,13 +2,16 @@ package org.wickedsource.budgeteer.service.template;
 
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.util.IOUtils;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.wicket.model.IModel;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.wickedsource.budgeteer.imports.api.ExampleFile;
 import org.wickedsource.budgeteer.imports.api.ImportFile;
+import org.wickedsource.budgeteer.persistence.attachment.AttachmentStore;
 import org.wickedsource.budgeteer.persistence.template.TemplateEntity;
+import org.wickedsource.budgeteer.persistence.template.TemplateMetadataBean;
 import org.wickedsource.budgeteer.persistence.template.TemplateRepository;
 import org.wickedsource.budgeteer.service.ReportType;
 import org.wickedsource.budgeteer.web.pages.templates.TemplateFilter;
@@ -16,7 +19,11 @@ import org.wickedsource.budgeteer.web.pages.templates.templateimport.TemplateFor
 
 import javax.transaction.Transactional;
 import javax.validation.constraints.NotNull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,26 +34,33 @@ public class TemplateService {
     @Autowired
     private TemplateRepository templateRepository;
 
+    @Autowired
+    private TemplateWorkbookCache workbookCache;
+
+    @Autowired
+    private AttachmentStore attachmentStore;
+
     /**
+     * The templates of the listings do not contain their workbook, use {@link #getById(long)} to get it.
      *
      * @return All the templates from the repository.
      */
     public List<Template> getTemplates(){
         List<Template> result = new ArrayList<>();
-        for(TemplateEntity E : templateRepository.findAll()){
-            result.add(new Template(E.getId(), E.getName(), E.getDescription(), E.getType(), E.getWb(), E.isDefault(), E.getProjectId()));
+        for(TemplateMetadataBean E : templateRepository.findAllMetadata()){
+            result.add(new Template(E.getId(), E.getName(), E.getDescription(), E.getType(), null, E.isDefault(), E.getProjectId()));
         }
         return result;
     }
 
     /**
      * @param projectID The ID of the current project.
-     * @return All the templates in the current project.
+     * @return All the templates in the current project, without their workbook.
      */
     public List<Template> getTemplatesInProject(long projectID){
         List<Template> result = new ArrayList<>();
-        for(TemplateEntity E : templateRepository.findByProjectId(projectID)){
-            result.add(new Template(E.getId(), E.getName(), E.getDescription(), E.getType() , E.getWb(), E.isDefault(), E.getProjectId()));
+        for(TemplateMetadataBean E : templateRepository.findMetadataByProjectId(projectID)){
+            result.add(new Template(E.getId(), E.getName(), E.getDescription(), E.getType(), null, E.isDefault(), E.getProjectId()));
         }
         return result;
     }
@@ -64,14 +78,14 @@ public class TemplateService {
 
     /**
      * @param filter The Filter to use.
-     * @return All the templates in the current project.
+     * @return All the templates in the current project, without their workbook.
      */
     public List<Template> getFilteredTemplatesInProject(@NotNull TemplateFilter filter){
         List<Template> result = new ArrayList<>();
-        for(TemplateEntity E : templateRepository.findByProjectId(filter.getProjectId())){
+        for(TemplateMetadataBean E : templateRepository.findMetadataByProjectId(filter.getProjectId())){
             for(ReportType type : filter.getTypesList()){
                 if(type == E.getType()){
-                    result.add(new Template(E.getId(), E.getName(), E.getDescription(), E.getType(), E.getWb(), E.isDefault(), E.getProjectId()));
+                    result.add(new Template(E.getId(), E.getName(), E.getDescription(), E.getType(), null, E.isDefault(), E.getProjectId()));
                 }
             }
         }
@@ -81,14 +95,17 @@ public class TemplateService {
     /**
      * Returns a template from the database given it's ID.
      * @param templateID The ID of the template.
-     * @return A new Template object.
+     * @return A new Template object with its own copy of the workbook.
      */
     public Template getById(long templateID){
-        TemplateEntity templateEntity = templateRepository.findOne(templateID);
-        if(templateEntity == null){
+        TemplateMetadataBean template = templateRepository.findMetadataById(templateID);
+        if(template == null){
             return null;
         } else {
-            return templateEntity.getTemplate();
+            XSSFWorkbook wb = workbookCache.getWorkbook(templateID, template.getContentHash(),
+                    () -> readWorkbook(template.getContentHash()));
+            return new Template(template.getId(), template.getName(), template.getDescription(), template.getType(), wb,
+                    template.isDefault(), template.getProjectId());
         }
     }
 
@@ -98,15 +115,16 @@ public class TemplateService {
      */
     public void deleteTemplate(long templateID){
         templateRepository.delete(templateID);
+        workbookCache.evict(templateID);
     }
 
     public void resolveDefaults(long templateId, IModel<TemplateFormInputDto> temModel){
         if(temModel.getObject().isDefault()){
-            for(TemplateEntity E : templateRepository.findAll()){
+            for(TemplateMetadataBean E : templateRepository.findAllMetadata()){
                 if(E.getType() == temModel.getObject().getType() && E.getId() != templateId){
                     if(E.isDefault()){
                         templateRepository.save(new TemplateEntity(E.getId(), E.getName(), E.getDescription(), E.getType(),
-                                E.getWb(), false, E.getProjectId()));
+                                E.getContentHash(), false, E.getProjectId()));
                     }
                 }
             }
@@ -128,10 +146,11 @@ public class TemplateService {
                 temp = new TemplateEntity(templateId, temModel.getObject().getName(),
                         temModel.getObject().getDescription(),
                         temModel.getObject().getType(),
-                        (XSSFWorkbook)WorkbookFactory.create(importFile.getInputStream()),
+                        storeWorkbook((XSSFWorkbook)WorkbookFactory.create(importFile.getInputStream())),
                         temModel.getObject().isDefault(),
                         projectId);
                 templateRepository.save(temp);
+                workbookCache.evict(templateId);
             } catch (IOException | InvalidFormatException e) {
                 e.printStackTrace();
             }
@@ -139,10 +158,11 @@ public class TemplateService {
             temp = new TemplateEntity(templateId, temModel.getObject().getName(),
                     temModel.getObject().getDescription(),
                     temModel.getObject().getType(),
-                    getById(templateId).getWb(),
+                    templateRepository.findMetadataById(templateId).getContentHash(),
                     temModel.getObject().isDefault(),
                     projectId);
             templateRepository.save(temp);
+            workbookCache.evict(templateId);
         }
     }
 
@@ -157,7 +177,7 @@ public class TemplateService {
             TemplateEntity temp = new TemplateEntity(temModel.getObject().getName(),
                     temModel.getObject().getDescription(),
                     temModel.getObject().getType(),
-                    (XSSFWorkbook)WorkbookFactory.create(importFile.getInputStream()),
+                    storeWorkbook((XSSFWorkbook)WorkbookFactory.create(importFile.getInputStream())),
                     temModel.getObject().isDefault(),
                     projectId);
             resolveDefaults(temp.getId(), temModel);
@@ -167,6 +187,27 @@ public class TemplateService {
         }
     }
 
+    /**
+     * Writes the workbook into the attachment store.
+     * @return The reference of the workbook, its content hash.
+     */
+    private String storeWorkbook(XSSFWorkbook workbook) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return attachmentStore.store(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private byte[] readWorkbook(String contentHash) {
+        if (contentHash == null) {
+            return null;
+        }
+        try (InputStream in = attachmentStore.open(contentHash)) {
+            return IOUtils.toByteArray(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the template " + contentHash + " from the attachment store.", e);
+        }
+    }
+
     /**
      * Reads an example template file from disk.
      * The file must be named like in the following format:
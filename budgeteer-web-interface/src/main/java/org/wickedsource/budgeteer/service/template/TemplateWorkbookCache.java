@@ -0,0 +1,97 @@
+package org.wickedsource.budgeteer.service.template;
+
+import lombok.Value;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the workbooks of the most recently used templates, so that they are not read from the attachment store for
+ * every report. Entries are keyed by template ID and content hash, a template whose workbook has been replaced gets a new
+ * entry and the old one is evicted eventually.
+ * <p>
+ * The reports write into the template workbook, so every caller gets its own copy. POI cannot copy a workbook in
+ * memory, the copies are read from the cached bytes.
+ */
+@Component
+public class TemplateWorkbookCache {
+
+    /**
+     * Templates are at most 2 MB, so the cache holds at most 32 MB.
+     */
+    static final int MAX_ENTRIES = 16;
+
+    private final Map<Key, byte[]> workbooks = new LinkedHashMap<Key, byte[]>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * @param templateId  ID of the template.
+     * @param contentHash hash of the workbook of the template, null if the template has no workbook.
+     * @param loader      loads the serialized workbook if it is not cached.
+     * @return a new copy of the workbook, null if the template has no workbook.
+     * @throws UncheckedIOException if the content is not a valid workbook. The content is not kept in the cache then.
+     */
+    public XSSFWorkbook getWorkbook(long templateId, String contentHash, Supplier<byte[]> loader) {
+        Key key = new Key(templateId, contentHash);
+        byte[] content;
+        synchronized (workbooks) {
+            content = workbooks.get(key);
+        }
+        if (content == null) {
+            content = loader.get();
+            if (content == null) {
+                return null;
+            }
+            synchronized (workbooks) {
+                workbooks.put(key, content);
+            }
+        }
+        try {
+            return (XSSFWorkbook) WorkbookFactory.create(new ByteArrayInputStream(content));
+        } catch (IOException e) {
+            throw invalidWorkbook(key, e);
+        } catch (InvalidFormatException e) {
+            throw invalidWorkbook(key, new IOException(e));
+        }
+    }
+
+    private UncheckedIOException invalidWorkbook(Key key, IOException cause) {
+        synchronized (workbooks) {
+            workbooks.remove(key);
+        }
+        return new UncheckedIOException("Could not read the workbook of template " + key.getTemplateId() + ".", cause);
+    }
+
+    /**
+     * Removes all cached workbooks of the given template.
+     */
+    public void evict(long templateId) {
+        synchronized (workbooks) {
+            workbooks.keySet().removeIf(key -> key.getTemplateId() == templateId);
+        }
+    }
+
+    int size() {
+        synchronized (workbooks) {
+            return workbooks.size();
+        }
+    }
+
+    @Value
+    private static class Key {
+        long templateId;
+        String contentHash;
+    }
+}
@@ -1,11 +1,15 @@
 package org.wickedsource.budgeteer.web.components.burntable;
 
 import org.apache.wicket.Page;
-import org.apache.wicket.markup.html.link.DownloadLink;
+import org.apache.wicket.markup.html.link.Link;
 import org.apache.wicket.markup.html.panel.Panel;
-import org.apache.wicket.model.AbstractReadOnlyModel;
-import org.apache.wicket.model.IModel;
+import org.apache.wicket.request.IRequestCycle;
+import org.apache.wicket.request.handler.resource.ResourceStreamRequestHandler;
+import org.apache.wicket.request.http.WebRequest;
+import org.apache.wicket.request.http.WebResponse;
 import org.apache.wicket.request.mapper.parameter.PageParameters;
+import org.apache.wicket.request.resource.ContentDisposition;
+import org.apache.wicket.util.resource.AbstractResourceStreamWriter;
 import org.wickedsource.budgeteer.service.exports.ExportService;
 import org.wickedsource.budgeteer.service.record.WorkRecordFilter;
 import org.wickedsource.budgeteer.web.components.burntable.filter.FilterPanel;
@@ -13,7 +17,8 @@ import org.wickedsource.budgeteer.web.components.burntable.filter.FilteredRecord
 import org.wickedsource.budgeteer.web.components.burntable.table.BurnTable;
 
 import javax.inject.Inject;
-import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 
 public class BurnTableWithFilter extends Panel {
 
@@ -38,16 +43,41 @@ public class BurnTableWithFilter extends Panel {
         burnTable = new BurnTable("table", tableModel, dailyRateIsEditable);
         add(burnTable);
 
-        IModel<File> fileModel = new AbstractReadOnlyModel<File>() {
+        add(new Link<Void>("export") {
             @Override
-            public File getObject() {
-                return exportService.generateCSVFileFromRecords(burnTable.getRows());
+            public void onClick() {
+                exportRecords(tableModel.getFilter());
+            }
+        });
+    }
+
+    /**
+     * Streams the records matching the given filter as CSV directly into the response, gzip compressed if the
+     * browser accepts it.
+     */
+    private void exportRecords(WorkRecordFilter filter) {
+        String acceptEncoding = ((WebRequest) getRequest()).getHeader("Accept-Encoding");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        AbstractResourceStreamWriter resourceStream = new AbstractResourceStreamWriter() {
+            @Override
+            public void write(OutputStream output) throws IOException {
+                exportService.writeCSVFromRecords(filter, output, gzip);
             }
-        };
 
-        DownloadLink downloadlink = new DownloadLink("export", fileModel);
-        downloadlink.setDeleteAfterDownload(true);
-        add(downloadlink);
+            @Override
+            public String getContentType() {
+                return "text/csv";
+            }
+        };
+        getRequestCycle().scheduleRequestHandlerAfterCurrent(new ResourceStreamRequestHandler(resourceStream) {
+            @Override
+            public void respond(IRequestCycle requestCycle) {
+                if (gzip) {
+                    ((WebResponse) requestCycle.getResponse()).setHeader("Content-Encoding", "gzip");
+                }
+                super.respond(requestCycle);
+            }
+        }.setFileName("export.csv").setContentDisposition(ContentDisposition.ATTACHMENT));
     }
 
     public boolean isPersonFilterEnabled() {
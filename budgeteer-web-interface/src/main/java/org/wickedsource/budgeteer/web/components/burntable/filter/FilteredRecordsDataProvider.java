@@ -0,0 +1,53 @@
+package org.wickedsource.budgeteer.web.components.burntable.filter;
+
+import org.apache.wicket.injection.Injector;
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.spring.injection.annot.SpringBean;
+import org.wickedsource.budgeteer.service.record.RecordService;
+import org.wickedsource.budgeteer.service.record.WorkRecord;
+
+import java.util.Iterator;
+
+/**
+ * Loads the records matching the filter of a {@link FilteredRecordsModel} one page at a time. The number of matching
+ * records is cached until the provider is detached.
+ */
+public class FilteredRecordsDataProvider implements IDataProvider<WorkRecord> {
+
+    @SpringBean
+    private RecordService service;
+
+    private FilteredRecordsModel filterModel;
+
+    private transient Long size;
+
+    public FilteredRecordsDataProvider(FilteredRecordsModel filterModel) {
+        Injector.get().inject(this);
+        this.filterModel = filterModel;
+    }
+
+    @Override
+    public Iterator<? extends WorkRecord> iterator(long first, long count) {
+        return service.getFilteredRecords(filterModel.getFilter(), first, count).iterator();
+    }
+
+    @Override
+    public long size() {
+        if (size == null) {
+            size = service.countFilteredRecords(filterModel.getFilter());
+        }
+        return size;
+    }
+
+    @Override
+    public IModel<WorkRecord> model(WorkRecord object) {
+        return Model.of(object);
+    }
+
+    @Override
+    public void detach() {
+        size = null;
+    }
+}
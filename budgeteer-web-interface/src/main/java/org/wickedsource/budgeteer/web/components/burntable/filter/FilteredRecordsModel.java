@@ -1,36 +1,23 @@
 package org.wickedsource.budgeteer.web.components.burntable.filter;
 
-import org.apache.wicket.injection.Injector;
-import org.apache.wicket.model.LoadableDetachableModel;
-import org.apache.wicket.spring.injection.annot.SpringBean;
-import org.wickedsource.budgeteer.service.record.RecordService;
-import org.wickedsource.budgeteer.service.record.WorkRecord;
+import org.apache.wicket.model.Model;
 import org.wickedsource.budgeteer.service.record.WorkRecordFilter;
 
-import java.util.List;
-
-public class FilteredRecordsModel extends LoadableDetachableModel<List<WorkRecord>> {
-
-    @SpringBean
-    private RecordService service;
-
-    private WorkRecordFilter filter;
+/**
+ * Holds the filter of the records displayed in a burn table. The records themselves are loaded page by page by a
+ * {@link FilteredRecordsDataProvider}.
+ */
+public class FilteredRecordsModel extends Model<WorkRecordFilter> {
 
     public FilteredRecordsModel(WorkRecordFilter filter) {
-        Injector.get().inject(this);
-        this.filter = filter;
-    }
-
-    @Override
-    protected List<WorkRecord> load() {
-        return service.getFilteredRecords(filter);
+        super(filter);
     }
 
     public WorkRecordFilter getFilter() {
-        return filter;
+        return getObject();
     }
 
     public void setFilter(WorkRecordFilter filter) {
-        this.filter = filter;
+        setObject(filter);
     }
 }
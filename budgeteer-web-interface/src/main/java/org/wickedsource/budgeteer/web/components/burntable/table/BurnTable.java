@@ -13,12 +13,12 @@ import org.apache.wicket.markup.html.panel.Panel;
 import org.apache.wicket.markup.repeater.Item;
 import org.apache.wicket.markup.repeater.RepeatingView;
 import org.apache.wicket.markup.repeater.data.DataView;
-import org.apache.wicket.markup.repeater.data.ListDataProvider;
 import org.apache.wicket.model.Model;
 import org.joda.money.Money;
 import org.wickedsource.budgeteer.service.record.RecordService;
 import org.wickedsource.budgeteer.service.record.WorkRecord;
 import org.wickedsource.budgeteer.service.record.WorkRecordFilter;
+import org.wickedsource.budgeteer.web.components.burntable.filter.FilteredRecordsDataProvider;
 import org.wickedsource.budgeteer.web.components.burntable.filter.FilteredRecordsModel;
 import org.wickedsource.budgeteer.web.components.customFeedback.CustomFeedbackPanel;
 import org.wickedsource.budgeteer.web.components.dataTable.DataTableBehavior;
@@ -28,8 +28,6 @@ import org.wickedsource.budgeteer.web.components.money.MoneyLabel;
 
 import javax.inject.Inject;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 
 import static org.wicketstuff.lazymodel.LazyModel.from;
 import static org.wicketstuff.lazymodel.LazyModel.model;
@@ -243,12 +241,7 @@ public class BurnTable extends Panel {
     }
 
     private DataView <WorkRecord> createList(final FilteredRecordsModel model, final WebMarkupContainer table) {
-        return new DataView<WorkRecord>("recordList", new ListDataProvider<WorkRecord>(model.getObject()){
-            @Override
-            protected List<WorkRecord> getData() {
-                return model.getObject();
-            }
-        },recordsPerPageModel.getObject()) {
+        return new DataView<WorkRecord>("recordList", new FilteredRecordsDataProvider(model), recordsPerPageModel.getObject()) {
 
             @Override
             protected void populateItem(Item<WorkRecord> item) {
@@ -263,16 +256,6 @@ public class BurnTable extends Panel {
                             item.getModelObject().setDailyRate(form.getModelObject());
                             recordService.saveDailyRateForWorkRecord(item.getModelObject());
                             target.add(tableComponents);
-                            long elementIndex = 0;
-                            int i = 0;
-                            Iterator<? extends  WorkRecord> iterator = rows.getDataProvider().iterator(0, rows.getItemCount());
-                            while (iterator.hasNext()){
-                                if(iterator.next().getId() == item.getModelObject().getId()){
-                                    elementIndex = i;
-                                }
-                                i++;
-                            }
-                            rows.setCurrentPage(elementIndex/rows.getItemsPerPage());
                         }
 
                         @Override
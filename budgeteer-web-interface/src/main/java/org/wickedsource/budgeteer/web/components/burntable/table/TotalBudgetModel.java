@@ -1,32 +1,26 @@
 package org.wickedsource.budgeteer.web.components.burntable.table;
 
-import org.apache.wicket.model.AbstractReadOnlyModel;
-import org.apache.wicket.model.IModel;
+import org.apache.wicket.injection.Injector;
+import org.apache.wicket.model.LoadableDetachableModel;
+import org.apache.wicket.spring.injection.annot.SpringBean;
 import org.joda.money.Money;
-import org.wickedsource.budgeteer.MoneyUtil;
-import org.wickedsource.budgeteer.service.record.WorkRecord;
+import org.wickedsource.budgeteer.service.record.RecordService;
+import org.wickedsource.budgeteer.web.components.burntable.filter.FilteredRecordsModel;
 
-import java.util.List;
+public class TotalBudgetModel extends LoadableDetachableModel<Money> {
 
-public class TotalBudgetModel extends AbstractReadOnlyModel<Money> {
+    @SpringBean
+    private RecordService service;
 
-    private IModel<List<WorkRecord>> model;
+    private FilteredRecordsModel model;
 
-    public TotalBudgetModel(IModel<List<WorkRecord>> model) {
+    public TotalBudgetModel(FilteredRecordsModel model) {
+        Injector.get().inject(this);
         this.model = model;
     }
 
     @Override
-    public Money getObject() {
-        Money sum = MoneyUtil.createMoney(0d);
-        for (WorkRecord record : model.getObject()) {
-            sum = sum.plus(record.getBudgetBurned());
-        }
-        return sum;
-    }
-
-    @Override
-    public void detach() {
-
+    protected Money load() {
+        return service.getFilteredRecordsTotal(model.getFilter());
     }
 }
@@ -38,6 +38,7 @@ public class CustomFileUpload extends GenericPanel<FileUploadModel> {
                 getModelObject().setChanged(false);
                 getModelObject().setFileName(null);
                 getModelObject().setFile(null);
+                getModelObject().setFileHash(null);
                 target.add(uploadField);
                 target.add(fileName);
             }
@@ -7,16 +7,23 @@ import java.io.Serializable;
 @Data
 public class FileUploadModel implements Serializable{
     private String fileName;
+    /**
+     * Content of a newly uploaded file, it is moved into the attachment store when the model is saved.
+     */
     private byte[] file;
+    /**
+     * Reference of the stored file in the attachment store.
+     */
+    private String fileHash;
     private boolean changed;
     private String link;
 
     public FileUploadModel(){
     }
 
-    public FileUploadModel(String fileName, byte[] file, String link) {
+    public FileUploadModel(String fileName, String fileHash, String link) {
         this.fileName = fileName;
-        this.file = file;
+        this.fileHash = fileHash;
         this.link = link;
     }
 
@@ -92,6 +92,22 @@ public class EditBudgetForm extends Form<EditBudgetData> {
                     public Object getDisplayValue(ContractBaseData object) {
                         return object == null ? getString("no.contract") : object.getContractName();
                     }
+
+                    // the contract of the budget is mapped on its own, so the choices are matched by their ID
+                    @Override
+                    public String getIdValue(ContractBaseData object, int index) {
+                        return String.valueOf(object.getContractId());
+                    }
+
+                    @Override
+                    public ContractBaseData getObject(String id, IModel<? extends List<? extends ContractBaseData>> choices) {
+                        for (ContractBaseData contract : choices.getObject()) {
+                            if (String.valueOf(contract.getContractId()).equals(id)) {
+                                return contract;
+                            }
+                        }
+                        return null;
+                    }
                 }) {
             @Override
             protected String getNullValidDisplayValue() {
@@ -11,13 +11,17 @@ import org.apache.wicket.markup.html.panel.Panel;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
 import org.apache.wicket.request.handler.resource.ResourceStreamRequestHandler;
+import org.apache.wicket.spring.injection.annot.SpringBean;
+import org.apache.wicket.util.io.Streams;
 import org.apache.wicket.util.resource.AbstractResourceStreamWriter;
 import org.wickedsource.budgeteer.service.contract.ContractBaseData;
+import org.wickedsource.budgeteer.service.contract.ContractService;
 import org.wickedsource.budgeteer.service.contract.DynamicAttributeField;
 import org.wickedsource.budgeteer.web.components.MarqueeLabel;
 import org.wickedsource.budgeteer.web.components.datelabel.DateLabel;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 
 import static org.wicketstuff.lazymodel.LazyModel.from;
@@ -25,6 +29,9 @@ import static org.wicketstuff.lazymodel.LazyModel.model;
 
 public class ContractHighlightsPanel extends Panel {
 
+    @SpringBean
+    private ContractService contractService;
+
     public ContractHighlightsPanel(String id, final IModel<ContractBaseData> model) {
         super(id, model);
         add(new MarqueeLabel("name", model(from(model.getObject()).getContractName())));
@@ -48,7 +55,7 @@ public class ContractHighlightsPanel extends Panel {
                 return model.getObject().getFileModel().getFileName() != null && !model.getObject().getFileModel().getFileName().isEmpty();
             }
         };
-        final byte[] file = model.getObject().getFileModel().getFile();
+        final long contractId = model.getObject().getContractId();
         final String fileName = model.getObject().getFileModel().getFileName();
         Link<Void> fileDownloadLink = new Link<Void>("file") {
 
@@ -57,7 +64,11 @@ public class ContractHighlightsPanel extends Panel {
                 AbstractResourceStreamWriter rstream = new AbstractResourceStreamWriter() {
                     @Override
                     public void write(OutputStream output) throws IOException {
-                        output.write(file);
+                        try (InputStream file = contractService.openFile(contractId)) {
+                            if (file != null) {
+                                Streams.copy(file, output);
+                            }
+                        }
                     }
                 };
                 ResourceStreamRequestHandler handler = new ResourceStreamRequestHandler(rstream, fileName);
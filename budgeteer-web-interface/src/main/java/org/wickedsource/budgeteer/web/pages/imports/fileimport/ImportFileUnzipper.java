@@ -13,6 +13,8 @@ import java.util.zip.ZipInputStream;
 
 public class ImportFileUnzipper {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private InputStream zipInputStream;
 
     /**
@@ -48,9 +50,10 @@ public class ImportFileUnzipper {
 
     private InputStream getInputStreamFromZipEntry(ZipInputStream zipStream) throws IOException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
-        int b;
-        while ((b = zipStream.read()) != -1) {
-            out.write(b);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length;
+        while ((length = zipStream.read(buffer)) != -1) {
+            out.write(buffer, 0, length);
         }
         out.close();
         return new ByteArrayInputStream(out.toByteArray());
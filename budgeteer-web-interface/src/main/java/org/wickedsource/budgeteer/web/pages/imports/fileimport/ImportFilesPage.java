@@ -1,20 +1,27 @@
 package org.wickedsource.budgeteer.web.pages.imports.fileimport;
 
 import org.apache.wicket.AttributeModifier;
+import org.apache.wicket.ajax.AbstractAjaxTimerBehavior;
 import org.apache.wicket.ajax.AjaxEventBehavior;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.ajax.form.AjaxFormComponentUpdatingBehavior;
+import org.apache.wicket.ajax.markup.html.AjaxLink;
+import org.apache.wicket.behavior.Behavior;
 import org.apache.wicket.extensions.ajax.markup.html.form.upload.UploadProgressBar;
 import org.apache.wicket.markup.head.IHeaderResponse;
 import org.apache.wicket.markup.head.JavaScriptHeaderItem;
 import org.apache.wicket.markup.html.WebMarkupContainer;
 import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.markup.html.form.CheckBox;
 import org.apache.wicket.markup.html.form.DropDownChoice;
 import org.apache.wicket.markup.html.form.Form;
 import org.apache.wicket.markup.html.form.upload.FileUpload;
 import org.apache.wicket.markup.html.form.upload.FileUploadField;
 import org.apache.wicket.markup.html.link.DownloadLink;
 import org.apache.wicket.markup.html.link.Link;
+import org.apache.wicket.markup.html.list.ListItem;
+import org.apache.wicket.markup.html.list.ListView;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.LoadableDetachableModel;
 import org.apache.wicket.model.Model;
@@ -31,7 +38,8 @@ import org.apache.wicket.util.time.Duration;
 import org.wickedsource.budgeteer.importer.aproda.AprodaWorkRecordsImporter;
 import org.wickedsource.budgeteer.importer.ubw.UBWWorkRecordsImporter;
 import org.wickedsource.budgeteer.imports.api.*;
-import org.wickedsource.budgeteer.service.imports.ImportService;
+import org.wickedsource.budgeteer.service.imports.ImportJob;
+import org.wickedsource.budgeteer.service.imports.ImportJobService;
 import org.wickedsource.budgeteer.web.BudgeteerSession;
 import org.wickedsource.budgeteer.web.ClassAwareWrappingModel;
 import org.wickedsource.budgeteer.web.Mount;
@@ -51,18 +59,26 @@ import java.util.Locale;
 public class ImportFilesPage extends DialogPageWithBacklink {
 
     @SpringBean
-    private ImportService service;
+    private ImportJobService importJobService;
 
     private Importer importer = new AprodaWorkRecordsImporter();
 
     private List<FileUpload> fileUploads = new ArrayList<>();
 
+    private boolean deltaImport;
+
     private CustomFeedbackPanel feedback;
 
     private List<List<String>> skippedImports;
 
     private UploadProgressBar uploadProgressBar;
 
+    private String jobId;
+
+    private WebMarkupContainer importFeedback;
+
+    private WebMarkupContainer importProgress;
+
     public ImportFilesPage(PageParameters backlinkParameters) {
         this(ImportsOverviewPage.class, new PageParameters());
     }
@@ -117,22 +133,19 @@ public class ImportFilesPage extends DialogPageWithBacklink {
                             files.add(new ImportFile(file.getClientFileName(), file.getInputStream()));
                         }
                     }
-                    service.doImport(BudgeteerSession.get().getProjectId(), importer, files);
-                    skippedImports = service.getSkippedRecords();
-                    success(getString("message.success"));
+                    jobId = importJobService.submit(BudgeteerSession.get().getProjectId(), importer, files, deltaImport).getId();
+                    startPolling();
                     uploadCompleted = true;
                 } catch (IOException e) {
                     error(String.format(getString("message.ioError"), e.getMessage()));
                 } catch (ImportException | IllegalArgumentException e) {
                     error(String.format(getString("message.importError"), e.getMessage()));
-                } catch (InvalidFileFormatException e) {
-                    error(String.format(getString("message.invalidFileException"), e.getFileName()));
                 }
             }
         };
 
 
-        WebMarkupContainer importFeedback = new WebMarkupContainer("importFeedback") {
+        importFeedback = new WebMarkupContainer("importFeedback") {
             @Override
             public boolean isVisible() {
                 return skippedImports != null && !skippedImports.isEmpty();
@@ -148,11 +161,14 @@ public class ImportFilesPage extends DialogPageWithBacklink {
         downloadButton = downloadButton.setCacheDuration(Duration.NONE);
         downloadButton = downloadButton.setDeleteAfterDownload(true);
         importFeedback.add(downloadButton);
+        importFeedback.setOutputMarkupPlaceholderTag(true);
         form.add(importFeedback);
         add(form);
         feedback = new CustomFeedbackPanel("feedback");
         feedback.setOutputMarkupId(true);
         form.add(feedback);
+        importProgress = createImportProgress("importProgress");
+        form.add(importProgress);
 
         ImportersListModel importersListModel = new ImportersListModel();
         DropDownChoice<Importer> importerChoice = new DropDownChoice<>("importerChoice", new PropertyModel<>(this, "importer"), importersListModel, new ImporterChoiceRenderer());
@@ -184,6 +200,8 @@ public class ImportFilesPage extends DialogPageWithBacklink {
         });
         form.add(fileUpload);
 
+        form.add(new CheckBox("deltaImport", new PropertyModel<>(this, "deltaImport")));
+
         uploadProgressBar = new UploadProgressBar("progressBar", form, fileUpload) {
             @Override
             protected ResourceReference getCss() {
@@ -200,6 +218,107 @@ public class ImportFilesPage extends DialogPageWithBacklink {
         form.add(createExampleFileButton("exampleFileButton"));
     }
 
+    /**
+     * Creates the container that shows the progress of the running import file by file.
+     */
+    private WebMarkupContainer createImportProgress(String wicketId) {
+        WebMarkupContainer container = new WebMarkupContainer(wicketId) {
+            @Override
+            public boolean isVisible() {
+                return getJob() != null;
+            }
+        };
+        container.setOutputMarkupPlaceholderTag(true);
+        container.add(new Label("status", new LoadableDetachableModel<String>() {
+            @Override
+            protected String load() {
+                ImportJob job = getJob();
+                return job == null ? "" : getString("import.status." + job.getStatus().name());
+            }
+        }));
+        container.add(new ListView<ImportJob.FileProgress>("files", new LoadableDetachableModel<List<ImportJob.FileProgress>>() {
+            @Override
+            protected List<ImportJob.FileProgress> load() {
+                ImportJob job = getJob();
+                return job == null ? new ArrayList<>() : job.getFiles();
+            }
+        }) {
+            @Override
+            protected void populateItem(ListItem<ImportJob.FileProgress> item) {
+                item.add(new Label("fileName", new PropertyModel<>(item.getModel(), "fileName")));
+                item.add(new Label("parsedRows", new PropertyModel<>(item.getModel(), "parsedRows")));
+                item.add(new Label("persistedRows", new PropertyModel<>(item.getModel(), "persistedRows")));
+                item.add(new Label("skippedRows", new PropertyModel<>(item.getModel(), "skippedRows")));
+            }
+        });
+        container.add(new AjaxLink<Void>("cancelButton") {
+            @Override
+            public void onClick(AjaxRequestTarget target) {
+                importJobService.cancel(jobId);
+                target.add(importProgress);
+            }
+
+            @Override
+            public boolean isVisible() {
+                ImportJob job = getJob();
+                return job != null && !job.getStatus().isFinished();
+            }
+        });
+        return container;
+    }
+
+    private ImportJob getJob() {
+        return jobId == null ? null : importJobService.getJob(jobId);
+    }
+
+    private void startPolling() {
+        for (Behavior behavior : importProgress.getBehaviors(ImportJobPollingBehavior.class)) {
+            importProgress.remove(behavior);
+        }
+        importProgress.add(new ImportJobPollingBehavior());
+    }
+
+    /**
+     * Refreshes the progress of the import every second and shows its result once it has finished.
+     */
+    private class ImportJobPollingBehavior extends AbstractAjaxTimerBehavior {
+
+        ImportJobPollingBehavior() {
+            super(Duration.seconds(1));
+        }
+
+        @Override
+        protected void onTimer(AjaxRequestTarget target) {
+            target.add(importProgress);
+            ImportJob job = getJob();
+            if (job == null) {
+                stop(target);
+                return;
+            }
+            if (!job.getStatus().isFinished()) {
+                return;
+            }
+            stop(target);
+            switch (job.getStatus()) {
+                case SUCCEEDED:
+                    skippedImports = job.getSkippedRecords();
+                    success(getString("message.success"));
+                    break;
+                case CANCELLED:
+                    warn(getString("message.cancelled"));
+                    break;
+                default:
+                    Throwable error = job.getError();
+                    if (error instanceof InvalidFileFormatException) {
+                        error(String.format(getString("message.invalidFileException"), ((InvalidFileFormatException) error).getFileName()));
+                    } else {
+                        error(String.format(getString("message.importError"), error == null ? "" : error.getMessage()));
+                    }
+            }
+            target.add(feedback, importFeedback);
+        }
+    }
+
     /**
      * Creates a button to download an example import file.
      */
@@ -11,14 +11,18 @@ import org.apache.wicket.markup.html.panel.GenericPanel;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
 import org.apache.wicket.request.handler.resource.ResourceStreamRequestHandler;
+import org.apache.wicket.spring.injection.annot.SpringBean;
+import org.apache.wicket.util.io.Streams;
 import org.apache.wicket.util.resource.AbstractResourceStreamWriter;
 import org.wickedsource.budgeteer.service.contract.DynamicAttributeField;
 import org.wickedsource.budgeteer.service.invoice.InvoiceBaseData;
+import org.wickedsource.budgeteer.service.invoice.InvoiceService;
 import org.wickedsource.budgeteer.web.PropertyLoader;
 import org.wickedsource.budgeteer.web.components.MarqueeLabel;
 import org.wickedsource.budgeteer.web.pages.base.basepage.BasePage;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 
 import static org.wicketstuff.lazymodel.LazyModel.from;
@@ -26,6 +30,9 @@ import static org.wicketstuff.lazymodel.LazyModel.model;
 
 public class InvoiceHighlightsPanel extends GenericPanel<InvoiceBaseData> {
 
+    @SpringBean
+    private InvoiceService invoiceService;
+
     @Getter
     private WebMarkupContainer sumGrossContainer;
     @Getter
@@ -64,7 +71,7 @@ public class InvoiceHighlightsPanel extends GenericPanel<InvoiceBaseData> {
                 return getModelObject().getFileUploadModel().getFileName() != null && !getModelObject().getFileUploadModel().getFileName().isEmpty();
             }
         };
-        final byte[] file = getModelObject().getFileUploadModel().getFile();
+        final long invoiceId = getModelObject().getInvoiceId();
         final String fileName = getModelObject().getFileUploadModel().getFileName();
         Link<Void> fileDownloadLink = new Link<Void>("file") {
             @Override
@@ -72,7 +79,11 @@ public class InvoiceHighlightsPanel extends GenericPanel<InvoiceBaseData> {
                 AbstractResourceStreamWriter rstream = new AbstractResourceStreamWriter() {
                     @Override
                     public void write(OutputStream output) throws IOException {
-                        output.write(file);
+                        try (InputStream file = invoiceService.openFile(invoiceId)) {
+                            if (file != null) {
+                                Streams.copy(file, output);
+                            }
+                        }
                     }
                 };
                 ResourceStreamRequestHandler handler = new ResourceStreamRequestHandler(rstream, fileName);
@@ -0,0 +1,85 @@
+CREATE TABLE WORK_RECORD_ROLLUP
+(
+  ID NUMBER(19,0) NOT NULL ENABLE,
+  BUDGET_ID NUMBER(19,0) NOT NULL ENABLE,
+  PERSON_ID NUMBER(19,0) NOT NULL ENABLE,
+  RECORD_YEAR NUMBER(10,0) NOT NULL ENABLE,
+  RECORD_MONTH NUMBER(10,0) NOT NULL ENABLE,
+  RECORD_WEEK NUMBER(10,0) NOT NULL ENABLE,
+  DAILY_RATE NUMBER(19,0) NOT NULL ENABLE,
+  MINUTES NUMBER(19,0) NOT NULL ENABLE,
+  PRIMARY KEY (ID)
+);
+
+CREATE INDEX WORK_ROLLUP_BUDGET_ID_IDX ON WORK_RECORD_ROLLUP (BUDGET_ID);
+CREATE INDEX WORK_ROLLUP_PERSON_ID_IDX ON WORK_RECORD_ROLLUP (PERSON_ID);
+
+CREATE SEQUENCE SEQ_WORK_RECORD_ROLLUP_ID
+ START WITH     1
+ INCREMENT BY   1
+ NOCYCLE;
+
+CREATE TABLE PLAN_RECORD_ROLLUP
+(
+  ID NUMBER(19,0) NOT NULL ENABLE,
+  BUDGET_ID NUMBER(19,0) NOT NULL ENABLE,
+  PERSON_ID NUMBER(19,0) NOT NULL ENABLE,
+  RECORD_YEAR NUMBER(10,0) NOT NULL ENABLE,
+  RECORD_MONTH NUMBER(10,0) NOT NULL ENABLE,
+  RECORD_WEEK NUMBER(10,0) NOT NULL ENABLE,
+  DAILY_RATE NUMBER(19,0) NOT NULL ENABLE,
+  MINUTES NUMBER(19,0) NOT NULL ENABLE,
+  PRIMARY KEY (ID)
+);
+
+CREATE INDEX PLAN_ROLLUP_BUDGET_ID_IDX ON PLAN_RECORD_ROLLUP (BUDGET_ID);
+CREATE INDEX PLAN_ROLLUP_PERSON_ID_IDX ON PLAN_RECORD_ROLLUP (PERSON_ID);
+
+CREATE SEQUENCE SEQ_PLAN_RECORD_ROLLUP_ID
+ START WITH     1
+ INCREMENT BY   1
+ NOCYCLE;
+
+CREATE TABLE MANUAL_RECORD_ROLLUP
+(
+  ID NUMBER(19,0) NOT NULL ENABLE,
+  BUDGET_ID NUMBER(19,0) NOT NULL ENABLE,
+  RECORD_YEAR NUMBER(10,0) NOT NULL ENABLE,
+  RECORD_MONTH NUMBER(10,0) NOT NULL ENABLE,
+  RECORD_WEEK NUMBER(10,0) NOT NULL ENABLE,
+  MONEY_AMOUNT NUMBER(19,0) NOT NULL ENABLE,
+  PRIMARY KEY (ID)
+);
+
+CREATE INDEX MANUAL_ROLLUP_BUDGET_ID_IDX ON MANUAL_RECORD_ROLLUP (BUDGET_ID);
+
+CREATE SEQUENCE SEQ_MANUAL_RECORD_ROLLUP_ID
+ START WITH     1
+ INCREMENT BY   1
+ NOCYCLE;
+
+ALTER TABLE WORK_RECORD_ROLLUP ADD CONSTRAINT FK_WORK_ROLLUP_BUDGET FOREIGN KEY (BUDGET_ID) REFERENCES BUDGET (ID);
+ALTER TABLE WORK_RECORD_ROLLUP ADD CONSTRAINT FK_WORK_ROLLUP_PERSON FOREIGN KEY (PERSON_ID) REFERENCES PERSON (ID);
+ALTER TABLE PLAN_RECORD_ROLLUP ADD CONSTRAINT FK_PLAN_ROLLUP_BUDGET FOREIGN KEY (BUDGET_ID) REFERENCES BUDGET (ID);
+ALTER TABLE PLAN_RECORD_ROLLUP ADD CONSTRAINT FK_PLAN_ROLLUP_PERSON FOREIGN KEY (PERSON_ID) REFERENCES PERSON (ID);
+ALTER TABLE MANUAL_RECORD_ROLLUP ADD CONSTRAINT FK_MANUAL_ROLLUP_BUDGET FOREIGN KEY (BUDGET_ID) REFERENCES BUDGET (ID);
+
+-- fill the rollups from the records that already exist
+
+INSERT INTO WORK_RECORD_ROLLUP (ID, BUDGET_ID, PERSON_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, DAILY_RATE, MINUTES)
+SELECT SEQ_WORK_RECORD_ROLLUP_ID.NEXTVAL, g.BUDGET_ID, g.PERSON_ID, g.RECORD_YEAR, g.RECORD_MONTH, g.RECORD_WEEK, g.DAILY_RATE, g.MINUTES
+FROM (SELECT BUDGET_ID, PERSON_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, DAILY_RATE, SUM(MINUTES) AS MINUTES
+      FROM WORK_RECORD
+      GROUP BY BUDGET_ID, PERSON_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, DAILY_RATE) g;
+
+INSERT INTO PLAN_RECORD_ROLLUP (ID, BUDGET_ID, PERSON_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, DAILY_RATE, MINUTES)
+SELECT SEQ_PLAN_RECORD_ROLLUP_ID.NEXTVAL, g.BUDGET_ID, g.PERSON_ID, g.RECORD_YEAR, g.RECORD_MONTH, g.RECORD_WEEK, g.DAILY_RATE, g.MINUTES
+FROM (SELECT BUDGET_ID, PERSON_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, DAILY_RATE, SUM(MINUTES) AS MINUTES
+      FROM PLAN_RECORD
+      GROUP BY BUDGET_ID, PERSON_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, DAILY_RATE) g;
+
+INSERT INTO MANUAL_RECORD_ROLLUP (ID, BUDGET_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, MONEY_AMOUNT)
+SELECT SEQ_MANUAL_RECORD_ROLLUP_ID.NEXTVAL, g.BUDGET_ID, g.RECORD_YEAR, g.RECORD_MONTH, g.RECORD_WEEK, g.MONEY_AMOUNT
+FROM (SELECT BUDGET_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, SUM(MONEY_AMOUNT) AS MONEY_AMOUNT
+      FROM MANUAL_RECORD_ENTITY
+      GROUP BY BUDGET_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK) g;
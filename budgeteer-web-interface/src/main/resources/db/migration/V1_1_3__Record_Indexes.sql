@@ -0,0 +1,22 @@
+-- Composite indexes tailored to the record queries. Budget and person lookups are nearly always combined with a date
+-- range or grouped by year/month/week, so the single-column indexes of the baseline are replaced by composite ones
+-- that still start with the foreign key column.
+
+DROP INDEX WORK_RECORD_BUDGET_ID_IDX;
+DROP INDEX WORK_RECORD_PERSON_ID_IDX;
+DROP INDEX PLAN_RECORD_BUDGET_ID_IDX;
+
+CREATE INDEX WORK_RECORD_BUDGET_DATE_IDX ON WORK_RECORD (BUDGET_ID, RECORD_DATE);
+CREATE INDEX WORK_RECORD_PERSON_DATE_IDX ON WORK_RECORD (PERSON_ID, RECORD_DATE);
+CREATE INDEX WORK_RECORD_IMPORT_ID_IDX ON WORK_RECORD (IMPORT_ID);
+CREATE INDEX WORK_RECORD_EDITED_DATE_IDX ON WORK_RECORD (EDITED_MANUALLY, RECORD_DATE);
+-- covers the weekly/monthly aggregations per budget and the rollup rebuild without touching the table
+CREATE INDEX WORK_RECORD_BUDGET_WEEK_IDX ON WORK_RECORD (BUDGET_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, PERSON_ID, DAILY_RATE, MINUTES);
+
+CREATE INDEX PLAN_RECORD_BUDGET_DATE_IDX ON PLAN_RECORD (BUDGET_ID, RECORD_DATE);
+CREATE INDEX PLAN_RECORD_PERSON_DATE_IDX ON PLAN_RECORD (PERSON_ID, RECORD_DATE);
+CREATE INDEX PLAN_RECORD_IMPORT_ID_IDX ON PLAN_RECORD (IMPORT_ID);
+CREATE INDEX PLAN_RECORD_BUDGET_WEEK_IDX ON PLAN_RECORD (BUDGET_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, PERSON_ID, DAILY_RATE, MINUTES);
+
+CREATE INDEX MANUAL_RECORD_BUDGET_DATE_IDX ON MANUAL_RECORD_ENTITY (BUDGET_ID, BILLING_DATE);
+CREATE INDEX MANUAL_RECORD_BUDGET_WEEK_IDX ON MANUAL_RECORD_ENTITY (BUDGET_ID, RECORD_YEAR, RECORD_MONTH, RECORD_WEEK, MONEY_AMOUNT);
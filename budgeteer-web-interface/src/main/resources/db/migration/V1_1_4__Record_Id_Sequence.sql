@@ -0,0 +1,12 @@
+-- Work and plan records get their IDs from their own sequence in blocks of 50 (hi/lo, see RecordEntity) instead of
+-- one HIBERNATE_SEQUENCE call per record. Generated IDs are sequence value * 50 + 0..49, so the sequence has to start
+-- above the highest record ID divided by 50.
+
+DECLARE
+  start_value NUMBER;
+BEGIN
+  SELECT FLOOR(GREATEST(NVL((SELECT MAX(ID) FROM WORK_RECORD), 0), NVL((SELECT MAX(ID) FROM PLAN_RECORD), 0)) / 50) + 1
+  INTO start_value FROM DUAL;
+  EXECUTE IMMEDIATE 'CREATE SEQUENCE SEQ_RECORD_ID START WITH ' || start_value || ' INCREMENT BY 1 NOCYCLE';
+END;
+/
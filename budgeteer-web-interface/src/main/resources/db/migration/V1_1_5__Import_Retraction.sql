@@ -0,0 +1,4 @@
+-- Deleted imports are only marked as retracted, their records are hidden from all record queries and removed in
+-- small batches in the background (see RetractedImportPurger).
+
+ALTER TABLE IMPORT ADD RETRACTED_DATE TIMESTAMP(6);
@@ -0,0 +1,4 @@
+-- Hash of the template workbook, so that parsed templates can be cached without loading the workbook
+-- (see TemplateWorkbookCache). Templates stored before have no hash until they are saved again.
+
+ALTER TABLE TEMPLATE ADD CONTENT_HASH VARCHAR2(64 CHAR);
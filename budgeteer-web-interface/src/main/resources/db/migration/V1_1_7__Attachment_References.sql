@@ -0,0 +1,6 @@
+-- Attached files are kept in the attachment store (see FileSystemAttachmentStore), the entities only reference them
+-- by their SHA-256 hash. Templates use their CONTENT_HASH as reference. The files still stored in CONTRACT_FILE,
+-- INVOICE_FILE and TEMPLATE are moved to the store after the migration (see AttachmentMigrationStrategy).
+
+ALTER TABLE CONTRACT ADD FILE_HASH VARCHAR2(64 CHAR);
+ALTER TABLE INVOICE ADD FILE_HASH VARCHAR2(64 CHAR);
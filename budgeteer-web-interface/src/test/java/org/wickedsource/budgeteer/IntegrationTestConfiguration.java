@@ -28,6 +28,7 @@ public class IntegrationTestConfiguration {
         properties.setProperty("budgeteer.mail.activate", "false");
         properties.setProperty("adapter.keycloak.activated", "false");
         properties.setProperty("flyway.enabled", "false");
+        properties.setProperty("budgeteer.attachments.directory", System.getProperty("java.io.tmpdir") + "/budgeteer-attachments");
         pspc.setProperties(properties);
         return pspc;
     }
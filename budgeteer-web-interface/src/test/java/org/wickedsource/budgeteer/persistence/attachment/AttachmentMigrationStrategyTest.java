@@ -0,0 +1,122 @@
+package org.wickedsource.budgeteer.persistence.attachment;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.poi.util.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AttachmentMigrationStrategyTest {
+
+    private static final int CONTRACTS = 2 * AttachmentMigrationStrategy.BATCH_SIZE + 5;
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private FileSystemAttachmentStore store;
+
+    private AttachmentMigrationStrategy strategy;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.HSQL)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE CONTRACT (ID BIGINT PRIMARY KEY, CONTRACT_FILE BLOB, FILE_HASH VARCHAR(64))");
+        for (long id = 1; id <= CONTRACTS; id++) {
+            jdbcTemplate.update("INSERT INTO CONTRACT (ID, CONTRACT_FILE) VALUES (?, ?)", id, contentOf(id));
+        }
+        jdbcTemplate.update("INSERT INTO CONTRACT (ID) VALUES (?)", CONTRACTS + 1L);
+        jdbcTemplate.setMaxRows(AttachmentMigrationStrategy.BATCH_SIZE);
+
+        store = new FileSystemAttachmentStore(Files.createTempDirectory("attachments").toString());
+        strategy = new AttachmentMigrationStrategy();
+        ReflectionTestUtils.setField(strategy, "attachmentStore", store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testFilesAreMovedInBatches() throws IOException {
+        strategy.moveFiles(jdbcTemplate, "CONTRACT", "CONTRACT_FILE", "FILE_HASH");
+
+        assertAllFilesMoved();
+    }
+
+    @Test
+    void testInterruptedMigrationContinuesWithTheRemainingFiles() throws IOException {
+        // fails within the second batch, after the first one has been written
+        AtomicInteger stored = new AtomicInteger();
+        ReflectionTestUtils.setField(strategy, "attachmentStore", new AttachmentStore() {
+            @Override
+            public String store(InputStream content) throws IOException {
+                if (stored.incrementAndGet() > AttachmentMigrationStrategy.BATCH_SIZE + 5) {
+                    throw new IOException("disk full");
+                }
+                return store.store(content);
+            }
+
+            @Override
+            public InputStream open(String reference) throws IOException {
+                return store.open(reference);
+            }
+
+            @Override
+            public boolean contains(String reference) {
+                return store.contains(reference);
+            }
+        });
+
+        Assertions.assertThrows(UncheckedIOException.class,
+                () -> strategy.moveFiles(jdbcTemplate, "CONTRACT", "CONTRACT_FILE", "FILE_HASH"));
+        Assertions.assertEquals(AttachmentMigrationStrategy.BATCH_SIZE, count("FILE_HASH IS NOT NULL"));
+        Assertions.assertEquals(CONTRACTS - AttachmentMigrationStrategy.BATCH_SIZE, count("CONTRACT_FILE IS NOT NULL"));
+
+        ReflectionTestUtils.setField(strategy, "attachmentStore", store);
+        strategy.moveFiles(jdbcTemplate, "CONTRACT", "CONTRACT_FILE", "FILE_HASH");
+
+        assertAllFilesMoved();
+    }
+
+    private void assertAllFilesMoved() throws IOException {
+        Assertions.assertEquals(0, count("CONTRACT_FILE IS NOT NULL"));
+        Assertions.assertEquals(CONTRACTS, count("FILE_HASH IS NOT NULL"));
+        for (long id = 1; id <= CONTRACTS; id++) {
+            String fileHash = jdbcTemplate.queryForObject("SELECT FILE_HASH FROM CONTRACT WHERE ID = ?", String.class, id);
+            Assertions.assertEquals(DigestUtils.sha256Hex(contentOf(id)), fileHash);
+            Assertions.assertTrue(store.contains(fileHash));
+            try (InputStream in = store.open(fileHash)) {
+                Assertions.assertArrayEquals(contentOf(id), IOUtils.toByteArray(in));
+            }
+        }
+        Assertions.assertNull(jdbcTemplate.queryForObject("SELECT FILE_HASH FROM CONTRACT WHERE ID = ?", String.class, CONTRACTS + 1L));
+    }
+
+    private int count(String condition) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CONTRACT WHERE " + condition, Integer.class);
+    }
+
+    private static byte[] contentOf(long id) {
+        // every fifth contract shares its file with the first one
+        return ("contract " + (id % 5 == 0 ? 1 : id)).getBytes(StandardCharsets.UTF_8);
+    }
+}
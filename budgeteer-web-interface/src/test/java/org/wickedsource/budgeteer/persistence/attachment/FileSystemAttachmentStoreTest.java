@@ -0,0 +1,64 @@
+package org.wickedsource.budgeteer.persistence.attachment;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.poi.util.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+class FileSystemAttachmentStoreTest {
+
+    private Path directory;
+
+    private FileSystemAttachmentStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("attachments");
+        store = new FileSystemAttachmentStore(directory.toString());
+    }
+
+    @Test
+    void testStoredContentIsReferencedByItsHash() throws IOException {
+        byte[] content = "contract".getBytes(StandardCharsets.UTF_8);
+
+        String reference = store.store(new ByteArrayInputStream(content));
+
+        Assertions.assertEquals(DigestUtils.sha256Hex(content), reference);
+        Assertions.assertTrue(store.contains(reference));
+        try (InputStream in = store.open(reference)) {
+            Assertions.assertArrayEquals(content, IOUtils.toByteArray(in));
+        }
+    }
+
+    @Test
+    void testIdenticalContentIsStoredOnce() throws IOException {
+        String first = store.store(new ByteArrayInputStream("invoice".getBytes(StandardCharsets.UTF_8)));
+        String second = store.store(new ByteArrayInputStream("invoice".getBytes(StandardCharsets.UTF_8)));
+        String other = store.store(new ByteArrayInputStream("template".getBytes(StandardCharsets.UTF_8)));
+
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotEquals(first, other);
+        try (Stream<Path> files = Files.walk(directory)) {
+            Assertions.assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void testUnknownReference() {
+        String reference = DigestUtils.sha256Hex("missing");
+
+        Assertions.assertFalse(store.contains(reference));
+        Assertions.assertThrows(NoSuchFileException.class, () -> store.open(reference));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> store.open("../../etc/passwd"));
+    }
+}
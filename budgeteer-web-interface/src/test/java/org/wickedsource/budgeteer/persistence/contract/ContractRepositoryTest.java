@@ -9,6 +9,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.wickedsource.budgeteer.IntegrationTestTemplate;
 
 import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 class ContractRepositoryTest extends IntegrationTestTemplate {
 
@@ -59,6 +63,55 @@ class ContractRepositoryTest extends IntegrationTestTemplate {
         Assertions.assertEquals(0, records.getInvoicedBudget());
     }
 
+    @Test
+    @DatabaseSetup("contract.xml")
+    @DatabaseTearDown(value = "contract.xml", type = DatabaseOperation.DELETE_ALL)
+    void testGetContractStatisticsAggregatedByMonth() {
+        Map<Long, List<ContractStatisticBean>> statistics = repository.getContractStatisticsAggregatedByMonth(Arrays.asList(1L, 2L, 3L), 2013, 11, 30);
+        Assertions.assertEquals(2, statistics.size());
+        for (long contractId : Arrays.asList(1L, 2L)) {
+            List<ContractStatisticBean> months = statistics.get(contractId);
+            Assertions.assertEquals(30, months.size());
+            int year = 2013;
+            int month = 11;
+            for (ContractStatisticBean bean : months) {
+                Assertions.assertEquals(repository.getContractStatisticAggregatedByMonthAndYear(contractId, month, year), bean);
+                if (++month == 12) {
+                    month = 0;
+                    year++;
+                }
+            }
+        }
+    }
+
+    @Test
+    @DatabaseSetup("contract.xml")
+    @DatabaseTearDown(value = "contract.xml", type = DatabaseOperation.DELETE_ALL)
+    void testGetContractStatisticsByMonth() {
+        Map<Long, List<ContractStatisticBean>> statistics = repository.getContractStatisticsByMonth(Arrays.asList(1L, 2L), 2013, 11, 30);
+        for (long contractId : Arrays.asList(1L, 2L)) {
+            List<ContractStatisticBean> months = statistics.get(contractId);
+            Assertions.assertEquals(30, months.size());
+            int year = 2013;
+            int month = 11;
+            for (ContractStatisticBean bean : months) {
+                Assertions.assertEquals(repository.getContractStatisticByMonthAndYear(contractId, month, year), bean);
+                if (++month == 12) {
+                    month = 0;
+                    year++;
+                }
+            }
+        }
+    }
+
+    @Test
+    @DatabaseSetup("contract.xml")
+    @DatabaseTearDown(value = "contract.xml", type = DatabaseOperation.DELETE_ALL)
+    void testGetSpentBudgetsByContractUntilDate() {
+        Map<Long, Long> spent = repository.getSpentBudgetsByContractUntilDate(Arrays.asList(1L, 2L), 6, 2015);
+        Assertions.assertEquals(Collections.singletonMap(1L, 400L), spent);
+    }
+
     @Test
     @DatabaseSetup("contract.xml")
     @DatabaseTearDown(value = "contract.xml", type = DatabaseOperation.DELETE_ALL)
@@ -11,6 +11,7 @@ import org.wickedsource.budgeteer.IntegrationTestTemplate;
 import org.wickedsource.budgeteer.MoneyUtil;
 import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordEntity;
 import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRepository;
+import org.wickedsource.budgeteer.persistence.record.BudgetValueBean;
 import org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordWithTaxBean;
 import org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordWithTitleAndTaxBean;
 import org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordBean;
@@ -31,6 +32,18 @@ public class ManualRecordRepositoryTest extends IntegrationTestTemplate {
         Assertions.assertEquals(1300.0, sum);
     }
 
+    @Test
+    @DatabaseSetup("getManualRecordSumForBudget.xml")
+    @DatabaseTearDown(value = "getManualRecordSumForBudget.xml", type = DatabaseOperation.DELETE_ALL)
+    void testGetManualRecordSumsForBudgets() throws Exception {
+        List<BudgetValueBean> beans = manualRecordRepository.getManualRecordSumsForBudgets(Arrays.asList(1L, 2L));
+        Map<Long, Long> sums = new HashMap<>();
+        beans.forEach(bean -> sums.put(bean.getBudgetId(), bean.getValueInCents()));
+        Assertions.assertEquals(2, sums.size());
+        Assertions.assertEquals(1300L, sums.get(1L).longValue());
+        Assertions.assertEquals(200L, sums.get(2L).longValue());
+    }
+
     @Test
     @DatabaseSetup("aggregateByWeekForProject.xml")
     @DatabaseTearDown(value = "aggregateByWeekForProject.xml", type = DatabaseOperation.DELETE_ALL)
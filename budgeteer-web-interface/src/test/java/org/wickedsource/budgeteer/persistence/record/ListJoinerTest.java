@@ -0,0 +1,52 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.wickedsource.budgeteer.MoneyUtil;
+import org.wickedsource.budgeteer.service.record.PlanAndWorkRecord;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+class ListJoinerTest {
+
+    @Test
+    void testJoinPlanBeanHoursKeepsDistinctPeriodsApart() {
+        List<WeeklyAggregatedRecordWithTaxBean> beans = new ArrayList<>();
+        // these periods produced the same string key ("2019011" + tax rate) before
+        beans.add(new WeeklyAggregatedRecordWithTaxBean(2019, 0, 11, 60, MoneyUtil.createMoneyFromCents(10000), BigDecimal.TEN));
+        beans.add(new WeeklyAggregatedRecordWithTaxBean(20190, 1, 1, 60, MoneyUtil.createMoneyFromCents(10000), BigDecimal.TEN));
+        beans.add(new WeeklyAggregatedRecordWithTaxBean(2019, 0, 11, 120, MoneyUtil.createMoneyFromCents(10000), BigDecimal.TEN));
+        beans.add(new WeeklyAggregatedRecordWithTaxBean(2019, 0, 11, 60, MoneyUtil.createMoneyFromCents(10000), BigDecimal.ONE));
+
+        List<WeeklyAggregatedRecordWithTaxBean> joined = ListJoiner.joinPlanBeanHours(beans);
+
+        Assertions.assertEquals(3, joined.size());
+        Assertions.assertEquals(3d, joined.get(0).getHours(), 0.01d);
+        Assertions.assertEquals(20190, joined.get(1).getYear());
+        Assertions.assertEquals(1d, joined.get(1).getHours(), 0.01d);
+        Assertions.assertEquals(BigDecimal.ONE, joined.get(2).getTaxRate());
+    }
+
+    @Test
+    void testJoinWeeklyToPlanAndWorkRecordsWithManyPeriods() {
+        List<WeeklyAggregatedRecordWithTaxBean> planBeans = new ArrayList<>();
+        List<WeeklyAggregatedRecordWithTitleAndTaxBean> workBeans = new ArrayList<>();
+        for (int year = 2000; year < 2020; year++) {
+            for (int week = 1; week <= 52; week++) {
+                planBeans.add(new WeeklyAggregatedRecordWithTaxBean(year, (week - 1) / 5, week, 100, BigDecimal.TEN));
+                workBeans.add(new WeeklyAggregatedRecordWithTitleAndTaxBean(year, (week - 1) / 5, week, 50, BigDecimal.TEN, "person1"));
+                workBeans.add(new WeeklyAggregatedRecordWithTitleAndTaxBean(year, (week - 1) / 5, week, 25, BigDecimal.TEN, "person2"));
+            }
+        }
+
+        List<PlanAndWorkRecord> records = ListJoiner.joinWeeklyToPlanAndWorkRecords(planBeans, workBeans);
+
+        Assertions.assertEquals(20 * 52, records.size());
+        for (PlanAndWorkRecord record : records) {
+            Assertions.assertEquals(100, record.getValueInCentsPlanned());
+            Assertions.assertEquals(75, record.getValueInCentsBurned());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import org.hibernate.dialect.*;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Covers the native window function query used on Oracle and PostgreSQL, which the HSQLDB integration tests cannot
+ * execute. The query itself is run on H2, the fallback for HSQLDB is covered by {@link WorkRecordRepositoryTest}
+ * with the same records.
+ */
+class MissingDailyRatesQueryTest {
+
+    private SessionFactoryImplementor sessionFactory;
+
+    private EntityManager entityManager;
+
+    private Query query;
+
+    private WorkRecordRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = mock(SessionFactoryImplementor.class);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        entityManager = mock(EntityManager.class);
+        when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+        query = mock(Query.class);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        repository = new WorkRecordRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+    }
+
+    @Test
+    void testDialectsWithWindowFunctions() {
+        Assertions.assertTrue(WorkRecordRepositoryImpl.supportsWindowFunctions(new Oracle10gDialect()));
+        Assertions.assertTrue(WorkRecordRepositoryImpl.supportsWindowFunctions(new PostgreSQL94Dialect()));
+        Assertions.assertFalse(WorkRecordRepositoryImpl.supportsWindowFunctions(new HSQLDialect()));
+        Assertions.assertFalse(WorkRecordRepositoryImpl.supportsWindowFunctions(new MySQL5Dialect()));
+    }
+
+    @Test
+    void testGetMissingDailyRatesForProjectOnPostgres() {
+        when(sessionFactory.getDialect()).thenReturn(new PostgreSQL94Dialect());
+        when(query.getResultList()).thenReturn(Collections.singletonList(new Object[]{
+                1L, "person1", Timestamp.valueOf("2015-01-01 00:00:00"), Timestamp.valueOf("2015-01-05 00:00:00"), "budget1"}));
+
+        List<MissingDailyRateForBudgetBean> missingDailyRates = repository.getMissingDailyRatesForProject(3L);
+
+        String sql = nativeQuery();
+        Assertions.assertTrue(sql.contains("WHERE rb.PROJECT_ID = :id AND r." + RecordEntity.NOT_RETRACTED), sql);
+        Assertions.assertTrue(sql.contains("ROW_NUMBER() OVER (PARTITION BY r.PERSON_ID, r.BUDGET_ID ORDER BY r.RECORD_DATE, r.ID)"), sql);
+        Assertions.assertTrue(sql.contains("GROUP BY g.PERSON_ID, p.NAME, g.BUDGET_ID, b.NAME, g.RUN"), sql);
+        verify(query).setParameter("id", 3L);
+        Assertions.assertEquals(1, missingDailyRates.size());
+        MissingDailyRateForBudgetBean missingDailyRate = missingDailyRates.get(0);
+        Assertions.assertEquals(1L, missingDailyRate.getPersonId());
+        Assertions.assertEquals("person1", missingDailyRate.getPersonName());
+        Assertions.assertEquals(java.sql.Date.valueOf("2015-01-01"), missingDailyRate.getStartDate());
+        Assertions.assertEquals(java.sql.Date.valueOf("2015-01-05"), missingDailyRate.getEndDate());
+        Assertions.assertEquals("budget1", missingDailyRate.getBudgetName());
+    }
+
+    @Test
+    void testGetMissingDailyRatesForPersonOnOracle() {
+        when(sessionFactory.getDialect()).thenReturn(new Oracle10gDialect());
+        when(query.getResultList()).thenReturn(Collections.emptyList());
+
+        Assertions.assertTrue(repository.getMissingDailyRatesForPerson(2L).isEmpty());
+
+        String sql = nativeQuery();
+        Assertions.assertTrue(sql.contains("WHERE r.PERSON_ID = :id AND r." + RecordEntity.NOT_RETRACTED), sql);
+        Assertions.assertFalse(sql.contains("%s"), sql);
+        verify(query).setParameter("id", 2L);
+    }
+
+    @Test
+    void testWindowQueryFindsRangesOfProject() {
+        Assertions.assertEquals(Arrays.asList(
+                "person1, Budget 1, 2015-01-01 - 2015-01-02",
+                "person1, Budget 1, 2015-01-04 - 2015-01-07",
+                "person1, Budget 1, 2015-01-12 - 2015-01-12",
+                "person1, Budget 2, 2015-01-02 - 2015-01-02"), runWindowQuery("rb.PROJECT_ID = :id", 1L));
+    }
+
+    @Test
+    void testWindowQueryFindsRangesOfPerson() {
+        Assertions.assertEquals(4, runWindowQuery("r.PERSON_ID = :id", 1L).size());
+        Assertions.assertTrue(runWindowQuery("r.PERSON_ID = :id", 2L).isEmpty());
+    }
+
+    /**
+     * Runs the window function query on the records of missingDailyRates.xml and a record of a retracted import,
+     * which would join the first two ranges if it was not ignored.
+     */
+    private List<String> runWindowQuery(String condition, long id) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+            jdbcTemplate.execute("CREATE TABLE PERSON (ID BIGINT PRIMARY KEY, NAME VARCHAR(255))");
+            jdbcTemplate.execute("CREATE TABLE BUDGET (ID BIGINT PRIMARY KEY, NAME VARCHAR(255), PROJECT_ID BIGINT)");
+            jdbcTemplate.execute("CREATE TABLE IMPORT (ID BIGINT PRIMARY KEY, RETRACTED_DATE TIMESTAMP)");
+            jdbcTemplate.execute("CREATE TABLE WORK_RECORD (ID BIGINT PRIMARY KEY, PERSON_ID BIGINT, BUDGET_ID BIGINT, RECORD_DATE DATE, DAILY_RATE DECIMAL(19, 2), IMPORT_ID BIGINT)");
+            jdbcTemplate.execute("INSERT INTO PERSON VALUES (1, 'person1'), (2, 'person2')");
+            jdbcTemplate.execute("INSERT INTO BUDGET VALUES (1, 'Budget 1', 1), (2, 'Budget 2', 1)");
+            jdbcTemplate.execute("INSERT INTO IMPORT VALUES (1, NULL), (2, TIMESTAMP '2015-02-01 00:00:00')");
+            jdbcTemplate.execute("INSERT INTO WORK_RECORD VALUES " +
+                    "(1, 1, 1, DATE '2015-01-02', 0, 1), " +
+                    "(2, 1, 1, DATE '2015-01-01', 0, 1), " +
+                    "(3, 1, 1, DATE '2015-01-03', 10000, 1), " +
+                    "(4, 1, 1, DATE '2015-01-04', 0, 1), " +
+                    "(5, 1, 2, DATE '2015-01-02', 0, 1), " +
+                    "(6, 2, 1, DATE '2015-01-01', 10000, 1), " +
+                    "(7, 1, 1, DATE '2015-01-04', 0, 1), " +
+                    "(8, 1, 2, DATE '2015-01-02', 10000, 1), " +
+                    "(9, 1, 1, DATE '2015-01-07', 0, 1), " +
+                    "(10, 1, 1, DATE '2015-01-09', 10000, 1), " +
+                    "(11, 1, 1, DATE '2015-01-12', 0, 1), " +
+                    "(12, 1, 1, DATE '2015-01-03', 0, 2)");
+
+            String sql = String.format(WorkRecordRepositoryImpl.MISSING_DAILY_RATES_QUERY, condition);
+            return new NamedParameterJdbcTemplate(jdbcTemplate).query(sql, Collections.singletonMap("id", id),
+                    (row, rowNum) -> String.format("%s, %s, %s - %s", row.getString("PERSON_NAME"), row.getString("BUDGET_NAME"),
+                            row.getDate("START_DATE"), row.getDate("END_DATE")));
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    private String nativeQuery() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createNativeQuery(sql.capture());
+        return sql.getValue();
+    }
+}
@@ -30,6 +30,16 @@ class PlanRecordRepositoryTest extends IntegrationTestTemplate {
         Assertions.assertEquals(170000d, value, 1d);
     }
 
+    @Test
+    @DatabaseSetup("getPlannedBudget.xml")
+    @DatabaseTearDown(value = "getPlannedBudget.xml", type = DatabaseOperation.DELETE_ALL)
+    void testGetPlannedBudgets() throws Exception {
+        List<BudgetValueBean> beans = repository.getPlannedBudgets(Arrays.asList(1L, 2L));
+        Assertions.assertEquals(1, beans.size());
+        Assertions.assertEquals(1L, beans.get(0).getBudgetId());
+        Assertions.assertEquals(170000L, beans.get(0).getValueInCents());
+    }
+
     @Test
     @DatabaseSetup("updateDailyRates.xml")
     @DatabaseTearDown(value = "updateDailyRates.xml", type = DatabaseOperation.DELETE_ALL)
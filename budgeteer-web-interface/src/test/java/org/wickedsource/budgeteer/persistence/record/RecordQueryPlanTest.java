@@ -0,0 +1,180 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import com.github.springtestdbunit.annotation.DatabaseOperation;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import com.github.springtestdbunit.annotation.DatabaseTearDown;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.internal.ast.ASTQueryTranslatorFactory;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.wickedsource.budgeteer.IntegrationTestTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks the HSQLDB query plans of the SQL Hibernate generates for the record repository queries, so that a missing
+ * index shows up as a failing test instead of as a full table scan in production.
+ * <p>
+ * HSQLDB creates an index for every foreign key and prefers it as long as only the foreign key column is compared with
+ * a constant, so the plans can only name the composite indexes for queries that compare further columns. The columns
+ * of all indexes are checked against the migration instead.
+ */
+class RecordQueryPlanTest extends IntegrationTestTemplate {
+
+    /**
+     * The indexes a query that compares only the budget of a work record may use, including the foreign key index.
+     */
+    private static final String[] WORK_RECORD_BUDGET_INDEXES = {
+            "WORK_RECORD_BUDGET_DATE_IDX", "WORK_RECORD_BUDGET_WEEK_IDX", "SYS_IDX_FK"};
+
+    private static final Pattern CREATE_INDEX = Pattern.compile("CREATE INDEX (\\w+) ON (\\w+) \\(([^)]+)\\);");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    @DatabaseSetup("queryPlan.xml")
+    @DatabaseTearDown(value = "queryPlan.xml", type = DatabaseOperation.DELETE_ALL)
+    void testFindManuallyEditedEntriesUsesEditedDateIndex() throws Exception {
+        String sql = sqlOf(WorkRecordRepository.class, "findManuallyEditedEntries");
+        String plan = explain(sql, "1", "DATE '2015-01-01'", "DATE '2015-12-31'");
+        assertIndexAccess(plan, "WORK_RECORD", "WORK_RECORD_EDITED_DATE_IDX");
+    }
+
+    @Test
+    @DatabaseSetup("queryPlan.xml")
+    @DatabaseTearDown(value = "queryPlan.xml", type = DatabaseOperation.DELETE_ALL)
+    void testFindDuplicateEntriesUsesCompositeIndex() throws Exception {
+        String sql = sqlOf(WorkRecordRepository.class, "findDuplicateEntries");
+        String plan = explain(sql, "1", "1", "DATE '2015-01-01'", "480");
+        assertIndexAccess(plan, "WORK_RECORD",
+                "WORK_RECORD_BUDGET_DATE_IDX", "WORK_RECORD_PERSON_DATE_IDX", "WORK_RECORD_EDITED_DATE_IDX");
+    }
+
+    @Test
+    @DatabaseSetup("queryPlan.xml")
+    @DatabaseTearDown(value = "queryPlan.xml", type = DatabaseOperation.DELETE_ALL)
+    void testAggregateByBudgetsUsesBudgetIndex() throws Exception {
+        String sql = sqlOf(WorkRecordRepository.class, "aggregateByBudgets");
+        String plan = explain(sql, "1, 2");
+        assertIndexAccess(plan, "WORK_RECORD", WORK_RECORD_BUDGET_INDEXES);
+    }
+
+    @Test
+    @DatabaseSetup("queryPlan.xml")
+    @DatabaseTearDown(value = "queryPlan.xml", type = DatabaseOperation.DELETE_ALL)
+    void testMonthAndWeekAggregationsUseBudgetIndex() throws Exception {
+        for (String methodName : Arrays.asList("aggregateByMonthAndBudget", "aggregateByWeekAndBudget")) {
+            String plan = explain(sqlOf(WorkRecordRepository.class, methodName), "1");
+            assertIndexAccess(plan, "WORK_RECORD", WORK_RECORD_BUDGET_INDEXES);
+        }
+        String plan = explain(sqlOf(WorkRecordRepository.class, "aggregateByMonthForBudget"), "1", "DATE '2015-01-01'");
+        assertIndexAccess(plan, "WORK_RECORD", "WORK_RECORD_BUDGET_DATE_IDX");
+    }
+
+    @Test
+    @DatabaseSetup("queryPlan.xml")
+    @DatabaseTearDown(value = "queryPlan.xml", type = DatabaseOperation.DELETE_ALL)
+    void testDateRangeSumsUseBudgetDateIndex() throws Exception {
+        String plan = explain(sqlOf(WorkRecordRepository.class, "getSpentBudgetUntilDate"), "1", "DATE '2015-01-31'");
+        assertIndexAccess(plan, "WORK_RECORD", "WORK_RECORD_BUDGET_DATE_IDX");
+        for (String methodName : Arrays.asList("getSpentBudgetInTimeRange", "getTotalHoursInTimeRange")) {
+            plan = explain(sqlOf(WorkRecordRepository.class, methodName), "1", "DATE '2015-01-01'", "DATE '2015-01-31'");
+            assertIndexAccess(plan, "WORK_RECORD", "WORK_RECORD_BUDGET_DATE_IDX");
+        }
+        plan = explain(sqlOf(WorkRecordRepository.class, "getSpentBudgetsUntilDate"), "1, 2", "DATE '2015-01-31'");
+        assertIndexAccess(plan, "WORK_RECORD", WORK_RECORD_BUDGET_INDEXES);
+        plan = explain(sqlOf(WorkRecordRepository.class, "getSpentBudgetsInTimeRange"), "1, 2", "DATE '2015-01-01'", "DATE '2015-01-31'");
+        assertIndexAccess(plan, "WORK_RECORD", WORK_RECORD_BUDGET_INDEXES);
+    }
+
+    @Test
+    void testRecordIndexesMatchMigration() throws IOException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Matcher matcher = CREATE_INDEX.matcher(readMigration("db/migration/V1_1_3__Record_Indexes.sql"));
+        int indexes = 0;
+        while (matcher.find()) {
+            List<String> columns = jdbcTemplate.queryForList("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.SYSTEM_INDEXINFO " +
+                    "WHERE INDEX_NAME = ? AND TABLE_NAME = ? ORDER BY ORDINAL_POSITION", String.class, matcher.group(1), matcher.group(2));
+            Assertions.assertEquals(Arrays.asList(matcher.group(3).split(",\\s*")), columns, matcher.group(1));
+            indexes++;
+        }
+        Assertions.assertEquals(12, indexes);
+    }
+
+    /**
+     * Translates the JPQL of the given repository method into the SQL Hibernate sends to the database.
+     */
+    private String sqlOf(Class<?> repository, String methodName) {
+        Method method = Arrays.stream(repository.getMethods())
+                // methods overridden from RecordRepository are returned without their query as well
+                .filter(m -> m.getName().equals(methodName) && m.isAnnotationPresent(Query.class))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(methodName));
+        String jpql = method.getAnnotation(Query.class).value();
+        SessionFactoryImplementor sessionFactory = (SessionFactoryImplementor) entityManager.unwrap(Session.class).getSessionFactory();
+        QueryTranslator translator = new ASTQueryTranslatorFactory()
+                .createQueryTranslator(jpql, jpql, Collections.emptyMap(), sessionFactory, null);
+        translator.compile(Collections.emptyMap(), false);
+        return translator.getSQLString();
+    }
+
+    /**
+     * Explains the given SQL after replacing its parameter markers with the given literals in order.
+     */
+    private String explain(String sql, String... parameters) {
+        StringBuilder statement = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                statement.append(parameters[parameter++]);
+            } else {
+                statement.append(c);
+            }
+        }
+        Assertions.assertEquals(parameters.length, parameter, sql);
+        List<String> lines = new JdbcTemplate(dataSource).queryForList("EXPLAIN PLAN FOR " + statement, String.class);
+        return String.join("\n", lines);
+    }
+
+    /**
+     * Asserts that the given table is accessed through one of the given indexes and not by scanning the whole table.
+     */
+    private void assertIndexAccess(String plan, String table, String... indexes) {
+        int start = plan.indexOf("table=" + table);
+        Assertions.assertTrue(start >= 0, plan);
+        int end = plan.indexOf("table=", start + 1);
+        String tableAccess = end < 0 ? plan.substring(start) : plan.substring(start, end);
+        Assertions.assertFalse(tableAccess.contains("FULL SCAN"), plan);
+        Assertions.assertTrue(tableAccess.contains("INDEX PRED"), plan);
+        Assertions.assertTrue(Arrays.stream(indexes).anyMatch(tableAccess::contains), plan);
+    }
+
+    private String readMigration(String resource) throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(resource);
+             Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+
+}
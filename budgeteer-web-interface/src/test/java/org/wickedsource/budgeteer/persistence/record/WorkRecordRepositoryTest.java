@@ -15,8 +15,10 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 class WorkRecordRepositoryTest extends IntegrationTestTemplate {
 
@@ -33,6 +35,20 @@ class WorkRecordRepositoryTest extends IntegrationTestTemplate {
         Assertions.assertEquals(170000d, value, 1d);
     }
 
+    @Test
+    @DatabaseSetup("getSpentBudget.xml")
+    @DatabaseTearDown(value = "getSpentBudget.xml", type = DatabaseOperation.DELETE_ALL)
+    void testAggregateByBudgets() throws Exception {
+        List<BudgetWorkRecordsBean> beans = repository.aggregateByBudgets(Arrays.asList(1L, 2L));
+        Assertions.assertEquals(1, beans.size());
+        BudgetWorkRecordsBean bean = beans.get(0);
+        Assertions.assertEquals(1L, bean.getBudgetId());
+        Assertions.assertEquals(170000L, bean.getSpentInCents());
+        Assertions.assertEquals(1440L, bean.getMinutes());
+        Assertions.assertEquals(56666d, bean.getAverageDailyRateInCents(), 1d);
+        Assertions.assertEquals(format.parse("15.08.2015"), bean.getLatestRecordDate());
+    }
+
     @Test
     @DatabaseSetup("getAverageDailyRate.xml")
     @DatabaseTearDown(value = "getAverageDailyRate.xml", type = DatabaseOperation.DELETE_ALL)
@@ -73,6 +89,28 @@ class WorkRecordRepositoryTest extends IntegrationTestTemplate {
         Assertions.assertEquals(0d, value, 10e-8);
     }
 
+    @Test
+    @DatabaseSetup("getSpentBudgetUntilDate.xml")
+    @DatabaseTearDown(value = "getSpentBudgetUntilDate.xml", type = DatabaseOperation.DELETE_ALL)
+    void testGetSpentBudgetsUntilDate() throws Exception {
+        List<BudgetSpentBean> beans = repository.getSpentBudgetsUntilDate(Arrays.asList(1L, 2L), format.parse("15.08.2015"));
+        BudgetSpentBean bean = beans.stream().filter(b -> b.getBudgetId() == 1L).findFirst().get();
+        Assertions.assertEquals(repository.getSpentBudgetUntilDate(1L, format.parse("15.08.2015")), bean.getSpentInCents().doubleValue(), 0d);
+    }
+
+    @Test
+    @DatabaseSetup("getTotalHoursInTimeRange.xml")
+    @DatabaseTearDown(value = "getTotalHoursInTimeRange.xml", type = DatabaseOperation.DELETE_ALL)
+    void testGetSpentBudgetsInTimeRange() throws Exception {
+        Date from = format.parse("15.08.2015");
+        Date until = format.parse("16.08.2015");
+        List<BudgetSpentBean> beans = repository.getSpentBudgetsInTimeRange(Collections.singletonList(1L), from, until);
+        Assertions.assertEquals(1, beans.size());
+        Assertions.assertEquals(repository.getSpentBudgetInTimeRange(1L, from, until), beans.get(0).getSpentInCents().doubleValue(), 0d);
+        Assertions.assertEquals(repository.getTotalHoursInTimeRange(1L, from, until), beans.get(0).getHours(), 0d);
+        Assertions.assertTrue(repository.getSpentBudgetsInTimeRange(Collections.singletonList(1L), format.parse("15.08.2010"), format.parse("16.08.2011")).isEmpty());
+    }
+
     @Test
     @DatabaseSetup("getAverageDailyRateZeroMinutes.xml")
     @DatabaseTearDown(value = "getAverageDailyRateZeroMinutes.xml", type = DatabaseOperation.DELETE_ALL)
@@ -619,6 +657,34 @@ class WorkRecordRepositoryTest extends IntegrationTestTemplate {
         Assertions.assertEquals(2, records.size());
     }
 
+    @Test
+    @DatabaseSetup("findDuplicateEntries.xml")
+    @DatabaseTearDown(value = "findDuplicateEntries.xml", type = DatabaseOperation.DELETE_ALL)
+    void testFindDuplicatesOfManuallyEditedEntries() throws ParseException {
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+        Map<Long, List<WorkRecordEntity>> duplicates = repository.findDuplicatesOfManuallyEditedEntries(1L, formatter.parse("2012-01-01"), formatter.parse("2016-12-31"));
+        Assertions.assertTrue(duplicates.isEmpty());
+
+        duplicates = repository.findDuplicatesOfManuallyEditedEntries(2L, formatter.parse("2012-01-01"), formatter.parse("2016-08-14"));
+        Assertions.assertTrue(duplicates.isEmpty());
+
+        duplicates = repository.findDuplicatesOfManuallyEditedEntries(2L, formatter.parse("2012-01-01"), formatter.parse("2016-12-31"));
+        Assertions.assertEquals(1, duplicates.size());
+        Assertions.assertEquals(2, duplicates.get(9L).size());
+        Assertions.assertEquals(7L, duplicates.get(9L).get(0).getId());
+        Assertions.assertEquals(8L, duplicates.get(9L).get(1).getId());
+    }
+
+    @Test
+    @DatabaseSetup("findDuplicateEntries.xml")
+    @DatabaseTearDown(value = "findDuplicateEntries.xml", type = DatabaseOperation.DELETE_ALL)
+    void testDeleteByIds() {
+        repository.deleteByIds(Arrays.asList(7L, 8L));
+        Assertions.assertNull(repository.findOne(7L));
+        Assertions.assertNull(repository.findOne(8L));
+        Assertions.assertNotNull(repository.findOne(9L));
+    }
+
     @Test
     @DatabaseSetup("getSpentMoneyOfContract.xml")
     @DatabaseTearDown(value = "getSpentMoneyOfContract.xml", type = DatabaseOperation.DELETE_ALL)
@@ -626,4 +692,32 @@ class WorkRecordRepositoryTest extends IntegrationTestTemplate {
         double money = repository.getSpentMoneyOfContract(1L);
         Assertions.assertEquals(1500, money);
     }
+
+    @Test
+    @DatabaseSetup("missingDailyRates.xml")
+    @DatabaseTearDown(value = "missingDailyRates.xml", type = DatabaseOperation.DELETE_ALL)
+    void testGetMissingDailyRatesForProject() throws Exception {
+        List<MissingDailyRateForBudgetBean> missingRates = repository.getMissingDailyRatesForProject(1L);
+        Assertions.assertEquals(4, missingRates.size());
+        assertMissingDailyRate(missingRates.get(0), "Budget 1", "01.01.2015", "02.01.2015");
+        assertMissingDailyRate(missingRates.get(1), "Budget 1", "04.01.2015", "07.01.2015");
+        assertMissingDailyRate(missingRates.get(2), "Budget 1", "12.01.2015", "12.01.2015");
+        assertMissingDailyRate(missingRates.get(3), "Budget 2", "02.01.2015", "02.01.2015");
+    }
+
+    @Test
+    @DatabaseSetup("missingDailyRates.xml")
+    @DatabaseTearDown(value = "missingDailyRates.xml", type = DatabaseOperation.DELETE_ALL)
+    void testGetMissingDailyRatesForPerson() throws Exception {
+        Assertions.assertEquals(4, repository.getMissingDailyRatesForPerson(1L).size());
+        Assertions.assertEquals(0, repository.getMissingDailyRatesForPerson(2L).size());
+    }
+
+    private void assertMissingDailyRate(MissingDailyRateForBudgetBean bean, String budgetName, String startDate, String endDate) throws ParseException {
+        Assertions.assertEquals(1L, bean.getPersonId());
+        Assertions.assertEquals("person1", bean.getPersonName());
+        Assertions.assertEquals(budgetName, bean.getBudgetName());
+        Assertions.assertEquals(format.parse(startDate).getTime(), bean.getStartDate().getTime());
+        Assertions.assertEquals(format.parse(endDate).getTime(), bean.getEndDate().getTime());
+    }
 }
@@ -0,0 +1,166 @@
+package org.wickedsource.budgeteer.persistence.record;
+
+import com.github.springtestdbunit.annotation.DatabaseOperation;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import com.github.springtestdbunit.annotation.DatabaseTearDown;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.wickedsource.budgeteer.IntegrationTestTemplate;
+import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRepository;
+import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRollupRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class WorkRecordRollupRepositoryTest extends IntegrationTestTemplate {
+
+    private static final List<Long> BUDGET_IDS = Arrays.asList(1L, 2L, 3L, 4L);
+
+    private static final List<List<String>> TAG_FILTERS = Arrays.asList(
+            Collections.singletonList("tag1"),
+            Collections.singletonList("tag2"),
+            Arrays.asList("tag1", "tag2"));
+
+    @Autowired
+    private WorkRecordRepository workRecordRepository;
+
+    @Autowired
+    private WorkRecordRollupRepository rollupRepository;
+
+    @Autowired
+    private PlanRecordRepository planRecordRepository;
+
+    @Autowired
+    private PlanRecordRollupRepository planRecordRollupRepository;
+
+    @Autowired
+    private ManualRecordRepository manualRecordRepository;
+
+    @Autowired
+    private ManualRecordRollupRepository manualRecordRollupRepository;
+
+    @Test
+    @DatabaseSetup("getSpentBudget.xml")
+    @DatabaseTearDown(value = "getSpentBudget.xml", type = DatabaseOperation.DELETE_ALL)
+    void testAggregateForRollup() throws Exception {
+        List<WorkRecordRollupEntity> rollups = workRecordRepository.aggregateForRollup(Collections.singletonList(1L));
+        Assertions.assertEquals(2, rollups.size());
+        long minutes = 0;
+        for (WorkRecordRollupEntity rollup : rollups) {
+            Assertions.assertEquals(1L, rollup.getBudgetId());
+            Assertions.assertEquals(1L, rollup.getPersonId());
+            minutes += rollup.getMinutes();
+        }
+        Assertions.assertEquals(1440L, minutes);
+    }
+
+    @Test
+    @DatabaseSetup("getSpentBudget.xml")
+    @DatabaseTearDown(value = "getSpentBudget.xml", type = DatabaseOperation.DELETE_ALL)
+    void testRollupAggregationsMatchRecordAggregations() throws Exception {
+        rollupRepository.save(workRecordRepository.aggregateForRollup(Collections.singletonList(1L)));
+
+        Assertions.assertEquals(workRecordRepository.aggregateByMonth(1L), rollupRepository.aggregateByMonth(1L));
+        Assertions.assertEquals(workRecordRepository.aggregateByWeek(1L), rollupRepository.aggregateByWeek(1L));
+
+        rollupRepository.deleteByBudgetIds(Collections.singletonList(1L));
+        Assertions.assertEquals(0, rollupRepository.count());
+    }
+
+    @Test
+    @DatabaseSetup("rollupAggregations.xml")
+    @DatabaseTearDown(value = "rollupAggregations.xml", type = DatabaseOperation.DELETE_ALL)
+    void testWorkRollupAggregationsMatchRecordAggregations() throws Exception {
+        rollupRepository.save(workRecordRepository.aggregateForRollup(BUDGET_IDS));
+
+        assertRollupAggregationsMatch(workRecordRepository, rollupRepository);
+    }
+
+    @Test
+    @DatabaseSetup("rollupAggregations.xml")
+    @DatabaseTearDown(value = "rollupAggregations.xml", type = DatabaseOperation.DELETE_ALL)
+    void testPlanRollupAggregationsMatchRecordAggregations() throws Exception {
+        planRecordRollupRepository.save(planRecordRepository.aggregateForRollup(BUDGET_IDS));
+
+        assertRollupAggregationsMatch(planRecordRepository, planRecordRollupRepository);
+
+        planRecordRollupRepository.deleteByBudgetIds(BUDGET_IDS);
+        Assertions.assertEquals(0, planRecordRollupRepository.count());
+    }
+
+    @Test
+    @DatabaseSetup("rollupAggregations.xml")
+    @DatabaseTearDown(value = "rollupAggregations.xml", type = DatabaseOperation.DELETE_ALL)
+    void testManualRollupAggregationsMatchRecordAggregations() throws Exception {
+        for (long budgetId : BUDGET_IDS) {
+            manualRecordRollupRepository.save(manualRecordRepository.aggregateForRollup(budgetId));
+        }
+
+        Assertions.assertFalse(manualRecordRepository.aggregateByWeekForBudgetsWithTax(1L).isEmpty());
+        for (long projectId : Arrays.asList(1L, 2L)) {
+            assertSameAggregations(manualRecordRepository.aggregateByMonthWithTax(projectId),
+                    manualRecordRollupRepository.aggregateByMonthWithTax(projectId));
+            assertSameAggregations(manualRecordRepository.aggregateByWeekForBudgetsWithTax(projectId),
+                    manualRecordRollupRepository.aggregateByWeekForBudgetsWithTax(projectId));
+            for (List<String> tags : TAG_FILTERS) {
+                assertSameAggregations(manualRecordRepository.aggregateByMonthAndBudgetTagsWithTax(projectId, tags),
+                        manualRecordRollupRepository.aggregateByMonthAndBudgetTagsWithTax(projectId, tags));
+                assertSameAggregations(manualRecordRepository.aggregateByWeekForBudgetsWithTax(projectId, tags),
+                        manualRecordRollupRepository.aggregateByWeekForBudgetsWithTax(projectId, tags));
+            }
+        }
+
+        manualRecordRollupRepository.deleteByProjectId(1L);
+        Assertions.assertTrue(manualRecordRollupRepository.aggregateByMonthWithTax(1L).isEmpty());
+        Assertions.assertFalse(manualRecordRollupRepository.aggregateByMonthWithTax(2L).isEmpty());
+    }
+
+    /**
+     * Compares every query of the rollup repository with the equally named query on the records, for both projects
+     * of the dataset and with and without tag filters.
+     */
+    private void assertRollupAggregationsMatch(RecordRepository records, RecordRollupRepository rollups) {
+        Assertions.assertFalse(records.aggregateByWeekAndPersonForBudgetsWithTax(1L).isEmpty());
+        for (long projectId : Arrays.asList(1L, 2L)) {
+            assertSameAggregations(records.aggregateByWeek(projectId), rollups.aggregateByWeek(projectId));
+            assertSameAggregations(records.aggregateByMonth(projectId), rollups.aggregateByMonth(projectId));
+            assertSameAggregations(records.aggregateByMonthWithTax(projectId), rollups.aggregateByMonthWithTax(projectId));
+            assertSameAggregations(records.aggregateByWeekForBudgetsWithTax(projectId),
+                    rollups.aggregateByWeekForBudgetsWithTax(projectId));
+            assertSameAggregations(records.aggregateByWeekAndPersonForBudgetsWithTax(projectId),
+                    rollups.aggregateByWeekAndPersonForBudgetsWithTax(projectId));
+            for (List<String> tags : TAG_FILTERS) {
+                assertSameAggregations(records.aggregateByWeekAndBudgetTags(projectId, tags),
+                        rollups.aggregateByWeekAndBudgetTags(projectId, tags));
+                assertSameAggregations(records.aggregateByMonthAndBudgetTags(projectId, tags),
+                        rollups.aggregateByMonthAndBudgetTags(projectId, tags));
+                assertSameAggregations(records.aggregateByMonthAndBudgetTagsWithTax(projectId, tags),
+                        rollups.aggregateByMonthAndBudgetTagsWithTax(projectId, tags));
+                assertSameAggregations(records.aggregateByWeekForBudgetsWithTax(projectId, tags),
+                        rollups.aggregateByWeekForBudgetsWithTax(projectId, tags));
+                assertSameAggregations(records.aggregateByWeekAndPersonForBudgetsWithTax(projectId, tags),
+                        rollups.aggregateByWeekAndPersonForBudgetsWithTax(projectId, tags));
+            }
+        }
+    }
+
+    /**
+     * The beans with tax rate and title inherit equals() from their superclass, so they are compared by all of their
+     * fields. The queries order only by period and person, so rows of the same period may come in any order.
+     */
+    private static void assertSameAggregations(List<?> expected, List<?> actual) {
+        Assertions.assertEquals(describe(expected), describe(actual));
+    }
+
+    private static List<String> describe(List<?> aggregations) {
+        return aggregations.stream()
+                .map(aggregation -> ReflectionToStringBuilder.toString(aggregation, ToStringStyle.SHORT_PREFIX_STYLE))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
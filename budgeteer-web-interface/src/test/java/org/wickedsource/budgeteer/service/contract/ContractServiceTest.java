@@ -241,6 +241,31 @@ class ContractServiceTest extends ServiceIntegrationTestTemplate {
         assertEquals(2, testObject.getBelongingInvoices().size());
     }
 
+    @Test
+    @DatabaseSetup("contractTest.xml")
+    @DatabaseTearDown(value = "contractTest.xml", type = DatabaseOperation.DELETE_ALL)
+    void testGetContractsByProject() {
+        List<ContractBaseData> contracts = service.getContractsByProject(3);
+        assertEquals(1, contracts.size());
+        ContractBaseData testObject = contracts.get(0);
+        ContractBaseData expected = service.getContractById(3);
+
+        assertEquals(expected.getContractId(), testObject.getContractId());
+        assertEquals(expected.getProjectId(), testObject.getProjectId());
+        assertEquals(expected.getContractName(), testObject.getContractName());
+        assertEquals(expected.getInternalNumber(), testObject.getInternalNumber());
+        assertEquals(expected.getBudget(), testObject.getBudget());
+        assertEquals(expected.getBudgetSpent(), testObject.getBudgetSpent());
+        assertEquals(expected.getBudgetLeft(), testObject.getBudgetLeft());
+        assertEquals(expected.getTaxRate(), testObject.getTaxRate(), 10e-8);
+        assertEquals(expected.getStartDate(), testObject.getStartDate());
+        assertEquals(expected.getType(), testObject.getType());
+        assertEquals(expected.getContractAttributes(), testObject.getContractAttributes());
+        assertEquals(expected.getBelongingBudgets(), testObject.getBelongingBudgets());
+        assertTrue(testObject.getBelongingInvoices().isEmpty());
+        assertNull(testObject.getFileModel().getFile());
+    }
+
     private List<DynamicAttributeField> getListOfContractFields() {
         List<DynamicAttributeField> result = new LinkedList<>();
         DynamicAttributeField data = new DynamicAttributeField();
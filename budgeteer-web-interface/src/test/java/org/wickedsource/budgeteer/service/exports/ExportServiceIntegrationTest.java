@@ -0,0 +1,59 @@
+package org.wickedsource.budgeteer.service.exports;
+
+import com.github.springtestdbunit.annotation.DatabaseOperation;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import com.github.springtestdbunit.annotation.DatabaseTearDown;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.wickedsource.budgeteer.IntegrationTestTemplate;
+import org.wickedsource.budgeteer.service.person.PersonBaseData;
+import org.wickedsource.budgeteer.service.record.WorkRecordFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+class ExportServiceIntegrationTest extends IntegrationTestTemplate {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Test
+    @DatabaseSetup("export.xml")
+    @DatabaseTearDown(value = "export.xml", type = DatabaseOperation.DELETE_ALL)
+    void testWriteCSVFromRecords() throws Exception {
+        WorkRecordFilter filter = new WorkRecordFilter(1L);
+        filter.getPersonList().add(new PersonBaseData(1L));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.writeCSVFromRecords(filter, out, false);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertTrue(lines[1].startsWith("Budget 1;person1;EUR 100.00;"));
+        Assertions.assertTrue(lines[2].startsWith("Budget 1;person1;EUR 200.00;"));
+    }
+
+    @Test
+    @DatabaseSetup("export.xml")
+    @DatabaseTearDown(value = "export.xml", type = DatabaseOperation.DELETE_ALL)
+    void testWriteGzippedCSVFromRecords() throws Exception {
+        WorkRecordFilter filter = new WorkRecordFilter(1L);
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        exportService.writeCSVFromRecords(filter, plain, false);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        exportService.writeCSVFromRecords(filter, gzipped, true);
+
+        ByteArrayOutputStream unzipped = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.toByteArray()))) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                unzipped.write(buffer, 0, read);
+            }
+        }
+        Assertions.assertArrayEquals(plain.toByteArray(), unzipped.toByteArray());
+    }
+}
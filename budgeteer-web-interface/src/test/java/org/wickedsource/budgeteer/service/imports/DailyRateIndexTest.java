@@ -0,0 +1,91 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import org.joda.money.Money;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.wickedsource.budgeteer.MoneyUtil;
+import org.wickedsource.budgeteer.persistence.budget.BudgetEntity;
+import org.wickedsource.budgeteer.persistence.person.DailyRateEntity;
+import org.wickedsource.budgeteer.persistence.person.PersonEntity;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+class DailyRateIndexTest {
+
+    private SimpleDateFormat format = new SimpleDateFormat("dd.MM.yyyy");
+
+    @Test
+    void testAdjacentRanges() throws ParseException {
+        List<DailyRateEntity> rates = new ArrayList<>();
+        rates.add(createRate("budget1", "person1", "01.01.2017", "31.01.2017", 100));
+        rates.add(createRate("budget1", "person1", "01.02.2017", "28.02.2017", 200));
+        DailyRateIndex index = new DailyRateIndex(rates);
+
+        Assertions.assertNull(index.getRate("budget1", "person1", date("31.12.2016")));
+        Assertions.assertEquals(cents(100), index.getRate("budget1", "person1", date("01.01.2017")));
+        Assertions.assertEquals(cents(100), index.getRate("budget1", "person1", date("31.01.2017")));
+        Assertions.assertEquals(cents(200), index.getRate("budget1", "person1", date("01.02.2017")));
+        Assertions.assertEquals(cents(200), index.getRate("budget1", "person1", date("28.02.2017")));
+        Assertions.assertNull(index.getRate("budget1", "person1", date("01.03.2017")));
+    }
+
+    @Test
+    void testOverlappingRangesReturnTheFirstRate() throws ParseException {
+        List<DailyRateEntity> rates = new ArrayList<>();
+        rates.add(createRate("budget1", "person1", "10.01.2017", "20.01.2017", 100));
+        rates.add(createRate("budget1", "person1", "01.01.2017", "31.01.2017", 200));
+        rates.add(createRate("budget1", "person1", "15.01.2017", "10.02.2017", 300));
+        DailyRateIndex index = new DailyRateIndex(rates);
+
+        Assertions.assertEquals(cents(200), index.getRate("budget1", "person1", date("01.01.2017")));
+        Assertions.assertEquals(cents(200), index.getRate("budget1", "person1", date("09.01.2017")));
+        Assertions.assertEquals(cents(100), index.getRate("budget1", "person1", date("10.01.2017")));
+        Assertions.assertEquals(cents(100), index.getRate("budget1", "person1", date("20.01.2017")));
+        Assertions.assertEquals(cents(200), index.getRate("budget1", "person1", date("21.01.2017")));
+        Assertions.assertEquals(cents(200), index.getRate("budget1", "person1", date("31.01.2017")));
+        Assertions.assertEquals(cents(300), index.getRate("budget1", "person1", date("01.02.2017")));
+        Assertions.assertEquals(cents(300), index.getRate("budget1", "person1", date("10.02.2017")));
+        Assertions.assertNull(index.getRate("budget1", "person1", date("11.02.2017")));
+    }
+
+    @Test
+    void testRatesAreSeparatedByBudgetAndPerson() throws ParseException {
+        List<DailyRateEntity> rates = new ArrayList<>();
+        rates.add(createRate("budget1", "person1", "01.01.2017", "31.12.2017", 100));
+        rates.add(createRate("budget1", "person2", "01.01.2017", "31.12.2017", 200));
+        rates.add(createRate("budget2", "person1", "01.01.2017", "31.12.2017", 300));
+        DailyRateIndex index = new DailyRateIndex(rates);
+
+        Assertions.assertEquals(cents(100), index.getRate("budget1", "person1", date("01.06.2017")));
+        Assertions.assertEquals(cents(200), index.getRate("budget1", "person2", date("01.06.2017")));
+        Assertions.assertEquals(cents(300), index.getRate("budget2", "person1", date("01.06.2017")));
+        Assertions.assertNull(index.getRate("budget2", "person2", date("01.06.2017")));
+        Assertions.assertNull(index.getRate("budget3", "person1", date("01.06.2017")));
+    }
+
+    private DailyRateEntity createRate(String budgetKey, String personKey, String start, String end, long cents) throws ParseException {
+        BudgetEntity budget = new BudgetEntity();
+        budget.setImportKey(budgetKey);
+        PersonEntity person = new PersonEntity();
+        person.setImportKey(personKey);
+        DailyRateEntity rate = new DailyRateEntity();
+        rate.setBudget(budget);
+        rate.setPerson(person);
+        rate.setDateStart(date(start));
+        rate.setDateEnd(date(end));
+        rate.setRate(cents(cents));
+        return rate;
+    }
+
+    private Date date(String date) throws ParseException {
+        return format.parse(date);
+    }
+
+    private Money cents(long cents) {
+        return MoneyUtil.createMoneyFromCents(cents);
+    }
+}
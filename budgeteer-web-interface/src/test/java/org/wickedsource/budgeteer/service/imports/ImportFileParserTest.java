@@ -0,0 +1,104 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.wickedsource.budgeteer.importer.aproda.AprodaWorkRecordsImporter;
+import org.wickedsource.budgeteer.imports.api.ImportFile;
+import org.wickedsource.budgeteer.imports.api.ImportedWorkRecord;
+import org.wickedsource.budgeteer.imports.api.WorkRecordsImporter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ImportFileParserTest {
+
+    private static final String[] FILE_NAMES = {"file1", "file2", "file3", "file4"};
+
+    private ImportFileParser parser = new ImportFileParser();
+
+    @AfterEach
+    void shutdown() {
+        parser.shutdown();
+    }
+
+    private List<ImportFile> getImportFiles() {
+        List<ImportFile> importFiles = new ArrayList<>();
+        for (String fileName : FILE_NAMES) {
+            importFiles.add(new ImportFile(fileName, getClass().getResourceAsStream("testReport3.xlsx")));
+        }
+        return importFiles;
+    }
+
+    @Test
+    void testParallelParsingMatchesSequentialParsing() throws Exception {
+        AprodaWorkRecordsImporter sequentialImporter = new AprodaWorkRecordsImporter();
+        List<ImportedWorkRecord> sequentialRecords = new ArrayList<>();
+        for (ImportFile file : getImportFiles()) {
+            sequentialRecords.addAll(sequentialImporter.importFile(file));
+        }
+
+        ImportFileParser.ParsedFiles<AprodaWorkRecordsImporter, ImportedWorkRecord> results = parser.parse(new AprodaWorkRecordsImporter(), getImportFiles(), WorkRecordsImporter::importFile);
+        List<ImportFileParser.ParsedFile<ImportedWorkRecord>> parsedFiles = new ArrayList<>();
+        List<ImportedWorkRecord> parallelRecords = new ArrayList<>();
+        while (results.hasNext()) {
+            ImportFileParser.ParsedFile<ImportedWorkRecord> parsedFile = results.next();
+            parsedFiles.add(parsedFile);
+            parallelRecords.addAll(parsedFile.getRecords());
+        }
+
+        Assertions.assertEquals(FILE_NAMES.length, parsedFiles.size());
+        for (int i = 0; i < FILE_NAMES.length; i++) {
+            Assertions.assertEquals(FILE_NAMES[i], parsedFiles.get(i).getFilename());
+        }
+        Assertions.assertEquals(sequentialRecords.size(), parallelRecords.size());
+        for (int i = 0; i < sequentialRecords.size(); i++) {
+            Assertions.assertEquals(sequentialRecords.get(i).getDate(), parallelRecords.get(i).getDate());
+            Assertions.assertEquals(sequentialRecords.get(i).getPersonName(), parallelRecords.get(i).getPersonName());
+            Assertions.assertEquals(sequentialRecords.get(i).getMinutesWorked(), parallelRecords.get(i).getMinutesWorked());
+        }
+        Assertions.assertEquals(sequentialImporter.getSkippedRecords(), ImportFileParser.mergeSkippedRecords(parsedFiles));
+    }
+
+    @Test
+    void testFilesAreParsedAheadOnlyUpToTheNumberOfThreads() throws Exception {
+        ImportFileParser boundedParser = new ImportFileParser(2);
+        AtomicInteger parsedAhead = new AtomicInteger();
+        AtomicInteger maxParsedAhead = new AtomicInteger();
+        try {
+            ImportFileParser.ParsedFiles<AprodaWorkRecordsImporter, ImportedWorkRecord> results = boundedParser.parse(new AprodaWorkRecordsImporter(), getImportFiles(),
+                    (importer, file) -> {
+                        List<ImportedWorkRecord> records = importer.importFile(file);
+                        maxParsedAhead.accumulateAndGet(parsedAhead.incrementAndGet(), Math::max);
+                        return records;
+                    });
+            List<String> fileNames = new ArrayList<>();
+            while (results.hasNext()) {
+                ImportFileParser.ParsedFile<ImportedWorkRecord> parsedFile = results.next();
+                // give the parser threads the chance to run ahead as far as they are allowed to
+                Thread.sleep(100);
+                fileNames.add(parsedFile.withoutRecords().getFilename());
+                parsedAhead.decrementAndGet();
+            }
+            Assertions.assertEquals(Arrays.asList(FILE_NAMES), fileNames);
+            Assertions.assertTrue(maxParsedAhead.get() <= 3, String.valueOf(maxParsedAhead.get()));
+        } finally {
+            boundedParser.shutdown();
+        }
+    }
+
+    @Test
+    void testMergeSkippedRecordsOfSingleFileWithoutSkippedRecords() {
+        List<ImportFileParser.ParsedFile<ImportedWorkRecord>> parsedFiles = new ArrayList<>();
+        parsedFiles.add(new ImportFileParser.ParsedFile<>("file1", new ArrayList<>(), new ArrayList<>()));
+        Assertions.assertTrue(ImportFileParser.mergeSkippedRecords(parsedFiles).isEmpty());
+
+        parsedFiles.add(new ImportFileParser.ParsedFile<>("file2", new ArrayList<>(), new ArrayList<>()));
+        List<List<String>> merged = ImportFileParser.mergeSkippedRecords(parsedFiles);
+        Assertions.assertEquals(4, merged.size());
+        Assertions.assertEquals("file1", merged.get(1).get(0));
+        Assertions.assertEquals("file2", merged.get(3).get(0));
+    }
+}
@@ -0,0 +1,118 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import com.github.springtestdbunit.annotation.DatabaseOperation;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import com.github.springtestdbunit.annotation.DatabaseTearDown;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kubek2k.springockito.annotations.SpringockitoContextLoader;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.wickedsource.budgeteer.importer.aproda.AprodaWorkRecordsImporter;
+import org.wickedsource.budgeteer.imports.api.ImportFile;
+import org.wickedsource.budgeteer.persistence.project.ProjectEntity;
+import org.wickedsource.budgeteer.persistence.project.ProjectRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(loader = SpringockitoContextLoader.class, locations = {"classpath:spring-service.xml", "classpath:spring-repository-mock.xml"})
+class ImportJobServiceTest {
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private ImportJobService importJobService;
+
+    private List<ImportFile> getImportFiles() {
+        List<ImportFile> importFiles = new ArrayList<>();
+        importFiles.add(new ImportFile("file1", getClass().getResourceAsStream("testReport3.xlsx")));
+        return importFiles;
+    }
+
+    @Test
+    @DatabaseSetup("doImportWithEmptyDatabase.xml")
+    @DatabaseTearDown(value = "doImportWithEmptyDatabase.xml", type = DatabaseOperation.DELETE_ALL)
+    void testSubmitReportsProgressPerFile() throws Exception {
+        Mockito.when(projectRepository.findOne(Mockito.anyLong())).thenReturn(new ProjectEntity());
+        ImportJob job = importJobService.submit(1L, new AprodaWorkRecordsImporter(), getImportFiles());
+        Assertions.assertSame(job, importJobService.getJob(job.getId()));
+
+        long timeout = System.currentTimeMillis() + 30000;
+        while (!job.getStatus().isFinished() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(50);
+        }
+
+        Assertions.assertEquals(ImportJob.Status.SUCCEEDED, job.getStatus());
+        Assertions.assertEquals(3, job.getSkippedRecords().size());
+        Assertions.assertEquals(1, job.getFinishedFiles());
+        ImportJob.FileProgress file = job.getFiles().get(0);
+        Assertions.assertEquals("file1", file.getFileName());
+        Assertions.assertTrue(file.getParsedRows() > 0);
+        Assertions.assertEquals(file.getParsedRows(), file.getPersistedRows());
+    }
+
+    @Test
+    void testCancelledImportIsStoppedBeforeFirstFile() {
+        ImportProgress cancelled = new ImportProgress() {
+            @Override
+            public void fileParsed(String filename, int parsedRows, int skippedRows) {
+                Assertions.fail("No file should be parsed after the import has been cancelled");
+            }
+
+            @Override
+            public void filePersisted(String filename, int persistedRows, int skippedRows) {
+                Assertions.fail("No file should be persisted after the import has been cancelled");
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+        Assertions.assertThrows(ImportCancelledException.class,
+                () -> importService.doImport(1L, new AprodaWorkRecordsImporter(), getImportFiles(), cancelled));
+    }
+
+    @Test
+    void testStatusTransitionsDoNotOverwriteEachOther() {
+        ImportJob queued = new ImportJob("queued", 1L, "importer", Collections.singletonList("file1"));
+        queued.cancel();
+        Assertions.assertFalse(queued.started());
+        Assertions.assertEquals(ImportJob.Status.CANCELLED, queued.getStatus());
+
+        ImportJob running = new ImportJob("running", 1L, "importer", Collections.singletonList("file1"));
+        Assertions.assertTrue(running.started());
+        Assertions.assertEquals(Long.MAX_VALUE, running.getFinishedAt());
+        running.succeeded(Collections.emptyList());
+        running.cancel();
+        running.failed(new IllegalStateException());
+        Assertions.assertEquals(ImportJob.Status.SUCCEEDED, running.getStatus());
+        Assertions.assertNull(running.getError());
+        Assertions.assertTrue(running.getFinishedAt() <= System.currentTimeMillis());
+
+        ImportJob failing = new ImportJob("failing", 1L, "importer", Collections.singletonList("file1"));
+        Assertions.assertTrue(failing.started());
+        IllegalStateException error = new IllegalStateException();
+        failing.failed(error);
+        failing.succeeded(Collections.singletonList(Collections.singletonList("skipped")));
+        Assertions.assertEquals(ImportJob.Status.FAILED, failing.getStatus());
+        Assertions.assertSame(error, failing.getError());
+        Assertions.assertTrue(failing.getSkippedRecords().isEmpty());
+    }
+
+    @Test
+    void testCancelUnknownJobIsIgnored() {
+        importJobService.cancel("unknown");
+        Assertions.assertNull(importJobService.getJob("unknown"));
+    }
+}
@@ -0,0 +1,165 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import com.github.springtestdbunit.annotation.DatabaseOperation;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import com.github.springtestdbunit.annotation.DatabaseTearDown;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.wickedsource.budgeteer.IntegrationTestTemplate;
+import org.wickedsource.budgeteer.MoneyUtil;
+import org.wickedsource.budgeteer.imports.api.ImportedPlanRecord;
+import org.wickedsource.budgeteer.imports.api.ImportedWorkRecord;
+import org.wickedsource.budgeteer.persistence.imports.ImportRepository;
+import org.wickedsource.budgeteer.persistence.record.PlanRecordEntity;
+import org.wickedsource.budgeteer.persistence.record.PlanRecordRepository;
+import org.wickedsource.budgeteer.persistence.record.RecordEntity;
+import org.wickedsource.budgeteer.persistence.record.WorkRecordEntity;
+import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+class ImportRetractionIntegrationTest extends IntegrationTestTemplate {
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private WorkRecordRepository workRecordRepository;
+
+    @Autowired
+    private PlanRecordRepository planRecordRepository;
+
+    @Autowired
+    private ImportRepository importRepository;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    @DatabaseSetup("retractedImport.xml")
+    @DatabaseTearDown(value = "retractedImport.xml", type = DatabaseOperation.DELETE_ALL)
+    void testRecordsOfRetractedImportAreHidden() {
+        Assertions.assertEquals(2, workRecordRepository.count());
+        for (WorkRecordEntity record : workRecordRepository.findAll()) {
+            Assertions.assertEquals(1L, record.getImportRecord().getId());
+        }
+        Assertions.assertNull(workRecordRepository.findOne(3L));
+        Assertions.assertEquals(1, Lists.newArrayList(planRecordRepository.findAll()).size());
+        Assertions.assertEquals(960, workRecordRepository.getTotalHoursByBudgetId(1L) * 60, 1d);
+        // all records without daily rate belong to the retracted import
+        Assertions.assertTrue(workRecordRepository.getMissingDailyRatesForProject(1L).isEmpty());
+        Assertions.assertTrue(workRecordRepository.getMissingDailyRatesForPerson(1L).isEmpty());
+        // the condition the native queries use with a table alias
+        Assertions.assertEquals(2, countNative("SELECT COUNT(*) FROM WORK_RECORD r WHERE r." + RecordEntity.NOT_RETRACTED));
+        Assertions.assertEquals(1, countNative("SELECT COUNT(*) FROM PLAN_RECORD r WHERE r." + RecordEntity.NOT_RETRACTED));
+    }
+
+    @Test
+    @DatabaseSetup("retractedImport.xml")
+    @DatabaseTearDown(value = "retractedImport.xml", type = DatabaseOperation.DELETE_ALL)
+    void testPurgeRetractedImportDeletesRecords() {
+        int batches = 0;
+        while (importService.purgeRetractedImport(2L, 2)) {
+            batches++;
+            Assertions.assertTrue(batches < 10);
+        }
+
+        // three work and two plan records in batches of two, the last call removes the import
+        Assertions.assertEquals(3, batches);
+        Assertions.assertEquals(0, countNative("SELECT COUNT(*) FROM WORK_RECORD WHERE IMPORT_ID = 2"));
+        Assertions.assertEquals(0, countNative("SELECT COUNT(*) FROM PLAN_RECORD WHERE IMPORT_ID = 2"));
+        Assertions.assertEquals(2, countNative("SELECT COUNT(*) FROM WORK_RECORD WHERE IMPORT_ID = 1"));
+        Assertions.assertEquals(1, countNative("SELECT COUNT(*) FROM PLAN_RECORD WHERE IMPORT_ID = 1"));
+        Assertions.assertNull(importRepository.findOne(2L));
+        Assertions.assertFalse(importService.purgeRetractedImport(1L, 2));
+        Assertions.assertNotNull(importRepository.findOne(1L));
+    }
+
+    @Test
+    @DatabaseSetup("deltaImport.xml")
+    @DatabaseTearDown(value = "deltaImport.xml", type = DatabaseOperation.DELETE_ALL)
+    void testDeletingTheBaseOfADeltaImportKeepsTheDeltaImportComplete() throws Exception {
+        WorkRecordDatabaseImporter workImporter = applicationContext.getBean(WorkRecordDatabaseImporter.class, 1L, "Test");
+        workImporter.setDeltaImport(true);
+        workImporter.importRecords(Arrays.asList(
+                createImportedWorkRecord("2015-01-05", 480),
+                createImportedWorkRecord("2015-01-06", 240),
+                createImportedWorkRecord("2015-01-08", 300)));
+        PlanRecordDatabaseImporter planImporter = applicationContext.getBean(PlanRecordDatabaseImporter.class, 1L, "Test");
+        planImporter.setDeltaImport(true);
+        planImporter.importRecords(Arrays.asList(
+                createImportedPlanRecord("2015-01-05", 480),
+                createImportedPlanRecord("2015-01-06", 240),
+                createImportedPlanRecord("2015-01-08", 300)), "resource_plan.xlsx");
+
+        importService.deleteImport(1L);
+        entityManager.flush();
+        entityManager.clear();
+        while (importService.purgeRetractedImport(1L, 2)) {
+            // removes the records the delta imports did not take over
+        }
+
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+        Map<String, WorkRecordEntity> workRecordsByDate = new HashMap<>();
+        for (WorkRecordEntity record : workRecordRepository.findAll()) {
+            workRecordsByDate.put(formatter.format(record.getDate()), record);
+        }
+        Assertions.assertEquals(3, workRecordsByDate.size());
+        Assertions.assertEquals(1L, workRecordsByDate.get("2015-01-05").getId());
+        Assertions.assertEquals(480, workRecordsByDate.get("2015-01-05").getMinutes());
+        Assertions.assertEquals(240, workRecordsByDate.get("2015-01-06").getMinutes());
+        Assertions.assertEquals(300, workRecordsByDate.get("2015-01-08").getMinutes());
+        // only the records outside of the imported period went with the deleted import
+        Assertions.assertNull(workRecordRepository.findOne(4L));
+
+        Map<String, PlanRecordEntity> planRecordsByDate = new HashMap<>();
+        for (PlanRecordEntity record : planRecordRepository.findAll()) {
+            planRecordsByDate.put(formatter.format(record.getDate()), record);
+        }
+        Assertions.assertEquals(3, planRecordsByDate.size());
+        Assertions.assertEquals(1L, planRecordsByDate.get("2015-01-05").getId());
+        Assertions.assertEquals(480, planRecordsByDate.get("2015-01-05").getMinutes());
+        Assertions.assertEquals(240, planRecordsByDate.get("2015-01-06").getMinutes());
+        Assertions.assertEquals(300, planRecordsByDate.get("2015-01-08").getMinutes());
+        Assertions.assertNull(planRecordRepository.findOne(4L));
+
+        Assertions.assertEquals(0, countNative("SELECT COUNT(*) FROM WORK_RECORD WHERE IMPORT_ID = 1"));
+        Assertions.assertEquals(0, countNative("SELECT COUNT(*) FROM PLAN_RECORD WHERE IMPORT_ID = 1"));
+        Assertions.assertNull(importRepository.findOne(1L));
+    }
+
+    private ImportedWorkRecord createImportedWorkRecord(String date, int minutes) throws ParseException {
+        ImportedWorkRecord record = new ImportedWorkRecord();
+        record.setBudgetName("Budget1");
+        record.setPersonName("Mustermann, Max");
+        record.setDate(new SimpleDateFormat("yyyy-MM-dd").parse(date));
+        record.setMinutesWorked(minutes);
+        return record;
+    }
+
+    private ImportedPlanRecord createImportedPlanRecord(String date, int minutes) throws ParseException {
+        ImportedPlanRecord record = new ImportedPlanRecord();
+        record.setBudgetName("Budget1");
+        record.setPersonName("Mustermann, Max");
+        record.setDate(new SimpleDateFormat("yyyy-MM-dd").parse(date));
+        record.setMinutesPlanned(minutes);
+        record.setDailyRate(MoneyUtil.createMoneyFromCents(10000));
+        return record;
+    }
+
+    private long countNative(String sql) {
+        return ((Number) entityManager.createNativeQuery(sql).getSingleResult()).longValue();
+    }
+}
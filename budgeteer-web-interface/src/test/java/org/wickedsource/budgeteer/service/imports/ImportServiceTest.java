@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.wickedsource.budgeteer.persistence.imports.ImportEntity;
 import org.wickedsource.budgeteer.persistence.imports.ImportRepository;
 import org.wickedsource.budgeteer.persistence.manualRecord.ManualRecordRepository;
+import org.wickedsource.budgeteer.persistence.project.ProjectEntity;
+import org.wickedsource.budgeteer.persistence.record.PlanRecordRepository;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
 import org.wickedsource.budgeteer.service.ServiceTestTemplate;
 
@@ -23,6 +25,9 @@ class ImportServiceTest extends ServiceTestTemplate {
     @Autowired
     private WorkRecordRepository workRecordRepository;
 
+    @Autowired
+    private PlanRecordRepository planRecordRepository;
+
     @Autowired
     private ImportService importService;
 
@@ -36,9 +41,43 @@ class ImportServiceTest extends ServiceTestTemplate {
 
     @Test
     void testDeleteImport() throws Exception {
+        when(importRepository.findOne(1L)).thenReturn(createImportEntity());
         importService.deleteImport(1L);
+        verify(importRepository, times(1)).retract(eq(1L), any(Date.class));
+        verify(importRepository, never()).delete(1L);
+        verify(workRecordRepository, never()).deleteByImport(1L);
+    }
+
+    @Test
+    void testLoadImportsSkipsRetractedImports() throws Exception {
+        ImportEntity retracted = createImportEntity();
+        retracted.setRetractedDate(new Date());
+        when(importRepository.findByProjectId(1L)).thenReturn(Arrays.asList(retracted));
+        Assertions.assertTrue(importService.loadImports(1L).isEmpty());
+    }
+
+    @Test
+    void testPurgeRetractedImport() throws Exception {
+        ImportEntity retracted = createImportEntity();
+        retracted.setRetractedDate(new Date());
+        when(importRepository.findOne(1L)).thenReturn(retracted);
+        when(workRecordRepository.purgeRetractedBatch(1L, 100)).thenReturn(100, 20, 0);
+        when(planRecordRepository.purgeRetractedBatch(1L, 80)).thenReturn(5);
+        when(planRecordRepository.purgeRetractedBatch(1L, 100)).thenReturn(0);
+
+        Assertions.assertTrue(importService.purgeRetractedImport(1L, 100));
+        Assertions.assertTrue(importService.purgeRetractedImport(1L, 100));
+        verify(importRepository, never()).delete(1L);
+        Assertions.assertFalse(importService.purgeRetractedImport(1L, 100));
         verify(importRepository, times(1)).delete(1L);
-        verify(workRecordRepository, times(1)).deleteByImport(1L);
+    }
+
+    @Test
+    void testPurgeIgnoresImportsThatAreNotRetracted() throws Exception {
+        when(importRepository.findOne(1L)).thenReturn(createImportEntity());
+        Assertions.assertFalse(importService.purgeRetractedImport(1L, 100));
+        verify(workRecordRepository, never()).purgeRetractedBatch(anyLong(), anyInt());
+        verify(importRepository, never()).delete(1L);
     }
 
     private ImportEntity createImportEntity() {
@@ -47,6 +86,9 @@ class ImportServiceTest extends ServiceTestTemplate {
         entity.setStartDate(new Date());
         entity.setImportType("TestImport");
         entity.setId(1L);
+        ProjectEntity project = new ProjectEntity();
+        project.setId(1L);
+        entity.setProject(project);
         return entity;
     }
 
@@ -7,10 +7,13 @@ import com.github.springtestdbunit.annotation.DatabaseTearDown;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.wickedsource.budgeteer.IntegrationTestTemplate;
+import org.wickedsource.budgeteer.MoneyUtil;
 import org.wickedsource.budgeteer.importer.resourceplan.ResourcePlanImporter;
 import org.wickedsource.budgeteer.imports.api.ImportException;
 import org.wickedsource.budgeteer.imports.api.ImportFile;
+import org.wickedsource.budgeteer.imports.api.ImportedPlanRecord;
 import org.wickedsource.budgeteer.imports.api.InvalidFileFormatException;
 import org.wickedsource.budgeteer.persistence.budget.BudgetRepository;
 import org.wickedsource.budgeteer.persistence.imports.ImportEntity;
@@ -23,7 +26,10 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 class PlanRecordImportIntegrationTest extends IntegrationTestTemplate {
 
@@ -44,6 +50,9 @@ class PlanRecordImportIntegrationTest extends IntegrationTestTemplate {
     @Autowired
     private ImportRepository importRepository;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     @Test
     @DatabaseSetup("doImportWithEmptyDatabase.xml")
     @DatabaseTearDown(value = "doImportWithEmptyDatabase.xml", type = DatabaseOperation.DELETE_ALL)
@@ -74,6 +83,70 @@ class PlanRecordImportIntegrationTest extends IntegrationTestTemplate {
         assertImportRecord();
     }
 
+    @Test
+    @DatabaseSetup("doImportIntoEndedProject.xml")
+    @DatabaseTearDown(value = "doImportIntoEndedProject.xml", type = DatabaseOperation.DELETE_ALL)
+    void testDoImportReportsSkippedRecordsOfAllFiles() throws Exception {
+        List<ImportFile> importFiles = new ArrayList<ImportFile>();
+        importFiles.add(new ImportFile("resource_plan_january.xlsx", getClass().getResourceAsStream("resource_plan.xlsx")));
+        importFiles.add(new ImportFile("resource_plan_february.xlsx", getClass().getResourceAsStream("resource_plan.xlsx")));
+        List<List<String>> skippedRecords = importService.doImport(1L, new ResourcePlanImporter(), importFiles, ImportProgress.NONE);
+
+        // each file has 15 records after the end of the project, not only the last one
+        Map<String, Integer> outOfRangeByFile = new HashMap<>();
+        for (List<String> record : skippedRecords) {
+            if (record.contains("Record is out of project-date-range")) {
+                outOfRangeByFile.merge(record.get(0), 1, Integer::sum);
+            }
+        }
+        Assertions.assertEquals(15, outOfRangeByFile.get("resource_plan_january.xlsx").intValue());
+        Assertions.assertEquals(15, outOfRangeByFile.get("resource_plan_february.xlsx").intValue());
+        Assertions.assertEquals(11, planRecordRepository.count());
+    }
+
+    @Test
+    @DatabaseSetup("deltaImport.xml")
+    @DatabaseTearDown(value = "deltaImport.xml", type = DatabaseOperation.DELETE_ALL)
+    void testDeltaImportOnlyWritesDifferences() throws Exception {
+        PlanRecordDatabaseImporter importer = applicationContext.getBean(PlanRecordDatabaseImporter.class, 1L, "Test");
+        importer.setDeltaImport(true);
+        importer.importRecords(Arrays.asList(
+                createImportedPlanRecord("2015-01-05", 480),
+                createImportedPlanRecord("2015-01-06", 240),
+                createImportedPlanRecord("2015-01-08", 300)), "resource_plan.xlsx");
+
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+        Map<String, PlanRecordEntity> recordsByDate = new HashMap<>();
+        for (PlanRecordEntity record : planRecordRepository.findAll()) {
+            recordsByDate.put(formatter.format(record.getDate()), record);
+        }
+        Assertions.assertEquals(4, recordsByDate.size());
+        // unchanged records are kept and belong to the new import
+        Assertions.assertEquals(1L, recordsByDate.get("2015-01-05").getId());
+        Assertions.assertNotEquals(1L, recordsByDate.get("2015-01-05").getImportRecord().getId());
+        // changed records are updated in place and belong to the new import
+        Assertions.assertEquals(2L, recordsByDate.get("2015-01-06").getId());
+        Assertions.assertEquals(240, recordsByDate.get("2015-01-06").getMinutes());
+        Assertions.assertNotEquals(1L, recordsByDate.get("2015-01-06").getImportRecord().getId());
+        // vanished records are removed
+        Assertions.assertNull(planRecordRepository.findOne(3L));
+        Assertions.assertFalse(recordsByDate.containsKey("2015-01-07"));
+        // new records are inserted
+        Assertions.assertEquals(300, recordsByDate.get("2015-01-08").getMinutes());
+        // records before the imported period are not touched
+        Assertions.assertEquals(4L, recordsByDate.get("2015-01-01").getId());
+    }
+
+    private ImportedPlanRecord createImportedPlanRecord(String date, int minutes) throws ParseException {
+        ImportedPlanRecord record = new ImportedPlanRecord();
+        record.setBudgetName("Budget1");
+        record.setPersonName("Mustermann, Max");
+        record.setDate(new SimpleDateFormat("yyyy-MM-dd").parse(date));
+        record.setMinutesPlanned(minutes);
+        record.setDailyRate(MoneyUtil.createMoneyFromCents(10000));
+        return record;
+    }
+
     private void doImport() throws ImportException, InvalidFileFormatException {
         List<ImportFile> importFiles = new ArrayList<ImportFile>();
         importFiles.add(new ImportFile("resource_plan.xlsx", getClass().getResourceAsStream("resource_plan.xlsx")));
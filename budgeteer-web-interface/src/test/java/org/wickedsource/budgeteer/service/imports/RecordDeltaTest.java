@@ -0,0 +1,98 @@
+package org.wickedsource.budgeteer.service.imports;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.wickedsource.budgeteer.MoneyUtil;
+import org.wickedsource.budgeteer.persistence.budget.BudgetEntity;
+import org.wickedsource.budgeteer.persistence.person.PersonEntity;
+import org.wickedsource.budgeteer.persistence.record.RecordFingerprintBean;
+import org.wickedsource.budgeteer.persistence.record.WorkRecordEntity;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class RecordDeltaTest {
+
+    private SimpleDateFormat format = new SimpleDateFormat("dd.MM.yyyy");
+
+    @Test
+    void testUnchangedRecordsAreKept() throws ParseException {
+        List<WorkRecordEntity> imported = Arrays.asList(record(1, "01.01.2017", 480, 50000), record(1, "02.01.2017", 480, 50000));
+        List<RecordFingerprintBean> stored = Arrays.asList(stored(10, 1, "02.01.2017", 480, 50000), stored(11, 1, "01.01.2017", 480, 50000));
+
+        RecordDelta<WorkRecordEntity> delta = new RecordDelta<>(imported, stored);
+
+        Assertions.assertTrue(delta.isEmpty());
+        Assertions.assertEquals(Arrays.asList(10L, 11L), delta.getUnchanged());
+    }
+
+    @Test
+    void testChangedRecordsAreUpdated() throws ParseException {
+        WorkRecordEntity changedMinutes = record(1, "01.01.2017", 240, 50000);
+        WorkRecordEntity changedRate = record(1, "02.01.2017", 480, 60000);
+        List<RecordFingerprintBean> stored = Arrays.asList(stored(10, 1, "01.01.2017", 480, 50000), stored(11, 1, "02.01.2017", 480, 50000));
+
+        RecordDelta<WorkRecordEntity> delta = new RecordDelta<>(Arrays.asList(changedMinutes, changedRate), stored);
+
+        Assertions.assertEquals(2, delta.getUpdates().size());
+        Assertions.assertSame(changedMinutes, delta.getUpdates().get(10L));
+        Assertions.assertSame(changedRate, delta.getUpdates().get(11L));
+        Assertions.assertTrue(delta.getInserts().isEmpty());
+        Assertions.assertTrue(delta.getDeletes().isEmpty());
+    }
+
+    @Test
+    void testNewRecordsAreInsertedAndMissingRecordsDeleted() throws ParseException {
+        WorkRecordEntity newRecord = record(1, "03.01.2017", 480, 50000);
+        WorkRecordEntity otherPerson = record(2, "01.01.2017", 480, 50000);
+        List<RecordFingerprintBean> stored = Arrays.asList(stored(10, 1, "01.01.2017", 480, 50000), stored(11, 1, "02.01.2017", 480, 50000));
+
+        RecordDelta<WorkRecordEntity> delta = new RecordDelta<>(Arrays.asList(newRecord, otherPerson), stored);
+
+        Assertions.assertEquals(Arrays.asList(newRecord, otherPerson), delta.getInserts());
+        Assertions.assertEquals(Arrays.asList(10L, 11L), delta.getDeletes());
+        Assertions.assertTrue(delta.getUpdates().isEmpty());
+    }
+
+    @Test
+    void testIdenticalRecordsAreMatchedOneToOne() throws ParseException {
+        List<WorkRecordEntity> imported = new ArrayList<>();
+        imported.add(record(1, "01.01.2017", 120, 50000));
+        imported.add(record(1, "01.01.2017", 120, 50000));
+        imported.add(record(1, "01.01.2017", 120, 50000));
+        List<RecordFingerprintBean> stored = Arrays.asList(stored(10, 1, "01.01.2017", 120, 50000), stored(11, 1, "01.01.2017", 120, 50000));
+
+        RecordDelta<WorkRecordEntity> delta = new RecordDelta<>(imported, stored);
+
+        Assertions.assertEquals(Arrays.asList(10L, 11L), delta.getUnchanged());
+        Assertions.assertEquals(1, delta.getInserts().size());
+        Assertions.assertTrue(delta.getDeletes().isEmpty());
+
+        delta = new RecordDelta<>(imported.subList(0, 1), stored);
+
+        Assertions.assertEquals(Collections.singletonList(10L), delta.getUnchanged());
+        Assertions.assertEquals(Collections.singletonList(11L), delta.getDeletes());
+    }
+
+    private WorkRecordEntity record(long personId, String date, int minutes, long rateInCents) throws ParseException {
+        PersonEntity person = new PersonEntity();
+        person.setId(personId);
+        BudgetEntity budget = new BudgetEntity();
+        budget.setId(1L);
+        WorkRecordEntity record = new WorkRecordEntity();
+        record.setPerson(person);
+        record.setBudget(budget);
+        record.setDate(format.parse(date));
+        record.setMinutes(minutes);
+        record.setDailyRate(MoneyUtil.createMoneyFromCents(rateInCents));
+        return record;
+    }
+
+    private RecordFingerprintBean stored(long id, long personId, String date, int minutes, long rateInCents) throws ParseException {
+        return new RecordFingerprintBean(id, personId, 1L, new java.sql.Date(format.parse(date).getTime()), minutes, MoneyUtil.createMoneyFromCents(rateInCents));
+    }
+}
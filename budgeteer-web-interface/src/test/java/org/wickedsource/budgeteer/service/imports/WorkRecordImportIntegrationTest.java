@@ -14,6 +14,7 @@ import org.wickedsource.budgeteer.MoneyUtil;
 import org.wickedsource.budgeteer.importer.aproda.AprodaWorkRecordsImporter;
 import org.wickedsource.budgeteer.imports.api.ImportException;
 import org.wickedsource.budgeteer.imports.api.ImportFile;
+import org.wickedsource.budgeteer.imports.api.ImportedWorkRecord;
 import org.wickedsource.budgeteer.imports.api.InvalidFileFormatException;
 import org.wickedsource.budgeteer.persistence.budget.BudgetRepository;
 import org.wickedsource.budgeteer.persistence.imports.ImportEntity;
@@ -27,7 +28,10 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 class WorkRecordImportIntegrationTest extends IntegrationTestTemplate {
 
@@ -117,6 +121,49 @@ class WorkRecordImportIntegrationTest extends IntegrationTestTemplate {
         Assertions.assertEquals(1, importRepository.count());
     }
 
+    @Test
+    @DatabaseSetup("deltaImport.xml")
+    @DatabaseTearDown(value = "deltaImport.xml", type = DatabaseOperation.DELETE_ALL)
+    void testDeltaImportOnlyWritesDifferences() throws Exception {
+        WorkRecordDatabaseImporter importer = applicationContext.getBean(WorkRecordDatabaseImporter.class, 1L, "Test");
+        importer.setDeltaImport(true);
+        importer.importRecords(Arrays.asList(
+                createImportedWorkRecord("2015-01-05", 480),
+                createImportedWorkRecord("2015-01-06", 240),
+                createImportedWorkRecord("2015-01-08", 300)));
+
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+        Map<String, WorkRecordEntity> recordsByDate = new HashMap<>();
+        for (WorkRecordEntity record : workRecordRepository.findAll()) {
+            recordsByDate.put(formatter.format(record.getDate()), record);
+        }
+        Assertions.assertEquals(4, recordsByDate.size());
+        // unchanged records are kept and belong to the new import
+        Assertions.assertEquals(1L, recordsByDate.get("2015-01-05").getId());
+        Assertions.assertNotEquals(1L, recordsByDate.get("2015-01-05").getImportRecord().getId());
+        // changed records are updated in place and belong to the new import
+        Assertions.assertEquals(2L, recordsByDate.get("2015-01-06").getId());
+        Assertions.assertEquals(240, recordsByDate.get("2015-01-06").getMinutes());
+        Assertions.assertNotEquals(1L, recordsByDate.get("2015-01-06").getImportRecord().getId());
+        // vanished records are removed
+        Assertions.assertNull(workRecordRepository.findOne(3L));
+        Assertions.assertFalse(recordsByDate.containsKey("2015-01-07"));
+        // new records are inserted
+        Assertions.assertEquals(300, recordsByDate.get("2015-01-08").getMinutes());
+        Assertions.assertNotEquals(1L, recordsByDate.get("2015-01-08").getImportRecord().getId());
+        // records outside of the imported period are not touched
+        Assertions.assertEquals(4L, recordsByDate.get("2015-01-20").getId());
+    }
+
+    private ImportedWorkRecord createImportedWorkRecord(String date, int minutes) throws ParseException {
+        ImportedWorkRecord record = new ImportedWorkRecord();
+        record.setBudgetName("Budget1");
+        record.setPersonName("Mustermann, Max");
+        record.setDate(new SimpleDateFormat("yyyy-MM-dd").parse(date));
+        record.setMinutesWorked(minutes);
+        return record;
+    }
+
     @Test
     @DatabaseSetup("doImportWithData.xml")
     @DatabaseTearDown(value = "doImportWithData.xml", type = DatabaseOperation.DELETE_ALL)
@@ -122,7 +122,7 @@ class InvoiceDataMapperTest {
         invoiceEntity.setPaidDate(new Date());
 
         invoiceEntity.setFileName("FileName1");
-        invoiceEntity.setFile(null);
+        invoiceEntity.setFileHash(null);
         invoiceEntity.setLink("Link1");
 
         invoiceEntity.setContract(contract1);
@@ -1,23 +1,22 @@
 package org.wickedsource.budgeteer.service.notification;
 
-import org.joda.money.CurrencyUnit;
-import org.joda.money.Money;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.wickedsource.budgeteer.persistence.budget.BudgetEntity;
 import org.wickedsource.budgeteer.persistence.budget.BudgetRepository;
 import org.wickedsource.budgeteer.persistence.budget.MissingBudgetTotalBean;
-import org.wickedsource.budgeteer.persistence.person.PersonEntity;
-import org.wickedsource.budgeteer.persistence.record.WorkRecordEntity;
+import org.wickedsource.budgeteer.persistence.record.MissingDailyRateForBudgetBean;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
 import org.wickedsource.budgeteer.service.ServiceTestTemplate;
 
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class NotificationServiceTest extends ServiceTestTemplate {
@@ -33,18 +32,98 @@ class NotificationServiceTest extends ServiceTestTemplate {
     @Autowired
     private NotificationService service;
 
+    @Autowired
+    private NotificationSnapshotStore snapshotStore;
+
+    @Autowired
+    private NotificationSnapshotRefresher snapshotRefresher;
+
     @Test
     void testGetNotifications() throws Exception {
-        when(workRecordRepository.findByProjectId(1L)).thenReturn(Collections.singletonList(createWorkRecords()));
+        snapshotStore.remove(1L);
+        when(workRecordRepository.getMissingDailyRatesForProject(1L)).thenReturn(Collections.singletonList(createMissingDailyRate()));
         when(workRecordRepository.countByProjectId(anyLong())).thenReturn(0L, 0L);
         when(budgetRepository.getMissingBudgetTotalsForProject(1L)).thenReturn(Collections.singletonList(createMissingBudgetTotal()));
         List<Notification> notifications = service.getNotifications(1L, 1L);
         Assertions.assertEquals(4, notifications.size());
     }
 
+    @Test
+    void testGetNotificationsFromSnapshot() throws Exception {
+        snapshotStore.remove(2L);
+        when(budgetRepository.getMissingBudgetTotalsForProject(2L)).thenReturn(Collections.singletonList(createMissingBudgetTotal()));
+        List<Notification> notifications = service.getNotifications(2L, 1L);
+        List<Notification> cachedNotifications = service.getNotifications(2L, 1L);
+
+        Assertions.assertEquals(notifications, cachedNotifications);
+        verify(budgetRepository, times(1)).getMissingBudgetTotalsForProject(2L);
+        Assertions.assertFalse(snapshotStore.get(2L).isStale());
+        Assertions.assertTrue(snapshotStore.markStale(2L));
+        Assertions.assertTrue(snapshotStore.get(2L).isStale());
+        Assertions.assertEquals(notifications, service.getNotifications(2L, 1L));
+        snapshotStore.remove(2L);
+    }
+
+    @Test
+    void testChangeDuringFirstComputationIsRefreshedAfterwards() throws Exception {
+        snapshotStore.remove(3L);
+        AtomicBoolean refreshQueued = new AtomicBoolean();
+        when(budgetRepository.getMissingBudgetTotalsForProject(3L)).thenAnswer(invocation -> {
+            // the data changes while the first snapshot is computed from the old data
+            refreshQueued.set(snapshotStore.markStale(3L));
+            return Collections.singletonList(createMissingBudgetTotal());
+        }).thenReturn(Collections.emptyList());
+
+        List<Notification> notifications = service.getNotifications(3L, 1L);
+
+        Assertions.assertEquals(3, notifications.size());
+        Assertions.assertTrue(refreshQueued.get());
+        Assertions.assertTrue(snapshotStore.get(3L).isStale());
+        snapshotRefresher.refresh(3L);
+        Assertions.assertFalse(snapshotStore.get(3L).isStale());
+        Assertions.assertEquals(2, service.getNotifications(3L, 1L).size());
+        snapshotStore.remove(3L);
+    }
+
+    @Test
+    void testFirstComputationDoesNotOverwriteRefreshedSnapshot() throws Exception {
+        snapshotStore.remove(4L);
+        when(budgetRepository.getMissingBudgetTotalsForProject(4L)).thenAnswer(invocation -> {
+            // the data changes and the refresh finishes before the first computation is stored
+            Assertions.assertTrue(snapshotStore.markStale(4L));
+            snapshotRefresher.refresh(4L);
+            return Collections.singletonList(createMissingBudgetTotal());
+        }).thenReturn(Collections.emptyList());
+
+        List<Notification> notifications = service.getNotifications(4L, 1L);
+
+        Assertions.assertEquals(2, notifications.size());
+        Assertions.assertFalse(snapshotStore.get(4L).isStale());
+        Assertions.assertEquals(2, snapshotStore.get(4L).getNotifications().size());
+        snapshotStore.remove(4L);
+    }
+
+    @Test
+    void testFailedRefreshDiscardsSnapshot() throws Exception {
+        snapshotStore.remove(5L);
+        when(budgetRepository.getMissingBudgetTotalsForProject(5L))
+                .thenReturn(Collections.singletonList(createMissingBudgetTotal()))
+                .thenThrow(new IllegalStateException("database not available"))
+                .thenReturn(Collections.emptyList());
+        service.getNotifications(5L, 1L);
+
+        Assertions.assertTrue(snapshotStore.markStale(5L));
+        snapshotRefresher.refresh(5L);
+
+        Assertions.assertNull(snapshotStore.get(5L));
+        Assertions.assertEquals(2, service.getNotifications(5L, 1L).size());
+        Assertions.assertFalse(snapshotStore.get(5L).isStale());
+        snapshotStore.remove(5L);
+    }
+
     @Test
     void testGetNotificationsForPerson() throws Exception {
-        when(workRecordRepository.findByPersonId(1L)).thenReturn(Collections.singletonList(createWorkRecords()));
+        when(workRecordRepository.getMissingDailyRatesForPerson(1L)).thenReturn(Collections.singletonList(createMissingDailyRate()));
         List<Notification> notifications = service.getNotificationsForPerson(1L);
         Assertions.assertEquals(1, notifications.size());
         MissingDailyRateForBudgetNotification notification = (MissingDailyRateForBudgetNotification) notifications.get(0);
@@ -65,19 +144,8 @@ class NotificationServiceTest extends ServiceTestTemplate {
         Assertions.assertEquals("budget1", notification.getBudgetName());
     }
 
-    private WorkRecordEntity createWorkRecords() {
-        WorkRecordEntity entity = new WorkRecordEntity();
-        entity.setEditedManually(false);
-        entity.setDate(fixedDate);
-        entity.setDailyRate(Money.zero(CurrencyUnit.EUR));
-        BudgetEntity budgetEntity = new BudgetEntity();
-        budgetEntity.setName("Budget1");
-        entity.setBudget(budgetEntity);
-        PersonEntity personEntity = new PersonEntity();
-        personEntity.setName("person1");
-        personEntity.setId(1L);
-        entity.setPerson(personEntity);
-        return entity;
+    private MissingDailyRateForBudgetBean createMissingDailyRate() {
+        return new MissingDailyRateForBudgetBean(1L, "person1", fixedDate, fixedDate, "Budget1");
     }
 
     private MissingBudgetTotalBean createMissingBudgetTotal() {
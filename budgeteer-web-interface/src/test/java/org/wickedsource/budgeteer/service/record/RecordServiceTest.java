@@ -1,5 +1,6 @@
 package org.wickedsource.budgeteer.service.record;
 
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.Predicate;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -8,12 +9,9 @@ import org.kubek2k.springockito.annotations.SpringockitoContextLoader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.wickedsource.budgeteer.MoneyUtil;
-import org.wickedsource.budgeteer.persistence.budget.BudgetEntity;
-import org.wickedsource.budgeteer.persistence.imports.ImportEntity;
-import org.wickedsource.budgeteer.persistence.person.PersonEntity;
 import org.wickedsource.budgeteer.persistence.record.MonthlyAggregatedRecordBean;
 import org.wickedsource.budgeteer.persistence.record.WeeklyAggregatedRecordBean;
-import org.wickedsource.budgeteer.persistence.record.WorkRecordEntity;
+import org.wickedsource.budgeteer.persistence.record.WorkRecordBean;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
 import org.wickedsource.budgeteer.service.ServiceTestTemplate;
 import org.wickedsource.budgeteer.service.budget.BudgetTagFilter;
@@ -90,24 +88,16 @@ class RecordServiceTest extends ServiceTestTemplate {
 
     @Test
     void testGetFilteredRecords() throws Exception {
-        List<WorkRecordEntity> recordList = createRecordList();
-        when(workRecordRepository.findAll(any(Predicate.class))).thenReturn(recordList);
-        List<WorkRecord> filteredRecords = service.getFilteredRecords(new WorkRecordFilter(1L));
+        List<WorkRecordBean> recordList = createRecordList();
+        when(workRecordRepository.findBeans(any(Predicate.class), any(OrderSpecifier[].class), eq(0L), eq(10L))).thenReturn(recordList);
+        List<WorkRecord> filteredRecords = service.getFilteredRecords(new WorkRecordFilter(1L), 0, 10);
         Assertions.assertEquals(recordList.size(), filteredRecords.size());
         Assertions.assertEquals(WorkRecord.class, filteredRecords.get(0).getClass());
     }
 
-    private List<WorkRecordEntity> createRecordList() {
-        List<WorkRecordEntity> list = new ArrayList<>();
-        WorkRecordEntity record = new WorkRecordEntity();
-        record.setDailyRate(MoneyUtil.createMoney(100d));
-        record.setDate(new Date());
-        record.setId(1L);
-        record.setBudget(new BudgetEntity());
-        record.setImportRecord(new ImportEntity());
-        record.setMinutes(480);
-        record.setPerson(new PersonEntity());
-        list.add(record);
+    private List<WorkRecordBean> createRecordList() {
+        List<WorkRecordBean> list = new ArrayList<>();
+        list.add(new WorkRecordBean(1L, "Budget", "Person", new Date(), 480, MoneyUtil.createMoney(100d), false));
         return list;
     }
 
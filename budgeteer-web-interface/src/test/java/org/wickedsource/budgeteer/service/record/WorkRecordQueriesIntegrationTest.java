@@ -9,11 +9,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.wickedsource.budgeteer.IntegrationTestTemplate;
 import org.wickedsource.budgeteer.ListUtil;
+import org.wickedsource.budgeteer.persistence.record.WorkRecordBean;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordEntity;
 import org.wickedsource.budgeteer.persistence.record.WorkRecordRepository;
 import org.wickedsource.budgeteer.service.DateRange;
 import org.wickedsource.budgeteer.service.budget.BudgetBaseData;
 import org.wickedsource.budgeteer.service.person.PersonBaseData;
+import org.wickedsource.budgeteer.web.components.burntable.filter.BurnTableSortColumn;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -82,4 +84,44 @@ class WorkRecordQueriesIntegrationTest extends IntegrationTestTemplate {
         Assertions.assertEquals(2, records.size());
     }
 
+    @Test
+    @DatabaseSetup("findByFilter.xml")
+    @DatabaseTearDown(value = "findByFilter.xml", type = DatabaseOperation.DELETE_ALL)
+    void testFindBeansPagedByBudget() throws Exception {
+        WorkRecordFilter filter = new WorkRecordFilter(1L);
+        List<WorkRecordBean> records = repository.findBeans(WorkRecordQueries.findByFilter(filter), WorkRecordQueries.getOrder(filter), 2, 2);
+        Assertions.assertEquals(2, records.size());
+        Assertions.assertEquals(3L, records.get(0).getId());
+        Assertions.assertEquals(4L, records.get(1).getId());
+        Assertions.assertEquals("Budget 2", records.get(0).getBudgetName());
+        Assertions.assertEquals("person2", records.get(0).getPersonName());
+        Assertions.assertEquals(480, records.get(0).getMinutes());
+    }
+
+    @Test
+    @DatabaseSetup("findByFilter.xml")
+    @DatabaseTearDown(value = "findByFilter.xml", type = DatabaseOperation.DELETE_ALL)
+    void testFindBeansSortedByDailyRateDescending() throws Exception {
+        WorkRecordFilter filter = new WorkRecordFilter(1L);
+        filter.getColumnToSort().setObject(BurnTableSortColumn.DAILY_RATE);
+        filter.getSortType().setObject("Descending");
+        List<WorkRecordBean> records = repository.findBeans(WorkRecordQueries.findByFilter(filter), WorkRecordQueries.getOrder(filter), 0, 10);
+        Assertions.assertEquals(4, records.size());
+        Assertions.assertEquals(2L, records.get(0).getId());
+        Assertions.assertEquals(3L, records.get(1).getId());
+        Assertions.assertEquals(1L, records.get(2).getId());
+        Assertions.assertEquals(4L, records.get(3).getId());
+    }
+
+    @Test
+    @DatabaseSetup("findByFilter.xml")
+    @DatabaseTearDown(value = "findByFilter.xml", type = DatabaseOperation.DELETE_ALL)
+    void testCountAndSumByFilter() throws Exception {
+        WorkRecordFilter filter = new WorkRecordFilter(1L);
+        filter.setDateRange(new DateRange(format.parse("01.01.2015"), format.parse("15.08.2015")));
+        Predicate query = WorkRecordQueries.findByFilter(filter);
+        Assertions.assertEquals(3L, repository.count(query));
+        Assertions.assertEquals(480 * 10000 + 480 * 20000, repository.getWeightedMinutes(query));
+    }
+
 }
@@ -2,19 +2,27 @@ package org.wickedsource.budgeteer.service.template;
 
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.util.IOUtils;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.wickedsource.budgeteer.imports.api.ImportFile;
+import org.wickedsource.budgeteer.persistence.attachment.AttachmentStore;
 import org.wickedsource.budgeteer.persistence.template.TemplateEntity;
+import org.wickedsource.budgeteer.persistence.template.TemplateMetadataBean;
 import org.wickedsource.budgeteer.persistence.template.TemplateRepository;
 import org.wickedsource.budgeteer.service.ReportType;
 import org.wickedsource.budgeteer.service.ServiceTestTemplate;
 import org.wickedsource.budgeteer.web.pages.templates.templateimport.TemplateFormInputDto;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Matchers.anyLong;
@@ -30,8 +38,14 @@ class TemplateServiceTest extends ServiceTestTemplate {
     @Autowired
     TemplateRepository templateRepository;
 
+    @Autowired
+    TemplateWorkbookCache workbookCache;
+
+    @Autowired
+    AttachmentStore attachmentStore;
+
     @Test
-    void doImportTest() {
+    void doImportTest() throws IOException {
         Mockito.when(templateRepository.save(any(TemplateEntity.class))).thenReturn(new TemplateEntity());
         TemplateFormInputDto testDto = new TemplateFormInputDto(1);
         testDto.setName("TEST");
@@ -42,6 +56,7 @@ class TemplateServiceTest extends ServiceTestTemplate {
                         getClass().getResourceAsStream("exampleTemplate1.xlsx")),
                         model(from(testDto)));
         Mockito.verify(templateRepository, times(1)).save(any(TemplateEntity.class));
+        Mockito.verify(attachmentStore, times(1)).store(any());
     }
 
     @Test
@@ -65,6 +80,58 @@ class TemplateServiceTest extends ServiceTestTemplate {
         Mockito.verify(templateRepository, times(1)).delete(anyLong());
     }
 
+    @Test
+    void getTemplatesInProjectDoesNotLoadWorkbooksTest() throws IOException {
+        Mockito.when(templateRepository.findMetadataByProjectId(1L)).thenReturn(Collections.singletonList(
+                new TemplateMetadataBean(1L, "TEST", "TEST_D", ReportType.CONTRACT_REPORT, true, 1L, "hash")));
+
+        List<Template> templates = templateService.getTemplatesInProject(1L);
+
+        Assertions.assertEquals(1, templates.size());
+        Assertions.assertEquals("TEST", templates.get(0).getName());
+        Assertions.assertEquals(ReportType.CONTRACT_REPORT, templates.get(0).getType());
+        Assertions.assertTrue(templates.get(0).isDefault());
+        Assertions.assertNull(templates.get(0).getWb());
+        Mockito.verify(attachmentStore, times(0)).open(any());
+        Mockito.verify(templateRepository, times(0)).findByProjectId(anyLong());
+    }
+
+    @Test
+    void getByIdCachesWorkbookTest() throws IOException {
+        byte[] workbook = IOUtils.toByteArray(getClass().getResourceAsStream("exampleTemplate1.xlsx"));
+        Mockito.when(templateRepository.findMetadataById(4711L)).thenReturn(
+                new TemplateMetadataBean(4711L, "TEST", "TEST_D", ReportType.BUDGET_REPORT, false, 1L, "hash1"));
+        Mockito.when(attachmentStore.open(any())).thenAnswer(invocation -> new ByteArrayInputStream(workbook));
+        workbookCache.evict(4711L);
+
+        XSSFWorkbook first = templateService.getById(4711L).getWb();
+        XSSFWorkbook second = templateService.getById(4711L).getWb();
+
+        Assertions.assertNotNull(first);
+        Assertions.assertNotSame(first, second);
+        Mockito.verify(attachmentStore, times(1)).open("hash1");
+
+        Mockito.when(templateRepository.findMetadataById(4711L)).thenReturn(
+                new TemplateMetadataBean(4711L, "TEST", "TEST_D", ReportType.BUDGET_REPORT, false, 1L, "hash2"));
+        Assertions.assertNotNull(templateService.getById(4711L).getWb());
+        Mockito.verify(attachmentStore, times(1)).open("hash2");
+    }
+
+    @Test
+    void getByIdFailsForInvalidWorkbookTest() throws IOException {
+        byte[] workbook = IOUtils.toByteArray(getClass().getResourceAsStream("exampleTemplate1.xlsx"));
+        Mockito.when(templateRepository.findMetadataById(4712L)).thenReturn(
+                new TemplateMetadataBean(4712L, "TEST", "TEST_D", ReportType.BUDGET_REPORT, false, 1L, "hash3"));
+        Mockito.when(attachmentStore.open("hash3")).thenAnswer(invocation -> new ByteArrayInputStream("no workbook".getBytes(StandardCharsets.UTF_8)))
+                .thenAnswer(invocation -> new ByteArrayInputStream(workbook));
+        workbookCache.evict(4712L);
+
+        Assertions.assertThrows(UncheckedIOException.class, () -> templateService.getById(4712L));
+        // the invalid content is not cached, the next request reads the template again
+        Assertions.assertNotNull(templateService.getById(4712L).getWb());
+        Mockito.verify(attachmentStore, times(2)).open("hash3");
+    }
+
     @Test
     void getExampleFileTest(){
         try {